@@ -0,0 +1,18 @@
+package com.coderodde.apij.benchmark;
+
+/**
+ * This class holds the settings shared by the benchmarks.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+final class Benchmarks {
+
+    /**
+     * The seed of all the random data, so that every run measures the same
+     * inputs.
+     */
+    static final long SEED = 313L;
+
+    private Benchmarks() {}
+}
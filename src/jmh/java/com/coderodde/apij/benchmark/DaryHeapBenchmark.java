@@ -0,0 +1,79 @@
+package com.coderodde.apij.benchmark;
+
+import com.coderodde.apij.ds.pq.support.DaryHeap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks {@link DaryHeap} by degree. An operation adds
+ * <code>size</code> elements, decreases the priority of every other element
+ * and extracts all the elements, which is the access pattern of Dijkstra's
+ * algorithm.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaryHeapBenchmark {
+
+    @Param({"2", "3", "4", "8"})
+    public int degree;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private Integer[] elements;
+    private Double[] priorities;
+    private Double[] decreasedPriorities;
+
+    @Setup
+    public void setUp() {
+        final Random r = new Random(Benchmarks.SEED);
+        elements = new Integer[size];
+        priorities = new Double[size];
+        decreasedPriorities = new Double[size];
+
+        for (int i = 0; i < size; ++i) {
+            elements[i] = i;
+            priorities[i] = r.nextDouble();
+            decreasedPriorities[i] = priorities[i] * r.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public int addDecreaseExtract() {
+        final DaryHeap<Integer, Double> heap = new DaryHeap<>(degree, size);
+
+        for (int i = 0; i < size; ++i) {
+            heap.add(elements[i], priorities[i]);
+        }
+
+        for (int i = 0; i < size; i += 2) {
+            heap.decreasePriority(elements[i], decreasedPriorities[i]);
+        }
+
+        int checksum = 0;
+
+        while (heap.isEmpty() == false) {
+            checksum = 31 * checksum + heap.extractMinimum();
+        }
+
+        return checksum;
+    }
+}
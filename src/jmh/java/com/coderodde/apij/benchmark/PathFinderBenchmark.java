@@ -0,0 +1,184 @@
+package com.coderodde.apij.benchmark;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.HeuristicFunction;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder
+              .withBackwardHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withCompactGraph;
+import static com.coderodde.apij.graph.path.PathFinder.withHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.WeightlessPathFinder;
+import com.coderodde.apij.graph.path.ch.ContractionHierarchy;
+import com.coderodde.apij.graph.path.ch.ContractionHierarchyFinder;
+import com.coderodde.apij.graph.path.support.AStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalAStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalDijkstraFinder;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.graph.path.support.EuclidianHeuristicFunction;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the path finders on random directed geometric graphs
+ * of about eight arcs per node. An operation answers one query of a fixed
+ * list of random queries, cycling through the list. If <code>compact</code>
+ * is set, the finders search a {@link CompactGraph} snapshot instead of the
+ * node objects; the contraction hierarchy always searches its own snapshot
+ * and is preprocessed once per trial.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PathFinderBenchmark {
+
+    /**
+     * The amount of distinct queries.
+     */
+    private static final int QUERIES = 256;
+
+    /**
+     * The average amount of arcs per node.
+     */
+    private static final float ARCS_PER_NODE = 8.0f;
+
+    private static final double WIDTH = 100.0;
+    private static final double HEIGHT = 100.0;
+    private static final double MAX_ARC_LENGTH = 10.0;
+
+    @Param({"Dijkstra",
+            "AStar",
+            "BidirectionalDijkstra",
+            "BidirectionalAStar",
+            "Weightless",
+            "BidirectionalWeightless",
+            "ContractionHierarchy"})
+    public String finder;
+
+    @Param({"1000", "10000", "50000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private PathFinder<DirectedGraphNode> pathFinder;
+    private WeightFunction<DirectedGraphNode> wf;
+    private HeuristicFunction<DirectedGraphNode> hf;
+    private HeuristicFunction<DirectedGraphNode> hb;
+    private CompactGraph<DirectedGraphNode> compactGraph;
+    private DirectedGraphNode[] sources;
+    private DirectedGraphNode[] targets;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        final Random r = new Random(Benchmarks.SEED);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G" + size,
+                                       size,
+                                       ARCS_PER_NODE / size,
+                                       WIDTH,
+                                       HEIGHT,
+                                       MAX_ARC_LENGTH,
+                                       r);
+        wf = data.second;
+        hf = new EuclidianHeuristicFunction<>(data.third);
+        hb = new EuclidianHeuristicFunction<>(data.third);
+        compactGraph = new CompactGraph<>(data.first, wf);
+
+        switch (finder) {
+            case "Dijkstra":
+                pathFinder = new DijkstraFinder<>();
+                break;
+
+            case "AStar":
+                pathFinder = new AStarFinder<>();
+                break;
+
+            case "BidirectionalDijkstra":
+                pathFinder = new BidirectionalDijkstraFinder<>();
+                break;
+
+            case "BidirectionalAStar":
+                pathFinder = new BidirectionalAStarFinder<>();
+                break;
+
+            case "Weightless":
+                pathFinder = new WeightlessPathFinder<>(false);
+                break;
+
+            case "BidirectionalWeightless":
+                pathFinder = new WeightlessPathFinder<>(true);
+                break;
+
+            case "ContractionHierarchy":
+                pathFinder = new ContractionHierarchyFinder<>(
+                        new ContractionHierarchy<>(compactGraph));
+                break;
+
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown finder: " + finder + ".");
+        }
+
+        final List<DirectedGraphNode> nodes =
+                new ArrayList<>(data.first.view());
+        sources = new DirectedGraphNode[QUERIES];
+        targets = new DirectedGraphNode[QUERIES];
+
+        for (int i = 0; i < QUERIES; ++i) {
+            sources[i] = nodes.get(r.nextInt(nodes.size()));
+            targets[i] = nodes.get(r.nextInt(nodes.size()));
+        }
+    }
+
+    @Benchmark
+    public Path<DirectedGraphNode> search() {
+        final int i = query;
+        query = (query + 1) % QUERIES;
+
+        if (compact) {
+            return pathFinder.search(from(sources[i]),
+                                     to(targets[i]),
+                                     withHeuristicFunction(hf),
+                                     withBackwardHeuristicFunction(hb),
+                                     withCompactGraph(compactGraph));
+        }
+
+        return pathFinder.search(from(sources[i]),
+                                 to(targets[i]),
+                                 withWeightFunction(wf),
+                                 withHeuristicFunction(hf),
+                                 withBackwardHeuristicFunction(hb));
+    }
+}
@@ -0,0 +1,183 @@
+package com.coderodde.apij.benchmark;
+
+import com.coderodde.apij.ds.pq.PriorityQueue;
+import com.coderodde.apij.ds.pq.support.DaryHeap;
+import com.coderodde.apij.ds.pq.support.FibonacciHeap;
+import com.coderodde.apij.ds.pq.support.PairingHeap;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.HeuristicFunction;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder
+              .withBackwardHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.AStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalAStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalDijkstraFinder;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.graph.path.support.EuclidianHeuristicFunction;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class compares the priority queues on real search workloads: the
+ * Dijkstra, A* and bidirectional finders keep their open sets in the heap
+ * named by <code>heap</code> and search the node objects of the same random
+ * directed geometric graphs as {@link PathFinderBenchmark}. The compact
+ * searches use their own integer heaps and are thus not measured here.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PathFinderHeapBenchmark {
+
+    /**
+     * The amount of distinct queries.
+     */
+    private static final int QUERIES = 256;
+
+    /**
+     * The average amount of arcs per node.
+     */
+    private static final float ARCS_PER_NODE = 8.0f;
+
+    private static final double WIDTH = 100.0;
+    private static final double HEIGHT = 100.0;
+    private static final double MAX_ARC_LENGTH = 10.0;
+
+    @Param({"Dijkstra",
+            "AStar",
+            "BidirectionalDijkstra",
+            "BidirectionalAStar"})
+    public String finder;
+
+    @Param({"DaryHeap2",
+            "DaryHeap4",
+            "DaryHeap8",
+            "PairingHeap",
+            "FibonacciHeap"})
+    public String heap;
+
+    @Param({"10000"})
+    public int size;
+
+    private PathFinder<DirectedGraphNode> pathFinder;
+    private WeightFunction<DirectedGraphNode> wf;
+    private HeuristicFunction<DirectedGraphNode> hf;
+    private HeuristicFunction<DirectedGraphNode> hb;
+    private DirectedGraphNode[] sources;
+    private DirectedGraphNode[] targets;
+    private int query;
+
+    @Setup
+    public void setUp() {
+        final Random r = new Random(Benchmarks.SEED);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G" + size,
+                                       size,
+                                       ARCS_PER_NODE / size,
+                                       WIDTH,
+                                       HEIGHT,
+                                       MAX_ARC_LENGTH,
+                                       r);
+        wf = data.second;
+        hf = new EuclidianHeuristicFunction<>(data.third);
+        hb = new EuclidianHeuristicFunction<>(data.third);
+
+        switch (finder) {
+            case "Dijkstra":
+                pathFinder = new DijkstraFinder<>(newHeap());
+                break;
+
+            case "AStar":
+                pathFinder = new AStarFinder<>(newHeap());
+                break;
+
+            case "BidirectionalDijkstra":
+                pathFinder = new BidirectionalDijkstraFinder<>(newHeap());
+                break;
+
+            case "BidirectionalAStar":
+                pathFinder = new BidirectionalAStarFinder<>(newHeap());
+                break;
+
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown finder: " + finder + ".");
+        }
+
+        final List<DirectedGraphNode> nodes =
+                new ArrayList<>(data.first.view());
+        sources = new DirectedGraphNode[QUERIES];
+        targets = new DirectedGraphNode[QUERIES];
+
+        for (int i = 0; i < QUERIES; ++i) {
+            sources[i] = nodes.get(r.nextInt(nodes.size()));
+            targets[i] = nodes.get(r.nextInt(nodes.size()));
+        }
+    }
+
+    private PriorityQueue<DirectedGraphNode, Double> newHeap() {
+        switch (heap) {
+            case "DaryHeap2":
+                return new DaryHeap<>(2);
+
+            case "DaryHeap4":
+                return new DaryHeap<>(4);
+
+            case "DaryHeap8":
+                return new DaryHeap<>(8);
+
+            case "PairingHeap":
+                return new PairingHeap<>();
+
+            case "FibonacciHeap":
+                return new FibonacciHeap<>();
+
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown heap: " + heap + ".");
+        }
+    }
+
+    @Benchmark
+    public Path<DirectedGraphNode> search() {
+        final int i = query;
+        query = (query + 1) % QUERIES;
+
+        return pathFinder.search(from(sources[i]),
+                                 to(targets[i]),
+                                 withWeightFunction(wf),
+                                 withHeuristicFunction(hf),
+                                 withBackwardHeuristicFunction(hb));
+    }
+}
@@ -0,0 +1,129 @@
+package com.coderodde.apij.benchmark;
+
+import com.coderodde.apij.sort.ParallelRadixSort;
+import com.coderodde.apij.sort.ParallelRadixSort.Entry;
+import com.coderodde.apij.sort.ParallelRadixSort.Strategy;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class benchmarks the variants of {@link ParallelRadixSort}: the
+ * {@link Entry} sort, the in-place <code>long[]</code> sort and the
+ * key/payload index sort by both strategies, with
+ * <code>Arrays.sort(long[])</code> as the baseline. The
+ * <code>keyBits</code> parameter is the amount of random low bits in the
+ * non-negative keys.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RadixSortBenchmark {
+
+    @Param({"Entry", 
+            "long[] LSD", 
+            "long[] MSD", 
+            "keys/index LSD", 
+            "keys/index MSD", 
+            "Arrays.sort"})
+    public String variant;
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    @Param({"20", "63"})
+    public int keyBits;
+
+    private long[] input;
+    private long[] keys;
+    private int[] payloadIndex;
+    private Entry[] inputEntries;
+    private Entry[] entries;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        final Random r = new Random(Benchmarks.SEED);
+        input = new long[size];
+
+        for (int i = 0; i < size; ++i) {
+            input[i] = r.nextLong() >>> (64 - keyBits);
+        }
+
+        if (variant.equals("Entry")) {
+            inputEntries = new Entry[size];
+
+            for (int i = 0; i < size; ++i) {
+                inputEntries[i] = new Entry(input[i], null);
+            }
+        }
+
+        keys = new long[size];
+        payloadIndex = new int[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        if (inputEntries != null) {
+            entries = inputEntries.clone();
+            return;
+        }
+
+        System.arraycopy(input, 0, keys, 0, size);
+
+        for (int i = 0; i < size; ++i) {
+            payloadIndex[i] = i;
+        }
+    }
+
+    @Benchmark
+    public void sort(final Blackhole blackhole) {
+        switch (variant) {
+            case "Entry":
+                ParallelRadixSort.sort(entries);
+                blackhole.consume(entries);
+                return;
+
+            case "long[] LSD":
+                ParallelRadixSort.sort(keys, Strategy.LSD, true);
+                break;
+
+            case "long[] MSD":
+                ParallelRadixSort.sort(keys, Strategy.MSD, true);
+                break;
+
+            case "keys/index LSD":
+                ParallelRadixSort.sort(keys, payloadIndex, Strategy.LSD, true);
+                break;
+
+            case "keys/index MSD":
+                ParallelRadixSort.sort(keys, payloadIndex, Strategy.MSD, true);
+                break;
+
+            default:
+                Arrays.sort(keys);
+                break;
+        }
+
+        blackhole.consume(keys);
+        blackhole.consume(payloadIndex);
+    }
+}
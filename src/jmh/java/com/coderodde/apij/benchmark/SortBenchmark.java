@@ -0,0 +1,106 @@
+package com.coderodde.apij.benchmark;
+
+import com.coderodde.apij.sort.Sort;
+import com.coderodde.apij.sort.support.BottomUpMergesort;
+import com.coderodde.apij.sort.support.ObjectCountingSort;
+import com.coderodde.apij.sort.support.ParallelMergesort;
+import static com.coderodde.apij.util.Utils.getRandomIntegerArray;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the {@link Sort} implementations on arrays of
+ * <code>Integer</code>s, with <code>Arrays.sort</code> as the baseline. The
+ * <code>distinct</code> parameter bounds the amount of distinct values, which
+ * matters to {@link ObjectCountingSort}.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"BottomUpMergesort", 
+            "ParallelMergesort", 
+            "ObjectCountingSort", 
+            "Arrays.sort"})
+    public String sort;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"1000", "1000000000"})
+    public int distinct;
+
+    private static final Comparator<Integer> CMP = new Comparator<Integer>() {
+        @Override
+        public int compare(final Integer i1, final Integer i2) {
+            return Integer.compare(i1, i2);
+        }
+    };
+
+    private Sort implementation;
+    private Integer[] input;
+    private Integer[] array;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        switch (sort) {
+            case "BottomUpMergesort":
+                implementation = new BottomUpMergesort();
+                break;
+
+            case "ParallelMergesort":
+                implementation = new ParallelMergesort();
+                break;
+
+            case "ObjectCountingSort":
+                implementation = new ObjectCountingSort();
+                break;
+
+            default:
+                implementation = null;
+                break;
+        }
+
+        input = getRandomIntegerArray(size, 
+                                      0, 
+                                      distinct - 1, 
+                                      new Random(Benchmarks.SEED));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        array = input.clone();
+    }
+
+    @Benchmark
+    public Integer[] sort() {
+        if (implementation == null) {
+            Arrays.sort(array, CMP);
+        } else {
+            implementation.sort(array, CMP);
+        }
+
+        return array;
+    }
+}
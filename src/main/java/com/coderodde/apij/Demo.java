@@ -6,6 +6,7 @@ import com.coderodde.apij.graph.model.support.DirectedGraphNode;
 import com.coderodde.apij.graph.path.Layout;
 import com.coderodde.apij.graph.path.Path;
 import com.coderodde.apij.graph.path.PathFinder;
+import com.coderodde.apij.graph.path.SpatialIndex;
 import static com.coderodde.apij.graph.path.PathFinder.from;
 import static com.coderodde.apij.graph.path.PathFinder.to;
 import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
@@ -19,12 +20,10 @@ import static com.coderodde.apij.util.Utils.INDEX_NOT_FOUND;
 import com.coderodde.apij.util.Utils.Triple;
 import static com.coderodde.apij.util.Utils.findIndexOf;
 import static com.coderodde.apij.util.Utils.findMaximum;
-import static com.coderodde.apij.util.Utils.getClosestNodeTo;
 import static com.coderodde.apij.util.Utils.getRandomIntegerArray;
 import static com.coderodde.apij.util.Utils.pathsAreSame;
 import static com.coderodde.apij.util.Utils.title;
 import static com.coderodde.apij.util.Utils.title2;
-import java.awt.geom.Point2D;
 import java.util.Random;
 
 
@@ -69,15 +68,11 @@ public class Demo {
         System.out.println("Created a random directed graph in " + (tb - ta) +
                            " ms.");
          
-        final DirectedGraphNode source = getClosestNodeTo(
-                                            new Point2D.Double(0, 0), 
-                                            data.first,
-                                            data.third);
+        final SpatialIndex<DirectedGraphNode> index = 
+                new SpatialIndex<>(data.first, data.third);
         
-        final DirectedGraphNode target = getClosestNodeTo(
-                                            new Point2D.Double(WIDTH, HEIGHT),
-                                            data.first,
-                                            data.third);
+        final DirectedGraphNode source = index.nearest(0.0, 0.0);
+        final DirectedGraphNode target = index.nearest(WIDTH, HEIGHT);
         
         ta = System.currentTimeMillis();
         PathFinder<DirectedGraphNode> finder = new DijkstraFinder<>();
@@ -122,9 +117,7 @@ public class Demo {
         
         ta = System.currentTimeMillis();
         
-        Path<DirectedGraphNode> path3 = afs.search(source,
-                                                   target,
-                                                   data.second);
+        Path<DirectedGraphNode> path3 = afs.search(source, target);
         
         tb = System.currentTimeMillis();
         
@@ -141,9 +134,7 @@ public class Demo {
         
         ta = System.currentTimeMillis();
         
-        Path<DirectedGraphNode> path4 = afs2.search(source,
-                                                    target,
-                                                    data.second);
+        Path<DirectedGraphNode> path4 = afs2.search(source, target);
         
         tb = System.currentTimeMillis();
         
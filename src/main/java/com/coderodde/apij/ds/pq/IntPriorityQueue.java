@@ -0,0 +1,33 @@
+package com.coderodde.apij.ds.pq;
+
+/**
+ * This interface defines the API for priority queues specialized to 
+ * <code>int</code> elements and <code>double</code> priorities. The elements
+ * are expected to be small non-negative integers such as node ids, so that an
+ * implementation may index arrays by them.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public interface IntPriorityQueue {
+    
+    public void add(final int element, final double priority);
+    
+    public void decreasePriority(final int element, final double newPriority);
+    
+    public int min();
+    
+    public double getPriorityOf(final int element);
+    
+    public boolean contains(final int element);
+    
+    public int extractMinimum();
+    
+    public void clear();
+    
+    public int size();
+    
+    public boolean isEmpty();
+    
+    public IntPriorityQueue spawn();
+}
@@ -0,0 +1,374 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.PriorityQueue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a Fibonacci heap. The heap is a list of trees whose
+ * roots, as well as the children of every node, form circular doubly-linked
+ * lists. Adding an element and decreasing a priority take constant amortized
+ * time: a decreased node is cut to the root list, and a node losing its
+ * second child is cut as well (cascading cuts). Extracting the minimum moves
+ * the children of the minimum to the root list and then links the roots of
+ * equal degree until all degrees differ, which takes <tt>O(log n)</tt>
+ * amortized time.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ *
+ * @param <T> the element type.
+ * @param <P> the priority key type, must be <code>Comparable</code>.
+ */
+public class FibonacciHeap<T, P extends Comparable<? super P>>
+implements PriorityQueue<T, P> {
+
+    /**
+     * A tree node holding an element.
+     *
+     * @param <T> the element type.
+     * @param <P> the priority key type.
+     */
+    private static final class Node<T, P> {
+
+        /**
+         * The element.
+         */
+        T element;
+
+        /**
+         * The priority of the element.
+         */
+        P priority;
+
+        /**
+         * The parent node, or <code>null</code> for a root.
+         */
+        Node<T, P> parent;
+
+        /**
+         * Any child of this node.
+         */
+        Node<T, P> child;
+
+        /**
+         * The left sibling.
+         */
+        Node<T, P> left = this;
+
+        /**
+         * The right sibling.
+         */
+        Node<T, P> right = this;
+
+        /**
+         * The amount of children.
+         */
+        int degree;
+
+        /**
+         * Whether this node lost a child since it became a child itself.
+         */
+        boolean marked;
+    }
+
+    /**
+     * The root with the minimum priority.
+     */
+    private Node<T, P> minimum;
+
+    /**
+     * Maps the elements to their nodes.
+     */
+    private final Map<T, Node<T, P>> map;
+
+    /**
+     * Maps a degree to a root of that degree during consolidation.
+     */
+    private Object[] degreeTable;
+
+    /**
+     * Constructs an empty Fibonacci heap.
+     */
+    public FibonacciHeap() {
+        this.map = new HashMap<>();
+        this.degreeTable = new Object[32];
+    }
+
+    /**
+     * Adds an element to this heap if it is not already there.
+     *
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     */
+    @Override
+    public void add(final T element, final P priority) {
+        if (map.containsKey(element)) {
+            return;
+        }
+
+        final Node<T, P> node = new Node<>();
+        node.element = element;
+        node.priority = priority;
+        map.put(element, node);
+        addRoot(node);
+    }
+
+    /**
+     * Decreases the priority of an element. Does nothing if the element is
+     * not in this heap or if <code>newPriority</code> is not smaller than the
+     * current priority.
+     *
+     * @param element the element whose priority to decrease.
+     * @param newPriority the new priority.
+     */
+    @Override
+    public void decreasePriority(final T element, final P newPriority) {
+        final Node<T, P> node = map.get(element);
+
+        if (node == null || node.priority.compareTo(newPriority) <= 0) {
+            return;
+        }
+
+        node.priority = newPriority;
+
+        Node<T, P> parent = node.parent;
+
+        if (parent != null && node.priority.compareTo(parent.priority) < 0) {
+            cut(node, parent);
+
+            // Cascading cuts.
+            while (parent.parent != null) {
+                if (parent.marked == false) {
+                    parent.marked = true;
+                    break;
+                }
+
+                final Node<T, P> grandparent = parent.parent;
+                cut(parent, grandparent);
+                parent = grandparent;
+            }
+        }
+
+        if (node.priority.compareTo(minimum.priority) < 0) {
+            minimum = node;
+        }
+    }
+
+    /**
+     * Returns but does not remove the minimum element.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T min() {
+        checkNotEmpty();
+        return minimum.element;
+    }
+
+    @Override
+    public P getPriorityOf(final T element) {
+        final Node<T, P> node = map.get(element);
+
+        if (node == null) {
+            throw new NoSuchElementException(
+                    "No element '" + element + "' in this heap.");
+        }
+
+        return node.priority;
+    }
+
+    /**
+     * Returns and removes the minimum element.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T extractMinimum() {
+        checkNotEmpty();
+        final Node<T, P> z = minimum;
+        map.remove(z.element);
+
+        // Move the children of 'z' to the root list.
+        Node<T, P> child = z.child;
+
+        for (int i = 0; i < z.degree; ++i) {
+            final Node<T, P> next = child.right;
+            child.parent = null;
+            child.marked = false;
+            child.left = child.right = child;
+            splice(z, child);
+            child = next;
+        }
+
+        z.left.right = z.right;
+        z.right.left = z.left;
+
+        if (z.right == z) {
+            minimum = null;
+        } else {
+            minimum = z.right;
+            consolidate();
+        }
+
+        return z.element;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        minimum = null;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return minimum == null;
+    }
+
+    /**
+     * Spawns a new empty Fibonacci heap.
+     *
+     * @return a new empty heap.
+     */
+    @Override
+    public FibonacciHeap<T, P> spawn() {
+        return new FibonacciHeap<>();
+    }
+
+    /**
+     * Links the roots of equal degree until all root degrees differ, and
+     * finds the new minimum.
+     */
+    private void consolidate() {
+        int maxDegree = 0;
+        Node<T, P> root = minimum;
+
+        // Detach the root list so that linking does not disturb the walk.
+        minimum.left.right = null;
+
+        while (root != null) {
+            Node<T, P> x = root;
+            root = root.right;
+            x.left = x.right = x;
+
+            int d = x.degree;
+
+            while (d < degreeTable.length && degreeTable[d] != null) {
+                Node<T, P> y = (Node<T, P>) degreeTable[d];
+
+                if (y.priority.compareTo(x.priority) < 0) {
+                    final Node<T, P> tmp = x;
+                    x = y;
+                    y = tmp;
+                }
+
+                // Make 'y' a child of 'x'.
+                y.parent = x;
+                y.marked = false;
+
+                if (x.child == null) {
+                    x.child = y;
+                } else {
+                    splice(x.child, y);
+                }
+
+                ++x.degree;
+                degreeTable[d++] = null;
+            }
+
+            if (d >= degreeTable.length) {
+                degreeTable = Arrays.copyOf(degreeTable, 2 * d);
+            }
+
+            degreeTable[d] = x;
+            maxDegree = Math.max(maxDegree, d);
+        }
+
+        minimum = null;
+
+        for (int d = 0; d <= maxDegree; ++d) {
+            final Node<T, P> x = (Node<T, P>) degreeTable[d];
+
+            if (x != null) {
+                degreeTable[d] = null;
+                addRoot(x);
+            }
+        }
+    }
+
+    /**
+     * Adds a node with no siblings to the root list.
+     *
+     * @param node the node to add.
+     */
+    private void addRoot(final Node<T, P> node) {
+        if (minimum == null) {
+            node.left = node.right = node;
+            minimum = node;
+            return;
+        }
+
+        splice(minimum, node);
+
+        if (node.priority.compareTo(minimum.priority) < 0) {
+            minimum = node;
+        }
+    }
+
+    /**
+     * Cuts <code>node</code> from its parent <code>parent</code> and adds it
+     * to the root list.
+     */
+    private void cut(final Node<T, P> node, final Node<T, P> parent) {
+        if (node.right == node) {
+            parent.child = null;
+        } else {
+            node.left.right = node.right;
+            node.right.left = node.left;
+
+            if (parent.child == node) {
+                parent.child = node.right;
+            }
+        }
+
+        --parent.degree;
+        node.parent = null;
+        node.marked = false;
+        node.left = node.right = node;
+        splice(minimum, node);
+    }
+
+    /**
+     * Inserts the single node <code>node</code> to the right of
+     * <code>position</code> in its circular list.
+     */
+    private static <T, P> void splice(final Node<T, P> position,
+                                      final Node<T, P> node) {
+        node.left = position;
+        node.right = position.right;
+        position.right.left = node;
+        position.right = node;
+    }
+
+    /**
+     * Checks whether this heap is not empty.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (minimum == null) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+}
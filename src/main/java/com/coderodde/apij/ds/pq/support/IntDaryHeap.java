@@ -0,0 +1,359 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements an indexed d-ary heap over <code>int</code> elements
+ * with <code>double</code> priorities. Unlike {@link DaryHeap}, it keeps the
+ * elements and the priorities in primitive arrays and locates an element in 
+ * the heap through a position array indexed by the element, so no operation
+ * allocates once the arrays have grown to their working size.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntDaryHeap implements IntPriorityQueue {
+    
+    /**
+     * The minimum capacity of this heap.
+     */
+    private static final int MINIMUM_CAPACITY = 16;
+    
+    /**
+     * The default capacity of this heap.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    /**
+     * The default degree of this heap.
+     */
+    private static final int DEFAULT_DEGREE = 2;
+    
+    /**
+     * Marks an element that is not in this heap.
+     */
+    private static final int ABSENT = -1;
+    
+    /**
+     * The degree of this heap.
+     */
+    private final int d;
+    
+    /**
+     * <code>elements[i]</code> is the element at heap index <code>i</code>.
+     */
+    private int[] elements;
+    
+    /**
+     * <code>priorities[i]</code> is the priority of the element at heap index
+     * <code>i</code>.
+     */
+    private double[] priorities;
+    
+    /**
+     * <code>positions[e]</code> is the heap index of the element 
+     * <code>e</code>, or <code>ABSENT</code>.
+     */
+    private int[] positions;
+    
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+    
+    /**
+     * Constructs a new heap with given degree <code>d</code> and
+     * <code>capacity</code>. The capacity is the initial exclusive upper bound
+     * of the elements; the heap grows on demand.
+     * 
+     * @param d the degree (branching factor) of this heap.
+     * @param capacity the initial capacity.
+     */
+    public IntDaryHeap(final int d, final int capacity) {
+        checkD(d);
+        checkCapacity(capacity);
+        this.d = d;
+        this.elements = new int[capacity];
+        this.priorities = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+    
+    /**
+     * Constructs a new heap with given degree and default capacity.
+     * 
+     * @param d the degree of newly constructed heap.
+     */
+    public IntDaryHeap(final int d) {
+        this(d, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructs a heap with default parameters.
+     */
+    public IntDaryHeap() {
+        this(DEFAULT_DEGREE, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Adds an element to this heap if it is not already there.
+     * 
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     */
+    @Override
+    public void add(final int element, final double priority) {
+        if (element >= positions.length) {
+            expandPositions(element);
+        } else if (positions[element] != ABSENT) {
+            return;
+        }
+        
+        if (size == elements.length) {
+            final int newCapacity = 3 * size / 2;
+            elements = Arrays.copyOf(elements, newCapacity);
+            priorities = Arrays.copyOf(priorities, newCapacity);
+        }
+        
+        siftUp(size++, element, priority);
+    }
+    
+    /**
+     * Decreases the priority of an element. Does nothing if the element is
+     * not in this heap or if <code>newPriority</code> is not smaller than the
+     * current priority.
+     * 
+     * @param element the element whose priority to decrease.
+     * @param newPriority the new priority.
+     */
+    @Override
+    public void decreasePriority(final int element, final double newPriority) {
+        if (contains(element) == false) {
+            return;
+        }
+        
+        final int index = positions[element];
+        
+        if (priorities[index] <= newPriority) {
+            return;
+        }
+        
+        siftUp(index, element, newPriority);
+    }
+    
+    /**
+     * Returns but does not remove the root element.
+     * 
+     * @return the root element of this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int min() {
+        checkNotEmpty();
+        return elements[0];
+    }
+    
+    @Override
+    public double getPriorityOf(final int element) {
+        if (contains(element) == false) {
+            throw new NoSuchElementException(
+                    "No element '" + element + "' in this heap.");
+        }
+        
+        return priorities[positions[element]];
+    }
+    
+    @Override
+    public boolean contains(final int element) {
+        return element >= 0 
+                && element < positions.length 
+                && positions[element] != ABSENT;
+    }
+    
+    /**
+     * Returns and removes the root element.
+     * 
+     * @return the root element of this heap.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int extractMinimum() {
+        checkNotEmpty();
+        final int ret = elements[0];
+        positions[ret] = ABSENT;
+        
+        if (--size != 0) {
+            siftDown(0, elements[size], priorities[size]);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Removes all the elements from this heap in time proportional to the
+     * amount of elements.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i != size; ++i) {
+            positions[elements[i]] = ABSENT;
+        }
+        
+        size = 0;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Returns the branching factor (degree) of this heap.
+     * 
+     * @return the degree of this heap.
+     */
+    public int getDegree() {
+        return d;
+    }
+    
+    /**
+     * Spawns a new empty heap with the same implementation.
+     * 
+     * @return a new empty heap.
+     */
+    @Override
+    public IntDaryHeap spawn() {
+        return new IntDaryHeap(d, positions.length);
+    }
+    
+    /**
+     * Places <code>element</code> with priority <code>priority</code> at 
+     * <code>index</code> or above it so that the heap invariant holds.
+     * 
+     * @param index the vacant heap index to start from.
+     * @param element the element to place.
+     * @param priority the priority of the element.
+     */
+    private void siftUp(int index, final int element, final double priority) {
+        while (index > 0) {
+            final int parentIndex = (index - 1) / d;
+            
+            if (priorities[parentIndex] <= priority) {
+                break;
+            }
+            
+            elements[index] = elements[parentIndex];
+            priorities[index] = priorities[parentIndex];
+            positions[elements[index]] = index;
+            index = parentIndex;
+        }
+        
+        elements[index] = element;
+        priorities[index] = priority;
+        positions[element] = index;
+    }
+    
+    /**
+     * Places <code>element</code> with priority <code>priority</code> at 
+     * <code>index</code> or below it so that the heap invariant holds.
+     * 
+     * @param index the vacant heap index to start from.
+     * @param element the element to place.
+     * @param priority the priority of the element.
+     */
+    private void siftDown(int index, 
+                          final int element, 
+                          final double priority) {
+        for (;;) {
+            final int firstChildIndex = d * index + 1;
+            
+            if (firstChildIndex >= size) {
+                break;
+            }
+            
+            final int bound = Math.min(firstChildIndex + d, size);
+            int minChildIndex = firstChildIndex;
+            double minChildPriority = priorities[firstChildIndex];
+            
+            for (int i = firstChildIndex + 1; i < bound; ++i) {
+                if (priorities[i] < minChildPriority) {
+                    minChildPriority = priorities[i];
+                    minChildIndex = i;
+                }
+            }
+            
+            if (minChildPriority >= priority) {
+                break;
+            }
+            
+            elements[index] = elements[minChildIndex];
+            priorities[index] = minChildPriority;
+            positions[elements[index]] = index;
+            index = minChildIndex;
+        }
+        
+        elements[index] = element;
+        priorities[index] = priority;
+        positions[element] = index;
+    }
+    
+    /**
+     * Expands the position array so that it can hold <code>element</code>.
+     * 
+     * @param element the element that must fit.
+     */
+    private void expandPositions(final int element) {
+        final int oldLength = positions.length;
+        positions = Arrays.copyOf(positions, 
+                                  Math.max(element + 1, 3 * oldLength / 2));
+        Arrays.fill(positions, oldLength, positions.length, ABSENT);
+    }
+    
+    /**
+     * Checks the sanity of degree <code>d</code>
+     * 
+     * @param d the degree to check.
+     * 
+     * @throws IllegalArgumentException if degree is invalid.
+     */
+    private void checkD(final int d) {
+        if (d < 2) {
+            throw new IllegalArgumentException("Degree is less than 2.");
+        }
+    }
+    
+    /**
+     * Checks the sanity of capacity.
+     * 
+     * @param capacity capacity to check.
+     * 
+     * @throws IllegalArgumentException if capacity if invalid.
+     */
+    private void checkCapacity(final int capacity) {
+        if (capacity < MINIMUM_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Capacity (" + capacity + ") is below the minimum (" +
+                    MINIMUM_CAPACITY + ").");
+        }
+    }
+    
+    /**
+     * Checks whether this heap is not empty.
+     * 
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements Dial's bucket queue over <code>int</code> elements
+ * with non-negative integral priorities. The queue is <i>monotone</i>: the
+ * priority of an added element may not be below the priority of the last
+ * extracted element, nor exceed it by more than <code>maxSpread</code>, the
+ * largest arc weight in a shortest path search. Under these conditions the
+ * queue needs only <tt>maxSpread + 1</tt> buckets used circularly, since at
+ * any time the bucket of a priority <code>p</code> holds the elements of that
+ * very priority only.
+ * <p>
+ * Every operation but {@link #min()} and {@link #extractMinimum()} runs in
+ * constant time; those two advance a cursor over the empty buckets, which
+ * amounts to <tt>O(maxSpread)</tt> in the worst case and to the length of the
+ * shortest path over a whole search. The buckets are doubly-linked lists
+ * threaded through arrays indexed by the elements, so no operation allocates
+ * once the arrays have grown to their working size.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntDialHeap implements IntPriorityQueue {
+
+    /**
+     * The default capacity of this heap.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Marks an element that is not in this heap, and the end of a bucket.
+     */
+    private static final int ABSENT = -1;
+
+    /**
+     * The largest allowed difference between two priorities in this heap.
+     */
+    private final int maxSpread;
+
+    /**
+     * <code>heads[b]</code> is the first element of the bucket <code>b</code>,
+     * or <code>ABSENT</code>.
+     */
+    private final int[] heads;
+
+    /**
+     * <code>next[e]</code> is the element after <code>e</code> in its bucket.
+     */
+    private int[] next;
+
+    /**
+     * <code>prev[e]</code> is the element before <code>e</code> in its bucket.
+     */
+    private int[] prev;
+
+    /**
+     * <code>buckets[e]</code> is the bucket of the element <code>e</code>, or
+     * <code>ABSENT</code>.
+     */
+    private int[] buckets;
+
+    /**
+     * <code>keys[e]</code> is the priority of the element <code>e</code>.
+     */
+    private long[] keys;
+
+    /**
+     * No element in this heap has a priority below this.
+     */
+    private long cursor;
+
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+
+    /**
+     * Constructs a new heap for priorities spread over at most
+     * <code>maxSpread</code>.
+     *
+     * @param maxSpread the largest difference between two priorities.
+     * @param capacity the initial exclusive upper bound of the elements.
+     */
+    public IntDialHeap(final int maxSpread, final int capacity) {
+        if (maxSpread < 0 || maxSpread == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Bad maximum spread: " + maxSpread + ".");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                    "Capacity (" + capacity + ") is below 1.");
+        }
+
+        this.maxSpread = maxSpread;
+        this.heads = new int[maxSpread + 1];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.buckets = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(heads, ABSENT);
+        Arrays.fill(buckets, ABSENT);
+    }
+
+    /**
+     * Constructs a new heap with default capacity.
+     *
+     * @param maxSpread the largest difference between two priorities.
+     */
+    public IntDialHeap(final int maxSpread) {
+        this(maxSpread, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Adds an element to this heap if it is not already there.
+     *
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     *
+     * @throws IllegalArgumentException if <code>priority</code> is not
+     * integral or out of the range of this heap.
+     */
+    @Override
+    public void add(final int element, final double priority) {
+        if (element >= buckets.length) {
+            expand(element);
+        } else if (buckets[element] != ABSENT) {
+            return;
+        }
+
+        link(element, toKey(priority));
+        ++size;
+    }
+
+    /**
+     * Decreases the priority of an element. Does nothing if the element is
+     * not in this heap or if <code>newPriority</code> is not smaller than the
+     * current priority.
+     *
+     * @param element the element whose priority to decrease.
+     * @param newPriority the new priority.
+     */
+    @Override
+    public void decreasePriority(final int element, final double newPriority) {
+        if (contains(element) == false) {
+            return;
+        }
+
+        final long key = toKey(newPriority);
+
+        if (keys[element] <= key) {
+            return;
+        }
+
+        unlink(element);
+        link(element, key);
+    }
+
+    /**
+     * Returns but does not remove the element with the lowest priority.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+
+        while (heads[(int) (cursor % heads.length)] == ABSENT) {
+            ++cursor;
+        }
+
+        return heads[(int) (cursor % heads.length)];
+    }
+
+    @Override
+    public double getPriorityOf(final int element) {
+        if (contains(element) == false) {
+            throw new NoSuchElementException(
+                    "No element '" + element + "' in this heap.");
+        }
+
+        return keys[element];
+    }
+
+    @Override
+    public boolean contains(final int element) {
+        return element >= 0
+                && element < buckets.length
+                && buckets[element] != ABSENT;
+    }
+
+    /**
+     * Returns and removes the element with the lowest priority.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int extractMinimum() {
+        final int ret = min();
+        unlink(ret);
+        --size;
+        return ret;
+    }
+
+    /**
+     * Removes all the elements from this heap and resets the lowest allowed
+     * priority to zero.
+     */
+    @Override
+    public void clear() {
+        for (int b = 0; b < heads.length && size > 0; ++b) {
+            for (int e = heads[b]; e != ABSENT; e = next[e]) {
+                buckets[e] = ABSENT;
+                --size;
+            }
+
+            heads[b] = ABSENT;
+        }
+
+        cursor = 0L;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the largest difference between two priorities in this heap.
+     *
+     * @return the maximum spread.
+     */
+    public int getMaxSpread() {
+        return maxSpread;
+    }
+
+    /**
+     * Spawns a new empty heap with the same spread.
+     *
+     * @return a new empty heap.
+     */
+    @Override
+    public IntDialHeap spawn() {
+        return new IntDialHeap(maxSpread, buckets.length);
+    }
+
+    private void link(final int element, final long key) {
+        if (key < cursor || key - cursor > maxSpread) {
+            throw new IllegalArgumentException(
+                    "Priority " + key + " is out of the range [" + cursor +
+                    ", " + (cursor + maxSpread) + "].");
+        }
+
+        final int bucket = (int) (key % heads.length);
+        final int head = heads[bucket];
+
+        keys[element] = key;
+        buckets[element] = bucket;
+        prev[element] = ABSENT;
+        next[element] = head;
+
+        if (head != ABSENT) {
+            prev[head] = element;
+        }
+
+        heads[bucket] = element;
+    }
+
+    private void unlink(final int element) {
+        if (prev[element] == ABSENT) {
+            heads[buckets[element]] = next[element];
+        } else {
+            next[prev[element]] = next[element];
+        }
+
+        if (next[element] != ABSENT) {
+            prev[next[element]] = prev[element];
+        }
+
+        buckets[element] = ABSENT;
+    }
+
+    /**
+     * Converts a priority to a key.
+     *
+     * @param priority the priority.
+     *
+     * @return the key.
+     *
+     * @throws IllegalArgumentException if <code>priority</code> is not a
+     * non-negative integer.
+     */
+    static long toKey(final double priority) {
+        final long key = (long) priority;
+
+        if (key != priority || key < 0L) {
+            throw new IllegalArgumentException(
+                    "Priority " + priority + " is not a non-negative " +
+                    "integer.");
+        }
+
+        return key;
+    }
+
+    /**
+     * Expands the element arrays so that they can hold <code>element</code>.
+     *
+     * @param element the element that must fit.
+     */
+    private void expand(final int element) {
+        final int oldLength = buckets.length;
+        final int newLength = Math.max(element + 1, 3 * oldLength / 2);
+        next = Arrays.copyOf(next, newLength);
+        prev = Arrays.copyOf(prev, newLength);
+        keys = Arrays.copyOf(keys, newLength);
+        buckets = Arrays.copyOf(buckets, newLength);
+        Arrays.fill(buckets, oldLength, newLength, ABSENT);
+    }
+}
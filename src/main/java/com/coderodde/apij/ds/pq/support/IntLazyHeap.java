@@ -0,0 +1,329 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a binary heap with lazy deletion over
+ * <code>int</code> elements with <code>double</code> priorities. The heap
+ * entries are plain (element, priority) pairs without back references, so
+ * {@link #decreasePriority(int, double)} does not sift an existing entry but
+ * pushes a duplicate entry with the new priority. The superseded entry stays
+ * in the heap and is discarded when it reaches the top; such a discarded entry
+ * is a <i>stale pop</i>. Only the current priority and a presence flag are
+ * kept per element, in arrays indexed by the element.
+ * <p>
+ * Any finder taking a {@link com.coderodde.apij.ds.pq.PriorityQueue} switches
+ * to this relaxation mode when given an {@link IntPriorityQueueBridge} over
+ * this heap, e.g.,
+ * <code>new DijkstraFinder&lt;&gt;(new IntPriorityQueueBridge&lt;&gt;(
+ * new IntLazyHeap()))</code>. The heaps spawned from a heap, such as the
+ * backward queues of the bidirectional finders and the queues for compact
+ * graphs, share its stale pop counter, so {@link #getStalePopCount()} of the
+ * heap passed to a finder reports all the stale pops of the finder.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntLazyHeap implements IntPriorityQueue {
+
+    /**
+     * The default capacity of this heap.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The elements of the heap entries.
+     */
+    private int[] elements;
+
+    /**
+     * The priorities of the heap entries.
+     */
+    private double[] priorities;
+
+    /**
+     * The amount of heap entries, including the stale ones.
+     */
+    private int entries;
+
+    /**
+     * <code>best[e]</code> is the current priority of the element
+     * <code>e</code>.
+     */
+    private double[] best;
+
+    /**
+     * <code>present[e]</code> is <code>true</code> if the element
+     * <code>e</code> is in this heap.
+     */
+    private boolean[] present;
+
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+
+    /**
+     * The amount of stale pops of this heap and all heaps spawned from it.
+     */
+    private final long[] stalePops;
+
+    /**
+     * Constructs a new heap.
+     *
+     * @param capacity the initial exclusive upper bound of the elements.
+     */
+    public IntLazyHeap(final int capacity) {
+        this(capacity, new long[1]);
+    }
+
+    /**
+     * Constructs a new heap with default capacity.
+     */
+    public IntLazyHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private IntLazyHeap(final int capacity, final long[] stalePops) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                    "Capacity (" + capacity + ") is below 1.");
+        }
+
+        this.elements = new int[capacity];
+        this.priorities = new double[capacity];
+        this.best = new double[capacity];
+        this.present = new boolean[capacity];
+        this.stalePops = stalePops;
+    }
+
+    /**
+     * Adds an element to this heap if it is not already there.
+     *
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     */
+    @Override
+    public void add(final int element, final double priority) {
+        if (element >= present.length) {
+            expand(element);
+        } else if (present[element]) {
+            return;
+        }
+
+        present[element] = true;
+        best[element] = priority;
+        ++size;
+        push(element, priority);
+    }
+
+    /**
+     * Pushes a new entry for an element with a lower priority. Does nothing
+     * if the element is not in this heap or if <code>newPriority</code> is
+     * not smaller than the current priority.
+     *
+     * @param element the element whose priority to decrease.
+     * @param newPriority the new priority.
+     */
+    @Override
+    public void decreasePriority(final int element, final double newPriority) {
+        if (contains(element) == false || best[element] <= newPriority) {
+            return;
+        }
+
+        best[element] = newPriority;
+        push(element, newPriority);
+    }
+
+    /**
+     * Returns but does not remove the element with the lowest priority.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+
+        discardStaleEntries();
+        return elements[0];
+    }
+
+    @Override
+    public double getPriorityOf(final int element) {
+        if (contains(element) == false) {
+            throw new NoSuchElementException(
+                    "No element '" + element + "' in this heap.");
+        }
+
+        return best[element];
+    }
+
+    @Override
+    public boolean contains(final int element) {
+        return element >= 0
+                && element < present.length
+                && present[element];
+    }
+
+    /**
+     * Returns and removes the element with the lowest priority.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int extractMinimum() {
+        final int ret = min();
+        present[ret] = false;
+        --size;
+        pop();
+        return ret;
+    }
+
+    /**
+     * Removes all the elements and entries from this heap. The discarded
+     * entries are not counted as stale pops.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < entries; ++i) {
+            present[elements[i]] = false;
+        }
+
+        entries = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the amount of stale entries popped by this heap and the heaps
+     * spawned from it.
+     *
+     * @return the amount of stale pops.
+     */
+    public long getStalePopCount() {
+        return stalePops[0];
+    }
+
+    /**
+     * Resets the stale pop counter shared with the spawned heaps.
+     */
+    public void resetStalePopCount() {
+        stalePops[0] = 0L;
+    }
+
+    /**
+     * Spawns a new empty heap sharing the stale pop counter of this heap.
+     *
+     * @return a new empty heap.
+     */
+    @Override
+    public IntLazyHeap spawn() {
+        return new IntLazyHeap(present.length, stalePops);
+    }
+
+    /**
+     * Pops the top entries as long as they are stale.
+     */
+    private void discardStaleEntries() {
+        while (true) {
+            final int element = elements[0];
+
+            if (present[element] && priorities[0] == best[element]) {
+                return;
+            }
+
+            ++stalePops[0];
+            pop();
+        }
+    }
+
+    private void push(final int element, final double priority) {
+        if (entries == elements.length) {
+            final int newCapacity = 2 * entries;
+            elements = Arrays.copyOf(elements, newCapacity);
+            priorities = Arrays.copyOf(priorities, newCapacity);
+        }
+
+        int index = entries++;
+
+        while (index > 0) {
+            final int parentIndex = (index - 1) >>> 1;
+
+            if (priorities[parentIndex] <= priority) {
+                break;
+            }
+
+            elements[index] = elements[parentIndex];
+            priorities[index] = priorities[parentIndex];
+            index = parentIndex;
+        }
+
+        elements[index] = element;
+        priorities[index] = priority;
+    }
+
+    /**
+     * Removes the top entry.
+     */
+    private void pop() {
+        if (--entries == 0) {
+            return;
+        }
+
+        final int element = elements[entries];
+        final double priority = priorities[entries];
+        int index = 0;
+
+        for (;;) {
+            int child = 2 * index + 1;
+
+            if (child >= entries) {
+                break;
+            }
+
+            if (child + 1 < entries 
+                    && priorities[child + 1] < priorities[child]) {
+                ++child;
+            }
+
+            if (priorities[child] >= priority) {
+                break;
+            }
+
+            elements[index] = elements[child];
+            priorities[index] = priorities[child];
+            index = child;
+        }
+
+        elements[index] = element;
+        priorities[index] = priority;
+    }
+
+    /**
+     * Expands the element arrays so that they can hold <code>element</code>.
+     *
+     * @param element the element that must fit.
+     */
+    private void expand(final int element) {
+        final int newLength = Math.max(element + 1, 3 * present.length / 2);
+        best = Arrays.copyOf(best, newLength);
+        present = Arrays.copyOf(present, newLength);
+    }
+}
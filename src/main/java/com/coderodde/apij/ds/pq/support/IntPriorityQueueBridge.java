@@ -0,0 +1,134 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.PriorityQueue;
+import com.coderodde.apij.graph.model.Node;
+import static com.coderodde.apij.util.Utils.checkHasId;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class lets a primitive {@link IntPriorityQueue} serve as a
+ * {@link PriorityQueue} of graph nodes. A node is represented in the
+ * underlying queue by its id (see {@link Node#getId()}), so the nodes held at
+ * any time must belong to the same graph. Passing an instance of this class
+ * to a finder, such as 
+ * <code>new DijkstraFinder&lt;&gt;(new IntPriorityQueueBridge&lt;&gt;())
+ * </code>, replaces the element map and the per-element allocation of 
+ * {@link DaryHeap} with array indexing.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ * 
+ * @param <T> the node type.
+ */
+public class IntPriorityQueueBridge<T extends Node<T>> 
+implements PriorityQueue<T, Double> {
+    
+    /**
+     * The initial capacity of the node array.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    /**
+     * The actual queue of node ids.
+     */
+    private final IntPriorityQueue queue;
+    
+    /**
+     * Maps a node id to the node most recently added with that id.
+     */
+    private Object[] nodes;
+    
+    /**
+     * Constructs a bridge over <code>queue</code>.
+     * 
+     * @param queue the primitive queue to hold the node ids.
+     */
+    public IntPriorityQueueBridge(final IntPriorityQueue queue) {
+        checkNotNull(queue, "'queue' is null.");
+        this.queue = queue;
+        this.nodes = new Object[INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Constructs a bridge over a binary {@link IntDaryHeap}.
+     */
+    public IntPriorityQueueBridge() {
+        this(new IntDaryHeap(2));
+    }
+    
+    @Override
+    public void add(final T element, final Double priority) {
+        checkHasId(element);
+        final int id = element.getId();
+        
+        if (id >= nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(id + 1, 2 * nodes.length));
+        }
+        
+        nodes[id] = element;
+        queue.add(id, priority);
+    }
+    
+    @Override
+    public void decreasePriority(final T element, final Double newPriority) {
+        queue.decreasePriority(element.getId(), newPriority);
+    }
+    
+    @Override
+    public T min() {
+        return (T) nodes[queue.min()];
+    }
+    
+    @Override
+    public Double getPriorityOf(final T element) {
+        if (queue.contains(element.getId()) == false) {
+            throw new NoSuchElementException(
+                    "No element '" + element.toString() + "' in this heap.");
+        }
+        
+        return queue.getPriorityOf(element.getId());
+    }
+    
+    @Override
+    public T extractMinimum() {
+        return (T) nodes[queue.extractMinimum()];
+    }
+    
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+    
+    @Override
+    public int size() {
+        return queue.size();
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+    
+    /**
+     * Spawns a new empty queue of the same implementation as the underlying 
+     * queue.
+     * 
+     * @return a new empty primitive queue.
+     */
+    public IntPriorityQueue spawnQueue() {
+        return queue.spawn();
+    }
+    
+    /**
+     * Spawns a new empty bridge over a spawn of the underlying queue.
+     * 
+     * @return a new empty bridge.
+     */
+    @Override
+    public IntPriorityQueueBridge<T> spawn() {
+        return new IntPriorityQueueBridge<>(queue.spawn());
+    }
+}
@@ -0,0 +1,331 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a radix heap over <code>int</code> elements with
+ * non-negative integral priorities. The heap is <i>monotone</i>: the priority
+ * of an added element may not be below the priority of the last extracted
+ * element, which is the case in Dijkstra's algorithm with non-negative
+ * integral weights. Unlike {@link IntDialHeap}, the priorities may spread
+ * arbitrarily.
+ * <p>
+ * An element with priority <code>p</code> resides in the bucket
+ * <tt>64 - numberOfLeadingZeros(p ^ last)</tt>, where <code>last</code> is
+ * the priority of the last extracted element; that is, the bucket is given
+ * by the highest bit in which <code>p</code> differs from <code>last</code>.
+ * When the bucket 0 runs empty, the first non-empty bucket is redistributed
+ * over the lower buckets around its minimum priority. An element moves only
+ * to lower buckets, so the extractions take <tt>O(log C)</tt> amortized time,
+ * where <code>C</code> is the largest priority, and the other operations
+ * constant time. The buckets are doubly-linked lists threaded through arrays
+ * indexed by the elements.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntRadixHeap implements IntPriorityQueue {
+
+    /**
+     * The default capacity of this heap.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The amount of buckets: one for the priority <code>last</code> and one
+     * for each bit of a <code>long</code>.
+     */
+    private static final int BUCKETS = 65;
+
+    /**
+     * Marks an element that is not in this heap, and the end of a bucket.
+     */
+    private static final int ABSENT = -1;
+
+    /**
+     * <code>heads[b]</code> is the first element of the bucket <code>b</code>,
+     * or <code>ABSENT</code>.
+     */
+    private final int[] heads;
+
+    /**
+     * <code>next[e]</code> is the element after <code>e</code> in its bucket.
+     */
+    private int[] next;
+
+    /**
+     * <code>prev[e]</code> is the element before <code>e</code> in its bucket.
+     */
+    private int[] prev;
+
+    /**
+     * <code>buckets[e]</code> is the bucket of the element <code>e</code>, or
+     * <code>ABSENT</code>.
+     */
+    private int[] buckets;
+
+    /**
+     * <code>keys[e]</code> is the priority of the element <code>e</code>.
+     */
+    private long[] keys;
+
+    /**
+     * The priority of the last extracted element.
+     */
+    private long last;
+
+    /**
+     * The amount of elements in this heap.
+     */
+    private int size;
+
+    /**
+     * Constructs a new heap.
+     *
+     * @param capacity the initial exclusive upper bound of the elements.
+     */
+    public IntRadixHeap(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                    "Capacity (" + capacity + ") is below 1.");
+        }
+
+        this.heads = new int[BUCKETS];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.buckets = new int[capacity];
+        this.keys = new long[capacity];
+        Arrays.fill(heads, ABSENT);
+        Arrays.fill(buckets, ABSENT);
+    }
+
+    /**
+     * Constructs a new heap with default capacity.
+     */
+    public IntRadixHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Adds an element to this heap if it is not already there.
+     *
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     *
+     * @throws IllegalArgumentException if <code>priority</code> is not
+     * integral or is below the priority of the last extracted element.
+     */
+    @Override
+    public void add(final int element, final double priority) {
+        if (element >= buckets.length) {
+            expand(element);
+        } else if (buckets[element] != ABSENT) {
+            return;
+        }
+
+        link(element, checkKey(IntDialHeap.toKey(priority)));
+        ++size;
+    }
+
+    /**
+     * Decreases the priority of an element. Does nothing if the element is
+     * not in this heap or if <code>newPriority</code> is not smaller than the
+     * current priority.
+     *
+     * @param element the element whose priority to decrease.
+     * @param newPriority the new priority.
+     */
+    @Override
+    public void decreasePriority(final int element, final double newPriority) {
+        if (contains(element) == false) {
+            return;
+        }
+
+        final long key = checkKey(IntDialHeap.toKey(newPriority));
+
+        if (keys[element] <= key) {
+            return;
+        }
+
+        unlink(element);
+        link(element, key);
+    }
+
+    /**
+     * Returns but does not remove the element with the lowest priority.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+
+        if (heads[0] == ABSENT) {
+            redistribute();
+        }
+
+        return heads[0];
+    }
+
+    @Override
+    public double getPriorityOf(final int element) {
+        if (contains(element) == false) {
+            throw new NoSuchElementException(
+                    "No element '" + element + "' in this heap.");
+        }
+
+        return keys[element];
+    }
+
+    @Override
+    public boolean contains(final int element) {
+        return element >= 0
+                && element < buckets.length
+                && buckets[element] != ABSENT;
+    }
+
+    /**
+     * Returns and removes the element with the lowest priority.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public int extractMinimum() {
+        final int ret = min();
+        unlink(ret);
+        --size;
+        return ret;
+    }
+
+    /**
+     * Removes all the elements from this heap and resets the lowest allowed
+     * priority to zero.
+     */
+    @Override
+    public void clear() {
+        for (int b = 0; b < BUCKETS; ++b) {
+            for (int e = heads[b]; e != ABSENT; e = next[e]) {
+                buckets[e] = ABSENT;
+            }
+
+            heads[b] = ABSENT;
+        }
+
+        size = 0;
+        last = 0L;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Spawns a new empty heap.
+     *
+     * @return a new empty heap.
+     */
+    @Override
+    public IntRadixHeap spawn() {
+        return new IntRadixHeap(buckets.length);
+    }
+
+    /**
+     * Moves the elements of the first non-empty bucket to the lower buckets
+     * around their minimum priority.
+     */
+    private void redistribute() {
+        int b = 1;
+
+        while (heads[b] == ABSENT) {
+            ++b;
+        }
+
+        long min = Long.MAX_VALUE;
+
+        for (int e = heads[b]; e != ABSENT; e = next[e]) {
+            min = Math.min(min, keys[e]);
+        }
+
+        last = min;
+
+        int e = heads[b];
+        heads[b] = ABSENT;
+
+        while (e != ABSENT) {
+            final int n = next[e];
+            link(e, keys[e]);
+            e = n;
+        }
+    }
+
+    private void link(final int element, final long key) {
+        final int bucket = key == last ?
+                           0 :
+                           64 - Long.numberOfLeadingZeros(key ^ last);
+        final int head = heads[bucket];
+
+        keys[element] = key;
+        buckets[element] = bucket;
+        prev[element] = ABSENT;
+        next[element] = head;
+
+        if (head != ABSENT) {
+            prev[head] = element;
+        }
+
+        heads[bucket] = element;
+    }
+
+    private void unlink(final int element) {
+        if (prev[element] == ABSENT) {
+            heads[buckets[element]] = next[element];
+        } else {
+            next[prev[element]] = next[element];
+        }
+
+        if (next[element] != ABSENT) {
+            prev[next[element]] = prev[element];
+        }
+
+        buckets[element] = ABSENT;
+    }
+
+    private long checkKey(final long key) {
+        if (key < last) {
+            throw new IllegalArgumentException(
+                    "Priority " + key + " is below the last extracted " +
+                    "priority " + last + ".");
+        }
+
+        return key;
+    }
+
+    /**
+     * Expands the element arrays so that they can hold <code>element</code>.
+     *
+     * @param element the element that must fit.
+     */
+    private void expand(final int element) {
+        final int oldLength = buckets.length;
+        final int newLength = Math.max(element + 1, 3 * oldLength / 2);
+        next = Arrays.copyOf(next, newLength);
+        prev = Arrays.copyOf(prev, newLength);
+        keys = Arrays.copyOf(keys, newLength);
+        buckets = Arrays.copyOf(buckets, newLength);
+        Arrays.fill(buckets, oldLength, newLength, ABSENT);
+    }
+}
@@ -0,0 +1,303 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.PriorityQueue;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a pairing heap. The heap is a single tree in which
+ * the children of a node form a doubly-linked list. Adding an element and
+ * decreasing a priority link a one-node tree (or a cut subtree) with the root
+ * in constant time; extracting the minimum links the children of the root in
+ * pairs from left to right and then merges the pairs from right to left,
+ * which takes <tt>O(log n)</tt> amortized time.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ *
+ * @param <T> the element type.
+ * @param <P> the priority key type, must be <code>Comparable</code>.
+ */
+public class PairingHeap<T, P extends Comparable<? super P>>
+implements PriorityQueue<T, P> {
+
+    /**
+     * A tree node holding an element.
+     *
+     * @param <T> the element type.
+     * @param <P> the priority key type.
+     */
+    private static final class Node<T, P> {
+
+        /**
+         * The element.
+         */
+        T element;
+
+        /**
+         * The priority of the element.
+         */
+        P priority;
+
+        /**
+         * The leftmost child.
+         */
+        Node<T, P> child;
+
+        /**
+         * The right sibling.
+         */
+        Node<T, P> next;
+
+        /**
+         * The left sibling, or the parent if this is the leftmost child.
+         */
+        Node<T, P> prev;
+    }
+
+    /**
+     * The root of the tree, holding the minimum element.
+     */
+    private Node<T, P> root;
+
+    /**
+     * Maps the elements to their nodes.
+     */
+    private final Map<T, Node<T, P>> map;
+
+    /**
+     * Holds the children of the root during an extraction.
+     */
+    private Object[] pairs;
+
+    /**
+     * Constructs an empty pairing heap.
+     */
+    public PairingHeap() {
+        this.map = new HashMap<>();
+        this.pairs = new Object[16];
+    }
+
+    /**
+     * Adds an element to this heap if it is not already there.
+     *
+     * @param element the element to add.
+     * @param priority the priority of the element.
+     */
+    @Override
+    public void add(final T element, final P priority) {
+        if (map.containsKey(element)) {
+            return;
+        }
+
+        final Node<T, P> node = new Node<>();
+        node.element = element;
+        node.priority = priority;
+        map.put(element, node);
+        root = root == null ? node : link(root, node);
+    }
+
+    /**
+     * Decreases the priority of an element. Does nothing if the element is
+     * not in this heap or if <code>newPriority</code> is not smaller than the
+     * current priority.
+     *
+     * @param element the element whose priority to decrease.
+     * @param newPriority the new priority.
+     */
+    @Override
+    public void decreasePriority(final T element, final P newPriority) {
+        final Node<T, P> node = map.get(element);
+
+        if (node == null || node.priority.compareTo(newPriority) <= 0) {
+            return;
+        }
+
+        node.priority = newPriority;
+
+        if (node == root) {
+            return;
+        }
+
+        // Cut the subtree of 'node' from its parent.
+        if (node.prev.child == node) {
+            node.prev.child = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+
+        node.next = null;
+        node.prev = null;
+        root = link(root, node);
+    }
+
+    /**
+     * Returns but does not remove the minimum element.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T min() {
+        checkNotEmpty();
+        return root.element;
+    }
+
+    @Override
+    public P getPriorityOf(final T element) {
+        final Node<T, P> node = map.get(element);
+
+        if (node == null) {
+            throw new NoSuchElementException(
+                    "No element '" + element + "' in this heap.");
+        }
+
+        return node.priority;
+    }
+
+    /**
+     * Returns and removes the minimum element.
+     *
+     * @return the minimum element.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    @Override
+    public T extractMinimum() {
+        checkNotEmpty();
+        final T ret = root.element;
+        map.remove(ret);
+        root = mergePairs(root.child);
+        return ret;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        root = null;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Spawns a new empty pairing heap.
+     *
+     * @return a new empty heap.
+     */
+    @Override
+    public PairingHeap<T, P> spawn() {
+        return new PairingHeap<>();
+    }
+
+    /**
+     * Makes the root with the greater priority the leftmost child of the
+     * other root.
+     *
+     * @param a a root with no siblings.
+     * @param b another root with no siblings.
+     *
+     * @return the root of the linked tree.
+     */
+    private Node<T, P> link(final Node<T, P> a, final Node<T, P> b) {
+        final Node<T, P> parent;
+        final Node<T, P> child;
+
+        if (b.priority.compareTo(a.priority) < 0) {
+            parent = b;
+            child = a;
+        } else {
+            parent = a;
+            child = b;
+        }
+
+        child.prev = parent;
+        child.next = parent.child;
+
+        if (parent.child != null) {
+            parent.child.prev = child;
+        }
+
+        parent.child = child;
+        return parent;
+    }
+
+    /**
+     * Merges the sibling list starting at <code>first</code> into a single
+     * tree by the two-pass method.
+     *
+     * @param first the leftmost sibling, or <code>null</code>.
+     *
+     * @return the root of the merged tree, or <code>null</code>.
+     */
+    private Node<T, P> mergePairs(Node<T, P> first) {
+        if (first == null) {
+            return null;
+        }
+
+        int count = 0;
+
+        // First pass: link the siblings in pairs from left to right.
+        while (first != null) {
+            final Node<T, P> a = first;
+            final Node<T, P> b = a.next;
+
+            if (b == null) {
+                first = null;
+                a.next = a.prev = null;
+                push(a, count++);
+                break;
+            }
+
+            first = b.next;
+            a.next = a.prev = null;
+            b.next = b.prev = null;
+            push(link(a, b), count++);
+        }
+
+        final int used = count;
+
+        // Second pass: merge the pairs from right to left.
+        Node<T, P> tree = (Node<T, P>) pairs[--count];
+
+        while (count > 0) {
+            tree = link((Node<T, P>) pairs[--count], tree);
+        }
+
+        Arrays.fill(pairs, 0, used, null);
+        return tree;
+    }
+
+    private void push(final Node<T, P> node, final int index) {
+        if (index == pairs.length) {
+            pairs = Arrays.copyOf(pairs, 2 * index);
+        }
+
+        pairs[index] = node;
+    }
+
+    /**
+     * Checks whether this heap is not empty.
+     *
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    private void checkNotEmpty() {
+        if (root == null) {
+            throw new NoSuchElementException("Reading from an empty heap.");
+        }
+    }
+}
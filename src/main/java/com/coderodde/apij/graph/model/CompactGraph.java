@@ -0,0 +1,342 @@
+package com.coderodde.apij.graph.model;
+
+import static com.coderodde.apij.util.Utils.checkNotNull;
+
+/**
+ * This class implements an immutable snapshot of a graph in compressed sparse
+ * row (CSR) format. Every node keeps its id given by the graph (see
+ * {@link Node#getId()}), so the ids lie in the range <tt>[0, size())</tt>
+ * where <code>size()</code> is the id bound of the graph at freezing time. 
+ * Released ids have no node and no arcs. The arcs leaving a node <code>u</code>
+ * occupy the index range <tt>[getOutArcBegin(u), getOutArcEnd(u))</tt> of the
+ * forward arc arrays. The index of an arc in the forward arrays is the
+ * <i>arc id</i>. The reverse arcs are stored in the same manner, and each
+ * reverse arc records the id of the forward arc it mirrors.
+ * <p>
+ * Undirected graphs are stored as two opposite arcs per edge.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ *
+ * @version 1.6
+ */
+public class CompactGraph<T extends Node<T>> {
+
+    /**
+     * Maps a node id to the node.
+     */
+    private final Object[] nodes;
+
+    /**
+     * <code>forwardOffsets[u]</code> is the arc id of the first arc leaving
+     * <code>u</code>. Has length <tt>size() + 1</tt>.
+     */
+    private final int[] forwardOffsets;
+
+    /**
+     * <code>forwardHeads[a]</code> is the head node of the arc <code>a</code>.
+     */
+    private final int[] forwardHeads;
+
+    /**
+     * <code>forwardWeights[a]</code> is the weight of the arc <code>a</code>.
+     */
+    private final double[] forwardWeights;
+
+    /**
+     * <code>backwardOffsets[v]</code> is the index of the first reverse arc
+     * entering <code>v</code>. Has length <tt>size() + 1</tt>.
+     */
+    private final int[] backwardOffsets;
+
+    /**
+     * <code>backwardTails[i]</code> is the tail node of the reverse arc at
+     * index <code>i</code>.
+     */
+    private final int[] backwardTails;
+
+    /**
+     * <code>backwardWeights[i]</code> is the weight of the reverse arc at index
+     * <code>i</code>.
+     */
+    private final double[] backwardWeights;
+
+    /**
+     * <code>backwardArcIds[i]</code> is the id of the forward arc mirrored by
+     * the reverse arc at index <code>i</code>.
+     */
+    private final int[] backwardArcIds;
+
+    /**
+     * Freezes <code>graph</code> into a new compact snapshot. Subsequent
+     * modifications of <code>graph</code> are not reflected in the snapshot.
+     *
+     * @param graph the graph to freeze.
+     * @param wf the weight function of <code>graph</code>.
+     */
+    public CompactGraph(final Graph<T> graph, final WeightFunction<T> wf) {
+        checkNotNull(graph, "'graph' is null.");
+        checkNotNull(wf, "'wf' is null.");
+
+        final int N = graph.getIdBound();
+
+        this.nodes = new Object[N];
+
+        for (final T node : graph) {
+            nodes[node.getId()] = node;
+        }
+
+        this.forwardOffsets = new int[N + 1];
+        this.backwardOffsets = new int[N + 1];
+
+        // Count the degrees.
+        for (int u = 0; u < N; ++u) {
+            if (nodes[u] == null) {
+                continue;
+            }
+            
+            for (final T child : getNode(u)) {
+                forwardOffsets[u + 1]++;
+                backwardOffsets[getId(child) + 1]++;
+            }
+        }
+
+        for (int u = 0; u < N; ++u) {
+            forwardOffsets[u + 1] += forwardOffsets[u];
+            backwardOffsets[u + 1] += backwardOffsets[u];
+        }
+
+        final int ARCS = forwardOffsets[N];
+
+        this.forwardHeads = new int[ARCS];
+        this.forwardWeights = new double[ARCS];
+        this.backwardTails = new int[ARCS];
+        this.backwardWeights = new double[ARCS];
+        this.backwardArcIds = new int[ARCS];
+
+        final int[] backwardFill = new int[N];
+
+        System.arraycopy(backwardOffsets, 0, backwardFill, 0, N);
+
+        int arc = 0;
+
+        for (int u = 0; u < N; ++u) {
+            final T tail = getNode(u);
+
+            if (tail == null) {
+                continue;
+            }
+
+            for (final T child : tail) {
+                final int v = getId(child);
+                final double weight = wf.get(tail, child);
+                final int i = backwardFill[v]++;
+
+                forwardHeads[arc] = v;
+                forwardWeights[arc] = weight;
+
+                backwardTails[i] = u;
+                backwardWeights[i] = weight;
+                backwardArcIds[i] = arc++;
+            }
+        }
+    }
+
+    /**
+     * Returns the exclusive upper bound of the node ids in this snapshot.
+     *
+     * @return the id bound.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the amount of arcs in this snapshot.
+     *
+     * @return the amount of arcs.
+     */
+    public int arcs() {
+        return forwardHeads.length;
+    }
+
+    /**
+     * Returns the id of <code>node</code>.
+     *
+     * @param node the node whose id to return.
+     *
+     * @return the id of <code>node</code>.
+     *
+     * @throws IllegalStateException if <code>node</code> is not in this
+     * snapshot.
+     */
+    public int getId(final T node) {
+        final int id = node.getId();
+
+        if (id < 0 || id >= nodes.length || nodes[id] != node) {
+            throw new IllegalStateException(
+                    "The node " + node + " is not in this snapshot.");
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the node with id <code>id</code>.
+     *
+     * @param id the id of the node.
+     *
+     * @return the node with id <code>id</code> or <code>null</code> if the
+     * id was not in use.
+     */
+    public T getNode(final int id) {
+        return (T) nodes[id];
+    }
+
+    /**
+     * Returns the id of the first arc leaving <code>u</code>.
+     *
+     * @param u the tail node id.
+     *
+     * @return the first arc id.
+     */
+    public int getOutArcBegin(final int u) {
+        return forwardOffsets[u];
+    }
+
+    /**
+     * Returns the id one past the last arc leaving <code>u</code>.
+     *
+     * @param u the tail node id.
+     *
+     * @return the exclusive upper bound of the arc ids.
+     */
+    public int getOutArcEnd(final int u) {
+        return forwardOffsets[u + 1];
+    }
+
+    /**
+     * Returns the head node id of the arc <code>arc</code>.
+     *
+     * @param arc the arc id.
+     *
+     * @return the head node id.
+     */
+    public int getArcHead(final int arc) {
+        return forwardHeads[arc];
+    }
+
+    /**
+     * Returns the weight of the arc <code>arc</code>.
+     *
+     * @param arc the arc id.
+     *
+     * @return the weight of the arc.
+     */
+    public double getArcWeight(final int arc) {
+        return forwardWeights[arc];
+    }
+
+    /**
+     * Returns the index of the first reverse arc entering <code>v</code>.
+     *
+     * @param v the head node id.
+     *
+     * @return the first reverse arc index.
+     */
+    public int getInArcBegin(final int v) {
+        return backwardOffsets[v];
+    }
+
+    /**
+     * Returns the index one past the last reverse arc entering
+     * <code>v</code>.
+     *
+     * @param v the head node id.
+     *
+     * @return the exclusive upper bound of the reverse arc indices.
+     */
+    public int getInArcEnd(final int v) {
+        return backwardOffsets[v + 1];
+    }
+
+    /**
+     * Returns the tail node id of the reverse arc at index <code>i</code>.
+     *
+     * @param i the reverse arc index.
+     *
+     * @return the tail node id.
+     */
+    public int getInArcTail(final int i) {
+        return backwardTails[i];
+    }
+
+    /**
+     * Returns the weight of the reverse arc at index <code>i</code>.
+     *
+     * @param i the reverse arc index.
+     *
+     * @return the weight of the arc.
+     */
+    public double getInArcWeight(final int i) {
+        return backwardWeights[i];
+    }
+
+    /**
+     * Returns the id of the forward arc mirrored by the reverse arc at index
+     * <code>i</code>.
+     *
+     * @param i the reverse arc index.
+     *
+     * @return the forward arc id.
+     */
+    public int getInArcId(final int i) {
+        return backwardArcIds[i];
+    }
+
+    /**
+     * Returns a 64-bit hash of the structure and the weights of this
+     * snapshot. Data derived from a snapshot, such as preprocessed search
+     * data saved to a file, may store the fingerprint to check later that it
+     * is used with the same graph.
+     *
+     * @return the fingerprint.
+     */
+    public long fingerprint() {
+        long hash = 1125899906842597L;
+
+        hash = 31 * hash + nodes.length;
+        hash = 31 * hash + forwardHeads.length;
+
+        for (int u = 0; u < nodes.length; ++u) {
+            hash = 31 * hash + (nodes[u] == null ? -1 : forwardOffsets[u]);
+        }
+
+        for (int arc = 0; arc < forwardHeads.length; ++arc) {
+            hash = 31 * hash + forwardHeads[arc];
+            hash = 31 * hash + Double.doubleToLongBits(forwardWeights[arc]);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the id of the arc <tt>(u, v)</tt>, or <tt>-1</tt> if there is
+     * no such.
+     *
+     * @param u the tail node id.
+     * @param v the head node id.
+     *
+     * @return the arc id or <tt>-1</tt>.
+     */
+    public int getArcId(final int u, final int v) {
+        for (int arc = forwardOffsets[u]; arc < forwardOffsets[u + 1]; ++arc) {
+            if (forwardHeads[arc] == v) {
+                return arc;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -1,18 +1,14 @@
 package com.coderodde.apij.graph.model;
 
-import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
-import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
-import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
-import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
 import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
 import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -28,6 +24,24 @@ import java.util.Set;
  */
 public class Graph<T extends Node<T>> implements Iterable<T> {
     
+    /**
+     * This interface is implemented by the per-node data kept outside a 
+     * graph in structures indexed by node id, which must forget a node 
+     * before its id is reused.
+     * 
+     * @param <T> the actual node type.
+     */
+    public interface RemovalListener<T extends Node<T>> {
+        
+        /**
+         * Called when <code>node</code> is removed from the graph, while it
+         * still has its id and its arcs.
+         * 
+         * @param node the node being removed.
+         */
+        void nodeRemoved(final T node);
+    }
+    
     /**
      * This is the identity of this graph. Must be unique.
      */
@@ -38,6 +52,26 @@ public class Graph<T extends Node<T>> implements Iterable<T> {
      */
     private final Map<String, T> map;
     
+    /**
+     * Maps a node id to the node. Contains <code>null</code> at released ids.
+     */
+    private final List<T> idList;
+    
+    /**
+     * The stack of released ids, reused before new ids are issued.
+     */
+    private int[] freeIds;
+    
+    /**
+     * The amount of ids in <code>freeIds</code>.
+     */
+    private int freeIdCount;
+    
+    /**
+     * The listeners notified of the removed nodes.
+     */
+    private final List<RemovalListener<T>> removalListeners;
+    
     /**
      * Caches the amount of edges in this graph.
      */
@@ -52,10 +86,14 @@ public class Graph<T extends Node<T>> implements Iterable<T> {
         checkNotNull(name, "The name of a graph may not be 'null'.");
         this.name = name;
         this.map = new HashMap<>();
+        this.idList = new ArrayList<>();
+        this.freeIds = new int[16];
+        this.removalListeners = new ArrayList<>();
     }
     
     /**
-     * Adds a node to this graph.
+     * Adds a node to this graph and assigns it a dense id. Ids released by
+     * removed nodes are reused first.
      * 
      * @param node the node to add.
      */
@@ -66,6 +104,7 @@ public class Graph<T extends Node<T>> implements Iterable<T> {
         if (map.containsKey(nodeName) == false) {
             map.put(nodeName, node);
             node.setOwnerGraph(this);
+            assignId(node);
         }
     }
     
@@ -119,6 +158,32 @@ public class Graph<T extends Node<T>> implements Iterable<T> {
         return map.get(name);
     }
     
+    /**
+     * Returns the node with id <code>id</code> or <code>null</code> if there
+     * is no such.
+     * 
+     * @param id the id of the node to fetch.
+     * 
+     * @return a node or <code>null</code>.
+     */
+    public T getNode(final int id) {
+        if (id < 0 || id >= idList.size()) {
+            return null;
+        }
+        
+        return idList.get(id);
+    }
+    
+    /**
+     * Returns the exclusive upper bound of the node ids in this graph. Arrays
+     * indexed by node id need at least this length.
+     * 
+     * @return the id bound.
+     */
+    public int getIdBound() {
+        return idList.size();
+    }
+    
     /**
      * Queries whether <code>node</code> is in this graph.
      * 
@@ -170,16 +235,25 @@ public class Graph<T extends Node<T>> implements Iterable<T> {
     
     public void removeNode(final T node) {
         checkBelongsToGraph(node, this);
+        fireNodeRemoved(node);
         node.clear();
         map.remove(node.getName());
+        releaseId(node);
     }
     
     public void clear() {
+        for (final T node : this) {
+            fireNodeRemoved(node);
+        }
+        
         for (final T node : this) {
             node.clear();
+            node.id = -1;
         }
         
         map.clear();
+        idList.clear();
+        freeIdCount = 0;
         edgeCount = 0;
     }
     
@@ -187,48 +261,98 @@ public class Graph<T extends Node<T>> implements Iterable<T> {
         return Collections.<T>unmodifiableCollection(map.values());
     }
     
+    /**
+     * Queries whether every node of this graph is reachable from a single 
+     * node of this graph by following the arcs.
+     * 
+     * @return <code>true</code> if this graph is connected.
+     */
     public boolean isConnected() {
         if (this.size() < 2) {
             return true;
         }
         
-        final Iterator<T> iterator = this.iterator();
-        final T source = iterator.next();
+        final Set<T> source = Collections.singleton(iterator().next());
         
-        Deque<T> queue = new LinkedList<>();
-        Set<T> visited = new HashSet<T>();
-        
-        queue.addLast(source);
-        visited.add(source);
+        return new ParallelBreadthFirstSearch<>(this).search(source) == size();
+    }
+    
+    /**
+     * Returns all nodes reachable from at least one node in 
+     * <code>sources</code>, including the sources, in breadth-first order. 
+     * The search runs in parallel; see {@link ParallelBreadthFirstSearch}.
+     * 
+     * @param sources the source nodes.
+     * 
+     * @return the list of reachable nodes.
+     */
+    public List<T> reachableFrom(final Collection<T> sources) {
+        final ParallelBreadthFirstSearch<T> search = 
+                new ParallelBreadthFirstSearch<>(this);
         
-        while (queue.isEmpty() == false) {
-            final T current = queue.removeFirst();
-            
-            for (final T child : current) {
-                if (visited.contains(child) == false) {
-                    visited.add(child);
-                    queue.addLast(child);
-                }
-            }
+        search.search(sources);
+        return search.getReachedNodes();
+    }
+    
+    /**
+     * Registers <code>listener</code> to be notified of every node removed 
+     * from this graph.
+     * 
+     * @param listener the listener to add.
+     */
+    public void addRemovalListener(final RemovalListener<T> listener) {
+        checkNotNull(listener, "'listener' is null.");
+        removalListeners.add(listener);
+    }
+    
+    /**
+     * Unregisters <code>listener</code>.
+     * 
+     * @param listener the listener to remove.
+     */
+    public void removeRemovalListener(final RemovalListener<T> listener) {
+        removalListeners.remove(listener);
+    }
+    
+    private void fireNodeRemoved(final T node) {
+        for (final RemovalListener<T> listener : removalListeners) {
+            listener.nodeRemoved(node);
         }
-        
-        if (visited.size() != this.size()) {
-            return false;
+    }
+    
+    /**
+     * Gives <code>node</code> a free id.
+     * 
+     * @param node the node to give an id.
+     */
+    private void assignId(final T node) {
+        if (freeIdCount > 0) {
+            node.id = freeIds[--freeIdCount];
+            idList.set(node.id, node);
+        } else {
+            node.id = idList.size();
+            idList.add(node);
         }
-        
-        for (final T node : visited) {
-            if (this.containsNode(node) == false) {
-                return false;
-            }
+    }
+    
+    /**
+     * Releases the id of <code>node</code> for reuse.
+     * 
+     * @param node the node whose id to release.
+     */
+    private void releaseId(final T node) {
+        if (node.id < 0 || node.id >= idList.size() 
+                || idList.get(node.id) != node) {
+            return;
         }
         
-        for (final T node : this) {
-            if (visited.contains(node) == false) {
-                return false;
-            }
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, 2 * freeIdCount);
         }
         
-        return true;
+        idList.set(node.id, null);
+        freeIds[freeIdCount++] = node.id;
+        node.id = -1;
     }
     
     /**
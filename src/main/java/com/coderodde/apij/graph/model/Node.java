@@ -16,6 +16,12 @@ public abstract class Node<T extends Node<T>> implements Iterable<T> {
      */
     protected Graph<T> ownerGraph;
     
+    /**
+     * The dense id of this node within its owner graph, or <tt>-1</tt> if this
+     * node was not added to any graph. Assigned by the owner graph.
+     */
+    int id = -1;
+    
     /**
      * Returns an <code>Iterable</code> over this node's parent nodes.
      * 
@@ -68,6 +74,18 @@ public abstract class Node<T extends Node<T>> implements Iterable<T> {
      */
     public abstract Graph<T> getOwnerGraph();
     
+    /**
+     * Returns the dense id of this node. The ids of the nodes in a graph lie 
+     * in the range <tt>[0, getOwnerGraph().getIdBound())</tt>, and the id of 
+     * a removed node may be given to a node added later.
+     * 
+     * @return the id of this node or <tt>-1</tt> if this node is not in any
+     * graph.
+     */
+    public final int getId() {
+        return id;
+    }
+    
     /**
      * Removes all edges incident on this node.
      */
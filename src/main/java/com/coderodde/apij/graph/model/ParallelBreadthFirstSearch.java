@@ -0,0 +1,255 @@
+package com.coderodde.apij.graph.model;
+
+import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class implements a level-synchronous parallel breadth-first search
+ * over the children of the nodes in a graph. The frontier of each level is an
+ * array of node ids; it is split into chunks expanded by the tasks of a
+ * {@link ForkJoinPool}, and the next frontier is assembled from the chunks
+ * before the next level starts. A node is marked visited by setting its bit
+ * in an {@link AtomicLongArray} with a compare-and-set, so exactly one task
+ * wins each node and no node enters a frontier twice.
+ * <p>
+ * Frontiers smaller than a few chunks are expanded in the calling thread.
+ * The graph must not be modified while a search runs.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ *
+ * @version 1.6
+ */
+public class ParallelBreadthFirstSearch<T extends Node<T>> {
+
+    /**
+     * The amount of frontier nodes expanded sequentially by a single task.
+     */
+    private static final int TASK_GRAIN = 1024;
+
+    /**
+     * The graph to search.
+     */
+    private final Graph<T> graph;
+
+    /**
+     * The bit of the node <code>id</code> is the bit <tt>id % 64</tt> of the
+     * word <tt>id / 64</tt>.
+     */
+    private AtomicLongArray visited;
+
+    /**
+     * The ids of the reached nodes in the order of their levels. The
+     * frontier of each level is a subrange of this array.
+     */
+    private int[] reached;
+
+    /**
+     * The amount of reached nodes.
+     */
+    private final AtomicInteger reachedCount;
+
+    /**
+     * Constructs a search over <code>graph</code>.
+     *
+     * @param graph the graph to search.
+     */
+    public ParallelBreadthFirstSearch(final Graph<T> graph) {
+        checkNotNull(graph, "'graph' is null.");
+        this.graph = graph;
+        this.reached = new int[0];
+        this.reachedCount = new AtomicInteger();
+    }
+
+    /**
+     * Reaches every node that is reachable from at least one node in
+     * <code>sources</code>. The results are available until the next call.
+     *
+     * @param sources the source nodes.
+     *
+     * @return the amount of reached nodes, including the sources.
+     */
+    public int search(final Collection<T> sources) {
+        checkNotNull(sources, "'sources' is null.");
+
+        final int N = graph.getIdBound();
+
+        visited = new AtomicLongArray((N + 63) >>> 6);
+
+        if (reached.length < N) {
+            reached = new int[N];
+        }
+
+        reachedCount.set(0);
+
+        for (final T source : sources) {
+            checkBelongsToGraph(source, graph);
+
+            if (mark(source.getId())) {
+                reached[reachedCount.getAndIncrement()] = source.getId();
+            }
+        }
+
+        ForkJoinPool pool = null;
+
+        try {
+            int begin = 0;
+
+            while (begin < reachedCount.get()) {
+                final int end = reachedCount.get();
+
+                if (end - begin <= 2 * TASK_GRAIN) {
+                    expand(begin, end);
+                } else {
+                    if (pool == null) {
+                        pool = new ForkJoinPool();
+                    }
+
+                    pool.invoke(new LevelTask(begin, end));
+                }
+
+                begin = end;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        return reachedCount.get();
+    }
+
+    /**
+     * Returns the amount of nodes reached by the last search.
+     *
+     * @return the amount of reached nodes.
+     */
+    public int getReachedCount() {
+        return reachedCount.get();
+    }
+
+    /**
+     * Queries whether the node <code>id</code> was reached by the last
+     * search.
+     *
+     * @param id the node id.
+     *
+     * @return <code>true</code> if the node was reached.
+     */
+    public boolean isReached(final int id) {
+        return visited != null
+                && id >= 0
+                && id < visited.length() << 6
+                && (visited.get(id >>> 6) & (1L << id)) != 0L;
+    }
+
+    /**
+     * Returns the nodes reached by the last search, level by level.
+     *
+     * @return the list of reached nodes.
+     */
+    public List<T> getReachedNodes() {
+        final int count = reachedCount.get();
+        final List<T> nodes = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            nodes.add(graph.getNode(reached[i]));
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Marks the node <code>id</code> visited.
+     *
+     * @param id the node id.
+     *
+     * @return <code>true</code> if the node was not visited before.
+     */
+    private boolean mark(final int id) {
+        final int index = id >>> 6;
+        final long bit = 1L << id;
+
+        while (true) {
+            final long current = visited.get(index);
+
+            if ((current & bit) != 0L) {
+                return false;
+            }
+
+            if (visited.compareAndSet(index, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Visits the unvisited children of the frontier nodes stored at
+     * <tt>reached[begin, end)</tt> and appends them to <code>reached</code>.
+     */
+    private void expand(final int begin, final int end) {
+        int[] found = new int[16];
+        int count = 0;
+
+        for (int i = begin; i < end; ++i) {
+            for (final T child : graph.getNode(reached[i])) {
+                final int id = child.getId();
+
+                if (mark(id)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, 2 * count);
+                    }
+
+                    found[count++] = id;
+                }
+            }
+        }
+
+        if (count > 0) {
+            System.arraycopy(found,
+                             0,
+                             reached,
+                             reachedCount.getAndAdd(count),
+                             count);
+        }
+    }
+
+    /**
+     * Expands a range of the frontier, splitting it in halves until it is
+     * small enough.
+     */
+    private final class LevelTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int begin;
+        private final int end;
+
+        LevelTask(final int begin, final int end) {
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin <= TASK_GRAIN) {
+                expand(begin, end);
+                return;
+            }
+
+            final int middle = (begin + end) >>> 1;
+
+            invokeAll(new LevelTask(begin, middle),
+                      new LevelTask(middle, end));
+        }
+    }
+}
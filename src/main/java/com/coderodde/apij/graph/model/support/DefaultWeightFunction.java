@@ -1,13 +1,24 @@
 package com.coderodde.apij.graph.model.support;
 
+import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.Node;
 import com.coderodde.apij.graph.model.WeightFunction;
+import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
+import static com.coderodde.apij.util.Utils.checkHasId;
 import static com.coderodde.apij.util.Utils.checkNotNull;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
- * This class implements the weight function.
+ * This class implements the weight function. The weights are kept in rows
+ * indexed by the id of the tail node; each row is an open-addressed table
+ * mapping the head node ids to the weights in parallel primitive arrays, so
+ * both lookup and insertion take expected constant time without boxing.
+ * <p>
+ * Since node ids are recycled, a weight function is bound to a single owner
+ * graph, either at construction or by the first {@link #put}, and rejects
+ * the nodes of any other graph. It listens to the removals of its graph and
+ * drops the weights of the arcs leaving and entering a removed node, so a 
+ * node later given the same id starts without weights.
  * 
  * @author Rodion Efremov
  * @version 1.6
@@ -17,7 +28,242 @@ import java.util.Map;
 public class DefaultWeightFunction<T extends Node<T>> 
 implements WeightFunction<T> {
     
-    private final Map<T, Map<T, Double>> map = new HashMap<>();
+    /**
+     * The initial amount of rows.
+     */
+    private static final int INITIAL_ROWS = 16;
+    
+    /**
+     * The initial capacity of a row; a power of two.
+     */
+    private static final int INITIAL_ROW_CAPACITY = 4;
+    
+    /**
+     * This class holds the weights of the arcs leaving a single node in an 
+     * open-addressed table with linear probing, keyed by the head node id.
+     */
+    private static final class Row {
+        
+        /**
+         * Marks a free slot in <code>heads</code>.
+         */
+        static final int FREE = -1;
+        
+        /**
+         * The ids of the head nodes. The length is always a power of two.
+         */
+        int[] heads = newHeads(INITIAL_ROW_CAPACITY);
+        
+        /**
+         * <code>weights[i]</code> is the weight of the arc to 
+         * <code>heads[i]</code>.
+         */
+        double[] weights = new double[INITIAL_ROW_CAPACITY];
+        
+        /**
+         * The amount of arcs in this row.
+         */
+        int size;
+        
+        /**
+         * Returns the slot of <code>head</code>, or <code>-1</code> if this
+         * row has no arc to it.
+         * 
+         * @param head the head node id.
+         * 
+         * @return the slot or <code>-1</code>.
+         */
+        int indexOf(final int head) {
+            final int slot = slotOf(head);
+            return heads[slot] == head ? slot : -1;
+        }
+        
+        /**
+         * Sets the weight of the arc to <code>head</code>.
+         * 
+         * @param head   the head node id.
+         * @param weight the weight of the arc.
+         * 
+         * @return <code>true</code> if the arc was not in this row before.
+         */
+        boolean put(final int head, final double weight) {
+            final int slot = slotOf(head);
+            
+            if (heads[slot] == head) {
+                weights[slot] = weight;
+                return false;
+            }
+            
+            heads[slot] = head;
+            weights[slot] = weight;
+            
+            // Keep the load factor at most 3/4, so that probing always
+            // reaches a free slot.
+            if (4 * ++size > 3 * heads.length) {
+                rehash(2 * heads.length);
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Removes the arc to <code>head</code>, if present, shifting the 
+         * following entries of the probe run back so that no tombstones are
+         * needed.
+         * 
+         * @param head the head node id.
+         */
+        void remove(final int head) {
+            int hole = indexOf(head);
+            
+            if (hole == -1) {
+                return;
+            }
+            
+            final int mask = heads.length - 1;
+            int slot = (hole + 1) & mask;
+            
+            while (heads[slot] != FREE) {
+                final int home = hash(heads[slot]) & mask;
+                
+                if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                    heads[hole] = heads[slot];
+                    weights[hole] = weights[slot];
+                    hole = slot;
+                }
+                
+                slot = (slot + 1) & mask;
+            }
+            
+            heads[hole] = FREE;
+            --size;
+        }
+        
+        /**
+         * Returns the slot holding <code>head</code>, or the free slot at 
+         * which it would be inserted.
+         */
+        private int slotOf(final int head) {
+            final int mask = heads.length - 1;
+            int slot = hash(head) & mask;
+            
+            while (heads[slot] != FREE && heads[slot] != head) {
+                slot = (slot + 1) & mask;
+            }
+            
+            return slot;
+        }
+        
+        private void rehash(final int capacity) {
+            final int[] oldHeads = heads;
+            final double[] oldWeights = weights;
+            heads = newHeads(capacity);
+            weights = new double[capacity];
+            
+            for (int i = 0; i < oldHeads.length; ++i) {
+                if (oldHeads[i] != FREE) {
+                    final int slot = slotOf(oldHeads[i]);
+                    heads[slot] = oldHeads[i];
+                    weights[slot] = oldWeights[i];
+                }
+            }
+        }
+        
+        private static int[] newHeads(final int capacity) {
+            final int[] heads = new int[capacity];
+            Arrays.fill(heads, FREE);
+            return heads;
+        }
+        
+        /**
+         * Spreads the consecutive node ids over the table.
+         */
+        private static int hash(final int id) {
+            final int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+    
+    /**
+     * This class holds the ids of the tail nodes of the weighted arcs 
+     * entering a single node.
+     */
+    private static final class Column {
+        
+        int[] tails = new int[INITIAL_ROW_CAPACITY];
+        int size;
+        
+        void add(final int tail) {
+            if (size == tails.length) {
+                tails = Arrays.copyOf(tails, 2 * size);
+            }
+            
+            tails[size++] = tail;
+        }
+        
+        void remove(final int tail) {
+            for (int i = 0; i < size; ++i) {
+                if (tails[i] == tail) {
+                    tails[i] = tails[--size];
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Maps a tail node id to its row.
+     */
+    private Row[] rows = new Row[INITIAL_ROWS];
+    
+    /**
+     * Maps a head node id to its column.
+     */
+    private Column[] columns = new Column[INITIAL_ROWS];
+    
+    /**
+     * The graph of the nodes of this weight function.
+     */
+    private Graph<T> ownerGraph;
+    
+    /**
+     * Drops the weights of the nodes removed from the owner graph.
+     */
+    private final Graph.RemovalListener<T> removalListener = 
+            new Graph.RemovalListener<T>() {
+        @Override
+        public void nodeRemoved(final T node) {
+            forget(node.getId());
+        }
+    };
+    
+    /**
+     * Constructs a weight function bound to the graph of the first node 
+     * passed to {@link #put}.
+     */
+    public DefaultWeightFunction() {
+        
+    }
+    
+    /**
+     * Constructs a weight function bound to <code>graph</code>.
+     * 
+     * @param graph the owner graph.
+     */
+    public DefaultWeightFunction(final Graph<T> graph) {
+        checkNotNull(graph, "'graph' is null.");
+        bind(graph);
+    }
+    
+    /**
+     * Returns the graph this weight function is bound to, or 
+     * <code>null</code> if it is not bound yet.
+     * 
+     * @return the owner graph.
+     */
+    public Graph<T> getOwnerGraph() {
+        return ownerGraph;
+    }
     
     /**
      * Assigns a weight to the edge <tt>(from, to)</tt>.
@@ -25,17 +271,51 @@ implements WeightFunction<T> {
      * @param from the tail node of the edge.
      * @param to the head node of the edge.
      * @param weight the weight of the edge.
+     * 
+     * @throws IllegalStateException if a node belongs to another graph than
+     *         this weight function.
      */
+    @Override
     public void put(final T from, final T to, final double weight) {
         checkNotNull(from, "'from' is 'null'.");
         checkNotNull(to, "'to' is 'null'.");
-        checkNotNull(weight, "'weight' is 'null'.");
         
-        if (map.containsKey(from) == false) {
-            map.put(from, new HashMap<T, Double>());
+        if (ownerGraph == null) {
+            checkBelongsToGraph(from);
+            bind(from.getOwnerGraph());
+        }
+        
+        checkOwner(from);
+        checkOwner(to);
+        checkHasId(from);
+        checkHasId(to);
+        
+        final int tail = from.getId();
+        final int head = to.getId();
+        final int bound = Math.max(tail, head) + 1;
+        
+        if (bound > rows.length) {
+            final int length = Math.max(2 * rows.length, bound);
+            rows = Arrays.copyOf(rows, length);
+            columns = Arrays.copyOf(columns, length);
+        }
+        
+        Row row = rows[tail];
+        
+        if (row == null) {
+            row = new Row();
+            rows[tail] = row;
+        }
+        
+        if (row.put(head, weight) == false) {
+            return;
         }
         
-        map.get(from).put(to, weight);
+        if (columns[head] == null) {
+            columns[head] = new Column();
+        }
+        
+        columns[head].add(tail);
     }
     
     /**
@@ -45,23 +325,36 @@ implements WeightFunction<T> {
      * @param to the head node of the edge.
      * 
      * @return the weight of the specified edge. 
+     * 
+     * @throws IllegalStateException if there is no weight for the edge, or a
+     *         node belongs to another graph than this weight function.
      */
     @Override
     public double get(final T from, final T to) {
         checkNotNull(from, "'from' is 'null'.");
         checkNotNull(to, "'to' is 'null'.");
+        checkOwner(from);
+        checkOwner(to);
         
-        if (map.containsKey(from)) {
-            Double result = map.get(from).get(to);
+        final Row row = getRow(from.getId());
+        
+        if (row != null) {
+            final int index = row.indexOf(to.getId());
             
-            if (result != null) {
-                return result;
+            if (index != -1) {
+                return row.weights[index];
             }
         }
         
         if (from instanceof UndirectedGraphNode) {
-            if (map.containsKey(to)) {
-                return map.get(to).get(from);
+            final Row reverseRow = getRow(to.getId());
+            
+            if (reverseRow != null) {
+                final int index = reverseRow.indexOf(from.getId());
+                
+                if (index != -1) {
+                    return reverseRow.weights[index];
+                }
             }
         }
         
@@ -69,4 +362,63 @@ implements WeightFunction<T> {
                 "No weight for edge (" + from.getName() + ", " +
                         to.getName() + ").");
     }
+    
+    private void bind(final Graph<T> graph) {
+        ownerGraph = graph;
+        graph.addRemovalListener(removalListener);
+    }
+    
+    private void checkOwner(final T node) {
+        if (node.getOwnerGraph() != ownerGraph) {
+            throw new IllegalStateException(
+                    "The node " + node.getName() + " does not belong to " +
+                    "the graph of this weight function.");
+        }
+    }
+    
+    /**
+     * Drops the weights of the arcs leaving and entering the node with id 
+     * <code>id</code>.
+     * 
+     * @param id the node id being released.
+     */
+    private void forget(final int id) {
+        final Row row = getRow(id);
+        
+        if (row != null) {
+            for (final int head : row.heads) {
+                if (head != Row.FREE) {
+                    columns[head].remove(id);
+                }
+            }
+            
+            rows[id] = null;
+        }
+        
+        if (id >= 0 && id < columns.length && columns[id] != null) {
+            final Column column = columns[id];
+            
+            for (int i = 0; i < column.size; ++i) {
+                rows[column.tails[i]].remove(id);
+            }
+            
+            columns[id] = null;
+        }
+    }
+    
+    /**
+     * Returns the row of the node with id <code>id</code>, or 
+     * <code>null</code> if there is no such.
+     * 
+     * @param id the tail node id.
+     * 
+     * @return the row or <code>null</code>.
+     */
+    private Row getRow(final int id) {
+        if (id < 0 || id >= rows.length) {
+            return null;
+        }
+        
+        return rows[id];
+    }
 }
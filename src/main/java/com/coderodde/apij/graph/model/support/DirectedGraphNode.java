@@ -147,6 +147,11 @@ public class DirectedGraphNode extends Node<DirectedGraphNode> {
         this.ownerGraph = graph;
     }
     
+    /**
+     * Removes all arcs leaving and entering this node. The incoming arcs are
+     * removed as well, so that no node keeps a reference to a removed node
+     * whose id may be reused.
+     */
     @Override
     public void clear() {
         final Iterator<DirectedGraphNode> iterator = iterator();
@@ -156,6 +161,15 @@ public class DirectedGraphNode extends Node<DirectedGraphNode> {
             iterator.remove();
             this.decEdgeCount();
         }
+        
+        final Iterator<DirectedGraphNode> parentIterator = 
+                parents().iterator();
+        
+        while (parentIterator.hasNext()) {
+            parentIterator.next();
+            parentIterator.remove();
+            this.decEdgeCount();
+        }
     }
     
     @Override
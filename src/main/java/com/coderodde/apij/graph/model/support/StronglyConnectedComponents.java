@@ -0,0 +1,318 @@
+package com.coderodde.apij.graph.model.support;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * This class computes the strongly connected components of a directed graph
+ * by Tarjan's algorithm. The depth-first search is iterative: the call stack
+ * is an explicit stack of node ids and child iterators, so the depth of the
+ * graph is limited by the heap only.
+ * <p>
+ * The components are numbered in reverse topological order: every arc leads
+ * to a component with the same or a smaller number.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class StronglyConnectedComponents {
+
+    /**
+     * The component of the released node ids.
+     */
+    public static final int NO_COMPONENT = -1;
+
+    /**
+     * The graph.
+     */
+    private final Graph<DirectedGraphNode> graph;
+
+    /**
+     * <code>components[id]</code> is the component of the node
+     * <code>id</code>.
+     */
+    private final int[] components;
+
+    /**
+     * <code>sizes[c]</code> is the amount of nodes in the component
+     * <code>c</code>.
+     */
+    private final int[] sizes;
+
+    /**
+     * The component with the most nodes.
+     */
+    private final int largest;
+
+    /**
+     * Computes the strongly connected components of <code>graph</code>.
+     *
+     * @param graph the graph.
+     */
+    public StronglyConnectedComponents(final Graph<DirectedGraphNode> graph) {
+        checkNotNull(graph, "'graph' is null.");
+        this.graph = graph;
+        this.components = new int[graph.getIdBound()];
+
+        Arrays.fill(components, NO_COMPONENT);
+
+        final int componentCount = new Tarjan().run();
+
+        this.sizes = new int[componentCount];
+
+        for (final int component : components) {
+            if (component != NO_COMPONENT) {
+                ++sizes[component];
+            }
+        }
+
+        int best = NO_COMPONENT;
+
+        for (int c = 0; c < componentCount; ++c) {
+            if (best == NO_COMPONENT || sizes[c] > sizes[best]) {
+                best = c;
+            }
+        }
+
+        this.largest = best;
+    }
+
+    /**
+     * Returns the component of each node id. Released ids map to
+     * <code>NO_COMPONENT</code>.
+     *
+     * @return the component array. Must not be modified.
+     */
+    public int[] getComponents() {
+        return components;
+    }
+
+    /**
+     * Returns the component of <code>node</code>.
+     *
+     * @param node the node.
+     *
+     * @return the component number.
+     */
+    public int getComponent(final DirectedGraphNode node) {
+        return components[node.getId()];
+    }
+
+    /**
+     * Returns the amount of components.
+     *
+     * @return the amount of components.
+     */
+    public int getComponentCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Returns the amount of nodes in the component <code>component</code>.
+     *
+     * @param component the component number.
+     *
+     * @return the size of the component.
+     */
+    public int getComponentSize(final int component) {
+        return sizes[component];
+    }
+
+    /**
+     * Returns the component with the most nodes, or
+     * <code>NO_COMPONENT</code> if the graph is empty.
+     *
+     * @return the largest component.
+     */
+    public int getLargestComponent() {
+        return largest;
+    }
+
+    /**
+     * Returns a new graph consisting of copies of the nodes in the largest
+     * component and the arcs between them. The copies have the names of the
+     * original nodes.
+     *
+     * @param name the name of the new graph.
+     *
+     * @return the largest component as a graph.
+     */
+    public Graph<DirectedGraphNode> extractLargestComponent(final String name) {
+        return extractLargestComponent(name, null, null);
+    }
+
+    /**
+     * Returns a new graph consisting of copies of the nodes in the largest
+     * component and the arcs between them, and copies the weights of the
+     * arcs from <code>wf</code> to <code>newWf</code>. Since the copies
+     * live in a new graph, <code>newWf</code> must be another weight function
+     * than <code>wf</code>.
+     *
+     * @param name the name of the new graph.
+     * @param wf the weight function of the graph, or <code>null</code>.
+     * @param newWf the weight function to receive the weights of the copied
+     * arcs, or <code>null</code>.
+     *
+     * @return the largest component as a graph.
+     *
+     * @throws IllegalArgumentException if <code>wf</code> and
+     * <code>newWf</code> are the same weight function.
+     */
+    public Graph<DirectedGraphNode>
+        extractLargestComponent(final String name,
+                                final WeightFunction<DirectedGraphNode> wf,
+                                final WeightFunction<DirectedGraphNode> newWf) {
+        if (wf != null && wf == newWf) {
+            throw new IllegalArgumentException(
+                    "'wf' and 'newWf' are the same weight function.");
+        }
+
+        final Graph<DirectedGraphNode> g = new Graph<>(name);
+
+        if (largest == NO_COMPONENT) {
+            return g;
+        }
+
+        final DirectedGraphNode[] copies =
+                new DirectedGraphNode[components.length];
+
+        for (int id = 0; id < components.length; ++id) {
+            if (components[id] == largest) {
+                copies[id] = new DirectedGraphNode(graph.getNode(id)
+                                                        .getName());
+                g.add(copies[id]);
+            }
+        }
+
+        for (int id = 0; id < components.length; ++id) {
+            if (copies[id] == null) {
+                continue;
+            }
+
+            final DirectedGraphNode node = graph.getNode(id);
+
+            for (final DirectedGraphNode child : node) {
+                final DirectedGraphNode copy = copies[child.getId()];
+
+                if (copy == null) {
+                    continue;
+                }
+
+                g.addEdge(copies[id], copy);
+
+                if (wf != null && newWf != null) {
+                    newWf.put(copies[id], copy, wf.get(node, child));
+                }
+            }
+        }
+
+        return g;
+    }
+
+    /**
+     * Holds the state of one run of Tarjan's algorithm.
+     */
+    private final class Tarjan {
+
+        /**
+         * The preorder number of each node id, or <tt>-1</tt>.
+         */
+        private final int[] index = new int[components.length];
+
+        /**
+         * The lowest preorder number reachable from each node id through its
+         * subtree and at most one back arc.
+         */
+        private final int[] lowlink = new int[components.length];
+
+        /**
+         * The nodes visited but not yet assigned to a component.
+         */
+        private final int[] stack = new int[components.length];
+
+        /**
+         * The node ids on the depth-first search path.
+         */
+        private final int[] path = new int[components.length];
+
+        /**
+         * The child iterators of the nodes on the depth-first search path.
+         */
+        private final Iterator<?>[] iterators =
+                new Iterator<?>[components.length];
+
+        private int stackSize;
+        private int nextIndex;
+        private int componentCount;
+
+        /**
+         * Runs the algorithm.
+         *
+         * @return the amount of components.
+         */
+        int run() {
+            Arrays.fill(index, -1);
+
+            for (int id = 0; id < components.length; ++id) {
+                if (index[id] == -1 && graph.getNode(id) != null) {
+                    visit(id);
+                }
+            }
+
+            return componentCount;
+        }
+
+        private void visit(final int root) {
+            int depth = 0;
+
+            open(root, depth++);
+
+            while (depth > 0) {
+                final int u = path[depth - 1];
+                final Iterator<DirectedGraphNode> iterator =
+                        (Iterator<DirectedGraphNode>) iterators[depth - 1];
+
+                if (iterator.hasNext()) {
+                    final int v = iterator.next().getId();
+
+                    if (index[v] == -1) {
+                        open(v, depth++);
+                    } else if (components[v] == NO_COMPONENT) {
+                        // 'v' is on the stack.
+                        lowlink[u] = Math.min(lowlink[u], index[v]);
+                    }
+
+                    continue;
+                }
+
+                iterators[--depth] = null;
+
+                if (depth > 0) {
+                    final int parent = path[depth - 1];
+                    lowlink[parent] = Math.min(lowlink[parent], lowlink[u]);
+                }
+
+                if (lowlink[u] == index[u]) {
+                    int v;
+
+                    do {
+                        v = stack[--stackSize];
+                        components[v] = componentCount;
+                    } while (v != u);
+
+                    ++componentCount;
+                }
+            }
+        }
+
+        private void open(final int id, final int depth) {
+            index[id] = lowlink[id] = nextIndex++;
+            stack[stackSize++] = id;
+            path[depth] = id;
+            iterators[depth] = graph.getNode(id).iterator();
+        }
+    }
+}
@@ -6,17 +6,39 @@ import java.awt.geom.Point2D;
 
 public abstract class HeuristicFunction<T extends Node<T>> {
     
-    protected Point2D.Double targetPoint;
+    /**
+     * The point of the current target for the subclasses working on points.
+     * {@link #setTarget(Node)} updates this one instance in place.
+     */
+    protected final Point2D.Double targetPoint = new Point2D.Double();
     protected Layout<T> layout;
     
+    /**
+     * The coordinates of the current target, cached by 
+     * {@link #setTarget(Node)} so that {@link #estimateFrom(Node)} reads 
+     * only the coordinates of <code>from</code>.
+     */
+    protected double targetX;
+    protected double targetY;
+    
     protected HeuristicFunction(final Layout<T> layout) {
         checkNotNull(layout, "'layout' is null.");
         this.layout = layout;
     }
     
-    public final void setTarget(final T target) {
+    /**
+     * Constructs a heuristic function that does not rely on a layout. Such
+     * functions must override {@link #setTarget(Node)}.
+     */
+    protected HeuristicFunction() {
+        
+    }
+    
+    public void setTarget(final T target) {
         checkNotNull(target, "'target' is null.");
-        targetPoint = layout.get(target);
+        targetX = layout.getX(target);
+        targetY = layout.getY(target);
+        targetPoint.setLocation(targetX, targetY);
     }
     
     public abstract double estimateFrom(final T from);
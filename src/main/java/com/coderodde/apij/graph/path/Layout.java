@@ -1,26 +1,259 @@
 package com.coderodde.apij.graph.path;
 
+import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.Node;
+import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
+import static com.coderodde.apij.util.Utils.checkHasId;
 import static com.coderodde.apij.util.Utils.checkNotNull;
 import java.awt.geom.Point2D;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+/**
+ * This class maps the nodes of a graph to points in the plane. The
+ * coordinates are stored in two <code>double</code> arrays indexed by node id
+ * (see {@link com.coderodde.apij.graph.model.Node#getId()}).
+ * <p>
+ * Since node ids are recycled, a layout is bound to a single owner graph,
+ * either at construction or by the first {@link #put(Node, double, double)},
+ * and rejects the nodes of any other graph. It listens to the removals of
+ * its graph and drops the point of a removed node, so a node later given the
+ * same id starts without a point.
+ * <p>
+ * {@link #getX(Node)} and {@link #getY(Node)} read a coordinate with no
+ * allocation, which is what heuristic functions should use on hot paths;
+ * {@link #get(Node)} returns a new point holding a copy of the coordinates.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ *
+ * @version 1.6
+ */
 public class Layout<T extends Node<T>> {
-    
-    private Map<T, Point2D.Double> map;
-    
+
+    /**
+     * The initial capacity of the coordinate arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Maps a node id to the x-coordinate of the node.
+     */
+    private double[] xs;
+
+    /**
+     * Maps a node id to the y-coordinate of the node.
+     */
+    private double[] ys;
+
+    /**
+     * <code>present[id]</code> is <code>true</code> if the node with id
+     * <code>id</code> has a point.
+     */
+    private boolean[] present;
+
+    /**
+     * The graph of the nodes of this layout.
+     */
+    private Graph<T> ownerGraph;
+
+    /**
+     * Drops the points of the nodes removed from the owner graph.
+     */
+    private final Graph.RemovalListener<T> removalListener =
+            new Graph.RemovalListener<T>() {
+        @Override
+        public void nodeRemoved(final T node) {
+            final int id = node.getId();
+
+            if (id >= 0 && id < present.length) {
+                present[id] = false;
+            }
+        }
+    };
+
+    /**
+     * Constructs a layout bound to the graph of the first node passed to
+     * {@link #put(Node, double, double)}.
+     */
     public Layout() {
-        this.map = new HashMap<>();
+        this.xs = new double[INITIAL_CAPACITY];
+        this.ys = new double[INITIAL_CAPACITY];
+        this.present = new boolean[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructs a layout bound to <code>graph</code>.
+     *
+     * @param graph the owner graph.
+     */
+    public Layout(final Graph<T> graph) {
+        this();
+        checkNotNull(graph, "'graph' is null.");
+        bind(graph);
     }
-    
+
+    /**
+     * Returns the graph this layout is bound to, or <code>null</code> if it
+     * is not bound yet.
+     *
+     * @return the owner graph.
+     */
+    public Graph<T> getOwnerGraph() {
+        return ownerGraph;
+    }
+
+    /**
+     * Places <code>node</code> at <code>point</code>. Only the coordinates
+     * are stored, so later changes to <code>point</code> do not affect this
+     * layout.
+     *
+     * @param node  the node to place.
+     * @param point the point of the node.
+     *
+     * @throws IllegalStateException if the node belongs to another graph
+     *         than this layout.
+     */
     public void put(final T node, final Point2D.Double point) {
-        checkNotNull(node, "'node' is null.");
         checkNotNull(point, "'point' is null.");
-        map.put(node, point);
+        put(node, point.x, point.y);
+    }
+
+    /**
+     * Places <code>node</code> at <tt>(x, y)</tt>.
+     *
+     * @param node the node to place.
+     * @param x    the x-coordinate of the node.
+     * @param y    the y-coordinate of the node.
+     *
+     * @throws IllegalStateException if the node belongs to another graph
+     *         than this layout.
+     */
+    public void put(final T node, final double x, final double y) {
+        checkNotNull(node, "'node' is null.");
+
+        if (ownerGraph == null) {
+            checkBelongsToGraph(node);
+            bind(node.getOwnerGraph());
+        }
+
+        checkOwner(node);
+        checkHasId(node);
+
+        final int id = node.getId();
+
+        if (id >= xs.length) {
+            final int newLength = Math.max(2 * xs.length, id + 1);
+            xs = Arrays.copyOf(xs, newLength);
+            ys = Arrays.copyOf(ys, newLength);
+            present = Arrays.copyOf(present, newLength);
+        }
+
+        xs[id] = x;
+        ys[id] = y;
+        present[id] = true;
     }
-    
+
+    /**
+     * Returns a new point with the coordinates of <code>node</code>. The
+     * point is a copy: changing it does not move the node, which only
+     * {@link #put(Node, double, double)} does, and every call allocates a
+     * new point, so hot paths should read {@link #getX(Node)} and
+     * {@link #getY(Node)} instead.
+     *
+     * @param node the node to query.
+     *
+     * @return the point of the node, or <code>null</code> if the node has
+     *         none.
+     *
+     * @throws IllegalStateException if the node belongs to another graph
+     *         than this layout.
+     */
     public Point2D.Double get(final T node) {
-        return map.get(node);
+        if (contains(node) == false) {
+            return null;
+        }
+
+        final int id = node.getId();
+        return new Point2D.Double(xs[id], ys[id]);
+    }
+
+    /**
+     * Returns <code>true</code> if <code>node</code> has a point.
+     *
+     * @param node the node to query.
+     *
+     * @return <code>true</code> if the node has a point.
+     *
+     * @throws IllegalStateException if the node belongs to another graph
+     *         than this layout.
+     */
+    public boolean contains(final T node) {
+        checkNotNull(node, "'node' is null.");
+
+        if (ownerGraph == null) {
+            return false;
+        }
+
+        checkOwner(node);
+        final int id = node.getId();
+        return id >= 0 && id < present.length && present[id];
+    }
+
+    /**
+     * Returns the x-coordinate of <code>node</code>.
+     *
+     * @param node the node to query.
+     *
+     * @return the x-coordinate.
+     *
+     * @throws IllegalStateException if the node has no point, or belongs to
+     *         another graph than this layout.
+     */
+    public double getX(final T node) {
+        return xs[checkHasPoint(node)];
+    }
+
+    /**
+     * Returns the y-coordinate of <code>node</code>.
+     *
+     * @param node the node to query.
+     *
+     * @return the y-coordinate.
+     *
+     * @throws IllegalStateException if the node has no point, or belongs to
+     *         another graph than this layout.
+     */
+    public double getY(final T node) {
+        return ys[checkHasPoint(node)];
+    }
+
+    private void bind(final Graph<T> graph) {
+        ownerGraph = graph;
+        graph.addRemovalListener(removalListener);
+    }
+
+    private void checkOwner(final T node) {
+        if (node.getOwnerGraph() != ownerGraph) {
+            throw new IllegalStateException(
+                    "The node " + node.getName() + " does not belong to " +
+                    "the graph of this layout.");
+        }
+    }
+
+    /**
+     * Returns the id of <code>node</code> after checking that it has a point.
+     *
+     * @param node the node to check.
+     *
+     * @return the id of the node.
+     */
+    private int checkHasPoint(final T node) {
+        if (contains(node) == false) {
+            throw new IllegalStateException(
+                    "The node " + node.getName() + " has no point.");
+        }
+
+        return node.getId();
     }
 }
@@ -1,6 +1,13 @@
 package com.coderodde.apij.graph.path;
 
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.PriorityQueue;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.ds.pq.support.IntPriorityQueueBridge;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.Node;
+import java.util.List;
 import java.util.Map;
 
 public abstract class PathFinder<T extends Node<T>> {
@@ -33,9 +40,68 @@ public abstract class PathFinder<T extends Node<T>> {
         return new SearchData(SearchDataType.HEURISTIC_FUNCTION_BACKWARD,
                               backwardHeuristicFunction);
     }
+        
+    /**
+     * Requests the search to run on the compact snapshot 
+     * <code>compactGraph</code> instead of walking the node objects. The 
+     * weights are then read from the snapshot, so no weight function is 
+     * needed.
+     * 
+     * @param compactGraph the snapshot of the graph being searched.
+     * 
+     * @return the search data.
+     */
+    public static final SearchData
+        withCompactGraph(final Object compactGraph) {
+        return new SearchData(SearchDataType.COMPACT_GRAPH, compactGraph);
+    }
+        
+    /**
+     * Requests a one-to-all search to settle only the nodes whose distance 
+     * from the source is at most <code>distanceBound</code>.
+     * 
+     * @param distanceBound the largest distance of a settled node.
+     * 
+     * @return the search data.
+     */
+    public static final SearchData 
+        withDistanceBound(final double distanceBound) {
+        return new SearchData(SearchDataType.DISTANCE_BOUND, distanceBound);
+    }
+        
+    /**
+     * Requests a one-to-all search to settle at most <code>nodeBound</code> 
+     * nodes.
+     * 
+     * @param nodeBound the largest amount of settled nodes.
+     * 
+     * @return the search data.
+     */
+    public static final SearchData withNodeBound(final int nodeBound) {
+        return new SearchData(SearchDataType.NODE_BOUND, nodeBound);
+    }
     
     public abstract Path<T> search(final SearchData... data);
     
+    /**
+     * Returns a new empty primitive queue for searching compact graphs. If 
+     * <code>heap</code> is a bridge over a primitive queue, a spawn of that 
+     * queue is returned, so that the choice of the queue carries over to the
+     * compact searches. Otherwise a binary heap is returned.
+     * 
+     * @param heap the queue a finder was constructed with.
+     * 
+     * @return a new primitive queue.
+     */
+    protected static IntPriorityQueue 
+        spawnIdQueue(final PriorityQueue<?, Double> heap) {
+        if (heap instanceof IntPriorityQueueBridge) {
+            return ((IntPriorityQueueBridge<?>) heap).spawnQueue();
+        }
+        
+        return new IntDaryHeap(2);
+    }
+    
     public static <T extends Node<T>> Path<T> constructPath
         (final T target, final Map<T, T> parentMap) {
         Path<T> path = new Path<>();
@@ -71,4 +137,129 @@ public abstract class PathFinder<T extends Node<T>> {
         
         return path;    
     }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPath(final int target,
+                      final int[] parents,
+                      final CompactGraph<T> graph) {
+        Path<T> path = new Path<>();
+        int current = target;
+        
+        while (current != -1) {
+            path.prependNode(graph.getNode(current));
+            current = parents[current];
+        }
+        
+        return path;
+    }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPath(final int target,
+                      final SearchState state,
+                      final Graph<T> graph) {
+        Path<T> path = new Path<>();
+        int current = target;
+        
+        while (current != SearchState.NO_PARENT) {
+            path.prependNode(graph.getNode(current));
+            current = state.getParent(current);
+        }
+        
+        return path;
+    }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPath(final int target,
+                      final SearchState state,
+                      final CompactGraph<T> graph) {
+        Path<T> path = new Path<>();
+        int current = target;
+        
+        while (current != SearchState.NO_PARENT) {
+            path.prependNode(graph.getNode(current));
+            current = state.getParent(current);
+        }
+        
+        return path;
+    }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPath(final List<T> nodes) {
+        Path<T> path = new Path<>();
+        
+        for (final T node : nodes) {
+            path.appendNode(node);
+        }
+        
+        return path;
+    }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPathBidirectional(final int touch,
+                                   final int[] parentsForward,
+                                   final int[] parentsBackward,
+                                   final CompactGraph<T> graph) {
+        Path<T> path = new Path<>();
+        int current = touch;
+        
+        while (current != -1) {
+            path.prependNode(graph.getNode(current));
+            current = parentsForward[current];
+        }
+        
+        current = parentsBackward[touch];
+        
+        while (current != -1) {
+            path.appendNode(graph.getNode(current));
+            current = parentsBackward[current];
+        }
+        
+        return path;
+    }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPathBidirectional(final int touch,
+                                   final SearchState stateForward,
+                                   final SearchState stateBackward,
+                                   final Graph<T> graph) {
+        Path<T> path = new Path<>();
+        int current = touch;
+        
+        while (current != SearchState.NO_PARENT) {
+            path.prependNode(graph.getNode(current));
+            current = stateForward.getParent(current);
+        }
+        
+        current = stateBackward.getParent(touch);
+        
+        while (current != SearchState.NO_PARENT) {
+            path.appendNode(graph.getNode(current));
+            current = stateBackward.getParent(current);
+        }
+        
+        return path;
+    }
+        
+    public static <T extends Node<T>> Path<T> 
+        constructPathBidirectional(final int touch,
+                                   final SearchState stateForward,
+                                   final SearchState stateBackward,
+                                   final CompactGraph<T> graph) {
+        Path<T> path = new Path<>();
+        int current = touch;
+        
+        while (current != SearchState.NO_PARENT) {
+            path.prependNode(graph.getNode(current));
+            current = stateForward.getParent(current);
+        }
+        
+        current = stateBackward.getParent(touch);
+        
+        while (current != SearchState.NO_PARENT) {
+            path.appendNode(graph.getNode(current));
+            current = stateBackward.getParent(current);
+        }
+        
+        return path;
+    }
 }
@@ -5,5 +5,8 @@ public enum SearchDataType {
     TARGET,
     WEIGHT_FUNCTION,
     HEURISTIC_FUNCTION,
-    HEURISTIC_FUNCTION_BACKWARD
+    HEURISTIC_FUNCTION_BACKWARD,
+    COMPACT_GRAPH,
+    DISTANCE_BOUND,
+    NODE_BOUND
 }
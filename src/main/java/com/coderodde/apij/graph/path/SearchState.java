@@ -0,0 +1,184 @@
+package com.coderodde.apij.graph.path;
+
+import static com.coderodde.apij.util.Utils.checkNotBelow;
+import java.util.Arrays;
+
+/**
+ * This class holds the per-node state of a shortest path search in arrays
+ * indexed by node id: the tentative distances, the parent node ids and the
+ * closed flags. Instead of clearing the arrays between searches, every entry
+ * is stamped with the epoch of the search that wrote it, and
+ * {@link #reset(int)} just advances the epoch; entries with a stale stamp read
+ * as undiscovered. This way a search costs only what it touches, and a state
+ * may be reused by any amount of searches without allocation.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class SearchState {
+
+    /**
+     * The default capacity of a state.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The parent of the nodes without parents.
+     */
+    public static final int NO_PARENT = -1;
+
+    /**
+     * The tentative distances of the nodes.
+     */
+    private double[] distances;
+
+    /**
+     * The parent node ids of the nodes.
+     */
+    private int[] parents;
+
+    /**
+     * <code>visitStamps[id]</code> is the epoch in which the node
+     * <code>id</code> was discovered most recently.
+     */
+    private int[] visitStamps;
+
+    /**
+     * <code>closedStamps[id]</code> is the epoch in which the node
+     * <code>id</code> was closed most recently.
+     */
+    private int[] closedStamps;
+
+    /**
+     * The epoch of the current search.
+     */
+    private int epoch;
+
+    /**
+     * Constructs a state for graphs with node ids below
+     * <code>capacity</code>. The state grows on demand in {@link #reset(int)}.
+     *
+     * @param capacity the initial capacity.
+     */
+    public SearchState(final int capacity) {
+        checkNotBelow(capacity, 0, "'capacity' is negative.");
+        this.distances = new double[capacity];
+        this.parents = new int[capacity];
+        this.visitStamps = new int[capacity];
+        this.closedStamps = new int[capacity];
+        this.epoch = 1;
+    }
+
+    /**
+     * Constructs a state with default capacity.
+     */
+    public SearchState() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Starts a new search over a graph with node ids below
+     * <code>capacity</code>. All nodes become undiscovered in <tt>O(1)</tt>
+     * time, unless the state has to grow or the epoch counter wraps around.
+     *
+     * @param capacity the id bound of the graph to search.
+     */
+    public void reset(final int capacity) {
+        if (capacity > visitStamps.length) {
+            final int newCapacity = Math.max(capacity,
+                                             3 * visitStamps.length / 2);
+            distances = Arrays.copyOf(distances, newCapacity);
+            parents = Arrays.copyOf(parents, newCapacity);
+            visitStamps = Arrays.copyOf(visitStamps, newCapacity);
+            closedStamps = Arrays.copyOf(closedStamps, newCapacity);
+        }
+
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamps, 0);
+            Arrays.fill(closedStamps, 0);
+            epoch = 0;
+        }
+
+        ++epoch;
+    }
+
+    /**
+     * Queries whether the node <code>id</code> was discovered by the current
+     * search.
+     *
+     * @param id the node id.
+     *
+     * @return <code>true</code> if the node is discovered.
+     */
+    public boolean isDiscovered(final int id) {
+        return visitStamps[id] == epoch;
+    }
+
+    /**
+     * Queries whether the node <code>id</code> was closed by the current
+     * search.
+     *
+     * @param id the node id.
+     *
+     * @return <code>true</code> if the node is closed.
+     */
+    public boolean isClosed(final int id) {
+        return closedStamps[id] == epoch;
+    }
+
+    /**
+     * Marks the node <code>id</code> as closed.
+     *
+     * @param id the node id.
+     */
+    public void close(final int id) {
+        closedStamps[id] = epoch;
+    }
+
+    /**
+     * Returns the tentative distance of the node <code>id</code>, or positive
+     * infinity if it is not discovered.
+     *
+     * @param id the node id.
+     *
+     * @return the tentative distance.
+     */
+    public double getDistance(final int id) {
+        return visitStamps[id] == epoch ? distances[id]
+                                        : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the parent id of the node <code>id</code>, or
+     * <code>NO_PARENT</code> if it is not discovered or has no parent.
+     *
+     * @param id the node id.
+     *
+     * @return the parent node id.
+     */
+    public int getParent(final int id) {
+        return visitStamps[id] == epoch ? parents[id] : NO_PARENT;
+    }
+
+    /**
+     * Discovers or improves the node <code>id</code>.
+     *
+     * @param id the node id.
+     * @param distance the new tentative distance.
+     * @param parent the new parent node id.
+     */
+    public void update(final int id, final double distance, final int parent) {
+        distances[id] = distance;
+        parents[id] = parent;
+        visitStamps[id] = epoch;
+    }
+
+    /**
+     * Returns the capacity of this state.
+     *
+     * @return the capacity.
+     */
+    public int capacity() {
+        return visitStamps.length;
+    }
+}
@@ -0,0 +1,158 @@
+package com.coderodde.apij.graph.path;
+
+import static com.coderodde.apij.util.Utils.checkNotNull;
+
+/**
+ * This class holds a shortest path tree computed by a one-to-all search, such
+ * as {@link com.coderodde.apij.graph.path.support.DijkstraFinder#searchTree}.
+ * The tree consists of the nodes settled by the search in the order of
+ * settling, which is the order of non-decreasing distance; the source is at
+ * index 0. The node ids, their distances and their parent ids are kept in
+ * three parallel arrays as long as the tree, so a search stopped early by a
+ * bound costs only as much memory as it settled.
+ * <p>
+ * The ids are those of the searched graph: the ids of the nodes (see
+ * {@link com.coderodde.apij.graph.model.Node#getId()}) when searching a
+ * graph, and the ids of the snapshot when searching a
+ * {@link com.coderodde.apij.graph.model.CompactGraph}.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ShortestPathTree {
+
+    /**
+     * The ids of the nodes in the order of settling.
+     */
+    private final int[] nodes;
+
+    /**
+     * <code>distances[i]</code> is the distance of <code>nodes[i]</code>
+     * from the source.
+     */
+    private final double[] distances;
+
+    /**
+     * <code>parents[i]</code> is the id of the parent of
+     * <code>nodes[i]</code>, or <code>SearchState.NO_PARENT</code> for the
+     * source.
+     */
+    private final int[] parents;
+
+    /**
+     * Whether the tree holds all the nodes reachable from the source.
+     */
+    private final boolean complete;
+
+    /**
+     * Constructs a tree from the parallel arrays, which are not copied.
+     *
+     * @param nodes the node ids in the order of settling.
+     * @param distances the distances of the nodes.
+     * @param parents the parent ids of the nodes.
+     * @param complete whether the tree holds all the reachable nodes.
+     */
+    public ShortestPathTree(final int[] nodes,
+                            final double[] distances,
+                            final int[] parents,
+                            final boolean complete) {
+        checkNotNull(nodes, "'nodes' is null.");
+        checkNotNull(distances, "'distances' is null.");
+        checkNotNull(parents, "'parents' is null.");
+
+        if (distances.length != nodes.length
+                || parents.length != nodes.length) {
+            throw new IllegalArgumentException(
+                    "The arrays differ in length (" + nodes.length + ", " +
+                    distances.length + ", " + parents.length + ").");
+        }
+
+        this.nodes = nodes;
+        this.distances = distances;
+        this.parents = parents;
+        this.complete = complete;
+    }
+
+    /**
+     * Returns the amount of nodes in this tree.
+     *
+     * @return the size of this tree.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns <code>true</code> if this tree holds all the nodes reachable
+     * from the source, i.e., the search was not stopped by a bound.
+     *
+     * @return <code>true</code> if this tree is complete.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the id of the <code>i</code>th settled node.
+     *
+     * @param i the index of the node in this tree.
+     *
+     * @return the node id.
+     */
+    public int getNode(final int i) {
+        return nodes[i];
+    }
+
+    /**
+     * Returns the distance of the <code>i</code>th settled node.
+     *
+     * @param i the index of the node in this tree.
+     *
+     * @return the distance from the source.
+     */
+    public double getDistance(final int i) {
+        return distances[i];
+    }
+
+    /**
+     * Returns the parent id of the <code>i</code>th settled node, or
+     * <code>SearchState.NO_PARENT</code> if it is the source.
+     *
+     * @param i the index of the node in this tree.
+     *
+     * @return the parent node id.
+     */
+    public int getParent(final int i) {
+        return parents[i];
+    }
+
+    /**
+     * Returns the node ids in the order of settling. The array is owned by
+     * this tree and must not be modified.
+     *
+     * @return the node ids.
+     */
+    public int[] getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the distances parallel to {@link #getNodes()}. The array is
+     * owned by this tree and must not be modified.
+     *
+     * @return the distances.
+     */
+    public double[] getDistances() {
+        return distances;
+    }
+
+    /**
+     * Returns the parent ids parallel to {@link #getNodes()}. The array is
+     * owned by this tree and must not be modified.
+     *
+     * @return the parent ids.
+     */
+    public int[] getParents() {
+        return parents;
+    }
+}
@@ -0,0 +1,408 @@
+package com.coderodde.apij.graph.path;
+
+import com.coderodde.apij.graph.model.Node;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class implements a static 2-d tree over the points of a
+ * {@link Layout} for nearest node queries. The tree is implicit: the
+ * coordinates and the nodes are permuted into parallel arrays so that the
+ * median of every range <tt>[lo, hi)</tt> sits at <tt>(lo + hi) / 2</tt>,
+ * with the smaller coordinates to the left of it and the greater ones to the
+ * right. Every range is split along the axis over which its points spread
+ * more. Building takes <tt>O(n log n)</tt> time; a nearest node query takes
+ * <tt>O(log n)</tt> expected time on well spread points.
+ * <p>
+ * The index is a snapshot of the layout at construction and is immutable,
+ * so a single index may serve queries from any number of threads.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class SpatialIndex<T extends Node<T>> {
+
+    /**
+     * The x-coordinates of the points in tree order.
+     */
+    private final double[] xs;
+
+    /**
+     * The y-coordinates of the points in tree order.
+     */
+    private final double[] ys;
+
+    /**
+     * The nodes in tree order.
+     */
+    private final Object[] nodes;
+
+    /**
+     * <code>splitsX[i]</code> is <code>true</code> if the range whose median
+     * is at <code>i</code> is split along the x-axis.
+     */
+    private final boolean[] splitsX;
+
+    /**
+     * Builds an index over the points of <code>nodes</code>. The nodes
+     * without a point in <code>layout</code> are left out.
+     *
+     * @param nodes the nodes to index.
+     * @param layout the layout of the nodes.
+     */
+    public SpatialIndex(final Iterable<T> nodes, final Layout<T> layout) {
+        checkNotNull(nodes, "'nodes' is null.");
+        checkNotNull(layout, "'layout' is null.");
+
+        final List<T> list = new ArrayList<>();
+
+        for (final T node : nodes) {
+            if (layout.contains(node)) {
+                list.add(node);
+            }
+        }
+
+        final int N = list.size();
+
+        this.xs = new double[N];
+        this.ys = new double[N];
+        this.nodes = list.toArray();
+        this.splitsX = new boolean[N];
+
+        for (int i = 0; i < N; ++i) {
+            xs[i] = layout.getX(list.get(i));
+            ys[i] = layout.getY(list.get(i));
+        }
+
+        build(0, N);
+    }
+
+    /**
+     * Returns the amount of indexed nodes.
+     *
+     * @return the size of this index.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the node closest to the point <tt>(x, y)</tt>.
+     *
+     * @param x the x-coordinate of the query point.
+     * @param y the y-coordinate of the query point.
+     *
+     * @return the closest node, or <code>null</code> if this index is empty.
+     */
+    public T nearest(final double x, final double y) {
+        final Neighbors neighbors = new Neighbors(1);
+        nearest(0, nodes.length, x, y, neighbors);
+        return neighbors.size == 0 ? null : (T) nodes[neighbors.indices[0]];
+    }
+
+    /**
+     * Returns the node closest to <code>point</code>.
+     *
+     * @param point the query point.
+     *
+     * @return the closest node, or <code>null</code> if this index is empty.
+     */
+    public T nearest(final Point2D.Double point) {
+        checkNotNull(point, "'point' is null.");
+        return nearest(point.x, point.y);
+    }
+
+    /**
+     * Returns the <code>k</code> nodes closest to the point
+     * <tt>(x, y)</tt>, or all the nodes if there are fewer, in ascending
+     * order of distance.
+     *
+     * @param x the x-coordinate of the query point.
+     * @param y the y-coordinate of the query point.
+     * @param k the amount of nodes to return.
+     *
+     * @return the closest nodes.
+     */
+    public List<T> nearest(final double x, final double y, final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("'k' (" + k + ") is negative.");
+        }
+
+        final Neighbors neighbors = new Neighbors(Math.min(k, nodes.length));
+
+        if (neighbors.indices.length == 0) {
+            return Collections.<T>emptyList();
+        }
+
+        nearest(0, nodes.length, x, y, neighbors);
+
+        // Popping the farthest neighbor puts it right after the heap.
+        while (neighbors.size > 1) {
+            neighbors.pop();
+        }
+
+        final List<T> result = new ArrayList<>(neighbors.indices.length);
+
+        for (final int index : neighbors.indices) {
+            result.add((T) nodes[index]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns all the nodes within distance <code>radius</code> of the point
+     * <tt>(x, y)</tt> in no particular order.
+     *
+     * @param x the x-coordinate of the query point.
+     * @param y the y-coordinate of the query point.
+     * @param radius the largest distance of a returned node.
+     *
+     * @return the nodes within the radius.
+     */
+    public List<T> withinRadius(final double x,
+                                final double y,
+                                final double radius) {
+        if (radius < 0.0) {
+            throw new IllegalArgumentException(
+                    "'radius' (" + radius + ") is negative.");
+        }
+
+        final List<T> result = new ArrayList<>();
+        withinRadius(0, nodes.length, x, y, radius * radius, result);
+        return result;
+    }
+
+    /**
+     * Arranges the range <tt>[lo, hi)</tt> into a subtree.
+     */
+    private void build(final int lo, final int hi) {
+        if (hi - lo < 2) {
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for (int i = lo; i < hi; ++i) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        final boolean x = maxX - minX >= maxY - minY;
+
+        select(lo, hi - 1, mid, x ? xs : ys);
+        splitsX[mid] = x;
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    /**
+     * Permutes the range <tt>[lo, hi]</tt> so that the element at
+     * <code>k</code> is where it would be if the range was sorted by
+     * <code>keys</code>, with no greater keys before it and no smaller keys
+     * after it.
+     */
+    private void select(int lo, int hi, final int k, final double[] keys) {
+        while (lo < hi) {
+            final double pivot = keys[(lo + hi) >>> 1];
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+
+            // Three-way partition, so that equal keys do not degrade it.
+            while (i <= gt) {
+                if (keys[i] < pivot) {
+                    swap(lt++, i++);
+                } else if (keys[i] > pivot) {
+                    swap(i, gt--);
+                } else {
+                    ++i;
+                }
+            }
+
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(final int i, final int j) {
+        final double x = xs[i];
+        xs[i] = xs[j];
+        xs[j] = x;
+
+        final double y = ys[i];
+        ys[i] = ys[j];
+        ys[j] = y;
+
+        final Object node = nodes[i];
+        nodes[i] = nodes[j];
+        nodes[j] = node;
+    }
+
+    private void nearest(final int lo,
+                         final int hi,
+                         final double x,
+                         final double y,
+                         final Neighbors neighbors) {
+        if (lo >= hi) {
+            return;
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        final double dx = x - xs[mid];
+        final double dy = y - ys[mid];
+
+        neighbors.offer(mid, dx * dx + dy * dy);
+
+        final double diff = splitsX[mid] ? dx : dy;
+
+        if (diff < 0.0) {
+            nearest(lo, mid, x, y, neighbors);
+
+            if (diff * diff < neighbors.bound()) {
+                nearest(mid + 1, hi, x, y, neighbors);
+            }
+        } else {
+            nearest(mid + 1, hi, x, y, neighbors);
+
+            if (diff * diff < neighbors.bound()) {
+                nearest(lo, mid, x, y, neighbors);
+            }
+        }
+    }
+
+    private void withinRadius(final int lo,
+                              final int hi,
+                              final double x,
+                              final double y,
+                              final double radius2,
+                              final List<T> result) {
+        if (lo >= hi) {
+            return;
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        final double dx = x - xs[mid];
+        final double dy = y - ys[mid];
+
+        if (dx * dx + dy * dy <= radius2) {
+            result.add((T) nodes[mid]);
+        }
+
+        final double diff = splitsX[mid] ? dx : dy;
+
+        if (diff <= 0.0 || diff * diff <= radius2) {
+            withinRadius(lo, mid, x, y, radius2, result);
+        }
+
+        if (diff >= 0.0 || diff * diff <= radius2) {
+            withinRadius(mid + 1, hi, x, y, radius2, result);
+        }
+    }
+
+    /**
+     * A bounded max-heap of the closest points found so far, keyed by the
+     * squared distance.
+     */
+    private static final class Neighbors {
+
+        final int[] indices;
+        final double[] distances;
+        int size;
+
+        Neighbors(final int k) {
+            this.indices = new int[k];
+            this.distances = new double[k];
+        }
+
+        /**
+         * Returns the squared distance a point must be closer than to enter
+         * the heap.
+         */
+        double bound() {
+            return size < indices.length ?
+                   Double.POSITIVE_INFINITY :
+                   distances[0];
+        }
+
+        void offer(final int index, final double distance) {
+            if (size < indices.length) {
+                siftUp(size++, index, distance);
+            } else if (distance < distances[0]) {
+                siftDown(0, index, distance);
+            }
+        }
+
+        /**
+         * Removes the farthest point and stores it right after the heap.
+         */
+        void pop() {
+            final int index = indices[0];
+            final double distance = distances[0];
+
+            --size;
+            siftDown(0, indices[size], distances[size]);
+            indices[size] = index;
+            distances[size] = distance;
+        }
+
+        private void siftUp(int i, final int index, final double distance) {
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+
+                if (distances[parent] >= distance) {
+                    break;
+                }
+
+                indices[i] = indices[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+
+            indices[i] = index;
+            distances[i] = distance;
+        }
+
+        private void siftDown(int i, final int index, final double distance) {
+            for (;;) {
+                int child = 2 * i + 1;
+
+                if (child >= size) {
+                    break;
+                }
+
+                if (child + 1 < size
+                        && distances[child + 1] > distances[child]) {
+                    ++child;
+                }
+
+                if (distances[child] <= distance) {
+                    break;
+                }
+
+                indices[i] = indices[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+
+            indices[i] = index;
+            distances[i] = distance;
+        }
+    }
+}
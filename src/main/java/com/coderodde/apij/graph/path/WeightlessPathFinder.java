@@ -1,7 +1,509 @@
 package com.coderodde.apij.graph.path;
 
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.Node;
+import static com.coderodde.apij.util.Utils.checkNotBelow;
+import static com.coderodde.apij.util.Utils.checkSameGraphs;
+import java.util.Arrays;
 
-public class WeightlessPathFinder<T extends Node<T>> {
-    
+/**
+ * This class implements breadth-first search for paths with the least amount
+ * of arcs. The weight function, if given, is ignored. The search stops as soon
+ * as the target is discovered.
+ * <p>
+ * The unidirectional search is direction-optimizing: while the frontier is
+ * small, it is expanded <i>top-down</i> by scanning the children of the
+ * frontier nodes. When the frontier has more than <tt>1 / alpha</tt> of the
+ * arcs not yet scanned, the search switches to <i>bottom-up</i> steps, where
+ * every undiscovered node scans its parents for a frontier node and stops at
+ * the first one; this skips most of the arcs of a large frontier. When the
+ * frontier shrinks below <tt>1 / beta</tt> of the nodes, the search switches
+ * back to top-down steps.
+ * <p>
+ * The bidirectional search grows a forward search from the source and a
+ * backward search from the target, one level at a time, always expanding the
+ * side whose frontier has less arcs to scan. The first node discovered by
+ * both sides is on a shortest path.
+ * <p>
+ * Both searches run either on the node objects or, if given via
+ * {@link PathFinder#withCompactGraph(Object)}, on a compact snapshot. The
+ * per-node state lives in id-indexed arrays reused by every search.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ *
+ * @version 1.6
+ */
+public class WeightlessPathFinder<T extends Node<T>> extends PathFinder<T> {
+
+    /**
+     * The default ratio of unscanned arcs to frontier arcs below which the
+     * search switches to bottom-up steps.
+     */
+    public static final int DEFAULT_ALPHA = 14;
+
+    /**
+     * The default ratio of nodes to frontier nodes above which the search
+     * switches back to top-down steps.
+     */
+    public static final int DEFAULT_BETA = 24;
+
+    /**
+     * Denotes that a step did not reach the target.
+     */
+    private static final int NOT_FOUND = -1;
+
+    /**
+     * Whether to search from both ends.
+     */
+    private final boolean bidirectional;
+
+    /**
+     * The top-down to bottom-up switching ratio.
+     */
+    private final int alpha;
+
+    /**
+     * The bottom-up to top-down switching ratio.
+     */
+    private final int beta;
+
+    /**
+     * Holds the levels and the parents of the nodes in the forward search.
+     */
+    private final SearchState STATEA;
+
+    /**
+     * Holds the levels and the parents of the nodes in the backward search.
+     */
+    private final SearchState STATEB;
+
+    /**
+     * The current and the next frontier of the forward search.
+     */
+    private Frontier FRONTIERA;
+    private Frontier NEXTA;
+
+    /**
+     * The current and the next frontier of the backward search.
+     */
+    private Frontier FRONTIERB;
+    private Frontier NEXTB;
+
+    /**
+     * Constructs a unidirectional, direction-optimizing finder.
+     */
+    public WeightlessPathFinder() {
+        this(false);
+    }
+
+    /**
+     * Constructs a finder with the default switching ratios.
+     *
+     * @param bidirectional whether to search from both ends.
+     */
+    public WeightlessPathFinder(final boolean bidirectional) {
+        this(bidirectional, DEFAULT_ALPHA, DEFAULT_BETA);
+    }
+
+    /**
+     * Constructs a finder. The switching ratios matter only to the
+     * unidirectional search.
+     *
+     * @param bidirectional whether to search from both ends.
+     * @param alpha the top-down to bottom-up switching ratio.
+     * @param beta the bottom-up to top-down switching ratio.
+     */
+    public WeightlessPathFinder(final boolean bidirectional,
+                                final int alpha,
+                                final int beta) {
+        checkNotBelow(alpha, 1, "'alpha' is below 1.");
+        checkNotBelow(beta, 1, "'beta' is below 1.");
+        this.bidirectional = bidirectional;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.STATEA = new SearchState();
+        this.STATEB = new SearchState();
+        this.FRONTIERA = new Frontier();
+        this.NEXTA = new Frontier();
+        this.FRONTIERB = new Frontier();
+        this.NEXTB = new Frontier();
+    }
+
+    @Override
+    public Path<T> search(final SearchData... data) {
+        T source = null;
+        T target = null;
+        CompactGraph<T> compactGraph = null;
+
+        for (final SearchData sd : data) {
+            switch (sd.getType()) {
+                case SOURCE:
+                    source = (T) sd.getData();
+                    break;
+
+                case TARGET:
+                    target = (T) sd.getData();
+                    break;
+
+                case COMPACT_GRAPH:
+                    compactGraph = (CompactGraph<T>) sd.getData();
+                    break;
+            }
+        }
+
+        checkSameGraphs(source, target);
+
+        final Graph<T> graph = compactGraph == null ?
+                               source.getOwnerGraph() :
+                               null;
+        final int s;
+        final int t;
+
+        if (compactGraph != null) {
+            s = compactGraph.getId(source);
+            t = compactGraph.getId(target);
+        } else {
+            s = source.getId();
+            t = target.getId();
+        }
+
+        return bidirectional ?
+               searchBidirectional(graph, compactGraph, s, t) :
+               searchUnidirectional(graph, compactGraph, s, t);
+    }
+
+    private Path<T> searchUnidirectional(final Graph<T> graph,
+                                         final CompactGraph<T> compactGraph,
+                                         final int source,
+                                         final int target) {
+        final int N = idBound(graph, compactGraph);
+
+        STATEA.reset(N);
+        FRONTIERA.clear();
+
+        STATEA.update(source, 0.0, SearchState.NO_PARENT);
+        FRONTIERA.add(source);
+
+        if (source == target) {
+            return path(target, graph, compactGraph);
+        }
+
+        long unscannedArcs = arcs(graph, compactGraph);
+        boolean bottomUp = false;
+        int level = 0;
+
+        while (FRONTIERA.size > 0) {
+            final long frontierArcs =
+                    frontierArcs(FRONTIERA, graph, compactGraph, true);
+
+            if (bottomUp) {
+                bottomUp = (long) FRONTIERA.size * beta >= N;
+            } else {
+                bottomUp = frontierArcs * alpha > unscannedArcs;
+            }
+
+            NEXTA.clear();
+
+            final int touch = bottomUp ?
+                    bottomUpStep(level, target, graph, compactGraph) :
+                    topDownStep(FRONTIERA,
+                                NEXTA,
+                                STATEA,
+                                null,
+                                target,
+                                true,
+                                graph,
+                                compactGraph);
+
+            if (touch != NOT_FOUND) {
+                return path(target, graph, compactGraph);
+            }
+
+            unscannedArcs -= frontierArcs;
+
+            final Frontier tmp = FRONTIERA;
+            FRONTIERA = NEXTA;
+            NEXTA = tmp;
+            ++level;
+        }
+
+        return Path.NO_PATH;
+    }
+
+    private Path<T> searchBidirectional(final Graph<T> graph,
+                                        final CompactGraph<T> compactGraph,
+                                        final int source,
+                                        final int target) {
+        final int N = idBound(graph, compactGraph);
+
+        STATEA.reset(N);
+        STATEB.reset(N);
+        FRONTIERA.clear();
+        FRONTIERB.clear();
+
+        STATEA.update(source, 0.0, SearchState.NO_PARENT);
+        STATEB.update(target, 0.0, SearchState.NO_PARENT);
+        FRONTIERA.add(source);
+        FRONTIERB.add(target);
+
+        if (source == target) {
+            return path(target, graph, compactGraph);
+        }
+
+        while (FRONTIERA.size > 0 && FRONTIERB.size > 0) {
+            final int touch;
+
+            if (frontierArcs(FRONTIERA, graph, compactGraph, true) <=
+                frontierArcs(FRONTIERB, graph, compactGraph, false)) {
+                NEXTA.clear();
+                touch = topDownStep(FRONTIERA,
+                                    NEXTA,
+                                    STATEA,
+                                    STATEB,
+                                    NOT_FOUND,
+                                    true,
+                                    graph,
+                                    compactGraph);
+                final Frontier tmp = FRONTIERA;
+                FRONTIERA = NEXTA;
+                NEXTA = tmp;
+            } else {
+                NEXTB.clear();
+                touch = topDownStep(FRONTIERB,
+                                    NEXTB,
+                                    STATEB,
+                                    STATEA,
+                                    NOT_FOUND,
+                                    false,
+                                    graph,
+                                    compactGraph);
+                final Frontier tmp = FRONTIERB;
+                FRONTIERB = NEXTB;
+                NEXTB = tmp;
+            }
+
+            if (touch != NOT_FOUND) {
+                return compactGraph != null ?
+                       constructPathBidirectional(touch,
+                                                  STATEA,
+                                                  STATEB,
+                                                  compactGraph) :
+                       constructPathBidirectional(touch,
+                                                  STATEA,
+                                                  STATEB,
+                                                  graph);
+            }
+        }
+
+        return Path.NO_PATH;
+    }
+
+    /**
+     * Discovers the undiscovered neighbours of the nodes in
+     * <code>frontier</code> and puts them in <code>next</code>. The neighbours
+     * are the children if <code>forward</code> is <code>true</code>, and the
+     * parents otherwise.
+     *
+     * @return the first discovered node that is the target or is discovered
+     * in <code>other</code>, or <code>NOT_FOUND</code>.
+     */
+    private int topDownStep(final Frontier frontier,
+                            final Frontier next,
+                            final SearchState state,
+                            final SearchState other,
+                            final int target,
+                            final boolean forward,
+                            final Graph<T> graph,
+                            final CompactGraph<T> compactGraph) {
+        for (int i = 0; i < frontier.size; ++i) {
+            final int current = frontier.nodes[i];
+            final double level = state.getDistance(current) + 1.0;
+
+            if (compactGraph != null) {
+                final int begin = forward ?
+                                  compactGraph.getOutArcBegin(current) :
+                                  compactGraph.getInArcBegin(current);
+                final int end = forward ?
+                                compactGraph.getOutArcEnd(current) :
+                                compactGraph.getInArcEnd(current);
+
+                for (int arc = begin; arc < end; ++arc) {
+                    final int child = forward ?
+                                      compactGraph.getArcHead(arc) :
+                                      compactGraph.getInArcTail(arc);
+
+                    if (discover(child, current, level, next, state, other,
+                                 target)) {
+                        return child;
+                    }
+                }
+            } else {
+                final T node = graph.getNode(current);
+
+                for (final T child : forward ? node : node.parents()) {
+                    if (discover(child.getId(), current, level, next, state,
+                                 other, target)) {
+                        return child.getId();
+                    }
+                }
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    /**
+     * Lets every undiscovered node look for a parent on the level
+     * <code>level</code> of the forward search, and puts the nodes that find
+     * one in the next frontier.
+     *
+     * @return <code>target</code> if it was discovered, or
+     * <code>NOT_FOUND</code>.
+     */
+    private int bottomUpStep(final int level,
+                             final int target,
+                             final Graph<T> graph,
+                             final CompactGraph<T> compactGraph) {
+        final int N = idBound(graph, compactGraph);
+        final double nextLevel = level + 1.0;
+
+        for (int id = 0; id < N; ++id) {
+            if (STATEA.isDiscovered(id)) {
+                continue;
+            }
+
+            if (compactGraph != null) {
+                for (int i = compactGraph.getInArcBegin(id);
+                         i < compactGraph.getInArcEnd(id);
+                         ++i) {
+                    final int parent = compactGraph.getInArcTail(i);
+
+                    if (onLevel(parent, level)) {
+                        STATEA.update(id, nextLevel, parent);
+                        NEXTA.add(id);
+                        break;
+                    }
+                }
+            } else {
+                final T node = graph.getNode(id);
+
+                if (node == null) {
+                    continue;
+                }
+
+                for (final T parent : node.parents()) {
+                    if (onLevel(parent.getId(), level)) {
+                        STATEA.update(id, nextLevel, parent.getId());
+                        NEXTA.add(id);
+                        break;
+                    }
+                }
+            }
+
+            if (id == target && STATEA.isDiscovered(id)) {
+                return target;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private boolean onLevel(final int id, final int level) {
+        return STATEA.isDiscovered(id) && STATEA.getDistance(id) == level;
+    }
+
+    /**
+     * Discovers <code>id</code> if it is not yet discovered.
+     *
+     * @return <code>true</code> if <code>id</code> is the target or is
+     * discovered in <code>other</code>.
+     */
+    private static boolean discover(final int id,
+                                    final int parent,
+                                    final double level,
+                                    final Frontier next,
+                                    final SearchState state,
+                                    final SearchState other,
+                                    final int target) {
+        if (state.isDiscovered(id)) {
+            return false;
+        }
+
+        state.update(id, level, parent);
+        next.add(id);
+        return id == target || (other != null && other.isDiscovered(id));
+    }
+
+    /**
+     * Returns the amount of arcs leaving (or entering, if <code>forward</code>
+     * is <code>false</code>) the nodes in <code>frontier</code>. On node
+     * objects, whose degrees are not stored, this is estimated by the average
+     * degree.
+     */
+    private long frontierArcs(final Frontier frontier,
+                              final Graph<T> graph,
+                              final CompactGraph<T> compactGraph,
+                              final boolean forward) {
+        if (compactGraph == null) {
+            return (long) frontier.size * graph.edges()
+                    / Math.max(1, graph.size());
+        }
+
+        long arcs = 0L;
+
+        for (int i = 0; i < frontier.size; ++i) {
+            final int id = frontier.nodes[i];
+
+            arcs += forward ?
+                    compactGraph.getOutArcEnd(id) -
+                    compactGraph.getOutArcBegin(id) :
+                    compactGraph.getInArcEnd(id) -
+                    compactGraph.getInArcBegin(id);
+        }
+
+        return arcs;
+    }
+
+    private Path<T> path(final int target,
+                         final Graph<T> graph,
+                         final CompactGraph<T> compactGraph) {
+        return compactGraph != null ?
+               constructPath(target, STATEA, compactGraph) :
+               constructPath(target, STATEA, graph);
+    }
+
+    private static int idBound(final Graph<?> graph,
+                               final CompactGraph<?> compactGraph) {
+        return compactGraph != null ? compactGraph.size() :
+                                      graph.getIdBound();
+    }
+
+    private static long arcs(final Graph<?> graph,
+                             final CompactGraph<?> compactGraph) {
+        return compactGraph != null ? compactGraph.arcs() : graph.edges();
+    }
+
+    /**
+     * A growable list of node ids.
+     */
+    private static final class Frontier {
+
+        private int[] nodes = new int[16];
+        private int size;
+
+        void add(final int id) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+            }
+
+            nodes[size++] = id;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
 }
@@ -0,0 +1,302 @@
+package com.coderodde.apij.graph.path.afs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class implements the binary file format of preprocessed single-level
+ * arc flags. All values are in the native byte order of the machine that
+ * wrote the file, so the mapped buffers are read without swapping bytes on
+ * that machine; the order is recorded in the header, and a reader on a
+ * machine of the other order swaps the bytes:
+ * <pre>
+ *   int    magic           0x41464C47 ("AFLG")
+ *   int    version         2
+ *   long   fingerprint     see CompactGraph.fingerprint()
+ *   int    nodes           the id bound of the graph
+ *   int    arcs            the amount of arcs
+ *   int    regionCount     the amount of regions
+ *   int    rowCount        the amount of flag rows
+ *   int    deduplicated    1 if the arcs index a row dictionary, 0 otherwise
+ *   int    byteOrder       0 for big-endian, 1 for little-endian
+ *   int[nodes]             the region of each node id, -1 for none
+ *   int[arcs]              the row of each arc id, if deduplicated
+ *   padding to 8 bytes
+ *   long[rowCount * words] the flag rows, words = (regionCount + 63) / 64
+ * </pre>
+ * A file is loaded by mapping it through {@link FileChannel#map}; the region
+ * map and the flags are then read through buffer views of the mapping, so
+ * loading costs no more than validating the header.
+ * <p>
+ * A file is mapped as a single buffer, so it may not exceed
+ * <code>Integer.MAX_VALUE</code> bytes; larger files are rejected when
+ * written and when read.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+class ArcFlagFile {
+
+    /**
+     * The magic number opening the file.
+     */
+    private static final int MAGIC = 0x41464C47;
+
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * The byte order field of a big-endian file.
+     */
+    private static final int BIG_ENDIAN = 0;
+
+    /**
+     * The byte order field of a little-endian file.
+     */
+    private static final int LITTLE_ENDIAN = 1;
+
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 40;
+
+    /**
+     * The region of each node id.
+     */
+    private final IntBuffer regions;
+
+    /**
+     * The arc flags.
+     */
+    private final ArcFlags arcFlags;
+
+    private ArcFlagFile(final IntBuffer regions, final ArcFlags arcFlags) {
+        this.regions = regions;
+        this.arcFlags = arcFlags;
+    }
+
+    /**
+     * Returns the region of each node id.
+     *
+     * @return the region map.
+     */
+    IntBuffer getRegions() {
+        return regions;
+    }
+
+    /**
+     * Returns the arc flags.
+     *
+     * @return the arc flags.
+     */
+    ArcFlags getArcFlags() {
+        return arcFlags;
+    }
+
+    /**
+     * Writes the region map and the flags of a graph to <code>file</code> in
+     * the native byte order.
+     *
+     * @param file the file to write.
+     * @param fingerprint the fingerprint of the graph.
+     * @param regions the region of each node id.
+     * @param arcFlags the arc flags.
+     *
+     * @throws IOException if writing fails or the file would be too large.
+     */
+    static void write(final File file,
+                      final long fingerprint,
+                      final IntBuffer regions,
+                      final ArcFlags arcFlags) throws IOException {
+        write(file, fingerprint, regions, arcFlags, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Writes the region map and the flags of a graph to <code>file</code> in
+     * the byte order <code>order</code>.
+     *
+     * @param file the file to write.
+     * @param fingerprint the fingerprint of the graph.
+     * @param regions the region of each node id.
+     * @param arcFlags the arc flags.
+     * @param order the byte order of the file.
+     *
+     * @throws IOException if writing fails or the file would be too large.
+     */
+    static void write(final File file,
+                      final long fingerprint,
+                      final IntBuffer regions,
+                      final ArcFlags arcFlags,
+                      final ByteOrder order) throws IOException {
+        final int nodes = regions.capacity();
+        final int arcs = arcFlags.getArcCount();
+        final IntBuffer rows = arcFlags.getRows();
+        final LongBuffer flags = arcFlags.getFlags();
+        final long flagsOffset = flagsOffset(nodes, rows == null ? 0 : arcs);
+        final long size = flagsOffset + 8L * flags.capacity();
+
+        checkSize(file, size);
+
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             final FileChannel channel = raf.getChannel()) {
+            raf.setLength(0L);
+
+            final MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+
+            buffer.order(order);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(fingerprint);
+            buffer.putInt(nodes);
+            buffer.putInt(arcs);
+            buffer.putInt(arcFlags.getRegionCount());
+            buffer.putInt(arcFlags.rowCount());
+            buffer.putInt(rows == null ? 0 : 1);
+            buffer.putInt(order == ByteOrder.BIG_ENDIAN ? BIG_ENDIAN
+                                                        : LITTLE_ENDIAN);
+
+            for (int i = 0; i < nodes; ++i) {
+                buffer.putInt(regions.get(i));
+            }
+
+            if (rows != null) {
+                for (int i = 0; i < arcs; ++i) {
+                    buffer.putInt(rows.get(i));
+                }
+            }
+
+            buffer.position((int) flagsOffset);
+
+            for (int i = 0; i < flags.capacity(); ++i) {
+                buffer.putLong(flags.get(i));
+            }
+
+            buffer.force();
+        }
+    }
+
+    /**
+     * Maps <code>file</code> and checks that it was written for a graph with
+     * the given fingerprint and size.
+     *
+     * @param file the file to load.
+     * @param fingerprint the fingerprint of the graph.
+     * @param nodes the id bound of the graph.
+     * @param arcs the amount of arcs in the graph.
+     *
+     * @return the mapped contents.
+     *
+     * @throws IOException if reading fails or the file does not match.
+     */
+    static ArcFlagFile read(final File file,
+                            final long fingerprint,
+                            final int nodes,
+                            final int arcs) throws IOException {
+        final MappedByteBuffer buffer;
+
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r");
+             final FileChannel channel = raf.getChannel()) {
+            checkSize(file, channel.size());
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                                 0L,
+                                 channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new IOException(file + " is not an arc flag file.");
+        }
+
+        // The magic number tells the byte order of the rest of the file.
+        final int magic = buffer.getInt();
+
+        if (magic == Integer.reverseBytes(MAGIC)) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (magic != MAGIC) {
+            throw new IOException(file + " is not an arc flag file.");
+        }
+
+        final int version = buffer.getInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported version of " + file + ".");
+        }
+
+        if (buffer.getLong() != fingerprint
+                || buffer.getInt() != nodes
+                || buffer.getInt() != arcs) {
+            throw new IOException(file + " was written for another graph.");
+        }
+
+        final int regionCount = buffer.getInt();
+        final int rowCount = buffer.getInt();
+        final boolean deduplicated = buffer.getInt() == 1;
+        final int byteOrder = buffer.getInt();
+
+        if (byteOrder != (buffer.order() == ByteOrder.BIG_ENDIAN ?
+                          BIG_ENDIAN :
+                          LITTLE_ENDIAN)) {
+            throw new IOException(
+                    "The byte order of " + file + " is corrupt.");
+        }
+
+        final int words = (regionCount + 63) >>> 6;
+        final long flagsOffset = flagsOffset(nodes, deduplicated ? arcs : 0);
+
+        if (flagsOffset + 8L * rowCount * words != buffer.capacity()) {
+            throw new IOException(file + " is truncated.");
+        }
+
+        final IntBuffer regions = view(buffer, HEADER_SIZE, 4 * nodes)
+                                  .asIntBuffer();
+        final IntBuffer rows = deduplicated ?
+                view(buffer, HEADER_SIZE + 4 * nodes, 4 * arcs)
+                .asIntBuffer() : null;
+        final LongBuffer flags = view(buffer,
+                                      (int) flagsOffset,
+                                      8 * rowCount * words).asLongBuffer();
+
+        return new ArcFlagFile(regions,
+                               new ArcFlags(arcs, regionCount, flags, rows));
+    }
+
+    private static long flagsOffset(final int nodes, final int rows) {
+        final long offset = HEADER_SIZE + 4L * nodes + 4L * rows;
+        return (offset + 7L) & ~7L;
+    }
+
+    /**
+     * Rejects the files that do not fit in a single mapped buffer.
+     */
+    private static void checkSize(final File file, final long size)
+    throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(
+                    "An arc flag file of " + size + " bytes does not fit " +
+                    "in a mapped buffer: " + file + ".");
+        }
+    }
+
+    /**
+     * Returns a view of <tt>[offset, offset + length)</tt> of
+     * <code>buffer</code> in the byte order of <code>buffer</code>, which
+     * slicing would reset to big-endian.
+     */
+    private static ByteBuffer view(final ByteBuffer buffer,
+                                   final int offset,
+                                   final int length) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice().order(buffer.order());
+    }
+}
@@ -0,0 +1,348 @@
+package com.coderodde.apij.graph.path.afs;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.SearchState;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class computes the arc flags of a partitioned compact graph. The flag
+ * of the region <code>r</code> is set on an arc if the arc has both ends in
+ * <code>r</code>, or if it lies on a shortest path to a boundary node of
+ * <code>r</code>, i.e., a node of <code>r</code> with a parent outside of
+ * <code>r</code>.
+ * <p>
+ * There is one backward Dijkstra search per boundary node. The searches run
+ * in a {@link ForkJoinPool}; each worker thread keeps its own search state,
+ * and the flags go into a shared {@link AtomicLongArray} of
+ * <tt>arcs * words</tt> entries, where <tt>words</tt> is the amount of 64-bit
+ * words needed for one bit per region. A bit is set with a compare-and-set
+ * loop, so the searches never block each other.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+class ArcFlagPreprocessor {
+
+    /**
+     * Denotes a node with no region.
+     */
+    static final int NO_REGION = -1;
+
+    /**
+     * The amount of boundary nodes processed sequentially by a single task.
+     */
+    private static final int TASK_GRAIN = 4;
+
+    /**
+     * The graph to process.
+     */
+    private final CompactGraph<DirectedGraphNode> graph;
+
+    /**
+     * <code>regions[u]</code> is the region of the node <code>u</code>, or
+     * <code>NO_REGION</code>.
+     */
+    private final int[] regions;
+
+    /**
+     * If not <code>null</code>, <code>scopes[u]</code> is the scope of the
+     * node <code>u</code>, and a search sets flags only on the arcs whose
+     * tail is in the scope of its boundary node. This computes the lower
+     * level flags of a multi-level system, with the first level regions as
+     * the scopes and the region numbers local to each scope.
+     */
+    private final int[] scopes;
+
+    /**
+     * The amount of 64-bit words per arc.
+     */
+    private final int words;
+
+    /**
+     * The flags of the arc <code>a</code> occupy the entries
+     * <tt>[a * words, (a + 1) * words)</tt>.
+     */
+    private final AtomicLongArray flags;
+
+    /**
+     * The search state of each worker thread.
+     */
+    private final ThreadLocal<Worker> workers;
+
+    /**
+     * Constructs a preprocessor with all flags cleared.
+     *
+     * @param graph the graph.
+     * @param regions the region of each node id.
+     * @param regionCount the amount of regions.
+     */
+    ArcFlagPreprocessor(final CompactGraph<DirectedGraphNode> graph,
+                        final int[] regions,
+                        final int regionCount) {
+        this(graph, regions, null, regionCount);
+    }
+
+    /**
+     * Constructs a preprocessor with all flags cleared. Two nodes are in the
+     * same region if they have the same scope and the same region number.
+     *
+     * @param graph the graph.
+     * @param regions the region of each node id.
+     * @param scopes the scope of each node id, or <code>null</code>.
+     * @param regionCount the amount of regions per scope.
+     */
+    ArcFlagPreprocessor(final CompactGraph<DirectedGraphNode> graph,
+                        final int[] regions,
+                        final int[] scopes,
+                        final int regionCount) {
+        this.graph = graph;
+        this.regions = regions;
+        this.scopes = scopes;
+        this.words = (regionCount + 63) >>> 6;
+        this.flags = new AtomicLongArray(graph.arcs() * words);
+        this.workers = new ThreadLocal<Worker>() {
+            @Override
+            protected Worker initialValue() {
+                return new Worker();
+            }
+        };
+    }
+
+    /**
+     * Returns the amount of 64-bit words per arc.
+     *
+     * @return the amount of words.
+     */
+    int words() {
+        return words;
+    }
+
+    /**
+     * Returns the <code>word</code>th flag word of the arc <code>arc</code>.
+     *
+     * @param arc the arc id.
+     * @param word the index of the word.
+     *
+     * @return the flag word.
+     */
+    long getWord(final int arc, final int word) {
+        return flags.get(arc * words + word);
+    }
+
+    /**
+     * Sets the flag of <code>region</code> on the arc <code>arc</code>.
+     *
+     * @param arc the arc id.
+     * @param region the region number.
+     */
+    void set(final int arc, final int region) {
+        final int index = arc * words + (region >>> 6);
+        final long bit = 1L << region;
+
+        while (true) {
+            final long current = flags.get(index);
+
+            if ((current & bit) != 0L
+                    || flags.compareAndSet(index, current, current | bit)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the flag of the common region on every arc with both ends in the
+     * same region.
+     */
+    void setInnerFlags() {
+        for (int u = 0; u < graph.size(); ++u) {
+            final int region = regions[u];
+
+            if (region == NO_REGION) {
+                continue;
+            }
+
+            for (int arc = graph.getOutArcBegin(u);
+                     arc < graph.getOutArcEnd(u);
+                     ++arc) {
+                if (sameRegion(u, graph.getArcHead(arc))) {
+                    set(arc, region);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the nodes having a parent in another region.
+     *
+     * @return the boundary node ids.
+     */
+    int[] findBoundaryNodes() {
+        int[] boundary = new int[16];
+        int size = 0;
+
+        for (int v = 0; v < graph.size(); ++v) {
+            final int region = regions[v];
+
+            if (region == NO_REGION) {
+                continue;
+            }
+
+            for (int i = graph.getInArcBegin(v);
+                     i < graph.getInArcEnd(v);
+                     ++i) {
+                if (sameRegion(v, graph.getInArcTail(i)) == false) {
+                    if (size == boundary.length) {
+                        boundary = Arrays.copyOf(boundary, 2 * size);
+                    }
+
+                    boundary[size++] = v;
+                    break;
+                }
+            }
+        }
+
+        return Arrays.copyOf(boundary, size);
+    }
+
+    private boolean sameRegion(final int u, final int v) {
+        return regions[u] == regions[v] 
+                && (scopes == null || scopes[u] == scopes[v]);
+    }
+
+    /**
+     * Runs the searches from all <code>boundaryNodes</code> in a new
+     * fork/join pool and waits for them to finish.
+     *
+     * @param boundaryNodes the ids of the boundary nodes.
+     */
+    void setBoundaryFlags(final int[] boundaryNodes) {
+        final ForkJoinPool pool = new ForkJoinPool();
+
+        try {
+            pool.invoke(new BoundaryTask(boundaryNodes,
+                                         0,
+                                         boundaryNodes.length));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Processes a range of boundary nodes, splitting it in halves until it is
+     * small enough.
+     */
+    private final class BoundaryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] boundaryNodes;
+        private final int from;
+        private final int to;
+
+        BoundaryTask(final int[] boundaryNodes,
+                     final int from,
+                     final int to) {
+            this.boundaryNodes = boundaryNodes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TASK_GRAIN) {
+                final Worker worker = workers.get();
+
+                for (int i = from; i < to; ++i) {
+                    worker.search(boundaryNodes[i]);
+                }
+
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+
+            invokeAll(new BoundaryTask(boundaryNodes, from, middle),
+                      new BoundaryTask(boundaryNodes, middle, to));
+        }
+    }
+
+    /**
+     * Holds the search state of one thread.
+     */
+    private final class Worker {
+
+        private final SearchState state = new SearchState(graph.size());
+        private final IntPriorityQueue open =
+                new IntDaryHeap(4, Math.max(16, graph.size()));
+        private final int[] settled = new int[graph.size()];
+
+        /**
+         * Grows the backward shortest path tree of <code>target</code> and
+         * flags the arcs on shortest paths to it.
+         */
+        void search(final int target) {
+            final int region = regions[target];
+            int count = 0;
+
+            open.clear();
+            state.reset(graph.size());
+            open.add(target, 0.0);
+            state.update(target, 0.0, SearchState.NO_PARENT);
+
+            while (open.isEmpty() == false) {
+                final int current = open.extractMinimum();
+                final double g = state.getDistance(current);
+
+                state.close(current);
+                settled[count++] = current;
+
+                for (int i = graph.getInArcBegin(current);
+                         i < graph.getInArcEnd(current);
+                         ++i) {
+                    final int parent = graph.getInArcTail(i);
+
+                    if (state.isClosed(parent)) {
+                        continue;
+                    }
+
+                    final double tmpg = g + graph.getInArcWeight(i);
+
+                    if (state.isDiscovered(parent) == false) {
+                        open.add(parent, tmpg);
+                        state.update(parent, tmpg, current);
+                    } else if (tmpg < state.getDistance(parent)) {
+                        open.decreasePriority(parent, tmpg);
+                        state.update(parent, tmpg, current);
+                    }
+                }
+            }
+
+            for (int i = 0; i < count; ++i) {
+                final int u = settled[i];
+                final double g = state.getDistance(u);
+
+                if (scopes != null && scopes[u] != scopes[target]) {
+                    continue;
+                }
+
+                for (int arc = graph.getOutArcBegin(u);
+                         arc < graph.getOutArcEnd(u);
+                         ++arc) {
+                    final int v = graph.getArcHead(arc);
+
+                    if (state.isClosed(v)
+                            && state.getDistance(v) + graph.getArcWeight(arc)
+                               == g) {
+                        set(arc, region);
+                    }
+                }
+            }
+        }
+    }
+}
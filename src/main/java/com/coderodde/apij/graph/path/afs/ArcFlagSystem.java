@@ -1,215 +1,270 @@
 package com.coderodde.apij.graph.path.afs;
 
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
 import com.coderodde.apij.ds.pq.PriorityQueue;
-import com.coderodde.apij.ds.pq.support.DaryHeap;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.ds.pq.support.IntPriorityQueueBridge;
+import com.coderodde.apij.graph.model.CompactGraph;
 import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.WeightFunction;
 import com.coderodde.apij.graph.model.support.DirectedGraphNode;
 import com.coderodde.apij.graph.path.Path;
 import com.coderodde.apij.graph.path.PathFinder;
+import com.coderodde.apij.graph.path.SearchState;
 import static com.coderodde.apij.util.Utils.checkNotNull;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 public class ArcFlagSystem {
-    
+
     private Partitioner partitioner;
     private List<Set<DirectedGraphNode>> regionList;
-    private WeightFunction<DirectedGraphNode> w;
-    private final ArcFlags arcFlags;
-    private final RegionMap regionMap;
-    private final PriorityQueue<DirectedGraphNode, Double> OPEN;
-    private final Set<DirectedGraphNode> CLOSED;
-    private final Map<DirectedGraphNode, Double> GSCORE;
-    private final Map<DirectedGraphNode, DirectedGraphNode> PARENT;
+    private CompactGraph<DirectedGraphNode> graph;
+
+    /**
+     * The weight function the system was built with.
+     */
+    private WeightFunction<DirectedGraphNode> weightFunction;
+
+    private ArcFlags arcFlags;
+    private boolean deduplicate;
+    
+    /**
+     * The region of each node id.
+     */
+    private IntBuffer regions;
     
+    private final IntPriorityQueue OPEN;
+    private final SearchState STATE;
+
+    /**
+     * Constructs a system over <code>partitioner</code>. The searches run
+     * over a compact graph with a primitive queue: if <code>queue</code> is
+     * an {@link IntPriorityQueueBridge}, a spawn of its primitive queue is
+     * used, so the choice of the queue carries over as it does for the path
+     * finders; any other queue only selects the default, a binary
+     * {@link IntDaryHeap}, and is not used itself.
+     *
+     * @param partitioner the partitioner of the graph.
+     * @param queue the queue selecting the primitive queue.
+     */
     public ArcFlagSystem
         (final Partitioner partitioner,
          final PriorityQueue<DirectedGraphNode, Double> queue) {
         checkNotNull(queue, "'queue' is null.");
         setPartitioner(partitioner);
-        this.arcFlags = new ArcFlags();
-        this.regionMap = new RegionMap();
-        this.OPEN = queue;
-        this.CLOSED = new HashSet<>();
-        this.GSCORE = new HashMap<>();
-        this.PARENT = new HashMap<>();
+        this.OPEN = queue instanceof IntPriorityQueueBridge ?
+                    ((IntPriorityQueueBridge<?>) queue).spawnQueue() :
+                    new IntDaryHeap(2);
+        this.STATE = new SearchState();
     }
-        
+
     public ArcFlagSystem(final Partitioner partitioner) {
-        this(partitioner, new DaryHeap<DirectedGraphNode, Double>());
+        this(partitioner,
+             new IntPriorityQueueBridge<DirectedGraphNode>());
     }
-        
+
     public final void setPartitioner(final Partitioner partitioner) {
         checkNotNull(partitioner, "'partitioner' is null.");
         this.partitioner = partitioner;
     }
-        
-    public Path<DirectedGraphNode> 
+
+    /**
+     * Sets whether the next call to <code>preprocess</code> stores each
+     * distinct flag vector once and lets the arcs share them.
+     *
+     * @param deduplicate whether to deduplicate the flag vectors.
+     */
+    public void setDeduplicate(final boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Searches for a shortest path from <code>source</code> to
+     * <code>target</code> under <code>w</code>, which must be the
+     * weight function given to {@link #preprocess(Graph, WeightFunction)}
+     * or {@link #load}.
+     *
+     * @param source the source node.
+     * @param target the target node.
+     * @param w the weight function of the system.
+     *
+     * @return the shortest path or <code>Path.NO_PATH</code>.
+     *
+     * @throws IllegalArgumentException if <code>w</code> is not the weight
+     *         function of the system.
+     *
+     * @deprecated the weights are fixed when the system is built; use
+     *             {@link #search(DirectedGraphNode, DirectedGraphNode)}.
+     */
+    @Deprecated
+    public Path<DirectedGraphNode>
         search(final DirectedGraphNode source,
                final DirectedGraphNode target,
                final WeightFunction<DirectedGraphNode> w) {
+        checkNotNull(graph, "The system is not preprocessed.");
+
+        if (w != weightFunction) {
+            throw new IllegalArgumentException(
+                    "'w' is not the weight function of the system.");
+        }
+
+        return search(source, target);
+    }
+
+    /**
+     * Searches for a shortest path from <code>source</code> to
+     * <code>target</code>. The search runs on the snapshot of the graph taken
+     * by {@link #preprocess(Graph, WeightFunction)} or {@link #load}, so the
+     * weights are those given to that method.
+     *
+     * @param source the source node.
+     * @param target the target node.
+     *
+     * @return the shortest path or <code>Path.NO_PATH</code>.
+     */
+    public Path<DirectedGraphNode>
+        search(final DirectedGraphNode source,
+               final DirectedGraphNode target) {
+        checkNotNull(graph, "The system is not preprocessed.");
+
+        final int s = graph.getId(source);
+        final int t = graph.getId(target);
+
         OPEN.clear();
-        GSCORE.clear();
-        PARENT.clear();
-        
-        OPEN.add(source, 0.0);
-        GSCORE.put(source, 0.0);
-        PARENT.put(source, null);
-        CLOSED.clear();
-        
-        final int TARGET_REGION_NUMBER = regionMap.get(target);
-        
+        STATE.reset(graph.size());
+
+        OPEN.add(s, 0.0);
+        STATE.update(s, 0.0, SearchState.NO_PARENT);
+
+        final int TARGET_REGION_NUMBER = regions.get(t);
+
         while (OPEN.isEmpty() == false) {
-            final DirectedGraphNode current = OPEN.extractMinimum();
-            
-            if (current.equals(target)) {
-                return PathFinder.
-                       <DirectedGraphNode>constructPath(target, PARENT);
+            final int current = OPEN.extractMinimum();
+
+            if (current == t) {
+                return PathFinder.constructPath(t, STATE, graph);
             }
-            
-            CLOSED.add(current);
-            
-            for (final DirectedGraphNode child : current) {
-                if (CLOSED.contains(child)) {
+
+            STATE.close(current);
+
+            for (int arc = graph.getOutArcBegin(current);
+                     arc < graph.getOutArcEnd(current);
+                     ++arc) {
+                final int child = graph.getArcHead(arc);
+
+                if (STATE.isClosed(child)) {
                     continue;
                 }
-                
-                if (!arcFlags.get(current, child).get(TARGET_REGION_NUMBER)) {
+
+                if (arcFlags.get(arc, TARGET_REGION_NUMBER) == false) {
                     continue;
                 }
-                
-                double tmpg = GSCORE.get(current) + w.get(current, child);
-                
-                if (GSCORE.containsKey(child) == false) {
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
+
+                double tmpg = STATE.getDistance(current) +
+                              graph.getArcWeight(arc);
+
+                if (STATE.isDiscovered(child) == false) {
                     OPEN.add(child, tmpg);
-                } else if (GSCORE.get(child) > tmpg) {
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
+                    STATE.update(child, tmpg, current);
+                } else if (tmpg < STATE.getDistance(child)) {
                     OPEN.decreasePriority(child, tmpg);
+                    STATE.update(child, tmpg, current);
                 }
             }
         }
-        
+
         return Path.NO_PATH;
     }
-        
+
     public long preprocess(final Graph<DirectedGraphNode> graph,
                            final WeightFunction<DirectedGraphNode> w) {
         final long ta = System.currentTimeMillis();
-        this.w = w;
+        this.graph = new CompactGraph<>(graph, w);
+        this.weightFunction = w;
         this.regionList = partitioner.partition(graph.view());
-        this.regionMap.clear();
-        
+
+        final int[] regions = new int[this.graph.size()];
+
+        Arrays.fill(regions, ArcFlagPreprocessor.NO_REGION);
+
         int index = 0;
-        
+
         for (final Set<DirectedGraphNode> region : regionList) {
             for (final DirectedGraphNode node : region) {
-                regionMap.put(node, index);
+                regions[this.graph.getId(node)] = index;
             }
-            
-            setInnerFlags(region, index++);
-        }
-        
-        final List<List<DirectedGraphNode>> boundaryPointListList =
-                findBoundaryPoints();
-        
-        for (final List<DirectedGraphNode> region : boundaryPointListList) {
-            GSCORE.clear();
-            
-            for (final DirectedGraphNode boundaryPoint : region) {
-                computeArcFlags(boundaryPoint);
-            }
-        }
-        
-        return System.currentTimeMillis() - ta;
-    }
-    
-    private void computeArcFlags(final DirectedGraphNode source) {
-        OPEN.clear();
-
-        OPEN.add(source, 0.0);
-        GSCORE.put(source, 0.0);
-
-        final int TARGET_REGION_NUMBER = regionMap.get(source);
-
-        while (OPEN.isEmpty() == false) {
-            final DirectedGraphNode current = OPEN.extractMinimum();
 
-            for (final DirectedGraphNode parent : current.parents()) {
-                ArcFlagVector afv = arcFlags.get(parent, current);
+            ++index;
+        }
 
-                if (afv == null) {
-                    afv = new ArcFlagVector(regionMap.size());
-                    arcFlags.put(parent, current, afv);
-                }
+        final ArcFlagPreprocessor preprocessor =
+                new ArcFlagPreprocessor(this.graph,
+                                        regions,
+                                        regionList.size());
 
-                afv.set(TARGET_REGION_NUMBER);
+        this.regions = IntBuffer.wrap(regions);
+        
+        preprocessor.setInnerFlags();
+        preprocessor.setBoundaryFlags(preprocessor.findBoundaryNodes());
 
-                double tmpg = GSCORE.get(current) + w.get(parent, current);
+        this.arcFlags = new ArcFlags(preprocessor,
+                                     this.graph.arcs(),
+                                     regionList.size());
 
-                if (GSCORE.containsKey(parent) == false) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.add(parent, tmpg);
-                } else if (GSCORE.get(parent) > tmpg) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.decreasePriority(parent, tmpg);
-                }
-            }
-        }
-    }
-        
-    private List<List<DirectedGraphNode>> findBoundaryPoints() {
-        final List<List<DirectedGraphNode>> ret = new ArrayList<>();
-        
-        for (final Set<DirectedGraphNode> region : regionList) {
-            ret.add(getBoundaryPointsOfRegion(region));
+        if (deduplicate) {
+            arcFlags.deduplicate();
         }
-        
-        return ret;
+
+        return System.currentTimeMillis() - ta;
     }
-    
-    private List<DirectedGraphNode> 
-        getBoundaryPointsOfRegion(final Set<DirectedGraphNode> region) {
-        final Set<DirectedGraphNode> setView = new HashSet<>(region);
-        final List<DirectedGraphNode> ret = new ArrayList<>();
-        
-        outer: 
-        for (final DirectedGraphNode node : region) {
-            for (final DirectedGraphNode parent : node.parents()) {
-                if (setView.contains(parent) == false) {
-                    ret.add(node);
-                    continue outer;
-                }
-            }
-        }
-        
-        return ret;
+
+    /**
+     * Writes the region map and the arc flags computed by the last call to 
+     * <code>preprocess</code> to <code>file</code>, along with the
+     * fingerprint of the graph (see {@link CompactGraph#fingerprint()}).
+     * 
+     * @param file the file to write.
+     * 
+     * @throws IOException if writing fails.
+     */
+    public void save(final File file) throws IOException {
+        checkNotNull(file, "'file' is null.");
+        checkNotNull(arcFlags, "The system is not preprocessed.");
+        ArcFlagFile.write(file, graph.fingerprint(), regions, arcFlags);
     }
     
-    private void setInnerFlags(final Set<DirectedGraphNode> region, 
-                               final int regionNumber) {
-        final Set<DirectedGraphNode> set = new HashSet<>(region);
-        
-        for (final DirectedGraphNode node : region) {
-            for (final DirectedGraphNode child : node) {
-                if (set.contains(child)) {
-                    ArcFlagVector afv = arcFlags.get(node, child);
-                    
-                    if (afv == null) {
-                        afv = new ArcFlagVector(regionList.size());
-                        arcFlags.put(node, child, afv);
-                    }
-                    
-                    afv.set(regionNumber);
-                }
-            }
-        }
+    /**
+     * Loads the region map and the arc flags saved by 
+     * {@link #save(File)} instead of preprocessing. The file is mapped to
+     * memory and the queries read the flags directly from the mapping.
+     * 
+     * @param file the file to load.
+     * @param graph the graph the file was saved for.
+     * @param w the weight function of <code>graph</code>.
+     * 
+     * @throws IOException if reading fails, or if the file was saved for 
+     * another graph or other weights.
+     */
+    public void load(final File file,
+                     final Graph<DirectedGraphNode> graph,
+                     final WeightFunction<DirectedGraphNode> w) 
+    throws IOException {
+        checkNotNull(file, "'file' is null.");
+        final CompactGraph<DirectedGraphNode> cg = 
+                new CompactGraph<>(graph, w);
+        final ArcFlagFile contents = ArcFlagFile.read(file, 
+                                                      cg.fingerprint(),
+                                                      cg.size(),
+                                                      cg.arcs());
+        this.graph = cg;
+        this.weightFunction = w;
+        this.regionList = null;
+        this.regions = contents.getRegions();
+        this.arcFlags = contents.getArcFlags();
     }
-}
\ No newline at end of file
+}
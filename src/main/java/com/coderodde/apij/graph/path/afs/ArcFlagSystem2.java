@@ -1,401 +1,321 @@
 package com.coderodde.apij.graph.path.afs;
 
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
 import com.coderodde.apij.ds.pq.PriorityQueue;
-import com.coderodde.apij.ds.pq.support.DaryHeap;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.ds.pq.support.IntPriorityQueueBridge;
+import com.coderodde.apij.graph.model.CompactGraph;
 import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.WeightFunction;
 import com.coderodde.apij.graph.model.support.DirectedGraphNode;
 import com.coderodde.apij.graph.path.Path;
 import com.coderodde.apij.graph.path.PathFinder;
+import com.coderodde.apij.graph.path.SearchState;
 import static com.coderodde.apij.util.Utils.checkNotNull;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
+/**
+ * This class implements two-level arc flags. The graph is partitioned into
+ * first level regions, and each of them into second level regions. An arc
+ * whose tail lies in the first level region of the target is pruned by its
+ * second level flag of the target's second level region; any other arc is
+ * pruned by its first level flag of the target's first level region.
+ * <p>
+ * The second level flags are numbered locally within each first level region,
+ * so one flag row per arc is wide enough for the largest first level region.
+ */
 public class ArcFlagSystem2 {
-    
-    private Graph graph;
+
+    private CompactGraph<DirectedGraphNode> graph;
+
+    /**
+     * The weight function the system was built with.
+     */
+    private WeightFunction<DirectedGraphNode> weightFunction;
+
     private Partitioner partitioner;
-    private WeightFunction<DirectedGraphNode> w;
+    private final int levelOneMaxNodes;
     private final int levelTwoMaxNodes;
-    
-    private final ArcFlags firstLevelArcFlags;
-    private final List<ArcFlags> secondLevelArcFlags;
-    
-    private final RegionMap firstLevelRegionMap;
-    private final List<RegionMap> secondLevelRegionMap;
-    
+    private boolean deduplicate;
+
+    private ArcFlags firstLevelArcFlags;
+    private ArcFlags secondLevelArcFlags;
+
+    /**
+     * The first level region of each node id.
+     */
+    private int[] firstLevelRegionMap;
+
+    /**
+     * The second level region of each node id, local to its first level
+     * region.
+     */
+    private int[] secondLevelRegionMap;
+
     private final List<Set<DirectedGraphNode>> firstLevelRegions;
     private final List<List<Set<DirectedGraphNode>>> secondLevelRegions;
-    
-    private final Set<DirectedGraphNode> CLOSED;
-    private final Map<DirectedGraphNode, Double> GSCORE;
-    private final PriorityQueue<DirectedGraphNode, Double> OPEN;
-    private final Map<DirectedGraphNode, DirectedGraphNode> PARENT;
-    
+
+    private final IntPriorityQueue OPEN;
+    private final SearchState STATE;
+
+    /**
+     * Constructs a system over <code>partitioner</code>. The searches run
+     * over a compact graph with a primitive queue: if <code>queue</code> is
+     * an {@link IntPriorityQueueBridge}, a spawn of its primitive queue is
+     * used, so the choice of the queue carries over as it does for the path
+     * finders; any other queue only selects the default, a binary
+     * {@link IntDaryHeap}, and is not used itself.
+     *
+     * @param partitioner the partitioner of the graph.
+     * @param levelOneMaxNodes the largest size of a first level region.
+     * @param levelTwoMaxNodes the largest size of a second level region.
+     * @param queue the queue selecting the primitive queue.
+     */
     public ArcFlagSystem2
-        (final Partitioner partitioner, 
+        (final Partitioner partitioner,
          final int levelOneMaxNodes,
          final int levelTwoMaxNodes,
          final PriorityQueue<DirectedGraphNode, Double> queue) {
         checkNotNull(queue, "'queue' is null.");
         setPartitioner(partitioner);
-        partitioner.setMaxNodesPerRegion(levelOneMaxNodes);
+        this.levelOneMaxNodes = levelOneMaxNodes;
         this.levelTwoMaxNodes = levelTwoMaxNodes;
-        
-        this.firstLevelArcFlags = new ArcFlags();
-        this.secondLevelArcFlags = new ArrayList<>();
-        
-        this.firstLevelRegionMap = new RegionMap();
-        this.secondLevelRegionMap = new ArrayList<>();
-        
+
         this.firstLevelRegions = new ArrayList<>();
         this.secondLevelRegions = new ArrayList<>();
-        
-        this.OPEN = queue;
-        this.GSCORE = new HashMap<>();
-        this.PARENT = new HashMap<>();
-        this.CLOSED = new HashSet<>();
+
+        this.OPEN = queue instanceof IntPriorityQueueBridge ?
+                    ((IntPriorityQueueBridge<?>) queue).spawnQueue() :
+                    new IntDaryHeap(2);
+        this.STATE = new SearchState();
     }
-        
-    public ArcFlagSystem2(final Partitioner partitioner, 
+
+    public ArcFlagSystem2(final Partitioner partitioner,
                           final int levelOneMaxNodes,
                           final int levelTwoMaxNodes) {
-        this(partitioner, 
+        this(partitioner,
              levelOneMaxNodes,
              levelTwoMaxNodes,
-             new DaryHeap<DirectedGraphNode, Double>());
+             new IntPriorityQueueBridge<DirectedGraphNode>());
     }
-        
+
     public final void setPartitioner(final Partitioner partitioner) {
         checkNotNull(partitioner, "'partitioner' is null.");
         this.partitioner = partitioner;
     }
-        
-    public Path<DirectedGraphNode> 
+
+    /**
+     * Sets whether the next call to <code>preprocess</code> stores each
+     * distinct flag vector once and lets the arcs share them.
+     *
+     * @param deduplicate whether to deduplicate the flag vectors.
+     */
+    public void setDeduplicate(final boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Searches for a shortest path from <code>source</code> to
+     * <code>target</code> under <code>w</code>, which must be the
+     * weight function given to {@link #preprocess(Graph, WeightFunction)}.
+     *
+     * @param source the source node.
+     * @param target the target node.
+     * @param w the weight function of the system.
+     *
+     * @return the shortest path or <code>Path.NO_PATH</code>.
+     *
+     * @throws IllegalArgumentException if <code>w</code> is not the weight
+     *         function of the system.
+     *
+     * @deprecated the weights are fixed when the system is built; use
+     *             {@link #search(DirectedGraphNode, DirectedGraphNode)}.
+     */
+    @Deprecated
+    public Path<DirectedGraphNode>
         search(final DirectedGraphNode source,
                final DirectedGraphNode target,
                final WeightFunction<DirectedGraphNode> w) {
+        checkNotNull(graph, "The system is not preprocessed.");
+
+        if (w != weightFunction) {
+            throw new IllegalArgumentException(
+                    "'w' is not the weight function of the system.");
+        }
+
+        return search(source, target);
+    }
+
+    /**
+     * Searches for a shortest path from <code>source</code> to
+     * <code>target</code>. The search runs on the snapshot of the graph taken
+     * by {@link #preprocess(Graph, WeightFunction)}, so the weights are those
+     * given to <code>preprocess</code>.
+     *
+     * @param source the source node.
+     * @param target the target node.
+     *
+     * @return the shortest path or <code>Path.NO_PATH</code>.
+     */
+    public Path<DirectedGraphNode>
+        search(final DirectedGraphNode source,
+               final DirectedGraphNode target) {
+        checkNotNull(graph, "The system is not preprocessed.");
+
+        final int s = graph.getId(source);
+        final int t = graph.getId(target);
+
         OPEN.clear();
-        GSCORE.clear();
-        PARENT.clear();
-        CLOSED.clear();
-        
-        OPEN.add(source, 0.0);
-        GSCORE.put(source, 0.0);
-        PARENT.put(source, null);
-        
-        final int TARGET_REGION_NUMBER = firstLevelRegionMap.get(target);
-        final int SUB_TARGET_REGION_NUMBER = secondLevelRegionMap
-                                             .get(TARGET_REGION_NUMBER)
-                                             .get(target);
-                
+        STATE.reset(graph.size());
+
+        OPEN.add(s, 0.0);
+        STATE.update(s, 0.0, SearchState.NO_PARENT);
+
+        final int TARGET_REGION_NUMBER = firstLevelRegionMap[t];
+        final int SUB_TARGET_REGION_NUMBER = secondLevelRegionMap[t];
+
         while (OPEN.isEmpty() == false) {
-            final DirectedGraphNode current = OPEN.extractMinimum();
-            
-            if (current.equals(target)) {
-                return PathFinder.
-                       <DirectedGraphNode>constructPath(target, PARENT);
+            final int current = OPEN.extractMinimum();
+
+            if (current == t) {
+                return PathFinder.constructPath(t, STATE, graph);
             }
-            
-            CLOSED.add(current);
-
-            final int FIRST_LEVEL_REGION_NUMBER = 
-                    firstLevelRegionMap.get(current);
-            
-            final Set<DirectedGraphNode> currentRegion = 
-                    firstLevelRegions.get(FIRST_LEVEL_REGION_NUMBER);
-            
-            for (final DirectedGraphNode child : current) {
-                if (CLOSED.contains(child)) {
-                    continue;
-                }
-                
-                if (!firstLevelArcFlags.get(current, child)
-                                       .get(TARGET_REGION_NUMBER)) {
+
+            STATE.close(current);
+
+            final boolean inTargetRegion =
+                    firstLevelRegionMap[current] == TARGET_REGION_NUMBER;
+
+            for (int arc = graph.getOutArcBegin(current);
+                     arc < graph.getOutArcEnd(current);
+                     ++arc) {
+                final int child = graph.getArcHead(arc);
+
+                if (STATE.isClosed(child)) {
                     continue;
                 }
-                
-                if (currentRegion.contains(child)) {
-                    if (!secondLevelArcFlags.get(FIRST_LEVEL_REGION_NUMBER)
-                                            .get(current, child)
-                                            .get(SUB_TARGET_REGION_NUMBER)) {
+
+                if (inTargetRegion) {
+                    if (secondLevelArcFlags.get(arc, SUB_TARGET_REGION_NUMBER)
+                            == false) {
                         continue;
                     }
+                } else if (firstLevelArcFlags.get(arc, TARGET_REGION_NUMBER)
+                            == false) {
+                    continue;
                 }
-                
-                double tmpg = GSCORE.get(current) + w.get(current, child);
-                
-                if (GSCORE.containsKey(child) == false) {
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
+
+                double tmpg = STATE.getDistance(current) +
+                              graph.getArcWeight(arc);
+
+                if (STATE.isDiscovered(child) == false) {
                     OPEN.add(child, tmpg);
-                } else if (GSCORE.get(child) > tmpg) {
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
+                    STATE.update(child, tmpg, current);
+                } else if (tmpg < STATE.getDistance(child)) {
                     OPEN.decreasePriority(child, tmpg);
+                    STATE.update(child, tmpg, current);
                 }
             }
         }
-        
+
         return Path.NO_PATH;
     }
-        
+
     public long preprocess(final Graph<DirectedGraphNode> graph,
                            final WeightFunction<DirectedGraphNode> w) {
         checkNotNull(graph, "'graph' is null.");
         checkNotNull(w, "'w' is null.");
-        
+
         final long ta = System.currentTimeMillis();
-        
-        this.graph = graph;
-        this.w = w;
-        
-        loadFirstLevelData();
+
+        this.graph = new CompactGraph<>(graph, w);
+        this.weightFunction = w;
+
+        loadFirstLevelData(graph);
         loadSecondLevelData();
-        
+
         return System.currentTimeMillis() - ta;
     }
-    
-    private void loadFirstLevelData() {
+
+    private void loadFirstLevelData(final Graph<DirectedGraphNode> graph) {
         firstLevelRegions.clear();
-        firstLevelArcFlags.clear();
-        firstLevelRegionMap.clear();
-        
+        partitioner.setMaxNodesPerRegion(levelOneMaxNodes);
         firstLevelRegions.addAll(partitioner.partition(graph.view()));
-        
+
+        firstLevelRegionMap = new int[this.graph.size()];
+        Arrays.fill(firstLevelRegionMap, ArcFlagPreprocessor.NO_REGION);
+
         int index = 0;
-        
+
         for (final Set<DirectedGraphNode> region : firstLevelRegions) {
             for (final DirectedGraphNode node : region) {
-                firstLevelRegionMap.put(node, index);
+                firstLevelRegionMap[this.graph.getId(node)] = index;
             }
-            
+
             ++index;
         }
-        
-        final List<Set<DirectedGraphNode>> boundaryNodeList =
-                findFirstLevelBoundaryNodes();
-        
-        for (final Set<DirectedGraphNode> regionBoundary : boundaryNodeList) {
-            for (final DirectedGraphNode boundaryNode : regionBoundary) {
-                computeArcFlags(boundaryNode);
-            }
-        }
-        
-        for (final Set<DirectedGraphNode> region : firstLevelRegions) {
-            GSCORE.clear();
-            setInnerFlags(region, firstLevelArcFlags);
+
+        final ArcFlagPreprocessor preprocessor =
+                new ArcFlagPreprocessor(this.graph,
+                                        firstLevelRegionMap,
+                                        firstLevelRegions.size());
+
+        preprocessor.setInnerFlags();
+        preprocessor.setBoundaryFlags(preprocessor.findBoundaryNodes());
+
+        firstLevelArcFlags = new ArcFlags(preprocessor,
+                                          this.graph.arcs(),
+                                          firstLevelRegions.size());
+
+        if (deduplicate) {
+            firstLevelArcFlags.deduplicate();
         }
     }
-    
+
     private void loadSecondLevelData() {
         secondLevelRegions.clear();
-        secondLevelArcFlags.clear();
-        secondLevelRegionMap.clear();
         partitioner.setMaxNodesPerRegion(levelTwoMaxNodes);
-        
+
+        secondLevelRegionMap = new int[graph.size()];
+        Arrays.fill(secondLevelRegionMap, ArcFlagPreprocessor.NO_REGION);
+
+        int maxRegions = 0;
+
         for (Set<DirectedGraphNode> firstLevelRegion : firstLevelRegions) {
-            final List<Set<DirectedGraphNode>> miniRegions = 
+            final List<Set<DirectedGraphNode>> miniRegions =
                     partitioner.partition(firstLevelRegion);
             secondLevelRegions.add(miniRegions);
-            
-            final RegionMap rm = new RegionMap();
-            secondLevelRegionMap.add(rm);
-            secondLevelArcFlags.add(new ArcFlags());
-            
+            maxRegions = Math.max(maxRegions, miniRegions.size());
+
             int index = 0;
-            
+
             for (final Set<DirectedGraphNode> miniRegion : miniRegions) {
                 for (final DirectedGraphNode node : miniRegion) {
-                    rm.put(node, index);
-                }
-                
-                ++index;
-            }
-        }
-        
-        int index = 0;
-        
-        for (final List<Set<DirectedGraphNode>> region : secondLevelRegions) {
-            for (final Set<DirectedGraphNode> miniRegion : region) {
-                setInnerFlags(miniRegion, secondLevelArcFlags.get(index));
-            }
-            
-            for (final Set<DirectedGraphNode> miniRegion : region) {
-                Set<DirectedGraphNode> b = getBoundaryNodesOfRegion(miniRegion);
-                GSCORE.clear();
-                
-                for (final DirectedGraphNode node : b) {
-                    computeArcFlagsSecondLevel(node, miniRegion);
-                }
-            }
-            
-            ++index;
-        }
-    }
-    
-    private void setInnerFlags(final Set<DirectedGraphNode> region, 
-                               final ArcFlags arcFlags) {
-        for (final DirectedGraphNode node : region) {
-            setInnerFlagsImpl(node, region, arcFlags);
-        }
-    }
-    
-    private void setInnerFlagsImpl(final DirectedGraphNode source,
-                                   final Set<DirectedGraphNode> region,
-                                   final ArcFlags arcFlags) {
-        OPEN.clear();
-        OPEN.add(source, 0.0);
-        GSCORE.clear();
-        GSCORE.put(source, 0.0);
-        
-        while (OPEN.isEmpty() == false) {
-            final DirectedGraphNode current = OPEN.extractMinimum();
-            
-            for (final DirectedGraphNode parent : current.parents()) {
-                if (region.contains(parent) == false) {
-                    continue;
-                }
-                
-                ArcFlagVector afv = arcFlags.get(parent, current);
-                
-                if (afv == null) {
-                    afv = new ArcFlagVector(firstLevelRegions.size());
-                    arcFlags.put(parent, current, afv);
-                }
-                
-                afv.set(firstLevelRegionMap.get(source));
-                
-                double tmpg = GSCORE.get(current) + w.get(parent, current);
-                
-                if (GSCORE.containsKey(parent) == false) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.add(parent, tmpg);
-                } else if (GSCORE.get(parent) > tmpg) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.decreasePriority(parent, tmpg);
-                }
-            }
-        }
-    }
-    
-    private List<Set<DirectedGraphNode>> findFirstLevelBoundaryNodes() {
-        final List<Set<DirectedGraphNode>> ret =
-                new ArrayList<>(firstLevelRegions.size());
-        
-        for (final Set<DirectedGraphNode> region : firstLevelRegions) {
-            final Set<DirectedGraphNode> boundaryNodes = new HashSet<>();
-            
-            label:
-            for (final DirectedGraphNode node : region) {
-                for (final DirectedGraphNode parent : node.parents()) {
-                    if (region.contains(parent) == false) {
-                        boundaryNodes.add(node);
-                        continue label;
-                    }
+                    secondLevelRegionMap[graph.getId(node)] = index;
                 }
-            }
-            
-            ret.add(boundaryNodes);
-        }
-        
-        return ret;
-    }
-    
-    private void computeArcFlags(final DirectedGraphNode source) {
-        OPEN.clear();
-        OPEN.add(source, 0.0);
-//        GSCORE.clear();
-        GSCORE.put(source, 0.0);
 
-        final int TARGET_REGION_NUMBER = firstLevelRegionMap.get(source);
-
-        while (OPEN.isEmpty() == false) {
-            final DirectedGraphNode current = OPEN.extractMinimum();
-            
-            for (final DirectedGraphNode parent : current.parents()) {
-                ArcFlagVector afv = firstLevelArcFlags.get(parent, current);
-
-                if (afv == null) {
-                    afv = new ArcFlagVector(firstLevelRegions.size());
-                    firstLevelArcFlags.put(parent, current, afv);
-                }
-
-                afv.set(TARGET_REGION_NUMBER);
-
-                double tmpg = GSCORE.get(current) + w.get(parent, current);
-
-                if (GSCORE.containsKey(parent) == false) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.add(parent, tmpg);
-                } else if (GSCORE.get(parent) > tmpg) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.decreasePriority(parent, tmpg);
-                }
-            }
-        }
-    }
-    
-    private Set<DirectedGraphNode> 
-        getBoundaryNodesOfRegion(final Set<DirectedGraphNode> region) {
-        final Set<DirectedGraphNode> ret = new HashSet<>(region.size());
-        
-        outer: 
-        for (final DirectedGraphNode node : region) {
-            for (final DirectedGraphNode parent : node.parents()) {
-                if (region.contains(parent) == false) {
-                    ret.add(node);
-                    continue outer;
-                }
+                ++index;
             }
         }
-        
-        return ret;
-    }
-
-    private void computeArcFlagsSecondLevel
-        (final DirectedGraphNode source, final Set<DirectedGraphNode> bound) {
-        OPEN.clear();
-        OPEN.add(source, 0.0);
-//        GSCORE.clear();
-        GSCORE.put(source, 0.0);
-
-        final int TARGET_REGION_NUMBER = firstLevelRegionMap.get(source);
-        final int SUB_TARGET_REGION_NUMBER = 
-                secondLevelRegionMap.get(TARGET_REGION_NUMBER).get(source);
-        final ArcFlags af = secondLevelArcFlags.get(TARGET_REGION_NUMBER);
 
-        while (OPEN.isEmpty() == false) {
-            final DirectedGraphNode current = OPEN.extractMinimum();
-            
-            for (final DirectedGraphNode parent : current.parents()) {
-                if (bound.contains(parent) == false) {
-                    continue;
-                }
-                
-                ArcFlagVector afv = af.get(parent, current);
+        final ArcFlagPreprocessor preprocessor =
+                new ArcFlagPreprocessor(graph,
+                                        secondLevelRegionMap,
+                                        firstLevelRegionMap,
+                                        maxRegions);
 
-                if (afv == null) {
-                    afv = new ArcFlagVector(firstLevelRegions.size());
-                    af.put(parent, current, afv);
-                }
+        preprocessor.setInnerFlags();
+        preprocessor.setBoundaryFlags(preprocessor.findBoundaryNodes());
 
-                afv.set(SUB_TARGET_REGION_NUMBER);
+        secondLevelArcFlags = new ArcFlags(preprocessor,
+                                           graph.arcs(),
+                                           maxRegions);
 
-                double tmpg = GSCORE.get(current) + w.get(parent, current);
-
-                if (GSCORE.containsKey(parent) == false) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.add(parent, tmpg);
-                } else if (GSCORE.get(parent) > tmpg) {
-                    GSCORE.put(parent, tmpg);
-                    OPEN.decreasePriority(parent, tmpg);
-                }
-            }
+        if (deduplicate) {
+            secondLevelArcFlags.deduplicate();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,37 +1,268 @@
 package com.coderodde.apij.graph.path.afs;
 
-import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * This class stores the arc flags of a compact graph in a flat
+ * <code>long</code> matrix with one row per arc id and one bit per region,
+ * the rows rounded up to whole 64-bit words.
+ * <p>
+ * Many arcs carry the same flags, so the rows may be deduplicated (see
+ * {@link #deduplicate()}): the distinct rows go into a dictionary, and each
+ * arc keeps only the index of its row.
+ * <p>
+ * The matrix is read through a {@link LongBuffer}, so the flags may live on
+ * the heap as well as in a memory-mapped file (see {@link ArcFlagFile}).
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
 class ArcFlags {
+
+    /**
+     * The amount of arcs.
+     */
+    private final int arcs;
     
-    private Map<DirectedGraphNode, Map<DirectedGraphNode, ArcFlagVector>> map;
+    /**
+     * The amount of regions.
+     */
+    private final int regionCount;
+
+    /**
+     * The amount of 64-bit words per row.
+     */
+    private final int words;
+
+    /**
+     * The flag rows.
+     */
+    private LongBuffer flags;
+
+    /**
+     * <code>rows.get(a)</code> is the row of the arc <code>a</code>, or
+     * <code>rows</code> is <code>null</code> if the rows are indexed by arc
+     * id directly.
+     */
+    private IntBuffer rows;
+
+    /**
+     * Constructs cleared flags for <code>arcs</code> arcs.
+     *
+     * @param arcs the amount of arcs.
+     * @param regionCount the amount of regions.
+     *
+     * @throws IllegalArgumentException if the flags do not fit in a buffer.
+     */
+    ArcFlags(final int arcs, final int regionCount) {
+        this.arcs = arcs;
+        this.regionCount = regionCount;
+        this.words = (regionCount + 63) >>> 6;
+
+        if ((long) arcs * words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "The flags of " + arcs + " arcs and " + regionCount +
+                    " regions do not fit in a buffer.");
+        }
 
-    ArcFlags() {
-        this.map = new HashMap<>();
+        this.flags = LongBuffer.allocate(arcs * words);
     }
-    
-    void put(final DirectedGraphNode tail, 
-             final DirectedGraphNode head, 
-             final ArcFlagVector v) {
-        if (map.containsKey(tail) == false) {
-            map.put(tail, new HashMap<DirectedGraphNode, ArcFlagVector>());
+
+    /**
+     * Constructs flags over existing buffers.
+     *
+     * @param arcs the amount of arcs.
+     * @param regionCount the amount of regions.
+     * @param flags the flag rows.
+     * @param rows the row of each arc, or <code>null</code> if the rows are
+     * indexed by arc id.
+     */
+    ArcFlags(final int arcs,
+             final int regionCount,
+             final LongBuffer flags,
+             final IntBuffer rows) {
+        this.arcs = arcs;
+        this.regionCount = regionCount;
+        this.words = (regionCount + 63) >>> 6;
+        this.flags = flags;
+        this.rows = rows;
+    }
+
+    /**
+     * Constructs flags from the raw rows computed by
+     * <code>preprocessor</code>.
+     *
+     * @param preprocessor the preprocessor.
+     * @param arcs the amount of arcs.
+     * @param regionCount the amount of regions.
+     */
+    ArcFlags(final ArcFlagPreprocessor preprocessor,
+             final int arcs,
+             final int regionCount) {
+        this(arcs, regionCount);
+
+        for (int arc = 0; arc < arcs; ++arc) {
+            for (int word = 0; word < words; ++word) {
+                flags.put(arc * words + word,
+                          preprocessor.getWord(arc, word));
+            }
         }
-        
-        map.get(tail).put(head, v);
     }
-    
-    ArcFlagVector get(final DirectedGraphNode tail,
-                      final DirectedGraphNode head) {
-        if (map.containsKey(tail) == false) {
-            return null;
+
+    /**
+     * Returns the amount of regions.
+     *
+     * @return the amount of regions.
+     */
+    int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * Returns the amount of arcs.
+     *
+     * @return the amount of arcs.
+     */
+    int getArcCount() {
+        return arcs;
+    }
+
+    /**
+     * Returns the amount of 64-bit words per row.
+     *
+     * @return the amount of words.
+     */
+    int words() {
+        return words;
+    }
+
+    /**
+     * Returns the flag rows.
+     *
+     * @return the flag rows.
+     */
+    LongBuffer getFlags() {
+        return flags;
+    }
+
+    /**
+     * Returns the row of each arc, or <code>null</code> if the flags are not
+     * deduplicated.
+     *
+     * @return the rows.
+     */
+    IntBuffer getRows() {
+        return rows;
+    }
+
+    /**
+     * Queries the flag of <code>region</code> on the arc <code>arc</code>.
+     *
+     * @param arc the arc id.
+     * @param region the region number.
+     *
+     * @return <code>true</code> if the flag is set.
+     */
+    boolean get(final int arc, final int region) {
+        final int row = rows == null ? arc : rows.get(arc);
+        return (flags.get(row * words + (region >>> 6)) 
+                & (1L << region)) != 0L;
+    }
+
+    /**
+     * Replaces the per-arc rows with a dictionary of the distinct rows.
+     */
+    void deduplicate() {
+        if (rows != null) {
+            return;
         }
-        
-        return map.get(tail).get(head);
+
+        final long[] matrix = new long[arcs * words];
+        final Map<Row, Integer> dictionary = new HashMap<>();
+        final int[] newRows = new int[arcs];
+
+        flags.position(0);
+        flags.get(matrix);
+        flags.position(0);
+
+        long[] distinct = new long[Math.max(1, words)];
+
+        for (int arc = 0; arc < arcs; ++arc) {
+            final Row row = new Row(matrix, arc * words, words);
+            Integer index = dictionary.get(row);
+
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.put(row, index);
+
+                if ((index + 1) * words > distinct.length) {
+                    distinct = Arrays.copyOf(distinct, 2 * distinct.length);
+                }
+
+                System.arraycopy(matrix, arc * words,
+                                 distinct, index * words,
+                                 words);
+            }
+
+            newRows[arc] = index;
+        }
+
+        this.flags = LongBuffer.wrap(
+                Arrays.copyOf(distinct, dictionary.size() * words));
+        this.rows = IntBuffer.wrap(newRows);
     }
-    
-    void clear() {
-        map.clear();
+
+    /**
+     * Returns the amount of distinct rows, or the amount of arcs if the flags
+     * are not deduplicated.
+     *
+     * @return the amount of stored rows.
+     */
+    int rowCount() {
+        return rows == null ? arcs : flags.capacity() / Math.max(1, words);
+    }
+
+    /**
+     * A view of a row of a flag matrix used as a dictionary key.
+     */
+    private static final class Row {
+
+        private final long[] flags;
+        private final int offset;
+        private final int words;
+
+        Row(final long[] flags, final int offset, final int words) {
+            this.flags = flags;
+            this.offset = offset;
+            this.words = words;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 17;
+
+            for (int i = offset; i < offset + words; ++i) {
+                hash = 31 * hash + (int)(flags[i] ^ (flags[i] >>> 32));
+            }
+
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            final Row other = (Row) o;
+
+            for (int i = 0; i < words; ++i) {
+                if (flags[offset + i] != other.flags[other.offset + i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
     }
 }
@@ -102,8 +102,8 @@ public class kdTreePartitioner extends Partitioner {
         @Override
         public int compare(final Object o1, 
                            final Object o2) {
-            final Double x1 = layout.get((DirectedGraphNode) o1).x;
-            final Double x2 = layout.get((DirectedGraphNode) o2).x;
+            final double x1 = layout.getX((DirectedGraphNode) o1);
+            final double x2 = layout.getX((DirectedGraphNode) o2);
             return (x1 < x2 ? -1 : (x1 > x2 ? 1 : 0));
         }
     }
@@ -119,8 +119,8 @@ public class kdTreePartitioner extends Partitioner {
         @Override
         public int compare(final Object o1, 
                            final Object o2) {
-            final Double y1 = layout.get((DirectedGraphNode) o1).y;
-            final Double y2 = layout.get((DirectedGraphNode) o2).y;
+            final double y1 = layout.getY((DirectedGraphNode) o1);
+            final double y2 = layout.getY((DirectedGraphNode) o2);
             return (y1 < y2 ? -1 : (y1 > y2 ? 1 : 0));
         }
     }
@@ -0,0 +1,649 @@
+package com.coderodde.apij.graph.path.ch;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.path.SearchState;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import static com.coderodde.apij.util.Utils.checkPositive;
+import java.util.Arrays;
+
+/**
+ * This class implements a contraction hierarchy over a compact graph
+ * snapshot. The nodes are contracted one by one in the order of their
+ * priority, which is the <i>edge difference</i> (the amount of shortcuts the
+ * contraction adds minus the amount of arcs it removes) plus the amount of
+ * already contracted neighbours. The priorities are kept up to date lazily:
+ * a node popped from the queue is re-evaluated and put back if it is no
+ * longer the minimum. The neighbours of a contracted node are re-evaluated
+ * right away, but the queue takes only the priorities that decreased; a
+ * priority that rose is left stale in the queue until its node is popped.
+ * <p>
+ * Contracting a node <code>v</code> adds a shortcut <tt>(u, w)</tt> for every
+ * pair of arcs <tt>(u, v)</tt>, <tt>(v, w)</tt> unless a witness search from
+ * <code>u</code> avoiding <code>v</code> finds a path to <code>w</code> that
+ * is no longer. A witness search settles at most a fixed amount of nodes;
+ * when it gives up, the shortcut is added, which is never wrong, only
+ * redundant. Every shortcut remembers the node it bypasses, so that the
+ * paths may be unpacked.
+ * <p>
+ * The result is stored as two arc arrays in compressed sparse row format: the
+ * <i>upward</i> arcs leaving each node towards nodes of higher rank, and the
+ * <i>downward</i> arcs entering each node from nodes of higher rank. See
+ * {@link ContractionHierarchyFinder} for answering queries.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ContractionHierarchy<T extends Node<T>> {
+
+    /**
+     * The default maximum amount of nodes settled by a witness search.
+     */
+    public static final int DEFAULT_WITNESS_SETTLE_LIMIT = 500;
+
+    /**
+     * The middle node of the arcs that are not shortcuts.
+     */
+    public static final int NO_MIDDLE = -1;
+
+    /**
+     * The snapshot this hierarchy was built from.
+     */
+    private final CompactGraph<T> graph;
+
+    /**
+     * <code>ranks[u]</code> is the position of <code>u</code> in the
+     * contraction order.
+     */
+    private final int[] ranks;
+
+    /**
+     * <code>upOffsets[u]</code> is the index of the first upward arc leaving
+     * <code>u</code>.
+     */
+    private final int[] upOffsets;
+
+    /**
+     * The heads of the upward arcs.
+     */
+    private final int[] upHeads;
+
+    /**
+     * The weights of the upward arcs.
+     */
+    private final double[] upWeights;
+
+    /**
+     * The middle nodes of the upward arcs.
+     */
+    private final int[] upMiddles;
+
+    /**
+     * <code>downOffsets[v]</code> is the index of the first downward arc
+     * entering <code>v</code>.
+     */
+    private final int[] downOffsets;
+
+    /**
+     * The tails of the downward arcs.
+     */
+    private final int[] downTails;
+
+    /**
+     * The weights of the downward arcs.
+     */
+    private final double[] downWeights;
+
+    /**
+     * The middle nodes of the downward arcs.
+     */
+    private final int[] downMiddles;
+
+    /**
+     * The amount of shortcuts added.
+     */
+    private final int shortcuts;
+
+    /**
+     * Builds a contraction hierarchy over <code>graph</code>.
+     *
+     * @param graph the graph.
+     * @param wf the weight function of <code>graph</code>.
+     */
+    public ContractionHierarchy(final Graph<T> graph,
+                                final WeightFunction<T> wf) {
+        this(new CompactGraph<>(graph, wf));
+    }
+
+    /**
+     * Builds a contraction hierarchy over the snapshot <code>graph</code>.
+     *
+     * @param graph the snapshot.
+     */
+    public ContractionHierarchy(final CompactGraph<T> graph) {
+        this(graph, DEFAULT_WITNESS_SETTLE_LIMIT);
+    }
+
+    /**
+     * Builds a contraction hierarchy over the snapshot <code>graph</code>.
+     *
+     * @param graph the snapshot.
+     * @param witnessSettleLimit the maximum amount of nodes settled by a
+     * witness search.
+     */
+    public ContractionHierarchy(final CompactGraph<T> graph,
+                                final int witnessSettleLimit) {
+        checkNotNull(graph, "'graph' is null.");
+        checkPositive(witnessSettleLimit, "'witnessSettleLimit' is not " +
+                                          "positive.");
+        this.graph = graph;
+
+        final Contractor contractor = new Contractor(graph,
+                                                     witnessSettleLimit);
+        contractor.run();
+
+        final int N = graph.size();
+
+        this.ranks = contractor.ranks;
+        this.shortcuts = contractor.shortcuts;
+        this.upOffsets = new int[N + 1];
+        this.downOffsets = new int[N + 1];
+
+        for (int u = 0; u < N; ++u) {
+            upOffsets[u + 1] = upOffsets[u] + contractor.out[u].size;
+            downOffsets[u + 1] = downOffsets[u] + contractor.in[u].size;
+        }
+
+        this.upHeads = new int[upOffsets[N]];
+        this.upWeights = new double[upOffsets[N]];
+        this.upMiddles = new int[upOffsets[N]];
+        this.downTails = new int[downOffsets[N]];
+        this.downWeights = new double[downOffsets[N]];
+        this.downMiddles = new int[downOffsets[N]];
+
+        for (int u = 0; u < N; ++u) {
+            final ArcList up = contractor.out[u];
+            final ArcList down = contractor.in[u];
+
+            System.arraycopy(up.nodes, 0, upHeads, upOffsets[u], up.size);
+            System.arraycopy(up.weights, 0, upWeights, upOffsets[u], up.size);
+            System.arraycopy(up.middles, 0, upMiddles, upOffsets[u], up.size);
+
+            System.arraycopy(down.nodes, 0,
+                             downTails, downOffsets[u], down.size);
+            System.arraycopy(down.weights, 0,
+                             downWeights, downOffsets[u], down.size);
+            System.arraycopy(down.middles, 0,
+                             downMiddles, downOffsets[u], down.size);
+        }
+    }
+
+    /**
+     * Returns the snapshot this hierarchy was built from.
+     *
+     * @return the snapshot.
+     */
+    public CompactGraph<T> getCompactGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the exclusive upper bound of the node ids.
+     *
+     * @return the id bound.
+     */
+    public int size() {
+        return ranks.length;
+    }
+
+    /**
+     * Returns the amount of shortcuts added during the contraction.
+     *
+     * @return the amount of shortcuts.
+     */
+    public int shortcuts() {
+        return shortcuts;
+    }
+
+    /**
+     * Returns the rank of the node <code>u</code>, i.e., its position in the
+     * contraction order.
+     *
+     * @param u the node id.
+     *
+     * @return the rank.
+     */
+    public int getRank(final int u) {
+        return ranks[u];
+    }
+
+    /**
+     * Returns the index of the first upward arc leaving <code>u</code>.
+     *
+     * @param u the tail node id.
+     *
+     * @return the first upward arc index.
+     */
+    public int getUpArcBegin(final int u) {
+        return upOffsets[u];
+    }
+
+    /**
+     * Returns the index one past the last upward arc leaving <code>u</code>.
+     *
+     * @param u the tail node id.
+     *
+     * @return the exclusive upper bound of the upward arc indices.
+     */
+    public int getUpArcEnd(final int u) {
+        return upOffsets[u + 1];
+    }
+
+    /**
+     * Returns the head of the upward arc at index <code>i</code>.
+     *
+     * @param i the upward arc index.
+     *
+     * @return the head node id.
+     */
+    public int getUpArcHead(final int i) {
+        return upHeads[i];
+    }
+
+    /**
+     * Returns the weight of the upward arc at index <code>i</code>.
+     *
+     * @param i the upward arc index.
+     *
+     * @return the weight.
+     */
+    public double getUpArcWeight(final int i) {
+        return upWeights[i];
+    }
+
+    /**
+     * Returns the middle node of the upward arc at index <code>i</code>, or
+     * <code>NO_MIDDLE</code> if the arc is not a shortcut.
+     *
+     * @param i the upward arc index.
+     *
+     * @return the middle node id.
+     */
+    public int getUpArcMiddle(final int i) {
+        return upMiddles[i];
+    }
+
+    /**
+     * Returns the index of the first downward arc entering <code>v</code>.
+     *
+     * @param v the head node id.
+     *
+     * @return the first downward arc index.
+     */
+    public int getDownArcBegin(final int v) {
+        return downOffsets[v];
+    }
+
+    /**
+     * Returns the index one past the last downward arc entering
+     * <code>v</code>.
+     *
+     * @param v the head node id.
+     *
+     * @return the exclusive upper bound of the downward arc indices.
+     */
+    public int getDownArcEnd(final int v) {
+        return downOffsets[v + 1];
+    }
+
+    /**
+     * Returns the tail of the downward arc at index <code>i</code>.
+     *
+     * @param i the downward arc index.
+     *
+     * @return the tail node id.
+     */
+    public int getDownArcTail(final int i) {
+        return downTails[i];
+    }
+
+    /**
+     * Returns the weight of the downward arc at index <code>i</code>.
+     *
+     * @param i the downward arc index.
+     *
+     * @return the weight.
+     */
+    public double getDownArcWeight(final int i) {
+        return downWeights[i];
+    }
+
+    /**
+     * Returns the middle node of the downward arc at index <code>i</code>, or
+     * <code>NO_MIDDLE</code> if the arc is not a shortcut.
+     *
+     * @param i the downward arc index.
+     *
+     * @return the middle node id.
+     */
+    public int getDownArcMiddle(final int i) {
+        return downMiddles[i];
+    }
+
+    /**
+     * Returns the middle node of the hierarchy arc <tt>(u, v)</tt>.
+     *
+     * @param u the tail node id.
+     * @param v the head node id.
+     *
+     * @return the middle node id, or <code>NO_MIDDLE</code> if the arc is not
+     * a shortcut.
+     *
+     * @throws IllegalStateException if there is no such arc.
+     */
+    public int getMiddle(final int u, final int v) {
+        if (ranks[u] < ranks[v]) {
+            for (int i = upOffsets[u]; i < upOffsets[u + 1]; ++i) {
+                if (upHeads[i] == v) {
+                    return upMiddles[i];
+                }
+            }
+        } else {
+            for (int i = downOffsets[v]; i < downOffsets[v + 1]; ++i) {
+                if (downTails[i] == u) {
+                    return downMiddles[i];
+                }
+            }
+        }
+
+        throw new IllegalStateException(
+                "No arc (" + u + ", " + v + ") in the hierarchy.");
+    }
+
+    /**
+     * Implements the contraction. The arc lists of a node shrink as its
+     * neighbours are contracted, so at the moment the node itself is
+     * contracted they hold exactly its upward and downward arcs; they are
+     * not touched afterwards.
+     */
+    private static final class Contractor {
+
+        final int N;
+        final ArcList[] out;
+        final ArcList[] in;
+        final int[] ranks;
+        final int witnessSettleLimit;
+
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+
+        final IntPriorityQueue order;
+        final IntPriorityQueue witnessOpen;
+        final SearchState witnessState;
+
+        int shortcuts;
+
+        Contractor(final CompactGraph<?> graph, final int witnessSettleLimit) {
+            this.N = graph.size();
+            this.out = new ArcList[N];
+            this.in = new ArcList[N];
+            this.ranks = new int[N];
+            this.witnessSettleLimit = witnessSettleLimit;
+            this.contracted = new boolean[N];
+            this.contractedNeighbours = new int[N];
+            this.order = new IntDaryHeap(4, Math.max(16, N));
+            this.witnessOpen = new IntDaryHeap(4, Math.max(16, N));
+            this.witnessState = new SearchState(N);
+
+            for (int u = 0; u < N; ++u) {
+                out[u] = new ArcList();
+                in[u] = new ArcList();
+            }
+
+            for (int u = 0; u < N; ++u) {
+                for (int arc = graph.getOutArcBegin(u);
+                         arc < graph.getOutArcEnd(u);
+                         ++arc) {
+                    final int v = graph.getArcHead(arc);
+
+                    if (u != v) {
+                        addArc(u, v, graph.getArcWeight(arc), NO_MIDDLE);
+                    }
+                }
+            }
+        }
+
+        void run() {
+            for (int u = 0; u < N; ++u) {
+                order.add(u, priority(u));
+            }
+
+            int rank = 0;
+
+            while (order.isEmpty() == false) {
+                final int v = order.extractMinimum();
+
+                if (order.isEmpty() == false) {
+                    // Lazy update: put back if no longer the minimum.
+                    final double p = priority(v);
+
+                    if (p > order.getPriorityOf(order.min())) {
+                        order.add(v, p);
+                        continue;
+                    }
+                }
+
+                contract(v, false);
+                contracted[v] = true;
+                ranks[v] = rank++;
+
+                final ArcList vin = in[v];
+                final ArcList vout = out[v];
+
+                for (int i = 0; i < vin.size; ++i) {
+                    final int u = vin.nodes[i];
+                    out[u].remove(v);
+                    contractedNeighbours[u]++;
+                }
+
+                for (int i = 0; i < vout.size; ++i) {
+                    final int w = vout.nodes[i];
+                    in[w].remove(v);
+                    contractedNeighbours[w]++;
+                }
+
+                // The queue ignores increases, which the lazy update above
+                // catches when the node is popped.
+                for (int i = 0; i < vin.size; ++i) {
+                    final int u = vin.nodes[i];
+                    order.decreasePriority(u, priority(u));
+                }
+
+                for (int i = 0; i < vout.size; ++i) {
+                    final int w = vout.nodes[i];
+                    order.decreasePriority(w, priority(w));
+                }
+            }
+        }
+
+        double priority(final int v) {
+            return contract(v, true)
+                    - in[v].size
+                    - out[v].size
+                    + contractedNeighbours[v];
+        }
+
+        /**
+         * Adds the shortcuts needed to contract <code>v</code>, or only
+         * counts them if <code>simulate</code> is set.
+         */
+        int contract(final int v, final boolean simulate) {
+            final ArcList vin = in[v];
+            final ArcList vout = out[v];
+            int count = 0;
+
+            if (vout.size == 0) {
+                return 0;
+            }
+
+            double maxOut = 0.0;
+
+            for (int j = 0; j < vout.size; ++j) {
+                maxOut = Math.max(maxOut, vout.weights[j]);
+            }
+
+            for (int i = 0; i < vin.size; ++i) {
+                final int u = vin.nodes[i];
+                final double uv = vin.weights[i];
+
+                witnessSearch(u, v, uv + maxOut);
+
+                for (int j = 0; j < vout.size; ++j) {
+                    final int w = vout.nodes[j];
+
+                    if (w == u) {
+                        continue;
+                    }
+
+                    final double uvw = uv + vout.weights[j];
+
+                    if (witnessState.getDistance(w) <= uvw) {
+                        continue;
+                    }
+
+                    ++count;
+
+                    if (simulate == false) {
+                        addArc(u, w, uvw, v);
+                    }
+                }
+            }
+
+            if (simulate == false) {
+                shortcuts += count;
+            }
+
+            return count;
+        }
+
+        /**
+         * Runs a limited Dijkstra search from <code>source</code> over the
+         * uncontracted nodes other than <code>avoid</code>.
+         */
+        void witnessSearch(final int source,
+                           final int avoid,
+                           final double maxDistance) {
+            witnessOpen.clear();
+            witnessState.reset(N);
+            witnessOpen.add(source, 0.0);
+            witnessState.update(source, 0.0, SearchState.NO_PARENT);
+
+            int settled = 0;
+
+            while (witnessOpen.isEmpty() == false) {
+                final int current = witnessOpen.extractMinimum();
+                final double g = witnessState.getDistance(current);
+
+                if (g > maxDistance || ++settled > witnessSettleLimit) {
+                    return;
+                }
+
+                witnessState.close(current);
+
+                final ArcList list = out[current];
+
+                for (int i = 0; i < list.size; ++i) {
+                    final int child = list.nodes[i];
+
+                    if (child == avoid || witnessState.isClosed(child)) {
+                        continue;
+                    }
+
+                    final double tmpg = g + list.weights[i];
+
+                    if (witnessState.isDiscovered(child) == false) {
+                        witnessOpen.add(child, tmpg);
+                        witnessState.update(child, tmpg, current);
+                    } else if (tmpg < witnessState.getDistance(child)) {
+                        witnessOpen.decreasePriority(child, tmpg);
+                        witnessState.update(child, tmpg, current);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the arc <tt>(u, v)</tt> or lowers its weight if it is already
+         * present with a larger one.
+         */
+        void addArc(final int u,
+                    final int v,
+                    final double weight,
+                    final int middle) {
+            final int i = out[u].indexOf(v);
+
+            if (i == -1) {
+                out[u].add(v, weight, middle);
+                in[v].add(u, weight, middle);
+            } else if (weight < out[u].weights[i]) {
+                out[u].set(i, weight, middle);
+                in[v].set(in[v].indexOf(u), weight, middle);
+            }
+        }
+    }
+
+    /**
+     * A growable list of arcs incident to a node during the contraction.
+     */
+    private static final class ArcList {
+
+        int[] nodes = new int[2];
+        double[] weights = new double[2];
+        int[] middles = new int[2];
+        int size;
+
+        void add(final int node, final double weight, final int middle) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+                middles = Arrays.copyOf(middles, 2 * size);
+            }
+
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size++] = middle;
+        }
+
+        void set(final int i, final double weight, final int middle) {
+            weights[i] = weight;
+            middles[i] = middle;
+        }
+
+        int indexOf(final int node) {
+            for (int i = 0; i < size; ++i) {
+                if (nodes[i] == node) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        void remove(final int node) {
+            final int i = indexOf(node);
+
+            if (i != -1) {
+                --size;
+                nodes[i] = nodes[size];
+                weights[i] = weights[size];
+                middles[i] = middles[size];
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.coderodde.apij.graph.path.ch;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import com.coderodde.apij.graph.path.SearchData;
+import com.coderodde.apij.graph.path.SearchState;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import static com.coderodde.apij.util.Utils.checkSameGraphs;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class answers shortest path queries over a
+ * {@link ContractionHierarchy}. The forward search from the source follows
+ * only the upward arcs and the backward search from the target only the
+ * downward arcs, so both climb the hierarchy and meet at the highest ranked
+ * node of a shortest path. A search direction stops as soon as its minimum
+ * key is no less than the best path length seen. The found path is unpacked
+ * into the arcs of the original graph.
+ * <p>
+ * Only the <code>from</code> and <code>to</code> search data are used; the
+ * weights come from the hierarchy.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ContractionHierarchyFinder<T extends Node<T>>
+extends PathFinder<T> {
+
+    /**
+     * The hierarchy to search.
+     */
+    private final ContractionHierarchy<T> hierarchy;
+
+    /**
+     * The open set of the forward search.
+     */
+    private final IntPriorityQueue OPENA;
+
+    /**
+     * The open set of the backward search.
+     */
+    private final IntPriorityQueue OPENB;
+
+    /**
+     * The state of the forward search.
+     */
+    private final SearchState STATEA;
+
+    /**
+     * The state of the backward search.
+     */
+    private final SearchState STATEB;
+
+    /**
+     * <code>MIDDLEA[u]</code> is the middle node of the arc through which
+     * the forward search reached <code>u</code>.
+     */
+    private final int[] MIDDLEA;
+
+    /**
+     * <code>MIDDLEB[u]</code> is the middle node of the arc through which
+     * the backward search reached <code>u</code>.
+     */
+    private final int[] MIDDLEB;
+
+    /**
+     * The stack of the arcs being unpacked; holds triples (tail, head,
+     * middle).
+     */
+    private int[] stack;
+
+    /**
+     * Constructs a finder over <code>hierarchy</code>.
+     *
+     * @param hierarchy the hierarchy.
+     */
+    public ContractionHierarchyFinder(final ContractionHierarchy<T> hierarchy) {
+        checkNotNull(hierarchy, "'hierarchy' is null.");
+        final int N = hierarchy.size();
+        this.hierarchy = hierarchy;
+        this.OPENA = new IntDaryHeap(4, Math.max(16, N));
+        this.OPENB = OPENA.spawn();
+        this.STATEA = new SearchState(N);
+        this.STATEB = new SearchState(N);
+        this.MIDDLEA = new int[N];
+        this.MIDDLEB = new int[N];
+        this.stack = new int[48];
+    }
+
+    @Override
+    public Path<T> search(final SearchData... data) {
+        T source = null;
+        T target = null;
+
+        for (final SearchData sd : data) {
+            switch (sd.getType()) {
+                case SOURCE:
+                    source = (T) sd.getData();
+                    break;
+
+                case TARGET:
+                    target = (T) sd.getData();
+                    break;
+            }
+        }
+
+        checkSameGraphs(source, target);
+
+        final CompactGraph<T> graph = hierarchy.getCompactGraph();
+        final int s = graph.getId(source);
+        final int t = graph.getId(target);
+        final int N = hierarchy.size();
+
+        OPENA.clear();
+        OPENB.clear();
+        STATEA.reset(N);
+        STATEB.reset(N);
+
+        OPENA.add(s, 0.0);
+        OPENB.add(t, 0.0);
+        STATEA.update(s, 0.0, SearchState.NO_PARENT);
+        STATEB.update(t, 0.0, SearchState.NO_PARENT);
+
+        double best = Double.POSITIVE_INFINITY;
+        int touch = -1;
+
+        while (true) {
+            final boolean forward = OPENA.isEmpty() == false
+                    && OPENA.getPriorityOf(OPENA.min()) < best;
+            final boolean backward = OPENB.isEmpty() == false
+                    && OPENB.getPriorityOf(OPENB.min()) < best;
+
+            if (forward == false && backward == false) {
+                break;
+            }
+
+            if (forward) {
+                final int current = OPENA.extractMinimum();
+                final double g = STATEA.getDistance(current);
+                STATEA.close(current);
+
+                if (STATEB.isDiscovered(current)
+                        && g + STATEB.getDistance(current) < best) {
+                    best = g + STATEB.getDistance(current);
+                    touch = current;
+                }
+
+                for (int i = hierarchy.getUpArcBegin(current);
+                         i < hierarchy.getUpArcEnd(current);
+                         ++i) {
+                    final int child = hierarchy.getUpArcHead(i);
+
+                    if (STATEA.isClosed(child)) {
+                        continue;
+                    }
+
+                    final double tmpg = g + hierarchy.getUpArcWeight(i);
+
+                    if (STATEA.isDiscovered(child) == false) {
+                        OPENA.add(child, tmpg);
+                    } else if (tmpg < STATEA.getDistance(child)) {
+                        OPENA.decreasePriority(child, tmpg);
+                    } else {
+                        continue;
+                    }
+
+                    STATEA.update(child, tmpg, current);
+                    MIDDLEA[child] = hierarchy.getUpArcMiddle(i);
+                }
+            }
+
+            if (backward) {
+                final int current = OPENB.extractMinimum();
+                final double g = STATEB.getDistance(current);
+                STATEB.close(current);
+
+                if (STATEA.isDiscovered(current)
+                        && g + STATEA.getDistance(current) < best) {
+                    best = g + STATEA.getDistance(current);
+                    touch = current;
+                }
+
+                for (int i = hierarchy.getDownArcBegin(current);
+                         i < hierarchy.getDownArcEnd(current);
+                         ++i) {
+                    final int parent = hierarchy.getDownArcTail(i);
+
+                    if (STATEB.isClosed(parent)) {
+                        continue;
+                    }
+
+                    final double tmpg = g + hierarchy.getDownArcWeight(i);
+
+                    if (STATEB.isDiscovered(parent) == false) {
+                        OPENB.add(parent, tmpg);
+                    } else if (tmpg < STATEB.getDistance(parent)) {
+                        OPENB.decreasePriority(parent, tmpg);
+                    } else {
+                        continue;
+                    }
+
+                    STATEB.update(parent, tmpg, current);
+                    MIDDLEB[parent] = hierarchy.getDownArcMiddle(i);
+                }
+            }
+        }
+
+        if (touch == -1) {
+            return Path.NO_PATH;
+        }
+
+        return constructPath(unpack(s, touch));
+    }
+
+    /**
+     * Unpacks the hierarchy path through <code>touch</code> into a list of
+     * original graph nodes.
+     */
+    private List<T> unpack(final int source, final int touch) {
+        final CompactGraph<T> graph = hierarchy.getCompactGraph();
+        final List<T> nodes = new ArrayList<>();
+
+        // Collect the forward half in reverse.
+        final List<Integer> forward = new ArrayList<>();
+
+        for (int u = touch; u != source; u = STATEA.getParent(u)) {
+            forward.add(u);
+        }
+
+        nodes.add(graph.getNode(source));
+
+        int tail = source;
+
+        for (int i = forward.size() - 1; i >= 0; --i) {
+            final int head = forward.get(i);
+            unpackArc(tail, head, MIDDLEA[head], nodes);
+            tail = head;
+        }
+
+        for (int u = STATEB.getParent(touch);
+                 u != SearchState.NO_PARENT;
+                 u = STATEB.getParent(u)) {
+            unpackArc(tail, u, MIDDLEB[tail], nodes);
+            tail = u;
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Appends the original nodes of the hierarchy arc <tt>(u, v)</tt>,
+     * excluding <code>u</code>, to <code>nodes</code>.
+     */
+    private void unpackArc(final int u,
+                           final int v,
+                           final int middle,
+                           final List<T> nodes) {
+        final CompactGraph<T> graph = hierarchy.getCompactGraph();
+        int size = 0;
+
+        size = push(size, u, v, middle);
+
+        while (size > 0) {
+            size -= 3;
+
+            final int a = stack[size];
+            final int b = stack[size + 1];
+            final int m = stack[size + 2];
+
+            if (m == ContractionHierarchy.NO_MIDDLE) {
+                nodes.add(graph.getNode(b));
+            } else {
+                // Push the second half first so that the first half pops
+                // first.
+                size = push(size, m, b, hierarchy.getMiddle(m, b));
+                size = push(size, a, m, hierarchy.getMiddle(a, m));
+            }
+        }
+    }
+
+    private int push(final int size, final int a, final int b, final int m) {
+        if (size + 3 > stack.length) {
+            stack = Arrays.copyOf(stack, 2 * stack.length);
+        }
+
+        stack[size] = a;
+        stack[size + 1] = b;
+        stack[size + 2] = m;
+        return size + 3;
+    }
+}
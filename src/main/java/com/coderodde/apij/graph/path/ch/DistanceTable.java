@@ -0,0 +1,421 @@
+package com.coderodde.apij.graph.path.ch;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.path.SearchState;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class computes many-to-many distance tables over a
+ * {@link ContractionHierarchy}. Every shortest path in the hierarchy climbs
+ * from the source to its highest ranked node and then descends to the
+ * target, so the table is computed in two phases:
+ * <ol>
+ * <li>a backward search from every target over the downward arcs, which
+ * leaves a <i>bucket entry</i> (target, distance) at every node it
+ * settles,</li>
+ * <li>a forward search from every source over the upward arcs, which scans
+ * the bucket of every node it settles and improves the table row of the
+ * source with the distances through that node.</li>
+ * </ol>
+ * This takes <tt>|sources| + |targets|</tt> hierarchy searches instead of
+ * <tt>|sources| * |targets|</tt> point-to-point queries. Both phases divide
+ * their searches into chunks that run in parallel: in the backward phase
+ * every chunk collects its own bucket entries, which are then gathered into
+ * one array in compressed sparse row format, and in the forward phase every
+ * source writes only its own row, so no synchronization is needed.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DistanceTable<T extends Node<T>> {
+
+    /**
+     * The amount of chunks per thread in a phase, which evens out the load
+     * of the threads when the search spaces differ in size.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The hierarchy to search.
+     */
+    private final ContractionHierarchy<T> hierarchy;
+
+    /**
+     * The amount of threads to search with.
+     */
+    private final int parallelism;
+
+    /**
+     * Constructs a table engine over <code>hierarchy</code> using as many
+     * threads as there are processors.
+     *
+     * @param hierarchy the hierarchy.
+     */
+    public DistanceTable(final ContractionHierarchy<T> hierarchy) {
+        this(hierarchy, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a table engine over <code>hierarchy</code> using
+     * <code>parallelism</code> threads.
+     *
+     * @param hierarchy the hierarchy.
+     * @param parallelism the amount of threads.
+     */
+    public DistanceTable(final ContractionHierarchy<T> hierarchy,
+                         final int parallelism) {
+        checkNotNull(hierarchy, "'hierarchy' is null.");
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Parallelism (" + parallelism + ") is below 1.");
+        }
+
+        this.hierarchy = hierarchy;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Computes the distances from every node in <code>sources</code> to
+     * every node in <code>targets</code>. The distance from
+     * <code>sources.get(i)</code> to <code>targets.get(j)</code> is at index
+     * <tt>i * targets.size() + j</tt> of the returned array, and is
+     * <code>Double.POSITIVE_INFINITY</code> if there is no path.
+     *
+     * @param sources the source nodes.
+     * @param targets the target nodes.
+     *
+     * @return the distance table in row-major order.
+     *
+     * @throws IllegalArgumentException if the table would not fit in an
+     * array.
+     * @throws IllegalStateException if a node is not in the graph of the
+     * hierarchy.
+     */
+    public double[] compute(final List<T> sources, final List<T> targets) {
+        checkNotNull(sources, "'sources' is null.");
+        checkNotNull(targets, "'targets' is null.");
+
+        final int S = sources.size();
+        final int M = targets.size();
+
+        if ((long) S * M > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "The table (" + S + " x " + M + ") is too large.");
+        }
+
+        final int[] s = toIds(sources);
+        final int[] t = toIds(targets);
+        final double[] table = new double[S * M];
+        Arrays.fill(table, Double.POSITIVE_INFINITY);
+
+        if (S == 0 || M == 0) {
+            return table;
+        }
+
+        final ForkJoinPool pool = parallelism == 1 ?
+                                  null :
+                                  new ForkJoinPool(parallelism);
+
+        try {
+            final Buckets buckets = backwardPhase(t, pool);
+            forwardPhase(s, M, buckets, table, pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        return table;
+    }
+
+    private int[] toIds(final List<T> nodes) {
+        final CompactGraph<T> graph = hierarchy.getCompactGraph();
+        final int[] ids = new int[nodes.size()];
+        int i = 0;
+
+        for (final T node : nodes) {
+            checkNotNull(node, "A node is null.");
+            ids[i++] = graph.getId(node);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Runs the backward searches and gathers their bucket entries.
+     */
+    private Buckets backwardPhase(final int[] t, final ForkJoinPool pool) {
+        final int chunks = chunks(t.length);
+        final Entries[] parts = new Entries[chunks];
+
+        execute(pool, chunks, t.length, new Job() {
+            @Override
+            void run(final int chunk, final int lo, final int hi) {
+                final Searcher searcher = new Searcher(hierarchy);
+                final Entries entries = new Entries();
+
+                for (int j = lo; j < hi; ++j) {
+                    final int settled = searcher.search(t[j], false);
+
+                    for (int k = 0; k < settled; ++k) {
+                        final int v = searcher.order[k];
+                        entries.add(v, j, searcher.state.getDistance(v));
+                    }
+                }
+
+                parts[chunk] = entries;
+            }
+        });
+
+        return new Buckets(hierarchy.size(), parts);
+    }
+
+    /**
+     * Runs the forward searches and fills the table.
+     */
+    private void forwardPhase(final int[] s,
+                              final int M,
+                              final Buckets buckets,
+                              final double[] table,
+                              final ForkJoinPool pool) {
+        execute(pool, chunks(s.length), s.length, new Job() {
+            @Override
+            void run(final int chunk, final int lo, final int hi) {
+                final Searcher searcher = new Searcher(hierarchy);
+
+                for (int i = lo; i < hi; ++i) {
+                    final int settled = searcher.search(s[i], true);
+                    final int row = i * M;
+
+                    for (int k = 0; k < settled; ++k) {
+                        final int v = searcher.order[k];
+                        final double g = searcher.state.getDistance(v);
+
+                        for (int b = buckets.offsets[v];
+                                 b < buckets.offsets[v + 1];
+                                 ++b) {
+                            final int cell = row + buckets.targets[b];
+                            final double d = g + buckets.distances[b];
+
+                            if (d < table[cell]) {
+                                table[cell] = d;
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private int chunks(final int length) {
+        return parallelism == 1 ?
+               1 :
+               Math.min(length, CHUNKS_PER_THREAD * parallelism);
+    }
+
+    /**
+     * Runs <code>job</code> over <code>chunks</code> even chunks of the
+     * range <tt>[0, length)</tt>, in parallel if <code>pool</code> is not
+     * <code>null</code>.
+     */
+    private static void execute(final ForkJoinPool pool,
+                                final int chunks,
+                                final int length,
+                                final Job job) {
+        if (pool == null) {
+            job.run(0, 0, length);
+            return;
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                final List<RecursiveAction> tasks = new ArrayList<>(chunks);
+
+                for (int c = 0; c < chunks; ++c) {
+                    final int chunk = c;
+                    final int lo = (int)((long) length * c / chunks);
+                    final int hi = (int)((long) length * (c + 1) / chunks);
+
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            job.run(chunk, lo, hi);
+                        }
+                    });
+                }
+
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * A piece of work over a chunk of searches.
+     */
+    private abstract static class Job {
+
+        abstract void run(final int chunk, final int lo, final int hi);
+    }
+
+    /**
+     * Runs exhaustive searches over one direction of the hierarchy. Every
+     * thread uses a searcher of its own.
+     */
+    private static final class Searcher {
+
+        final ContractionHierarchy<?> hierarchy;
+        final IntPriorityQueue open;
+        final SearchState state;
+
+        /**
+         * The nodes settled by the last search in the order of settling.
+         */
+        int[] order;
+
+        Searcher(final ContractionHierarchy<?> hierarchy) {
+            final int N = hierarchy.size();
+            this.hierarchy = hierarchy;
+            this.open = new IntDaryHeap(4, Math.max(16, N));
+            this.state = new SearchState(N);
+            this.order = new int[16];
+        }
+
+        /**
+         * Searches from <code>root</code> over the upward arcs if
+         * <code>forward</code> is set, and over the downward arcs otherwise.
+         *
+         * @return the amount of settled nodes.
+         */
+        int search(final int root, final boolean forward) {
+            final int N = hierarchy.size();
+            int settled = 0;
+
+            open.clear();
+            state.reset(N);
+            open.add(root, 0.0);
+            state.update(root, 0.0, SearchState.NO_PARENT);
+
+            while (open.isEmpty() == false) {
+                final int current = open.extractMinimum();
+                final double g = state.getDistance(current);
+                state.close(current);
+
+                if (settled == order.length) {
+                    order = Arrays.copyOf(order, 2 * settled);
+                }
+
+                order[settled++] = current;
+
+                final int begin = forward ?
+                                  hierarchy.getUpArcBegin(current) :
+                                  hierarchy.getDownArcBegin(current);
+                final int end = forward ?
+                                hierarchy.getUpArcEnd(current) :
+                                hierarchy.getDownArcEnd(current);
+
+                for (int i = begin; i < end; ++i) {
+                    final int next;
+                    final double tmpg;
+
+                    if (forward) {
+                        next = hierarchy.getUpArcHead(i);
+                        tmpg = g + hierarchy.getUpArcWeight(i);
+                    } else {
+                        next = hierarchy.getDownArcTail(i);
+                        tmpg = g + hierarchy.getDownArcWeight(i);
+                    }
+
+                    if (state.isClosed(next)) {
+                        continue;
+                    }
+
+                    if (state.isDiscovered(next) == false) {
+                        open.add(next, tmpg);
+                    } else if (tmpg < state.getDistance(next)) {
+                        open.decreasePriority(next, tmpg);
+                    } else {
+                        continue;
+                    }
+
+                    state.update(next, tmpg, current);
+                }
+            }
+
+            return settled;
+        }
+    }
+
+    /**
+     * A growable list of bucket entries collected by one chunk.
+     */
+    private static final class Entries {
+
+        int[] nodes = new int[16];
+        int[] targets = new int[16];
+        double[] distances = new double[16];
+        int size;
+
+        void add(final int node, final int target, final double distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                targets = Arrays.copyOf(targets, 2 * size);
+                distances = Arrays.copyOf(distances, 2 * size);
+            }
+
+            nodes[size] = node;
+            targets[size] = target;
+            distances[size++] = distance;
+        }
+    }
+
+    /**
+     * The bucket entries of all nodes in compressed sparse row format:
+     * the entries of the node <code>v</code> are at the indices
+     * <tt>[offsets[v], offsets[v + 1])</tt>.
+     */
+    private static final class Buckets {
+
+        final int[] offsets;
+        final int[] targets;
+        final double[] distances;
+
+        Buckets(final int N, final Entries[] parts) {
+            this.offsets = new int[N + 1];
+
+            for (final Entries part : parts) {
+                for (int i = 0; i < part.size; ++i) {
+                    ++offsets[part.nodes[i] + 1];
+                }
+            }
+
+            for (int v = 0; v < N; ++v) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            this.targets = new int[offsets[N]];
+            this.distances = new double[offsets[N]];
+
+            final int[] next = Arrays.copyOf(offsets, N);
+
+            for (final Entries part : parts) {
+                for (int i = 0; i < part.size; ++i) {
+                    final int b = next[part.nodes[i]]++;
+                    targets[b] = part.targets[i];
+                    distances[b] = part.distances[i];
+                }
+            }
+        }
+    }
+}
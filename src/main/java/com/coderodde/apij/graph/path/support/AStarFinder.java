@@ -1,20 +1,19 @@
 package com.coderodde.apij.graph.path.support;
 
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
 import com.coderodde.apij.ds.pq.PriorityQueue;
 import com.coderodde.apij.ds.pq.support.DaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.Node;
 import com.coderodde.apij.graph.model.WeightFunction;
 import com.coderodde.apij.graph.path.HeuristicFunction;
 import com.coderodde.apij.graph.path.Path;
 import com.coderodde.apij.graph.path.PathFinder;
 import com.coderodde.apij.graph.path.SearchData;
-import static com.coderodde.apij.util.Utils.checkBelongsToGraph;
+import com.coderodde.apij.graph.path.SearchState;
 import static com.coderodde.apij.util.Utils.checkNotNull;
 import static com.coderodde.apij.util.Utils.checkSameGraphs;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 public class AStarFinder<T extends Node<T>>
 extends PathFinder<T> {
@@ -26,19 +25,15 @@ extends PathFinder<T> {
     private PriorityQueue<T, Double> OPEN;
     
     /**
-     * This is the "closed set". It contains the expanded nodes.
+     * Holds the g-scores, the parents and the closed flags of the nodes. 
+     * Reused by every search.
      */
-    private Set<T> CLOSED = new HashSet<>();
+    private final SearchState STATE;
     
     /**
-     * Holds g-scores for the nodes.
+     * This is the "open set" used when searching a compact graph.
      */
-    private Map<T, Double> GSCORE = new HashMap<>();
-    
-    /**
-     * Maps every found node to its parent node in the shortest path tree.
-     */
-    private Map<T, T> PARENT = new HashMap<>();
+    private final IntPriorityQueue OPEN_IDS;
     
     public AStarFinder() {
         // This the default: d-ary heap with d = 2.
@@ -46,9 +41,17 @@ extends PathFinder<T> {
     }
     
     public AStarFinder(final PriorityQueue<T, Double> heap) {
+        this(heap, new SearchState());
+    }
+    
+    public AStarFinder(final PriorityQueue<T, Double> heap,
+                       final SearchState state) {
         checkNotNull(heap, "'heap' is 'null'.");
+        checkNotNull(state, "'state' is 'null'.");
         heap.clear();
         this.OPEN = heap;
+        this.STATE = state;
+        this.OPEN_IDS = spawnIdQueue(heap);
     }
 
     @Override
@@ -57,6 +60,7 @@ extends PathFinder<T> {
         T target = null;
         WeightFunction<T> wf = null;
         HeuristicFunction<T> hf = null;
+        CompactGraph<T> compactGraph = null;
         
         for (final SearchData sd : data) {
             switch (sd.getType()) {
@@ -75,48 +79,108 @@ extends PathFinder<T> {
                 case HEURISTIC_FUNCTION:
                     hf = (HeuristicFunction<T>) sd.getData();
                     break;
+                    
+                case COMPACT_GRAPH:
+                    compactGraph = (CompactGraph<T>) sd.getData();
+                    break;
             }
         }
         
         checkSameGraphs(source, target);
-        checkNotNull(wf, "weight function is null.");
         checkNotNull(hf, "heuristic function is null.");
         
         hf.setTarget(target);
         
+        if (compactGraph != null) {
+            return searchCompact(compactGraph,
+                                 compactGraph.getId(source),
+                                 compactGraph.getId(target),
+                                 hf);
+        }
+        
+        checkNotNull(wf, "weight function is null.");
+        
+        final Graph<T> graph = source.getOwnerGraph();
+        
         OPEN.clear();
-        CLOSED.clear();
-        GSCORE.clear();
-        PARENT.clear();
+        STATE.reset(graph.getIdBound());
         
         OPEN.add(source, hf.estimateFrom(source));
-        GSCORE.put(source, 0.0);
-        PARENT.put(source, null);
+        STATE.update(source.getId(), 0.0, SearchState.NO_PARENT);
         
         while (OPEN.isEmpty() == false) {
             final T current = OPEN.extractMinimum();
+            final int currentId = current.getId();
         
             if (current.equals(target)) {
-                return constructPath(target, PARENT);
+                return constructPath(currentId, STATE, graph);
             }
             
-            CLOSED.add(current);
+            STATE.close(currentId);
             
             for (final T child : current) {
-                if (CLOSED.contains(child)) {
+                final int childId = child.getId();
+                
+                if (STATE.isClosed(childId)) {
                     continue;
                 }
                 
-                double tmpg = GSCORE.get(current) + wf.get(current, child);
+                double tmpg = STATE.getDistance(currentId) + 
+                              wf.get(current, child);
                 
-                if (GSCORE.containsKey(child) == false) {
+                if (STATE.isDiscovered(childId) == false) {
                     OPEN.add(child, tmpg + hf.estimateFrom(child));
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
-                } else if (tmpg < GSCORE.get(child)) {
+                    STATE.update(childId, tmpg, currentId);
+                } else if (tmpg < STATE.getDistance(childId)) {
                     OPEN.decreasePriority(child, tmpg + hf.estimateFrom(child));
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
+                    STATE.update(childId, tmpg, currentId);
+                }
+            }
+        }
+        
+        return Path.NO_PATH;
+    }
+    
+    private Path<T> searchCompact(final CompactGraph<T> graph,
+                                  final int source,
+                                  final int target,
+                                  final HeuristicFunction<T> hf) {
+        OPEN_IDS.clear();
+        STATE.reset(graph.size());
+        
+        OPEN_IDS.add(source, hf.estimateFrom(graph.getNode(source)));
+        STATE.update(source, 0.0, SearchState.NO_PARENT);
+        
+        while (OPEN_IDS.isEmpty() == false) {
+            final int current = OPEN_IDS.extractMinimum();
+            
+            if (current == target) {
+                return constructPath(target, STATE, graph);
+            }
+            
+            STATE.close(current);
+            
+            for (int arc = graph.getOutArcBegin(current);
+                     arc < graph.getOutArcEnd(current);
+                     ++arc) {
+                final int child = graph.getArcHead(arc);
+                
+                if (STATE.isClosed(child)) {
+                    continue;
+                }
+                
+                double tmpg = STATE.getDistance(current) + 
+                              graph.getArcWeight(arc);
+                
+                if (STATE.isDiscovered(child) == false) {
+                    OPEN_IDS.add(child, 
+                                 tmpg + hf.estimateFrom(graph.getNode(child)));
+                    STATE.update(child, tmpg, current);
+                } else if (tmpg < STATE.getDistance(child)) {
+                    OPEN_IDS.decreasePriority(
+                            child,
+                            tmpg + hf.estimateFrom(graph.getNode(child)));
+                    STATE.update(child, tmpg, current);
                 }
             }
         }
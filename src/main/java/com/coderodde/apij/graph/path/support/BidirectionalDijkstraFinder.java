@@ -1,12 +1,15 @@
 package com.coderodde.apij.graph.path.support;
 
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
 import com.coderodde.apij.ds.pq.PriorityQueue;
 import com.coderodde.apij.ds.pq.support.DaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
 import com.coderodde.apij.graph.model.Node;
 import com.coderodde.apij.graph.model.WeightFunction;
 import com.coderodde.apij.graph.path.Path;
 import com.coderodde.apij.graph.path.PathFinder;
 import com.coderodde.apij.graph.path.SearchData;
+import com.coderodde.apij.graph.path.SearchState;
 import static com.coderodde.apij.util.Utils.checkNotNull;
 import static com.coderodde.apij.util.Utils.checkSameGraphs;
 import java.util.HashMap;
@@ -58,6 +61,28 @@ extends PathFinder<T> {
      */
     private Map<T, T> PARENTB = new HashMap<>();
     
+    /**
+     * This is the "open set" for the forward search over a compact graph.
+     */
+    private final IntPriorityQueue OPEN_IDSA;
+    
+    /**
+     * This is the "open set" for the backward search over a compact graph.
+     */
+    private final IntPriorityQueue OPEN_IDSB;
+    
+    /**
+     * Holds the g-scores, the parents and the closed flags of the nodes in 
+     * forward search over a compact graph. Reused by every search.
+     */
+    private final SearchState STATEA = new SearchState();
+    
+    /**
+     * Holds the g-scores, the parents and the closed flags of the nodes in 
+     * backward search over a compact graph. Reused by every search.
+     */
+    private final SearchState STATEB = new SearchState();
+    
     public BidirectionalDijkstraFinder() {
         // This the default: d-ary heap with d = 2.
         this(new DaryHeap<T, Double>(2));
@@ -68,6 +93,8 @@ extends PathFinder<T> {
         heap.clear();
         this.OPENA = heap;
         this.OPENB = heap.spawn();
+        this.OPEN_IDSA = spawnIdQueue(heap);
+        this.OPEN_IDSB = OPEN_IDSA.spawn();
     }
     
     @Override
@@ -75,6 +102,7 @@ extends PathFinder<T> {
         T source = null;
         T target = null;
         WeightFunction<T> wf = null;
+        CompactGraph<T> compactGraph = null;
         
         for (final SearchData sd : data) {
             switch (sd.getType()) {
@@ -89,10 +117,21 @@ extends PathFinder<T> {
                 case WEIGHT_FUNCTION:
                     wf = (WeightFunction<T>) sd.getData();
                     break;
+                    
+                case COMPACT_GRAPH:
+                    compactGraph = (CompactGraph<T>) sd.getData();
+                    break;
             }
         }
         
         checkSameGraphs(source, target);
+        
+        if (compactGraph != null) {
+            return searchCompact(compactGraph,
+                                 compactGraph.getId(source),
+                                 compactGraph.getId(target));
+        }
+        
         checkNotNull(wf, "weight function is null.");
         
         OPENA.clear();
@@ -209,10 +248,121 @@ extends PathFinder<T> {
         }
         
         if (touch != null) {
-            System.out.println("YES!");
             return constructPathBidirectional(touch, PARENTA, PARENTB);
         }
         
         return Path.NO_PATH;
     }
+    
+    private Path<T> searchCompact(final CompactGraph<T> graph,
+                                  final int source,
+                                  final int target) {
+        STATEA.reset(graph.size());
+        STATEB.reset(graph.size());
+        OPEN_IDSA.clear();
+        OPEN_IDSB.clear();
+        
+        OPEN_IDSA.add(source, 0.0);
+        STATEA.update(source, 0.0, SearchState.NO_PARENT);
+        
+        OPEN_IDSB.add(target, 0.0);
+        STATEB.update(target, 0.0, SearchState.NO_PARENT);
+        
+        int touch = -1;
+        double m = Double.POSITIVE_INFINITY;
+        
+        while (OPEN_IDSA.isEmpty() == false && OPEN_IDSB.isEmpty() == false) {
+            
+            if (touch != -1) {
+                final double ga = OPEN_IDSA.getPriorityOf(OPEN_IDSA.min());
+                final double gb = OPEN_IDSB.getPriorityOf(OPEN_IDSB.min());
+                
+                if (ga + gb > m) {
+                    return constructPathBidirectional(touch, 
+                                                      STATEA,
+                                                      STATEB,
+                                                      graph);
+                }
+            }
+            
+            if (OPEN_IDSA.getPriorityOf(OPEN_IDSA.min()) < 
+                OPEN_IDSB.getPriorityOf(OPEN_IDSB.min())) {
+                // Expand in forward search.
+                final int current = OPEN_IDSA.extractMinimum();
+                STATEA.close(current);
+                
+                for (int arc = graph.getOutArcBegin(current);
+                         arc < graph.getOutArcEnd(current);
+                         ++arc) {
+                    final int child = graph.getArcHead(arc);
+                    
+                    if (STATEA.isClosed(child)) {
+                        continue;
+                    }
+                    
+                    double tmpg = STATEA.getDistance(current) + 
+                                  graph.getArcWeight(arc);
+                    
+                    if (tmpg >= STATEA.getDistance(child)) {
+                        continue;
+                    }
+                    
+                    if (STATEA.isDiscovered(child) == false) {
+                        OPEN_IDSA.add(child, tmpg);
+                    } else {
+                        OPEN_IDSA.decreasePriority(child, tmpg);
+                    }
+                    
+                    STATEA.update(child, tmpg, current);
+                    
+                    if (STATEB.isClosed(child) 
+                            && m > tmpg + STATEB.getDistance(child)) {
+                        m = tmpg + STATEB.getDistance(child);
+                        touch = child;
+                    }
+                }
+            } else {
+                // Expand in backward search.
+                final int current = OPEN_IDSB.extractMinimum();
+                STATEB.close(current);
+                
+                for (int i = graph.getInArcBegin(current);
+                         i < graph.getInArcEnd(current);
+                         ++i) {
+                    final int parent = graph.getInArcTail(i);
+                    
+                    if (STATEB.isClosed(parent)) {
+                        continue;
+                    }
+                    
+                    double tmpg = STATEB.getDistance(current) + 
+                                  graph.getInArcWeight(i);
+                    
+                    if (tmpg >= STATEB.getDistance(parent)) {
+                        continue;
+                    }
+                    
+                    if (STATEB.isDiscovered(parent) == false) {
+                        OPEN_IDSB.add(parent, tmpg);
+                    } else {
+                        OPEN_IDSB.decreasePriority(parent, tmpg);
+                    }
+                    
+                    STATEB.update(parent, tmpg, current);
+                    
+                    if (STATEA.isClosed(parent) 
+                            && m > tmpg + STATEA.getDistance(parent)) {
+                        m = tmpg + STATEA.getDistance(parent);
+                        touch = parent;
+                    }
+                }
+            }
+        }
+        
+        if (touch != -1) {
+            return constructPathBidirectional(touch, STATEA, STATEB, graph);
+        }
+        
+        return Path.NO_PATH;
+    }
 }
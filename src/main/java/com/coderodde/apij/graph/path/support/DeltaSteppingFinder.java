@@ -0,0 +1,903 @@
+package com.coderodde.apij.graph.path.support;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import com.coderodde.apij.graph.path.SearchData;
+import com.coderodde.apij.graph.path.SearchDataType;
+import com.coderodde.apij.graph.path.SearchState;
+import com.coderodde.apij.graph.path.ShortestPathTree;
+import com.coderodde.apij.sort.ParallelRadixSort;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import static com.coderodde.apij.util.Utils.checkPositive;
+import static com.coderodde.apij.util.Utils.checkSameGraphs;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements the delta-stepping single-source shortest path
+ * algorithm of Meyer and Sanders over a compact graph snapshot. The nodes are
+ * kept in buckets of width <code>delta</code> by their tentative distance,
+ * and the buckets are emptied in ascending order. The arcs are divided into
+ * <i>light</i> arcs, no heavier than <code>delta</code>, and <i>heavy</i>
+ * arcs. Emptying a bucket relaxes the light arcs of all its nodes at once,
+ * repeatedly, as the relaxations may put nodes back in the same bucket; when
+ * the bucket stays empty, the heavy arcs of all the nodes removed from it
+ * are relaxed at once. The buckets are reused cyclically, since no
+ * tentative distance exceeds the one of the current bucket by more than the
+ * largest arc weight.
+ * <p>
+ * A large relaxation phase runs in parallel in two steps: the nodes of the
+ * phase are divided into one chunk per thread, and every chunk turns its
+ * arcs into relaxation requests, which it files by the thread owning the
+ * head node; then every thread applies the requests filed for it. Every
+ * node is thus written by one thread only and no synchronization is needed.
+ * A tentative distance is only lowered by a request offering a strictly
+ * smaller one, so the distances are the least solutions of the same
+ * equations Dijkstra's algorithm solves and are exactly equal to the ones
+ * computed by {@link DijkstraFinder}; the parents may differ on ties.
+ * <p>
+ * Small values of <code>delta</code> make the algorithm settle the nodes in
+ * nearly the same order as Dijkstra's algorithm with little parallelism;
+ * large values expose more parallelism at the cost of re-relaxing arcs.
+ * <p>
+ * A finder keeps its per-node arrays and its thread pool for its whole
+ * lifetime and reuses them in every search, resetting only the nodes the
+ * previous search reached, so it must not run searches concurrently. The
+ * worker threads of the pool are daemon threads, so the finder needs no
+ * shutdown.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DeltaSteppingFinder<T extends Node<T>> extends PathFinder<T> {
+
+    /**
+     * The default least amount of nodes in a relaxation phase run in
+     * parallel.
+     */
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 10;
+
+    /**
+     * The largest amount of buckets.
+     */
+    private static final long MAX_BUCKETS = 1L << 24;
+
+    /**
+     * The snapshot to search.
+     */
+    private final CompactGraph<T> graph;
+
+    /**
+     * The width of the buckets.
+     */
+    private final double delta;
+
+    /**
+     * The amount of threads to search with.
+     */
+    private final int parallelism;
+
+    /**
+     * The least amount of nodes in a relaxation phase run in parallel.
+     */
+    private final int parallelThreshold;
+
+    /**
+     * The amount of buckets reused cyclically.
+     */
+    private final int bucketCount;
+
+    /**
+     * The state reused by every search.
+     */
+    private final Run run;
+
+    /**
+     * Constructs a finder over a snapshot of <code>graph</code> with the
+     * default <code>delta</code>, using as many threads as there are
+     * processors.
+     *
+     * @param graph the graph.
+     * @param wf the weight function of <code>graph</code>.
+     */
+    public DeltaSteppingFinder(final Graph<T> graph,
+                               final WeightFunction<T> wf) {
+        this(new CompactGraph<>(graph, wf));
+    }
+
+    /**
+     * Constructs a finder over the snapshot <code>graph</code> with the
+     * default <code>delta</code>, using as many threads as there are
+     * processors.
+     *
+     * @param graph the snapshot.
+     */
+    public DeltaSteppingFinder(final CompactGraph<T> graph) {
+        this(graph, getDefaultDelta(graph));
+    }
+
+    /**
+     * Constructs a finder over the snapshot <code>graph</code>, using as many
+     * threads as there are processors.
+     *
+     * @param graph the snapshot.
+     * @param delta the width of the buckets.
+     */
+    public DeltaSteppingFinder(final CompactGraph<T> graph,
+                               final double delta) {
+        this(graph, delta, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a finder over the snapshot <code>graph</code>.
+     *
+     * @param graph the snapshot.
+     * @param delta the width of the buckets.
+     * @param parallelism the amount of threads.
+     *
+     * @throws IllegalArgumentException if <code>delta</code> is not positive
+     * and finite, or is so small compared to the largest arc weight that too
+     * many buckets would be needed.
+     */
+    public DeltaSteppingFinder(final CompactGraph<T> graph,
+                               final double delta,
+                               final int parallelism) {
+        this(graph, delta, parallelism, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    DeltaSteppingFinder(final CompactGraph<T> graph,
+                        final double delta,
+                        final int parallelism,
+                        final int parallelThreshold) {
+        checkNotNull(graph, "'graph' is null.");
+        checkPositive(parallelThreshold, "'parallelThreshold' is not " +
+                                         "positive.");
+
+        if ((delta > 0.0 && delta < Double.POSITIVE_INFINITY) == false) {
+            throw new IllegalArgumentException(
+                    "'delta' (" + delta + ") is not positive and finite.");
+        }
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Parallelism (" + parallelism + ") is below 1.");
+        }
+
+        final double maxWeight = getMaxWeight(graph);
+
+        // A tentative distance may exceed the current bucket by maxWeight;
+        // the extra bucket absorbs the rounding of the bucket indices.
+        final long buckets = (long)(maxWeight / delta) + 3;
+
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException(
+                    "'delta' (" + delta + ") is too small for the largest " +
+                    "arc weight (" + maxWeight + ").");
+        }
+
+        this.graph = graph;
+        this.delta = delta;
+        this.parallelism = parallelism;
+        this.parallelThreshold = parallelThreshold;
+        this.bucketCount = (int) buckets;
+        this.run = new Run();
+    }
+
+    /**
+     * Returns the default <code>delta</code> for <code>graph</code>: the
+     * largest arc weight divided by the average out-degree, following the
+     * choice <tt>delta = O(1 / d)</tt> of Meyer and Sanders for degree
+     * <code>d</code> and weights in <tt>[0, 1]</tt>. If there are no arcs of
+     * positive finite weight, returns 1.
+     *
+     * @param graph the snapshot.
+     *
+     * @return the default bucket width.
+     */
+    public static double getDefaultDelta(final CompactGraph<?> graph) {
+        checkNotNull(graph, "'graph' is null.");
+        final double maxWeight = getMaxWeight(graph);
+
+        if (maxWeight == 0.0) {
+            return 1.0;
+        }
+
+        final double degree = graph.size() == 0 ?
+                              1.0 :
+                              (double) graph.arcs() / graph.size();
+
+        return maxWeight / Math.max(1.0, degree);
+    }
+
+    /**
+     * Returns the width of the buckets.
+     *
+     * @return the delta of this finder.
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Finds a shortest path from the source to the target. The search stops
+     * as soon as the bucket of the target is emptied. The arc weights are
+     * those of the snapshot of this finder.
+     *
+     * @param data the search data.
+     *
+     * @return the shortest path, or <code>Path.NO_PATH</code>.
+     *
+     * @throws IllegalArgumentException if the data holds a weight function,
+     * or a compact graph other than the snapshot of this finder.
+     */
+    @Override
+    public Path<T> search(final SearchData... data) {
+        T source = null;
+        T target = null;
+
+        for (final SearchData sd : data) {
+            switch (sd.getType()) {
+                case SOURCE:
+                    source = (T) sd.getData();
+                    break;
+
+                case TARGET:
+                    target = (T) sd.getData();
+                    break;
+
+                case WEIGHT_FUNCTION:
+                case COMPACT_GRAPH:
+                    checkSnapshot(sd);
+                    break;
+            }
+        }
+
+        checkSameGraphs(source, target);
+
+        final int t = graph.getId(target);
+
+        run.execute(graph.getId(source),
+                    Double.POSITIVE_INFINITY,
+                    Integer.MAX_VALUE,
+                    t);
+
+        if (run.settled[t] == false) {
+            return Path.NO_PATH;
+        }
+
+        return constructPath(t, run.parents, graph);
+    }
+
+    /**
+     * Computes the shortest path tree from the source given by
+     * {@link PathFinder#from(Object)}, optionally bounded by
+     * {@link PathFinder#withDistanceBound(double)} and
+     * {@link PathFinder#withNodeBound(int)} as in
+     * {@link DijkstraFinder#searchTree(SearchData...)}. The nodes are
+     * settled a bucket at a time, so the search may settle more nodes than
+     * the tree returned.
+     *
+     * @param data the search data.
+     *
+     * @return the shortest path tree.
+     *
+     * @throws IllegalArgumentException if the data holds a weight function,
+     * or a compact graph other than the snapshot of this finder.
+     */
+    public ShortestPathTree searchTree(final SearchData... data) {
+        T source = null;
+        double distanceBound = Double.POSITIVE_INFINITY;
+        int nodeBound = Integer.MAX_VALUE;
+
+        for (final SearchData sd : data) {
+            switch (sd.getType()) {
+                case SOURCE:
+                    source = (T) sd.getData();
+                    break;
+
+                case DISTANCE_BOUND:
+                    distanceBound = (Double) sd.getData();
+                    break;
+
+                case NODE_BOUND:
+                    nodeBound = (Integer) sd.getData();
+                    break;
+
+                case WEIGHT_FUNCTION:
+                case COMPACT_GRAPH:
+                    checkSnapshot(sd);
+                    break;
+            }
+        }
+
+        checkNotNull(source, "source is null.");
+        checkPositive(nodeBound, "node bound is not positive.");
+
+        if ((distanceBound >= 0.0) == false) {
+            throw new IllegalArgumentException(
+                    "Distance bound (" + distanceBound + ") is not " +
+                    "non-negative.");
+        }
+
+        run.execute(graph.getId(source), distanceBound, nodeBound, -1);
+        return run.buildTree(distanceBound, nodeBound);
+    }
+
+    /**
+     * Rejects the search data that would make the search use other weights
+     * than the ones of the snapshot: a weight function, or another compact
+     * graph.
+     */
+    private void checkSnapshot(final SearchData sd) {
+        if (sd.getType() == SearchDataType.WEIGHT_FUNCTION) {
+            throw new IllegalArgumentException(
+                    "The finder searches its snapshot with the weights it " +
+                    "was built with; a weight function is not supported.");
+        }
+
+        if (sd.getData() != graph) {
+            throw new IllegalArgumentException(
+                    "The compact graph is not the snapshot of this finder.");
+        }
+    }
+
+    private static double getMaxWeight(final CompactGraph<?> graph) {
+        double maxWeight = 0.0;
+
+        for (int arc = 0; arc < graph.arcs(); ++arc) {
+            final double weight = graph.getArcWeight(arc);
+
+            // Infinite arcs never relax anything.
+            if (weight > maxWeight && weight < Double.POSITIVE_INFINITY) {
+                maxWeight = weight;
+            }
+        }
+
+        return maxWeight;
+    }
+
+    /**
+     * Holds the state of the searches.
+     */
+    private final class Run {
+
+        final double[] distances;
+        final int[] parents;
+        final boolean[] settled;
+
+        /**
+         * <code>inFrontier[u]</code> is the phase in which <code>u</code>
+         * was last put in the frontier.
+         */
+        final int[] inFrontier;
+
+        /**
+         * <code>heavyPending[u]</code> is <code>true</code> if the heavy arcs
+         * of <code>u</code> wait for relaxation.
+         */
+        final boolean[] heavyPending;
+
+        /**
+         * The buckets, each allocated when it first receives a node.
+         */
+        final IntList[] buckets;
+        IntList spare;
+
+        /**
+         * The amount of bucket entries, including the stale ones.
+         */
+        long entries;
+
+        /**
+         * The bucket being emptied or, after a search, the one it stopped at.
+         */
+        long current;
+
+        int phase;
+
+        /**
+         * The nodes with a finite tentative distance, which are the ones to
+         * reset before the next search.
+         */
+        final IntList reached = new IntList();
+
+        final IntList frontier = new IntList();
+        final IntList heavy = new IntList();
+
+        /**
+         * The settled nodes in the order of their buckets.
+         */
+        final IntList order = new IntList();
+
+        final ForkJoinPool pool;
+
+        /**
+         * <code>requests[c][o]</code> holds the requests of the chunk
+         * <code>c</code> for the nodes owned by the thread <code>o</code>.
+         */
+        final Requests[][] requests;
+
+        /**
+         * <code>improved[o]</code> holds the nodes lowered by the thread
+         * <code>o</code>.
+         */
+        final IntList[] improved;
+
+        /**
+         * <code>reachedBy[o]</code> holds the nodes reached for the first
+         * time by the thread <code>o</code>.
+         */
+        final IntList[] reachedBy;
+
+        Run() {
+            final int N = graph.size();
+            this.distances = new double[N];
+            this.parents = new int[N];
+            this.settled = new boolean[N];
+            this.inFrontier = new int[N];
+            this.heavyPending = new boolean[N];
+            this.buckets = new IntList[bucketCount];
+            this.spare = new IntList();
+
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(parents, SearchState.NO_PARENT);
+
+            if (parallelism == 1) {
+                this.pool = null;
+                this.requests = null;
+                this.improved = null;
+                this.reachedBy = null;
+                return;
+            }
+
+            this.pool = new ForkJoinPool(parallelism);
+            this.requests = new Requests[parallelism][parallelism];
+            this.improved = new IntList[parallelism];
+            this.reachedBy = new IntList[parallelism];
+
+            for (int c = 0; c < parallelism; ++c) {
+                improved[c] = new IntList();
+                reachedBy[c] = new IntList();
+
+                for (int o = 0; o < parallelism; ++o) {
+                    requests[c][o] = new Requests();
+                }
+            }
+        }
+
+        /**
+         * Undoes the previous search. Its bucket entries all lie in the
+         * <code>bucketCount</code> buckets from the one it stopped at, and
+         * only the nodes it reached have state to reset.
+         */
+        void reset() {
+            for (long b = current; entries > 0L; ++b) {
+                final IntList bucket = buckets[(int)(b % bucketCount)];
+
+                if (bucket != null) {
+                    entries -= bucket.size;
+                    bucket.clear();
+                }
+            }
+
+            for (int i = 0; i < reached.size; ++i) {
+                final int u = reached.nodes[i];
+                distances[u] = Double.POSITIVE_INFINITY;
+                parents[u] = SearchState.NO_PARENT;
+                settled[u] = false;
+                heavyPending[u] = false;
+            }
+
+            if (phase == Integer.MAX_VALUE) {
+                Arrays.fill(inFrontier, 0);
+                phase = 0;
+            }
+
+            reached.clear();
+            frontier.clear();
+            heavy.clear();
+            order.clear();
+            current = 0L;
+        }
+
+        /**
+         * Runs the search from <code>source</code>. Stops before a bucket
+         * whose nodes are all farther than <code>distanceBound</code>, or
+         * after a bucket that brings the amount of settled nodes to
+         * <code>nodeBound</code> or settles <code>target</code>.
+         */
+        void execute(final int source,
+                     final double distanceBound,
+                     final int nodeBound,
+                     final int target) {
+            reset();
+            distances[source] = 0.0;
+            reached.add(source);
+            push(source);
+
+            while (entries > 0L) {
+                final int index = (int)(current % bucketCount);
+                final double min = minimum(index, current);
+
+                if (min == Double.POSITIVE_INFINITY) {
+                    ++current;
+                    continue;
+                }
+
+                if (min > distanceBound) {
+                    break;
+                }
+
+                emptyBucket(index, current);
+
+                if (order.size >= nodeBound
+                        || (target != -1 && settled[target])) {
+                    break;
+                }
+
+                ++current;
+            }
+        }
+
+        /**
+         * Returns the least distance in the bucket <code>current</code>
+         * stored at <code>index</code>, or positive infinity if it is empty
+         * or holds only stale entries, which are then dropped.
+         */
+        double minimum(final int index, final long current) {
+            final IntList bucket = buckets[index];
+            double min = Double.POSITIVE_INFINITY;
+
+            if (bucket == null) {
+                return min;
+            }
+
+            for (int i = 0; i < bucket.size; ++i) {
+                final int u = bucket.nodes[i];
+
+                if (bucketOf(distances[u]) == current) {
+                    min = Math.min(min, distances[u]);
+                }
+            }
+
+            if (min == Double.POSITIVE_INFINITY) {
+                entries -= bucket.size;
+                bucket.clear();
+            }
+
+            return min;
+        }
+
+        void emptyBucket(final int index, final long current) {
+            while (buckets[index].size > 0) {
+                while (buckets[index].size > 0) {
+                    final IntList taken = buckets[index];
+                    buckets[index] = spare;
+                    entries -= taken.size;
+                    frontier.clear();
+                    ++phase;
+
+                    for (int i = 0; i < taken.size; ++i) {
+                        final int u = taken.nodes[i];
+
+                        if (bucketOf(distances[u]) != current
+                                || inFrontier[u] == phase) {
+                            continue;
+                        }
+
+                        inFrontier[u] = phase;
+                        frontier.add(u);
+
+                        if (settled[u] == false) {
+                            settled[u] = true;
+                            order.add(u);
+                        }
+
+                        // A node lowered after its heavy arcs were relaxed
+                        // needs them relaxed again.
+                        if (heavyPending[u] == false) {
+                            heavyPending[u] = true;
+                            heavy.add(u);
+                        }
+                    }
+
+                    taken.clear();
+                    spare = taken;
+                    relax(frontier, true);
+                }
+
+                for (int i = 0; i < heavy.size; ++i) {
+                    heavyPending[heavy.nodes[i]] = false;
+                }
+
+                // Rounding may put a node reached by a heavy arc back in
+                // the current bucket, hence the outer loop.
+                relax(heavy, false);
+                heavy.clear();
+            }
+        }
+
+        long bucketOf(final double distance) {
+            return (long)(distance / delta);
+        }
+
+        void push(final int u) {
+            final int index = (int)(bucketOf(distances[u]) % bucketCount);
+
+            if (buckets[index] == null) {
+                buckets[index] = new IntList();
+            }
+
+            buckets[index].add(u);
+            ++entries;
+        }
+
+        /**
+         * Relaxes the light or the heavy arcs of the nodes in
+         * <code>list</code>.
+         */
+        void relax(final IntList list, final boolean light) {
+            if (pool == null || list.size < parallelThreshold) {
+                for (int i = 0; i < list.size; ++i) {
+                    final int u = list.nodes[i];
+                    final double g = distances[u];
+
+                    for (int arc = graph.getOutArcBegin(u);
+                             arc < graph.getOutArcEnd(u);
+                             ++arc) {
+                        final double weight = graph.getArcWeight(arc);
+
+                        if ((weight <= delta) != light) {
+                            continue;
+                        }
+
+                        final int v = graph.getArcHead(arc);
+                        final double tmpg = g + weight;
+
+                        if (tmpg < distances[v]) {
+                            if (distances[v] == Double.POSITIVE_INFINITY) {
+                                reached.add(v);
+                            }
+
+                            distances[v] = tmpg;
+                            parents[v] = u;
+                            push(v);
+                        }
+                    }
+                }
+
+                return;
+            }
+
+            pool.invoke(new RelaxTask(list, light));
+
+            for (int o = 0; o < parallelism; ++o) {
+                final IntList nodes = improved[o];
+
+                for (int i = 0; i < nodes.size; ++i) {
+                    push(nodes.nodes[i]);
+                }
+
+                nodes.clear();
+
+                final IntList newNodes = reachedBy[o];
+
+                for (int i = 0; i < newNodes.size; ++i) {
+                    reached.add(newNodes.nodes[i]);
+                }
+
+                newNodes.clear();
+            }
+        }
+
+        /**
+         * Turns the arcs of the nodes <tt>[lo, hi)</tt> of <code>list</code>
+         * into requests of the chunk <code>c</code>.
+         */
+        void request(final IntList list,
+                     final boolean light,
+                     final int c,
+                     final int lo,
+                     final int hi) {
+            final Requests[] filed = requests[c];
+
+            for (int i = lo; i < hi; ++i) {
+                final int u = list.nodes[i];
+                final double g = distances[u];
+
+                for (int arc = graph.getOutArcBegin(u);
+                         arc < graph.getOutArcEnd(u);
+                         ++arc) {
+                    final double weight = graph.getArcWeight(arc);
+
+                    if ((weight <= delta) != light) {
+                        continue;
+                    }
+
+                    final int v = graph.getArcHead(arc);
+                    final double tmpg = g + weight;
+
+                    if (tmpg < distances[v]) {
+                        filed[v % parallelism].add(v, tmpg, u);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Applies the requests filed for the thread <code>o</code>, in the
+         * order of the chunks, so that ties resolve the same way every time.
+         */
+        void apply(final int o) {
+            final IntList nodes = improved[o];
+
+            for (int c = 0; c < parallelism; ++c) {
+                final Requests filed = requests[c][o];
+
+                for (int i = 0; i < filed.size; ++i) {
+                    final int v = filed.nodes[i];
+                    final double tmpg = filed.distances[i];
+
+                    if (tmpg < distances[v]) {
+                        if (distances[v] == Double.POSITIVE_INFINITY) {
+                            reachedBy[o].add(v);
+                        }
+
+                        distances[v] = tmpg;
+                        parents[v] = filed.parents[i];
+                        nodes.add(v);
+                    }
+                }
+
+                filed.clear();
+            }
+        }
+
+        ShortestPathTree buildTree(final double distanceBound,
+                                   final int nodeBound) {
+            int size = 0;
+
+            for (int i = 0; i < order.size; ++i) {
+                if (distances[order.nodes[i]] <= distanceBound) {
+                    order.nodes[size++] = order.nodes[i];
+                }
+            }
+
+            // The distances are non-negative, so their bits sort as they do.
+            final long[] keys = new long[size];
+            final int[] nodes = Arrays.copyOf(order.nodes, size);
+
+            for (int i = 0; i < size; ++i) {
+                keys[i] = Double.doubleToLongBits(distances[nodes[i]]);
+            }
+
+            ParallelRadixSort.sort(keys, nodes);
+
+            size = Math.min(size, nodeBound);
+
+            final int[] treeNodes = Arrays.copyOf(nodes, size);
+            final double[] treeDistances = new double[size];
+            final int[] treeParents = new int[size];
+
+            for (int i = 0; i < size; ++i) {
+                treeDistances[i] = distances[treeNodes[i]];
+                treeParents[i] = parents[treeNodes[i]];
+            }
+
+            return new ShortestPathTree(treeNodes,
+                                        treeDistances,
+                                        treeParents,
+                                        size == reached.size);
+        }
+
+        /**
+         * Relaxes a phase in parallel: first every chunk files its requests,
+         * then every thread applies the requests filed for it.
+         */
+        private final class RelaxTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final IntList list;
+            private final boolean light;
+
+            RelaxTask(final IntList list, final boolean light) {
+                this.list = list;
+                this.light = light;
+            }
+
+            @Override
+            protected void compute() {
+                final List<RecursiveAction> tasks =
+                        new ArrayList<>(parallelism);
+
+                for (int c = 0; c < parallelism; ++c) {
+                    final int chunk = c;
+                    final int lo = (int)((long) list.size * c / parallelism);
+                    final int hi =
+                            (int)((long) list.size * (c + 1) / parallelism);
+
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            request(list, light, chunk, lo, hi);
+                        }
+                    });
+                }
+
+                invokeAll(tasks);
+                tasks.clear();
+
+                for (int o = 0; o < parallelism; ++o) {
+                    final int owner = o;
+
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            apply(owner);
+                        }
+                    });
+                }
+
+                invokeAll(tasks);
+            }
+        }
+    }
+
+    /**
+     * A growable list of node ids.
+     */
+    private static final class IntList {
+
+        int[] nodes = new int[16];
+        int size;
+
+        void add(final int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+            }
+
+            nodes[size++] = node;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * A growable list of relaxation requests.
+     */
+    private static final class Requests {
+
+        int[] nodes = new int[16];
+        double[] distances = new double[16];
+        int[] parents = new int[16];
+        int size;
+
+        void add(final int node, final double distance, final int parent) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                distances = Arrays.copyOf(distances, 2 * size);
+                parents = Arrays.copyOf(parents, 2 * size);
+            }
+
+            nodes[size] = node;
+            distances[size] = distance;
+            parents[size++] = parent;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
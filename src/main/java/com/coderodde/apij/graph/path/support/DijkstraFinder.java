@@ -1,18 +1,21 @@
 package com.coderodde.apij.graph.path.support;
 
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
 import com.coderodde.apij.ds.pq.PriorityQueue;
 import com.coderodde.apij.ds.pq.support.DaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
 import com.coderodde.apij.graph.model.Node;
 import com.coderodde.apij.graph.model.WeightFunction;
 import com.coderodde.apij.graph.path.Path;
 import com.coderodde.apij.graph.path.PathFinder;
 import com.coderodde.apij.graph.path.SearchData;
+import com.coderodde.apij.graph.path.SearchState;
+import com.coderodde.apij.graph.path.ShortestPathTree;
 import static com.coderodde.apij.util.Utils.checkNotNull;
+import static com.coderodde.apij.util.Utils.checkPositive;
 import static com.coderodde.apij.util.Utils.checkSameGraphs;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 
 public class DijkstraFinder<T extends Node<T>>
 extends PathFinder<T> {
@@ -24,19 +27,15 @@ extends PathFinder<T> {
     private PriorityQueue<T, Double> OPEN;
     
     /**
-     * This is the "closed set". It contains the expanded nodes.
+     * Holds the g-scores, the parents and the closed flags of the nodes. 
+     * Reused by every search.
      */
-    private Set<T> CLOSED = new HashSet<>();
+    private final SearchState STATE;
     
     /**
-     * Holds g-scores for the nodes.
+     * This is the "open set" used when searching a compact graph.
      */
-    private Map<T, Double> GSCORE = new HashMap<>();
-    
-    /**
-     * Maps every found node to its parent node in the shortest path tree.
-     */
-    private Map<T, T> PARENT = new HashMap<>();
+    private final IntPriorityQueue OPEN_IDS;
     
     public DijkstraFinder() {
         // This the default: d-ary heap with d = 2.
@@ -44,9 +43,17 @@ extends PathFinder<T> {
     }
     
     public DijkstraFinder(final PriorityQueue<T, Double> heap) {
+        this(heap, new SearchState());
+    }
+    
+    public DijkstraFinder(final PriorityQueue<T, Double> heap, 
+                          final SearchState state) {
         checkNotNull(heap, "'heap' is 'null'.");
+        checkNotNull(state, "'state' is 'null'.");
         heap.clear();
         this.OPEN = heap;
+        this.STATE = state;
+        this.OPEN_IDS = spawnIdQueue(heap);
     }
     
     @Override
@@ -54,6 +61,7 @@ extends PathFinder<T> {
         T source = null;
         T target = null;
         WeightFunction<T> wf = null;
+        CompactGraph<T> compactGraph = null;
         
         for (final SearchData sd : data) {
             switch (sd.getType()) {
@@ -68,49 +76,298 @@ extends PathFinder<T> {
                 case WEIGHT_FUNCTION:
                     wf = (WeightFunction<T>) sd.getData();
                     break;
+                    
+                case COMPACT_GRAPH:
+                    compactGraph = (CompactGraph<T>) sd.getData();
+                    break;
             }
         }
         
         checkSameGraphs(source, target);
+        
+        if (compactGraph != null) {
+            return searchCompact(compactGraph, 
+                                 compactGraph.getId(source),
+                                 compactGraph.getId(target));
+        }
+        
         checkNotNull(wf, "weight function is null.");
         
+        final Graph<T> graph = source.getOwnerGraph();
+        
         OPEN.clear();
-        CLOSED.clear();
-        GSCORE.clear();
-        PARENT.clear();
+        STATE.reset(graph.getIdBound());
         
         OPEN.add(source, 0.0);
-        GSCORE.put(source, 0.0);
-        PARENT.put(source, null);
+        STATE.update(source.getId(), 0.0, SearchState.NO_PARENT);
         
         while (OPEN.isEmpty() == false) {
             final T current = OPEN.extractMinimum();
+            final int currentId = current.getId();
         
             if (current.equals(target)) {
-                return constructPath(target, PARENT);
+                return constructPath(currentId, STATE, graph);
             }
             
-            CLOSED.add(current);
+            STATE.close(currentId);
             
             for (final T child : current) {
-                if (CLOSED.contains(child)) {
+                final int childId = child.getId();
+                
+                if (STATE.isClosed(childId)) {
                     continue;
                 }
                 
-                double tmpg = GSCORE.get(current) + wf.get(current, child);
+                double tmpg = STATE.getDistance(currentId) + 
+                              wf.get(current, child);
                 
-                if (GSCORE.containsKey(child) == false) {
+                if (STATE.isDiscovered(childId) == false) {
                     OPEN.add(child, tmpg);
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
-                } else if (tmpg < GSCORE.get(child)) {
+                    STATE.update(childId, tmpg, currentId);
+                } else if (tmpg < STATE.getDistance(childId)) {
                     OPEN.decreasePriority(child, tmpg);
-                    GSCORE.put(child, tmpg);
-                    PARENT.put(child, current);
+                    STATE.update(childId, tmpg, currentId);
+                }
+            }
+        }
+        
+        return Path.NO_PATH;
+    }
+    
+    private Path<T> searchCompact(final CompactGraph<T> graph,
+                                  final int source,
+                                  final int target) {
+        OPEN_IDS.clear();
+        STATE.reset(graph.size());
+        
+        OPEN_IDS.add(source, 0.0);
+        STATE.update(source, 0.0, SearchState.NO_PARENT);
+        
+        while (OPEN_IDS.isEmpty() == false) {
+            final int current = OPEN_IDS.extractMinimum();
+            
+            if (current == target) {
+                return constructPath(target, STATE, graph);
+            }
+            
+            STATE.close(current);
+            
+            for (int arc = graph.getOutArcBegin(current);
+                     arc < graph.getOutArcEnd(current);
+                     ++arc) {
+                final int child = graph.getArcHead(arc);
+                
+                if (STATE.isClosed(child)) {
+                    continue;
+                }
+                
+                double tmpg = STATE.getDistance(current) + 
+                              graph.getArcWeight(arc);
+                
+                if (STATE.isDiscovered(child) == false) {
+                    OPEN_IDS.add(child, tmpg);
+                    STATE.update(child, tmpg, current);
+                } else if (tmpg < STATE.getDistance(child)) {
+                    OPEN_IDS.decreasePriority(child, tmpg);
+                    STATE.update(child, tmpg, current);
                 }
             }
         }
         
         return Path.NO_PATH;
     }
+    
+    /**
+     * Computes the shortest path tree from the source given by 
+     * {@link PathFinder#from(Object)}. The search runs until all the 
+     * reachable nodes are settled, or until the next node to settle is 
+     * farther than the bound given by 
+     * {@link PathFinder#withDistanceBound(double)}, or until as many nodes 
+     * as given by {@link PathFinder#withNodeBound(int)} are settled. Either 
+     * a weight function or a compact graph must be given, as in 
+     * {@link #search(SearchData...)}.
+     * 
+     * @param data the search data.
+     * 
+     * @return the shortest path tree.
+     */
+    public ShortestPathTree searchTree(final SearchData... data) {
+        T source = null;
+        WeightFunction<T> wf = null;
+        CompactGraph<T> compactGraph = null;
+        double distanceBound = Double.POSITIVE_INFINITY;
+        int nodeBound = Integer.MAX_VALUE;
+        
+        for (final SearchData sd : data) {
+            switch (sd.getType()) {
+                case SOURCE: 
+                    source = (T) sd.getData();
+                    break;
+                    
+                case WEIGHT_FUNCTION:
+                    wf = (WeightFunction<T>) sd.getData();
+                    break;
+                    
+                case COMPACT_GRAPH:
+                    compactGraph = (CompactGraph<T>) sd.getData();
+                    break;
+                    
+                case DISTANCE_BOUND:
+                    distanceBound = (Double) sd.getData();
+                    break;
+                    
+                case NODE_BOUND:
+                    nodeBound = (Integer) sd.getData();
+                    break;
+            }
+        }
+        
+        checkNotNull(source, "source is null.");
+        checkPositive(nodeBound, "node bound is not positive.");
+        
+        if ((distanceBound >= 0.0) == false) {
+            throw new IllegalArgumentException(
+                    "Distance bound (" + distanceBound + ") is not " + 
+                    "non-negative.");
+        }
+        
+        final TreeBuilder tree = new TreeBuilder();
+        
+        if (compactGraph != null) {
+            searchTreeCompact(compactGraph, 
+                              compactGraph.getId(source),
+                              distanceBound, 
+                              nodeBound,
+                              tree);
+            return tree.build();
+        }
+        
+        checkNotNull(wf, "weight function is null.");
+        
+        OPEN.clear();
+        STATE.reset(source.getOwnerGraph().getIdBound());
+        
+        OPEN.add(source, 0.0);
+        STATE.update(source.getId(), 0.0, SearchState.NO_PARENT);
+        
+        while (OPEN.isEmpty() == false) {
+            final T current = OPEN.extractMinimum();
+            final int currentId = current.getId();
+            final double g = STATE.getDistance(currentId);
+            
+            if (g > distanceBound) {
+                tree.complete = false;
+                break;
+            }
+            
+            STATE.close(currentId);
+            tree.add(currentId, g, STATE.getParent(currentId));
+            
+            for (final T child : current) {
+                final int childId = child.getId();
+                
+                if (STATE.isClosed(childId)) {
+                    continue;
+                }
+                
+                double tmpg = g + wf.get(current, child);
+                
+                if (STATE.isDiscovered(childId) == false) {
+                    OPEN.add(child, tmpg);
+                    STATE.update(childId, tmpg, currentId);
+                } else if (tmpg < STATE.getDistance(childId)) {
+                    OPEN.decreasePriority(child, tmpg);
+                    STATE.update(childId, tmpg, currentId);
+                }
+            }
+            
+            if (tree.size == nodeBound) {
+                tree.complete = OPEN.isEmpty();
+                break;
+            }
+        }
+        
+        return tree.build();
+    }
+    
+    private void searchTreeCompact(final CompactGraph<T> graph,
+                                   final int source,
+                                   final double distanceBound,
+                                   final int nodeBound,
+                                   final TreeBuilder tree) {
+        OPEN_IDS.clear();
+        STATE.reset(graph.size());
+        
+        OPEN_IDS.add(source, 0.0);
+        STATE.update(source, 0.0, SearchState.NO_PARENT);
+        
+        while (OPEN_IDS.isEmpty() == false) {
+            final int current = OPEN_IDS.extractMinimum();
+            final double g = STATE.getDistance(current);
+            
+            if (g > distanceBound) {
+                tree.complete = false;
+                return;
+            }
+            
+            STATE.close(current);
+            tree.add(current, g, STATE.getParent(current));
+            
+            for (int arc = graph.getOutArcBegin(current);
+                     arc < graph.getOutArcEnd(current);
+                     ++arc) {
+                final int child = graph.getArcHead(arc);
+                
+                if (STATE.isClosed(child)) {
+                    continue;
+                }
+                
+                double tmpg = g + graph.getArcWeight(arc);
+                
+                if (STATE.isDiscovered(child) == false) {
+                    OPEN_IDS.add(child, tmpg);
+                    STATE.update(child, tmpg, current);
+                } else if (tmpg < STATE.getDistance(child)) {
+                    OPEN_IDS.decreasePriority(child, tmpg);
+                    STATE.update(child, tmpg, current);
+                }
+            }
+            
+            if (tree.size == nodeBound) {
+                tree.complete = OPEN_IDS.isEmpty();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Collects the settled nodes of a one-to-all search.
+     */
+    private static final class TreeBuilder {
+        
+        int[] nodes = new int[16];
+        double[] distances = new double[16];
+        int[] parents = new int[16];
+        int size;
+        boolean complete = true;
+        
+        void add(final int node, final double distance, final int parent) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                distances = Arrays.copyOf(distances, 2 * size);
+                parents = Arrays.copyOf(parents, 2 * size);
+            }
+            
+            nodes[size] = node;
+            distances[size] = distance;
+            parents[size++] = parent;
+        }
+        
+        ShortestPathTree build() {
+            return new ShortestPathTree(Arrays.copyOf(nodes, size),
+                                        Arrays.copyOf(distances, size),
+                                        Arrays.copyOf(parents, size),
+                                        complete);
+        }
+    }
 }
@@ -3,7 +3,6 @@ package com.coderodde.apij.graph.path.support;
 import com.coderodde.apij.graph.model.Node;
 import com.coderodde.apij.graph.path.HeuristicFunction;
 import com.coderodde.apij.graph.path.Layout;
-import java.awt.geom.Point2D;
 
 public class EuclidianHeuristicFunction<T extends Node<T>> 
 extends HeuristicFunction<T> {
@@ -14,14 +13,15 @@ extends HeuristicFunction<T> {
     
     @Override
     public double estimateFrom(final T from) {
-        final Point2D.Double p = layout.get(from);
-        return p.distance(targetPoint);
+        final double dx = layout.getX(from) - targetX;
+        final double dy = layout.getY(from) - targetY;
+        return Math.sqrt(dx * dx + dy * dy);
     }
 
     @Override
     public double estimate(final T from, final T to) {
-        final Point2D.Double p1 = layout.get(from);
-        final Point2D.Double p2 = layout.get(to);
-        return p1.distance(p2);
+        final double dx = layout.getX(from) - layout.getX(to);
+        final double dy = layout.getY(from) - layout.getY(to);
+        return Math.sqrt(dx * dx + dy * dy);
     }
-}
\ No newline at end of file
+}
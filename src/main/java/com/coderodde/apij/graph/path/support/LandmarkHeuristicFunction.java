@@ -0,0 +1,509 @@
+package com.coderodde.apij.graph.path.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.ds.pq.support.IntDaryHeap;
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.path.HeuristicFunction;
+import com.coderodde.apij.graph.path.SearchState;
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import static com.coderodde.apij.util.Utils.checkPositive;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class implements the ALT heuristic (A*, landmarks and triangle
+ * inequality). For a handful of landmark nodes <code>L</code> it stores the
+ * distances <tt>d(L, v)</tt> and <tt>d(v, L)</tt> of every node
+ * <code>v</code>, from which the triangle inequality gives the lower bounds
+ * <pre>
+ *   d(v, t) &gt;= d(L, t) - d(L, v)
+ *   d(v, t) &gt;= d(v, L) - d(t, L)
+ * </pre>
+ * The estimate is the largest such bound. Unlike
+ * {@link EuclidianHeuristicFunction}, it needs no layout and is tight
+ * whatever the weights mean, e.g., travel times.
+ * <p>
+ * The distances are stored as <code>float</code>s, node-major, so that all
+ * landmarks of a node share a cache line; the bounds are lowered by the
+ * rounding error so that they stay admissible. Terms with an infinite
+ * distance carry no information and are skipped.
+ * <p>
+ * Only a few <i>active</i> landmarks are consulted during a search: on the
+ * first call to {@link #estimateFrom(Node)} after
+ * {@link #setTarget(Node)}, which the finders make for the source node, the
+ * landmarks giving the best bounds between the source and the target are
+ * chosen.
+ * <p>
+ * For bidirectional search pass this function as the forward heuristic and
+ * {@link #reverse()} as the backward one.
+ *
+ * @param <T> the actual node type.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class LandmarkHeuristicFunction<T extends Node<T>>
+extends HeuristicFunction<T> {
+
+    /**
+     * The default amount of active landmarks.
+     */
+    public static final int DEFAULT_ACTIVE_LANDMARKS = 4;
+
+    /**
+     * Denotes the absence of a target.
+     */
+    private static final int NO_TARGET = -1;
+
+    /**
+     * The snapshot of the graph.
+     */
+    private final CompactGraph<T> graph;
+
+    /**
+     * The amount of landmarks.
+     */
+    private final int K;
+
+    /**
+     * The node ids of the landmarks.
+     */
+    private final int[] landmarks;
+
+    /**
+     * <code>distancesFrom[v * K + l]</code> is the distance from the landmark
+     * <code>l</code> to the node <code>v</code>.
+     */
+    private final float[] distancesFrom;
+
+    /**
+     * <code>distancesTo[v * K + l]</code> is the distance from the node
+     * <code>v</code> to the landmark <code>l</code>.
+     */
+    private final float[] distancesTo;
+
+    /**
+     * The indices of the active landmarks.
+     */
+    private final int[] active;
+
+    /**
+     * The id of the current target.
+     */
+    private int target = NO_TARGET;
+
+    /**
+     * Set when the active landmarks are to be chosen on the next estimate.
+     */
+    private boolean activePending;
+
+    /**
+     * Constructs a landmark heuristic over <code>graph</code> using the
+     * <code>AVOID</code> selection.
+     *
+     * @param graph the graph.
+     * @param wf the weight function of <code>graph</code>.
+     * @param landmarkCount the amount of landmarks.
+     */
+    public LandmarkHeuristicFunction(final Graph<T> graph,
+                                     final WeightFunction<T> wf,
+                                     final int landmarkCount) {
+        this(new CompactGraph<>(graph, wf),
+             landmarkCount,
+             LandmarkSelection.AVOID,
+             DEFAULT_ACTIVE_LANDMARKS,
+             new Random());
+    }
+
+    /**
+     * Constructs a landmark heuristic over the snapshot <code>graph</code>.
+     *
+     * @param graph the snapshot.
+     * @param landmarkCount the amount of landmarks. Capped by the amount of
+     * nodes.
+     * @param selection the landmark selection strategy.
+     * @param activeCount the amount of landmarks consulted per search.
+     * @param random the source of randomness for the selection.
+     */
+    public LandmarkHeuristicFunction(final CompactGraph<T> graph,
+                                     final int landmarkCount,
+                                     final LandmarkSelection selection,
+                                     final int activeCount,
+                                     final Random random) {
+        checkNotNull(graph, "'graph' is null.");
+        checkNotNull(selection, "'selection' is null.");
+        checkNotNull(random, "'random' is null.");
+        checkPositive(landmarkCount, "'landmarkCount' is not positive.");
+        checkPositive(activeCount, "'activeCount' is not positive.");
+
+        final int N = graph.size();
+        int nodes = 0;
+
+        for (int u = 0; u < N; ++u) {
+            if (graph.getNode(u) != null) {
+                ++nodes;
+            }
+        }
+
+        this.graph = graph;
+        this.K = Math.min(landmarkCount, nodes);
+        this.landmarks = new int[K];
+        this.distancesFrom = new float[N * K];
+        this.distancesTo = new float[N * K];
+        this.active = new int[Math.min(activeCount, K)];
+
+        final SearchState state = new SearchState(N);
+        final IntPriorityQueue heap = new IntDaryHeap(4, Math.max(16, N));
+        final int[] order = new int[N];
+
+        for (int k = 0; k < K; ++k) {
+            int landmark = -1;
+
+            if (selection == LandmarkSelection.AVOID) {
+                landmark = selectAvoid(k, random, state, heap, order);
+            }
+
+            if (landmark == -1) {
+                landmark = selectFarthest(k, random);
+            }
+
+            landmarks[k] = landmark;
+
+            dijkstra(landmark, true, state, heap, order);
+
+            for (int v = 0; v < N; ++v) {
+                distancesFrom[v * K + k] = (float) state.getDistance(v);
+            }
+
+            dijkstra(landmark, false, state, heap, order);
+
+            for (int v = 0; v < N; ++v) {
+                distancesTo[v * K + k] = (float) state.getDistance(v);
+            }
+        }
+    }
+
+    /**
+     * Constructs the reverse view of <code>other</code>.
+     */
+    private LandmarkHeuristicFunction(
+            final LandmarkHeuristicFunction<T> other) {
+        this.graph = other.graph;
+        this.K = other.K;
+        this.landmarks = other.landmarks;
+        this.distancesFrom = other.distancesTo;
+        this.distancesTo = other.distancesFrom;
+        this.active = new int[other.active.length];
+    }
+
+    /**
+     * Returns a heuristic sharing the distance tables of this one that
+     * estimates the distances <i>from</i> the target instead of <i>to</i>
+     * it. This is the backward heuristic of bidirectional search.
+     *
+     * @return the reverse heuristic.
+     */
+    public LandmarkHeuristicFunction<T> reverse() {
+        return new LandmarkHeuristicFunction<>(this);
+    }
+
+    /**
+     * Returns the amount of landmarks.
+     *
+     * @return the amount of landmarks.
+     */
+    public int getLandmarkCount() {
+        return K;
+    }
+
+    /**
+     * Returns the <code>i</code>th landmark.
+     *
+     * @param i the index of the landmark.
+     *
+     * @return the landmark node.
+     */
+    public T getLandmark(final int i) {
+        return graph.getNode(landmarks[i]);
+    }
+
+    @Override
+    public void setTarget(final T target) {
+        checkNotNull(target, "'target' is null.");
+        this.target = graph.getId(target);
+        this.activePending = true;
+    }
+
+    @Override
+    public double estimateFrom(final T from) {
+        if (target == NO_TARGET) {
+            throw new IllegalStateException("No target set.");
+        }
+
+        final int v = graph.getId(from);
+
+        if (activePending) {
+            selectActive(v);
+            activePending = false;
+        }
+
+        double best = 0.0;
+
+        for (final int l : active) {
+            best = Math.max(best, bound(v, target, l));
+        }
+
+        return best;
+    }
+
+    @Override
+    public double estimate(final T from, final T to) {
+        final int v = graph.getId(from);
+        final int t = graph.getId(to);
+        double best = 0.0;
+
+        for (int l = 0; l < K; ++l) {
+            best = Math.max(best, bound(v, t, l));
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the lower bound of <tt>d(v, t)</tt> given by the landmark with
+     * index <code>l</code>.
+     */
+    private double bound(final int v, final int t, final int l) {
+        double best = 0.0;
+
+        final float fv = distancesFrom[v * K + l];
+        final float ft = distancesFrom[t * K + l];
+
+        if (fv != Float.POSITIVE_INFINITY && ft != Float.POSITIVE_INFINITY) {
+            best = (double) ft - fv - Math.ulp(Math.max(ft, fv));
+        }
+
+        final float tv = distancesTo[v * K + l];
+        final float tt = distancesTo[t * K + l];
+
+        if (tv != Float.POSITIVE_INFINITY && tt != Float.POSITIVE_INFINITY) {
+            best = Math.max(best,
+                            (double) tv - tt - Math.ulp(Math.max(tv, tt)));
+        }
+
+        return best;
+    }
+
+    /**
+     * Chooses the active landmarks as the ones with the best bounds from
+     * <code>source</code> to the target.
+     */
+    private void selectActive(final int source) {
+        final double[] scores = new double[K];
+
+        for (int l = 0; l < K; ++l) {
+            scores[l] = bound(source, target, l);
+        }
+
+        for (int i = 0; i < active.length; ++i) {
+            int best = -1;
+
+            for (int l = 0; l < K; ++l) {
+                if (scores[l] != Double.NEGATIVE_INFINITY
+                        && (best == -1 || scores[l] > scores[best])) {
+                    best = l;
+                }
+            }
+
+            active[i] = best;
+            scores[best] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Returns a random node, or the node maximizing the smallest round trip
+     * distance to the first <code>k</code> landmarks.
+     */
+    private int selectFarthest(final int k, final Random random) {
+        if (k == 0) {
+            return randomNode(random);
+        }
+
+        int best = -1;
+        double bestDistance = -1.0;
+
+        for (int v = 0; v < graph.size(); ++v) {
+            if (graph.getNode(v) == null || isLandmark(v, k)) {
+                continue;
+            }
+
+            double distance = Double.POSITIVE_INFINITY;
+
+            for (int l = 0; l < k; ++l) {
+                distance = Math.min(distance,
+                                    (double) distancesFrom[v * K + l]
+                                           + distancesTo[v * K + l]);
+            }
+
+            if (distance > bestDistance) {
+                bestDistance = distance;
+                best = v;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Implements the <code>AVOID</code> selection. Every node
+     * <code>v</code> in the shortest path tree of a random root
+     * <code>r</code> gets the weight <tt>d(r, v)</tt> minus its lower bound
+     * by the first <code>k</code> landmarks. The size of a subtree is the
+     * sum of its weights, or zero if it contains a landmark. Starting from
+     * the root, the child with the largest size is followed down to a leaf.
+     * Returns <tt>-1</tt> if no new landmark is found.
+     */
+    private int selectAvoid(final int k,
+                            final Random random,
+                            final SearchState state,
+                            final IntPriorityQueue heap,
+                            final int[] order) {
+        final int N = graph.size();
+        final int root = randomNode(random);
+        final int settled = dijkstra(root, true, state, heap, order);
+        final double[] sizes = new double[N];
+        final boolean[] covered = new boolean[N];
+        final int[] bestChild = new int[N];
+
+        for (int i = settled - 1; i >= 0; --i) {
+            final int v = order[i];
+            double lowerBound = 0.0;
+
+            for (int l = 0; l < k; ++l) {
+                lowerBound = Math.max(lowerBound, bound(root, v, l));
+            }
+
+            sizes[v] += Math.max(0.0, state.getDistance(v) - lowerBound);
+
+            if (isLandmark(v, k)) {
+                covered[v] = true;
+            }
+
+            final int parent = state.getParent(v);
+
+            if (parent != SearchState.NO_PARENT) {
+                if (covered[v]) {
+                    covered[parent] = true;
+                } else {
+                    sizes[parent] += sizes[v];
+                }
+            }
+        }
+
+        Arrays.fill(bestChild, -1);
+
+        for (int i = 1; i < settled; ++i) {
+            final int v = order[i];
+            final int parent = state.getParent(v);
+
+            if (covered[v] || sizes[v] <= 0.0) {
+                continue;
+            }
+
+            if (bestChild[parent] == -1
+                    || sizes[v] > sizes[bestChild[parent]]) {
+                bestChild[parent] = v;
+            }
+        }
+
+        if (covered[root] && bestChild[root] == -1) {
+            return -1;
+        }
+
+        int current = root;
+
+        while (bestChild[current] != -1) {
+            current = bestChild[current];
+        }
+
+        return isLandmark(current, k) ? -1 : current;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from <code>source</code> over the arcs
+     * (<code>forward</code>) or the reverse arcs of the graph, and stores
+     * the settled nodes in <code>order</code>.
+     *
+     * @return the amount of settled nodes.
+     */
+    private int dijkstra(final int source,
+                         final boolean forward,
+                         final SearchState state,
+                         final IntPriorityQueue heap,
+                         final int[] order) {
+        int settled = 0;
+
+        heap.clear();
+        state.reset(graph.size());
+        heap.add(source, 0.0);
+        state.update(source, 0.0, SearchState.NO_PARENT);
+
+        while (heap.isEmpty() == false) {
+            final int current = heap.extractMinimum();
+            final double g = state.getDistance(current);
+
+            state.close(current);
+            order[settled++] = current;
+
+            final int begin = forward ? graph.getOutArcBegin(current)
+                                      : graph.getInArcBegin(current);
+            final int end = forward ? graph.getOutArcEnd(current)
+                                    : graph.getInArcEnd(current);
+
+            for (int i = begin; i < end; ++i) {
+                final int next = forward ? graph.getArcHead(i)
+                                         : graph.getInArcTail(i);
+
+                if (state.isClosed(next)) {
+                    continue;
+                }
+
+                final double tmpg = g + (forward ? graph.getArcWeight(i)
+                                                 : graph.getInArcWeight(i));
+
+                if (state.isDiscovered(next) == false) {
+                    heap.add(next, tmpg);
+                    state.update(next, tmpg, current);
+                } else if (tmpg < state.getDistance(next)) {
+                    heap.decreasePriority(next, tmpg);
+                    state.update(next, tmpg, current);
+                }
+            }
+        }
+
+        return settled;
+    }
+
+    private boolean isLandmark(final int v, final int k) {
+        for (int l = 0; l < k; ++l) {
+            if (landmarks[l] == v) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int randomNode(final Random random) {
+        int v;
+
+        do {
+            v = random.nextInt(graph.size());
+        } while (graph.getNode(v) == null);
+
+        return v;
+    }
+}
@@ -0,0 +1,24 @@
+package com.coderodde.apij.graph.path.support;
+
+/**
+ * This enumeration lists the strategies for selecting the landmarks of a
+ * {@link LandmarkHeuristicFunction}.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public enum LandmarkSelection {
+    
+    /**
+     * Starts from a random node and keeps adding the node farthest from the
+     * landmarks selected so far.
+     */
+    FARTHEST,
+    
+    /**
+     * Grows a shortest path tree from a random root and descends into the 
+     * subtree whose nodes the current landmarks cover worst, taking the leaf
+     * reached as the next landmark.
+     */
+    AVOID
+}
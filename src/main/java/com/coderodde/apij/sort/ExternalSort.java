@@ -0,0 +1,730 @@
+package com.coderodde.apij.sort;
+
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import com.coderodde.apij.sort.support.BottomUpMergesort;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements an external merge sort for data sets that do not fit
+ * in memory. The records stream in through an iterator and are collected
+ * into runs of at most <code>runSize</code> records. Every run is sorted in
+ * memory, by {@link ParallelRadixSort} if the records are ordered by a
+ * <code>long</code> key and by {@link BottomUpMergesort} if they are ordered
+ * by a comparator, and spilled to a temporary file through a
+ * {@link FileChannel} and a direct buffer of <code>bufferSize</code> bytes.
+ * <p>
+ * The runs are then merged with a binary heap over the run heads, at most
+ * <code>fanIn</code> runs at a time: while there are more runs than that, the
+ * runs are merged group by group into longer runs on disk, and the last
+ * merge streams out through the returned {@link SortedIterator}. If the
+ * input fits in a single run, nothing is written to disk. The sort is
+ * stable; the groups are merged in input order and ties are resolved in
+ * favour of the earlier run.
+ * <p>
+ * The records are stored in files as fixed-size binary records by a
+ * {@link RecordCodec}.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ *
+ * @param <T> the record type.
+ */
+public class ExternalSort<T> {
+
+    /**
+     * Encodes records to and decodes them from fixed-size binary form.
+     *
+     * @param <T> the record type.
+     */
+    public interface RecordCodec<T> {
+
+        /**
+         * Returns the size of an encoded record in bytes.
+         *
+         * @return the record size.
+         */
+        int getRecordSize();
+
+        /**
+         * Puts exactly <code>getRecordSize()</code> bytes encoding
+         * <code>record</code> to <code>buffer</code>.
+         *
+         * @param record the record to encode.
+         * @param buffer the buffer to write to.
+         */
+        void write(T record, ByteBuffer buffer);
+
+        /**
+         * Gets exactly <code>getRecordSize()</code> bytes from
+         * <code>buffer</code> and decodes them.
+         *
+         * @param buffer the buffer to read from.
+         *
+         * @return the decoded record.
+         */
+        T read(ByteBuffer buffer);
+    }
+
+    /**
+     * Maps a record to the <code>long</code> key it is sorted by. The keys
+     * are compared as signed integers.
+     *
+     * @param <T> the record type.
+     */
+    public interface KeyFunction<T> {
+
+        /**
+         * Returns the sort key of <code>record</code>.
+         *
+         * @param record the record.
+         *
+         * @return the key.
+         */
+        long getKey(T record);
+    }
+
+    /**
+     * The default maximum amount of records in a run.
+     */
+    public static final int DEFAULT_RUN_SIZE = 1 << 20;
+
+    /**
+     * The default maximum amount of runs merged at a time.
+     */
+    public static final int DEFAULT_FAN_IN = 64;
+
+    /**
+     * The default size of the channel buffers in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private final RecordCodec<T> codec;
+    private final Comparator<? super T> comparator;
+    private final KeyFunction<? super T> keyFunction;
+
+    private int runSize = DEFAULT_RUN_SIZE;
+    private int fanIn = DEFAULT_FAN_IN;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private File directory;
+
+    /**
+     * The amount of runs built by the last sort.
+     */
+    private int runCount;
+
+    /**
+     * The amount of merge passes writing to disk done by the last sort.
+     */
+    private int mergePassCount;
+
+    /**
+     * Constructs a sort ordering the records by <code>comparator</code>.
+     *
+     * @param codec the record codec.
+     * @param comparator the record comparator.
+     */
+    public ExternalSort(final RecordCodec<T> codec,
+                        final Comparator<? super T> comparator) {
+        this(codec, comparator, null);
+        checkNotNull(comparator, "'comparator' is null.");
+    }
+
+    /**
+     * Constructs a sort ordering the records by the keys given by
+     * <code>keyFunction</code>.
+     *
+     * @param codec the record codec.
+     * @param keyFunction the key function.
+     */
+    public ExternalSort(final RecordCodec<T> codec,
+                        final KeyFunction<? super T> keyFunction) {
+        this(codec, null, keyFunction);
+        checkNotNull(keyFunction, "'keyFunction' is null.");
+    }
+
+    private ExternalSort(final RecordCodec<T> codec,
+                         final Comparator<? super T> comparator,
+                         final KeyFunction<? super T> keyFunction) {
+        checkNotNull(codec, "'codec' is null.");
+
+        if (codec.getRecordSize() < 1) {
+            throw new IllegalArgumentException(
+                    "Record size (" + codec.getRecordSize() + ") is below 1.");
+        }
+
+        this.codec = codec;
+        this.comparator = comparator;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Sets the maximum amount of records sorted in memory at a time.
+     *
+     * @param runSize the run size.
+     */
+    public void setRunSize(final int runSize) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException(
+                    "Run size (" + runSize + ") is below 1.");
+        }
+
+        this.runSize = runSize;
+    }
+
+    /**
+     * Sets the maximum amount of runs merged at a time.
+     *
+     * @param fanIn the fan-in.
+     */
+    public void setFanIn(final int fanIn) {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException(
+                    "Fan-in (" + fanIn + ") is below 2.");
+        }
+
+        this.fanIn = fanIn;
+    }
+
+    /**
+     * Sets the size of the buffer of each run file channel in bytes. The
+     * buffer holds at least one record.
+     *
+     * @param bufferSize the buffer size.
+     */
+    public void setBufferSize(final int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException(
+                    "Buffer size (" + bufferSize + ") is below 1.");
+        }
+
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Sets the directory of the run files. If <code>null</code>, the default
+     * temporary file directory is used.
+     *
+     * @param directory the directory.
+     */
+    public void setDirectory(final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the amount of runs built by the last call to
+     * {@link #sort(Iterator)}.
+     *
+     * @return the amount of runs.
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * Returns the amount of intermediate merge passes, that is, the passes
+     * writing merged runs to disk, done by the last call to
+     * {@link #sort(Iterator)}.
+     *
+     * @return the amount of intermediate merge passes.
+     */
+    public int getMergePassCount() {
+        return mergePassCount;
+    }
+
+    /**
+     * Sorts the records of <code>input</code>. The runs are built and all
+     * the merge passes but the last one are done before this method returns;
+     * the last merge proceeds as the returned iterator is advanced. The
+     * iterator deletes its run files once it is exhausted or closed.
+     *
+     * @param input the records to sort.
+     *
+     * @return an iterator over the sorted records.
+     *
+     * @throws IOException if writing or reading a run file fails.
+     */
+    public SortedIterator<T> sort(final Iterator<? extends T> input)
+    throws IOException {
+        checkNotNull(input, "'input' is null.");
+        runCount = 0;
+        mergePassCount = 0;
+
+        final Object[] records = new Object[runSize];
+        final long[] keys = keyFunction == null ? null : new long[runSize];
+        List<File> runs = new ArrayList<>();
+
+        // The output of the current merge pass, which must be deleted along
+        // with its input if the pass fails.
+        List<File> mergedRuns = new ArrayList<>();
+
+        try {
+            while (input.hasNext()) {
+                int count = 0;
+
+                while (count < runSize && input.hasNext()) {
+                    records[count++] = input.next();
+                }
+
+                final int[] order = sortRun(records, keys, count);
+                ++runCount;
+
+                if (runs.isEmpty() && input.hasNext() == false) {
+                    // The whole input fits in memory.
+                    return new SortedIterator<>(
+                            Arrays.copyOf(records, count), order);
+                }
+
+                runs.add(writeRun(records, order, count));
+            }
+
+            if (runs.isEmpty()) {
+                return new SortedIterator<>(new Object[0], null);
+            }
+
+            while (runs.size() > fanIn) {
+                mergedRuns = new ArrayList<>();
+
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    final List<File> group =
+                            runs.subList(i, Math.min(runs.size(), i + fanIn));
+                    mergedRuns.add(mergeRuns(group));
+                    deleteAll(group);
+                }
+
+                runs = mergedRuns;
+                ++mergePassCount;
+            }
+
+            return new SortedIterator<>(new Merger(runs));
+        } catch (IOException | RuntimeException | Error e) {
+            deleteAll(runs);
+            deleteAll(mergedRuns);
+            throw e;
+        }
+    }
+
+    /**
+     * Sorts the first <code>count</code> records in memory.
+     *
+     * @return the order in which to output the records, or <code>null</code>
+     *         if <code>records</code> is sorted in place.
+     */
+    private int[] sortRun(final Object[] records,
+                          final long[] keys,
+                          final int count) {
+        if (keyFunction == null) {
+            new BottomUpMergesort().sort(records, comparator, 0, count - 1);
+            return null;
+        }
+
+        final long[] runKeys = count == keys.length ?
+                               keys :
+                               new long[count];
+        final int[] order = new int[count];
+
+        for (int i = 0; i < count; ++i) {
+            runKeys[i] = keyFunction.getKey((T) records[i]);
+            order[i] = i;
+        }
+
+        ParallelRadixSort.sort(runKeys, order);
+        return order;
+    }
+
+    /**
+     * Writes a sorted run to a new temporary file.
+     */
+    private File writeRun(final Object[] records,
+                          final int[] order,
+                          final int count) throws IOException {
+        final File file = File.createTempFile("run", ".bin", directory);
+
+        try (final RunWriter writer = new RunWriter(file)) {
+            for (int i = 0; i < count; ++i) {
+                writer.write((T) records[order == null ? i : order[i]]);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            file.delete();
+            throw e;
+        }
+
+        return file;
+    }
+
+    /**
+     * Merges <code>runs</code> into a new temporary file.
+     */
+    private File mergeRuns(final List<File> runs) throws IOException {
+        final File file = File.createTempFile("run", ".bin", directory);
+
+        try (final Merger merger = new Merger(runs);
+             final RunWriter writer = new RunWriter(file)) {
+            while (merger.hasNext()) {
+                writer.write(merger.next());
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            file.delete();
+            throw e;
+        }
+
+        return file;
+    }
+
+    private static void deleteAll(final List<File> files) {
+        for (final File file : files) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Returns the capacity of a channel buffer: <code>bufferSize</code>
+     * rounded down to whole records, but at least one record.
+     */
+    private int bufferCapacity() {
+        final int recordSize = codec.getRecordSize();
+        return Math.max(1, bufferSize / recordSize) * recordSize;
+    }
+
+    /**
+     * This class iterates over the sorted records. It must be closed if it
+     * is not exhausted, so that the run files are deleted.
+     *
+     * @param <T> the record type.
+     */
+    public static final class SortedIterator<T>
+    implements Iterator<T>, Closeable {
+
+        private final Object[] records;
+        private final int[] order;
+        private final ExternalSort<T>.Merger merger;
+        private int index;
+
+        private SortedIterator(final Object[] records, final int[] order) {
+            this.records = records;
+            this.order = order;
+            this.merger = null;
+        }
+
+        private SortedIterator(final ExternalSort<T>.Merger merger) {
+            this.records = null;
+            this.order = null;
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return merger == null ? index < records.length : merger.hasNext();
+        }
+
+        /**
+         * Returns the next record.
+         *
+         * @return the next record.
+         *
+         * @throws NoSuchElementException if there are no more records.
+         * @throws IllegalStateException if reading a run file fails.
+         */
+        @Override
+        public T next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException("No more records.");
+            }
+
+            if (merger != null) {
+                try {
+                    return merger.next();
+                } catch (IOException e) {
+                    throw new IllegalStateException(
+                            "Reading a run failed.", e);
+                }
+            }
+
+            final int i = index++;
+            return (T) records[order == null ? i : order[i]];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "Removing is not supported.");
+        }
+
+        /**
+         * Closes the run files and deletes them.
+         *
+         * @throws IOException if closing a file fails.
+         */
+        @Override
+        public void close() throws IOException {
+            if (merger != null) {
+                merger.close();
+            }
+        }
+    }
+
+    /**
+     * Merges runs with a binary heap over the indices of their readers, the
+     * reader with the least head record on top.
+     */
+    private final class Merger implements Closeable {
+
+        private final List<File> files;
+        private final List<RunReader> readers;
+        private final Object[] heads;
+        private final long[] headKeys;
+        private final int[] heap;
+        private int size;
+
+        Merger(final List<File> files) throws IOException {
+            this.files = new ArrayList<>(files);
+            this.readers = new ArrayList<>(files.size());
+            this.heads = new Object[files.size()];
+            this.headKeys = new long[files.size()];
+            this.heap = new int[files.size()];
+
+            try {
+                for (final File file : files) {
+                    readers.add(new RunReader(file));
+                }
+
+                for (int i = 0; i < readers.size(); ++i) {
+                    if (advance(i)) {
+                        heap[size++] = i;
+                    }
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+
+            for (int i = size / 2 - 1; i >= 0; --i) {
+                siftDown(i);
+            }
+        }
+
+        boolean hasNext() {
+            return size > 0;
+        }
+
+        T next() throws IOException {
+            final int top = heap[0];
+            final T ret = (T) heads[top];
+
+            if (advance(top) == false) {
+                heap[0] = heap[--size];
+
+                if (size == 0) {
+                    close();
+                    return ret;
+                }
+            }
+
+            siftDown(0);
+            return ret;
+        }
+
+        /**
+         * Reads the next head record of the run <code>run</code>.
+         *
+         * @return <code>false</code> if the run is exhausted.
+         */
+        private boolean advance(final int run) throws IOException {
+            if (readers.get(run).hasNext() == false) {
+                heads[run] = null;
+                return false;
+            }
+
+            final T record = readers.get(run).next();
+            heads[run] = record;
+
+            if (keyFunction != null) {
+                headKeys[run] = keyFunction.getKey(record);
+            }
+
+            return true;
+        }
+
+        /**
+         * Returns <code>true</code> if the head of the run <code>a</code>
+         * goes before the head of the run <code>b</code>.
+         */
+        private boolean precedes(final int a, final int b) {
+            final int c;
+
+            if (keyFunction != null) {
+                c = Long.compare(headKeys[a], headKeys[b]);
+            } else {
+                c = comparator.compare((T) heads[a], (T) heads[b]);
+            }
+
+            return c < 0 || (c == 0 && a < b);
+        }
+
+        private void siftDown(int index) {
+            final int run = heap[index];
+
+            for (;;) {
+                int child = 2 * index + 1;
+
+                if (child >= size) {
+                    break;
+                }
+
+                if (child + 1 < size && precedes(heap[child + 1],
+                                                 heap[child])) {
+                    ++child;
+                }
+
+                if (precedes(run, heap[child])) {
+                    break;
+                }
+
+                heap[index] = heap[child];
+                index = child;
+            }
+
+            heap[index] = run;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException exception = null;
+            size = 0;
+
+            for (final RunReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    exception = e;
+                }
+            }
+
+            readers.clear();
+            deleteAll(files);
+
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Writes records to a run file through a direct buffer.
+     */
+    private final class RunWriter implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        RunWriter(final File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(),
+                                            WRITE,
+                                            CREATE,
+                                            TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(bufferCapacity());
+        }
+
+        void write(final T record) throws IOException {
+            final int recordSize = codec.getRecordSize();
+
+            if (buffer.remaining() < recordSize) {
+                flush();
+            }
+
+            final int position = buffer.position();
+            codec.write(record, buffer);
+
+            if (buffer.position() - position != recordSize) {
+                throw new IllegalStateException(
+                        "The codec wrote " + (buffer.position() - position) +
+                        " bytes instead of " + recordSize + ".");
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads records from a run file through a direct buffer.
+     */
+    private final class RunReader implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        /**
+         * The amount of records not yet read.
+         */
+        private long remaining;
+
+        RunReader(final File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferCapacity());
+            this.remaining = channel.size() / codec.getRecordSize();
+            buffer.limit(0);
+        }
+
+        boolean hasNext() {
+            return remaining > 0L;
+        }
+
+        T next() throws IOException {
+            final int recordSize = codec.getRecordSize();
+
+            if (buffer.remaining() < recordSize) {
+                buffer.compact();
+
+                while (buffer.position() < recordSize) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Unexpected end of a run.");
+                    }
+                }
+
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                    // Fill the buffer.
+                }
+
+                buffer.flip();
+            }
+
+            --remaining;
+            return codec.read(buffer);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
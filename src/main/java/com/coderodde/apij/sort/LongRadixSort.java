@@ -0,0 +1,449 @@
+package com.coderodde.apij.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements the radix sorts of <code>long</code> keys behind the
+ * primitive overloads of {@link ParallelRadixSort}. The keys, and optionally
+ * a payload array permuted along with them, are distributed byte by byte
+ * between the input arrays and a buffer of the same size, and the sorted data
+ * ends up in the input arrays. A pass in which all the keys of a range share
+ * the byte is skipped. Both strategies are stable.
+ * <p>
+ * Signed keys are handled by flipping the sign bit of the most significant
+ * byte when computing its bucket, which puts the negative keys before the
+ * non-negative ones without touching the keys themselves.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+final class LongRadixSort {
+
+    private static final int MOST_SIGNIFICANT_BYTE_INDEX = 7;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BUCKETS = 256;
+    private static final int SIGN_BUCKET_FLIP = 0x80;
+
+    /**
+     * The MSD ranges shorter than this are sorted by insertion sort.
+     */
+    private static final int INSERTIONSORT_THRESHOLD = 64;
+
+    /**
+     * The least range length distributed by more than one thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The least MSD bucket size sorted in a task of its own.
+     */
+    private static final int FORK_THRESHOLD = 1 << 12;
+
+    private final long[] keys;
+    private final int[] payload;
+    private final long[] keyBuffer;
+    private final int[] payloadBuffer;
+
+    /**
+     * Flipped into the bucket of the most significant byte.
+     */
+    private final int signBucketFlip;
+
+    /**
+     * XORed into the keys compared by the insertion sort so that a plain
+     * signed comparison yields the requested order.
+     */
+    private final long compareFlip;
+
+    /**
+     * Prepares a sort of <code>keys</code>.
+     *
+     * @param keys the keys to sort.
+     * @param payload the array to permute along with <code>keys</code>, or
+     *                <code>null</code>.
+     * @param signed whether to compare the keys as signed integers.
+     */
+    LongRadixSort(final long[] keys,
+                  final int[] payload,
+                  final boolean signed) {
+        this.keys = keys;
+        this.payload = payload;
+        this.keyBuffer = new long[keys.length];
+        this.payloadBuffer = payload == null ? null : new int[payload.length];
+        this.signBucketFlip = signed ? SIGN_BUCKET_FLIP : 0;
+        this.compareFlip = signed ? 0L : Long.MIN_VALUE;
+    }
+
+    /**
+     * Sorts the keys with the given strategy.
+     *
+     * @param strategy the strategy to use.
+     */
+    void sort(final ParallelRadixSort.Strategy strategy) {
+        final int n = keys.length;
+
+        if (n < 2) {
+            return;
+        }
+
+        final boolean lsd = strategy == ParallelRadixSort.Strategy.LSD;
+
+        if (n < PARALLEL_THRESHOLD) {
+            if (lsd) {
+                lsd(false);
+            } else {
+                msd(false, MOST_SIGNIFICANT_BYTE_INDEX, 0, n - 1, null);
+            }
+
+            return;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool();
+
+        try {
+            pool.invoke(lsd ? new LsdTask() :
+                              new SortTask(false,
+                                           MOST_SIGNIFICANT_BYTE_INDEX,
+                                           0,
+                                           n - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Sorts the whole array from the least significant byte up.
+     *
+     * @param parallel whether the passes run in the current fork/join pool.
+     */
+    private void lsd(final boolean parallel) {
+        final int n = keys.length;
+        boolean inBuffer = false;
+
+        for (int byteIndex = 0;
+                 byteIndex <= MOST_SIGNIFICANT_BYTE_INDEX;
+                 ++byteIndex) {
+            if (distribute(inBuffer, byteIndex, 0, n - 1, parallel) != null) {
+                inBuffer = !inBuffer;
+            }
+        }
+
+        if (inBuffer) {
+            copyBack(0, n - 1);
+        }
+    }
+
+    /**
+     * Sorts the range <tt>[from, to]</tt> by the bytes
+     * <code>byteIndex, byteIndex - 1, ..., 0</code>, the bytes above
+     * <code>byteIndex</code> being equal in the range. The sorted range ends
+     * up in the input arrays.
+     *
+     * @param inBuffer whether the range is in the buffers.
+     * @param byteIndex the index of the byte to distribute by.
+     * @param from the least index of the range to be sorted.
+     * @param to the greatest index of the range to be sorted.
+     * @param tasks the list to add the forked tasks for the large buckets to,
+     *              or <code>null</code> for sorting all of them sequentially.
+     */
+    private void msd(final boolean inBuffer,
+                     final int byteIndex,
+                     final int from,
+                     final int to,
+                     final List<ForkJoinTask<?>> tasks) {
+        if (to - from < INSERTIONSORT_THRESHOLD) {
+            insertionSort(inBuffer ? keyBuffer : keys,
+                          inBuffer ? payloadBuffer : payload,
+                          from,
+                          to);
+
+            if (inBuffer) {
+                copyBack(from, to);
+            }
+
+            return;
+        }
+
+        final boolean parallel = tasks != null
+                && to - from + 1 >= PARALLEL_THRESHOLD;
+        final int[] startIndexMap =
+                distribute(inBuffer, byteIndex, from, to, parallel);
+        final boolean sortedInBuffer =
+                startIndexMap == null ? inBuffer : !inBuffer;
+
+        if (byteIndex == 0) {
+            if (sortedInBuffer) {
+                copyBack(from, to);
+            }
+
+            return;
+        }
+
+        if (startIndexMap == null) {
+            msd(inBuffer, byteIndex - 1, from, to, tasks);
+            return;
+        }
+
+        for (int i = 0; i != BUCKETS; ++i) {
+            final int bucketFrom = startIndexMap[i];
+            final int bucketTo = startIndexMap[i + 1] - 1;
+            final int size = bucketTo - bucketFrom + 1;
+
+            if (size == 0) {
+                continue;
+            }
+
+            if (tasks != null && size >= FORK_THRESHOLD) {
+                final SortTask task = new SortTask(sortedInBuffer,
+                                                   byteIndex - 1,
+                                                   bucketFrom,
+                                                   bucketTo);
+                task.fork();
+                tasks.add(task);
+            } else {
+                msd(sortedInBuffer, byteIndex - 1, bucketFrom, bucketTo, null);
+            }
+        }
+    }
+
+    /**
+     * Distributes the range <tt>[from, to]</tt> from the arrays on one side
+     * to the arrays on the other side by the byte <code>byteIndex</code>.
+     * If <code>parallel</code> is set, the range is divided into one chunk
+     * per thread of the current pool; every chunk counts its bytes in a
+     * histogram of its own, a prefix sum over the histograms gives the write
+     * offsets of every chunk, and then the chunks are scattered concurrently.
+     *
+     * @return the start indices of the <tt>256</tt> buckets followed by
+     *         <tt>to + 1</tt>, or <code>null</code> if all the keys share the
+     *         byte and nothing was moved.
+     */
+    private int[] distribute(final boolean inBuffer,
+                             final int byteIndex,
+                             final int from,
+                             final int to,
+                             final boolean parallel) {
+        final int chunks = parallel ? ForkJoinTask.getPool().getParallelism()
+                                    : 1;
+        final long length = to - from + 1;
+        final List<ChunkTask> chunkTasks = new ArrayList<>(chunks);
+
+        for (int i = 0; i != chunks; ++i) {
+            chunkTasks.add(
+                    new ChunkTask(inBuffer,
+                                  byteIndex,
+                                  from + (int)(length * i / chunks),
+                                  from + (int)(length * (i + 1) / chunks)));
+        }
+
+        if (parallel) {
+            ForkJoinTask.invokeAll(chunkTasks);
+        } else {
+            chunkTasks.get(0).compute();
+        }
+
+        final int[] startIndexMap = new int[BUCKETS + 1];
+        int offset = from;
+
+        // Bucket by bucket, chunk by chunk, so that the sort is stable.
+        for (int i = 0; i != BUCKETS; ++i) {
+            startIndexMap[i] = offset;
+
+            for (final ChunkTask task : chunkTasks) {
+                final int count = task.histogram[i];
+                task.histogram[i] = offset;
+                offset += count;
+            }
+
+            if (offset - startIndexMap[i] == length) {
+                return null;
+            }
+        }
+
+        startIndexMap[BUCKETS] = offset;
+
+        for (final ChunkTask task : chunkTasks) {
+            task.scatter = true;
+            task.reinitialize();
+        }
+
+        if (parallel) {
+            ForkJoinTask.invokeAll(chunkTasks);
+        } else {
+            chunkTasks.get(0).compute();
+        }
+
+        return startIndexMap;
+    }
+
+    private int bucketOf(final long key, final int byteIndex) {
+        final int bucket = (int)(key >>> (BITS_PER_BYTE * byteIndex))
+                         & (BUCKETS - 1);
+
+        return byteIndex == MOST_SIGNIFICANT_BYTE_INDEX ?
+               bucket ^ signBucketFlip :
+               bucket;
+    }
+
+    private void insertionSort(final long[] k,
+                               final int[] p,
+                               final int from,
+                               final int to) {
+        for (int i = from + 1; i <= to; ++i) {
+            final long key = k[i];
+            final long flippedKey = key ^ compareFlip;
+            final int value = p == null ? 0 : p[i];
+            int j = i - 1;
+
+            while (j >= from && (k[j] ^ compareFlip) > flippedKey) {
+                k[j + 1] = k[j];
+
+                if (p != null) {
+                    p[j + 1] = p[j];
+                }
+
+                --j;
+            }
+
+            k[j + 1] = key;
+
+            if (p != null) {
+                p[j + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Copies the range <tt>[from, to]</tt> from the buffers to the input
+     * arrays.
+     */
+    private void copyBack(final int from, final int to) {
+        System.arraycopy(keyBuffer, from, keys, from, to - from + 1);
+
+        if (payload != null) {
+            System.arraycopy(payloadBuffer, from, payload, from, to - from + 1);
+        }
+    }
+
+    private static void joinAll(final List<ForkJoinTask<?>> tasks) {
+        for (final ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Runs the LSD passes in parallel.
+     */
+    private final class LsdTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            lsd(true);
+        }
+    }
+
+    /**
+     * Sorts an MSD bucket and forks the tasks for its large sub-buckets.
+     */
+    private final class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean inBuffer;
+        private final int byteIndex;
+        private final int from;
+        private final int to;
+
+        SortTask(final boolean inBuffer,
+                 final int byteIndex,
+                 final int from,
+                 final int to) {
+            this.inBuffer = inBuffer;
+            this.byteIndex = byteIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            msd(inBuffer, byteIndex, from, to, tasks);
+            joinAll(tasks);
+        }
+    }
+
+    /**
+     * Counts or scatters a chunk of a range by the byte
+     * <code>byteIndex</code>.
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean inBuffer;
+        private final int byteIndex;
+        private final int from;
+        private final int to;
+
+        /**
+         * The byte histogram of the chunk, turned into the write offsets of
+         * the chunk by the prefix sum.
+         */
+        private final int[] histogram = new int[BUCKETS];
+
+        /**
+         * Whether the next {@link #compute()} scatters instead of counting.
+         */
+        private boolean scatter;
+
+        ChunkTask(final boolean inBuffer,
+                  final int byteIndex,
+                  final int from,
+                  final int to) {
+            this.inBuffer = inBuffer;
+            this.byteIndex = byteIndex;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            final long[] sourceKeys = inBuffer ? keyBuffer : keys;
+
+            if (scatter == false) {
+                for (int i = from; i < to; ++i) {
+                    histogram[bucketOf(sourceKeys[i], byteIndex)]++;
+                }
+
+                return;
+            }
+
+            final long[] targetKeys = inBuffer ? keys : keyBuffer;
+
+            if (payload == null) {
+                for (int i = from; i < to; ++i) {
+                    final long key = sourceKeys[i];
+                    targetKeys[histogram[bucketOf(key, byteIndex)]++] = key;
+                }
+
+                return;
+            }
+
+            final int[] sourcePayload = inBuffer ? payloadBuffer : payload;
+            final int[] targetPayload = inBuffer ? payload : payloadBuffer;
+
+            for (int i = from; i < to; ++i) {
+                final long key = sourceKeys[i];
+                final int index = histogram[bucketOf(key, byteIndex)]++;
+                targetKeys[index] = key;
+                targetPayload[index] = sourcePayload[i];
+            }
+        }
+    }
+}
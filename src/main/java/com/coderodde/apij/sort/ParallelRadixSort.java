@@ -1,11 +1,65 @@
 package com.coderodde.apij.sort;
 
+import static com.coderodde.apij.util.Utils.checkNotNull;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
+/**
+ * This class implements a parallel most significant digit radix sort for
+ * {@link Entry} records. The keys are processed byte by byte starting from the
+ * most significant one and compared as unsigned 64-bit integers, so negative
+ * keys sort after the non-negative ones. The sort is stable.
+ * <p>
+ * On large arrays the top-level pass runs on all the threads of a
+ * {@link ForkJoinPool}: the array is divided into one chunk per thread, every
+ * thread counts the bytes of its chunk in a histogram of its own, a prefix sum
+ * over the histograms (bucket by bucket, chunk by chunk) gives every thread
+ * its own write offsets, and then the threads scatter their chunks
+ * concurrently. After that every bucket holding at least
+ * <code>FORK_THRESHOLD</code> entries is sorted in a task of its own, which
+ * again forks its large sub-buckets; the smaller buckets are sorted
+ * sequentially by the thread that created them. A bucket still holding at
+ * least <code>PARALLEL_THRESHOLD</code> entries, as happens when the keys
+ * share their most significant bytes, is distributed in parallel chunks just
+ * like the whole array.
+ * <p>
+ * The overloads for <code>long[]</code> keys, alone or with a parallel
+ * <code>int[]</code> of payload indices, avoid the per-record objects and
+ * offer both the {@link Strategy#LSD} and the {@link Strategy#MSD} strategy
+ * and both the signed and the unsigned key order.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
 public class ParallelRadixSort {
 
+    /**
+     * The strategies of the primitive radix sorts.
+     */
+    public enum Strategy {
+        
+        /**
+         * Least significant digit first: one pass over the whole array per 
+         * byte, each distributed in parallel chunks. Best for uniformly 
+         * distributed keys.
+         */
+        LSD,
+        
+        /**
+         * Most significant digit first: the buckets of a byte are sorted
+         * recursively by the next byte in parallel tasks, and short buckets
+         * by insertion sort. Best for keys whose prefixes separate them 
+         * early.
+         */
+        MSD
+    }
+
     public static final class Entry {
         public final long key;
         public final Object o;
@@ -17,51 +71,168 @@ public class ParallelRadixSort {
     }
     
     private static final int MOST_SIGNIFICANT_BYTE_INDEX = 7;
-    private static final int RIGHT_SHIFT_AMOUNT = 56;
-    private static final int LONG_BYTES = 8;
+    private static final int BITS_PER_BYTE = 8;
     private static final int BUCKETS = 256;
     private static final int MERGESORT_THRESHOLD = 256;
     private static final int INSERTIONSORT_THRESHOLD = 8;
+
+    /**
+     * The least bucket size distributed by more than one thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * The least bucket size sorted in a task of its own.
+     */
+    private static final int FORK_THRESHOLD = 1 << 12;
     
+    /**
+     * Sorts the entries of <code>array</code> by their keys.
+     * 
+     * @param array the array to sort.
+     */
     public static final void sort(final Entry[] array) {
-        final Entry[] clone = array.clone();
-        sortImpl(array, 
-                 clone, 
-                 MOST_SIGNIFICANT_BYTE_INDEX, 
-                 0, 
-                 array.length - 1);
+        if (array.length < 2) {
+            return;
+        }
+        
+        final Entry[] buffer = new Entry[array.length];
+        
+        if (array.length < PARALLEL_THRESHOLD) {
+            sortImpl(array, 
+                     buffer, 
+                     MOST_SIGNIFICANT_BYTE_INDEX, 
+                     0, 
+                     array.length - 1);
+            return;
+        }
+        
+        final ForkJoinPool pool = new ForkJoinPool();
+        
+        try {
+            pool.invoke(new ParallelPassTask(array, 
+                                             buffer, 
+                                             MOST_SIGNIFICANT_BYTE_INDEX, 
+                                             0, 
+                                             array.length - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Sorts <code>array</code> into ascending signed order by the LSD 
+     * strategy.
+     * 
+     * @param array the array to sort.
+     */
+    public static final void sort(final long[] array) {
+        sort(array, Strategy.LSD, true);
+    }
+    
+    /**
+     * Sorts <code>array</code> in place. A buffer of the same length is 
+     * allocated for the passes.
+     * 
+     * @param array the array to sort.
+     * @param strategy the strategy to use.
+     * @param signed whether to compare the keys as signed integers; if 
+     *               <code>false</code>, the keys are compared as unsigned 
+     *               integers.
+     */
+    public static final void sort(final long[] array,
+                                  final Strategy strategy,
+                                  final boolean signed) {
+        checkNotNull(array, "'array' is null.");
+        checkNotNull(strategy, "'strategy' is null.");
+        new LongRadixSort(array, null, signed).sort(strategy);
+    }
+    
+    /**
+     * Sorts <code>keys</code> into ascending signed order by the LSD 
+     * strategy and permutes <code>payloadIndex</code> along with it.
+     * 
+     * @param keys the keys to sort.
+     * @param payloadIndex the payload indices of the keys.
+     */
+    public static final void sort(final long[] keys, 
+                                  final int[] payloadIndex) {
+        sort(keys, payloadIndex, Strategy.LSD, true);
     }
     
+    /**
+     * Sorts <code>keys</code> in place and permutes 
+     * <code>payloadIndex</code> along with it, so that 
+     * <code>payloadIndex[i]</code> stays the payload of 
+     * <code>keys[i]</code>. The sort is stable. Buffers of the same lengths 
+     * are allocated for the passes.
+     * 
+     * @param keys the keys to sort.
+     * @param payloadIndex the payload indices of the keys.
+     * @param strategy the strategy to use.
+     * @param signed whether to compare the keys as signed integers; if 
+     *               <code>false</code>, the keys are compared as unsigned 
+     *               integers.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length.
+     */
+    public static final void sort(final long[] keys,
+                                  final int[] payloadIndex,
+                                  final Strategy strategy,
+                                  final boolean signed) {
+        checkNotNull(keys, "'keys' is null.");
+        checkNotNull(payloadIndex, "'payloadIndex' is null.");
+        checkNotNull(strategy, "'strategy' is null.");
+        
+        if (keys.length != payloadIndex.length) {
+            throw new IllegalArgumentException(
+                    "Key array length (" + keys.length + ") differs from " +
+                    "payload index array length (" + payloadIndex.length + 
+                    ").");
+        }
+        
+        new LongRadixSort(keys, payloadIndex, signed).sort(strategy);
+    }
+    
+    /**
+     * Returns the bucket of <code>key</code> at the byte 
+     * <code>byteIndex</code>.
+     */
+    private static int bucketOf(final long key, final int byteIndex) {
+        return (int)(key >>> (BITS_PER_BYTE * byteIndex)) & (BUCKETS - 1);
+    }
+    
+    /**
+     * Sorts the range <tt>[from, to]</tt> of <code>source</code> by the bytes
+     * <code>byteIndex, byteIndex - 1, ..., 0</code>. The bytes above 
+     * <code>byteIndex</code> are equal in the range. The sorted range ends up
+     * in the array passed to {@link #sort(Entry[])}, which is
+     * <code>source</code> if <code>byteIndex</code> is odd, and 
+     * <code>target</code> otherwise.
+     * 
+     * @param source the array holding the range.
+     * @param target the other array.
+     * @param byteIndex the index of the byte to distribute by.
+     * @param from the least index of the range to be sorted.
+     * @param to the greatest index of the range to be sorted.
+     * @param tasks the list to add the forked tasks for the large buckets to,
+     *              or <code>null</code> for sorting all of them sequentially.
+     */
     private static final void sortImpl(final Entry[] source,
                                        final Entry[] target,
                                        final int byteIndex,
                                        final int from,
-                                       final int to) {
+                                       final int to,
+                                       final List<ForkJoinTask<?>> tasks) {
         if (to - from < MERGESORT_THRESHOLD) {
-            boolean evenPasses = mergesort(source, target, from, to);
-            
-            if (evenPasses) {
-                // Here the sorted data is in 'source'.
-                if ((byteIndex & 1) == 0) {
-                    System.arraycopy(source, from, target, from, to - from + 1);
-                }
-            } else {
-                // Here the sorted data is in 'target'
-                if ((byteIndex & 1) == 1) {
-                    System.arraycopy(source, from, target, from, to - from + 1);
-                }
-            }
-           
+            sortLeaf(source, target, byteIndex, from, to);
             return;
         }
         
         final int[] bucketSizeMap = new int[BUCKETS];
-        final int LEFT_SHIFT_AMOUNT =
-                LONG_BYTES * (MOST_SIGNIFICANT_BYTE_INDEX - byteIndex);
         
         for (int i = from; i <= to; ++i) {
-            bucketSizeMap[(int)((source[i].key << LEFT_SHIFT_AMOUNT) 
-                                              >>> RIGHT_SHIFT_AMOUNT)]++;
+            bucketSizeMap[bucketOf(source[i].key, byteIndex)]++;
         }
         
         final int[] startIndexMap = new int[BUCKETS];
@@ -75,33 +246,87 @@ public class ParallelRadixSort {
         
         for (int i = from; i <= to; ++i) {
             final Entry current = source[i];
-            final long key = current.key;
-            final int index = (int)((key << LEFT_SHIFT_AMOUNT) 
-                                       >>> RIGHT_SHIFT_AMOUNT);
+            final int index = bucketOf(current.key, byteIndex);
             target[startIndexMap[index] + processedMap[index]++] = current;
         }
         
         if (byteIndex != 0) {
-            for (int i = 0; i != BUCKETS - 1; ++i) {
-                if (bucketSizeMap[i] != 0) {
-                    sortImpl(target, 
-                             source, 
-                             byteIndex - 1, 
-                             startIndexMap[i],
-                             startIndexMap[i] + bucketSizeMap[i] - 1);
-                }
+            recurse(target, 
+                    source, 
+                    byteIndex - 1, 
+                    startIndexMap, 
+                    bucketSizeMap, 
+                    tasks);
+        }
+    }
+    
+    private static final void sortImpl(final Entry[] source,
+                                       final Entry[] target,
+                                       final int byteIndex,
+                                       final int from,
+                                       final int to) {
+        sortImpl(source, target, byteIndex, from, to, null);
+    }
+    
+    /**
+     * Sorts the buckets of the current byte by the next byte. If 
+     * <code>tasks</code> is not <code>null</code>, the buckets holding at
+     * least <code>FORK_THRESHOLD</code> entries are not sorted but forked
+     * and added to <code>tasks</code> instead, so that the caller joins them
+     * after the small buckets are sorted.
+     */
+    private static final void recurse(final Entry[] source,
+                                      final Entry[] target,
+                                      final int byteIndex,
+                                      final int[] startIndexMap,
+                                      final int[] bucketSizeMap,
+                                      final List<ForkJoinTask<?>> tasks) {
+        for (int i = 0; i != BUCKETS; ++i) {
+            final int size = bucketSizeMap[i];
+            
+            if (size == 0) {
+                continue;
             }
             
-            if (bucketSizeMap[BUCKETS - 1] != 0) {
-                sortImpl(target,
-                         source,
-                         byteIndex - 1,
-                         startIndexMap[BUCKETS - 1],
-                         to);
+            final int from = startIndexMap[i];
+            final int to = from + size - 1;
+            
+            if (tasks != null && size >= FORK_THRESHOLD) {
+                final ForkJoinTask<?> task = 
+                        size >= PARALLEL_THRESHOLD ?
+                        new ParallelPassTask(source, 
+                                             target, 
+                                             byteIndex, 
+                                             from, 
+                                             to) :
+                        new SortTask(source, target, byteIndex, from, to);
+                task.fork();
+                tasks.add(task);
+            } else {
+                sortImpl(source, target, byteIndex, from, to);
             }
         }
     }
     
+    /**
+     * Sorts a short range by merge sort and puts it to the array passed to
+     * {@link #sort(Entry[])}.
+     */
+    private static final void sortLeaf(final Entry[] source,
+                                       final Entry[] target,
+                                       final int byteIndex,
+                                       final int from,
+                                       final int to) {
+        final boolean sortedInSource = mergesort(source, target, from, to);
+        final boolean sourceIsResult = (byteIndex & 1) == 1;
+        
+        if (sortedInSource && sourceIsResult == false) {
+            System.arraycopy(source, from, target, from, to - from + 1);
+        } else if (sortedInSource == false && sourceIsResult) {
+            System.arraycopy(target, from, source, from, to - from + 1);
+        }
+    }
+    
     /**
      * Sorts the range <tt>[from, to]</tt> using merge sort.
      * 
@@ -118,20 +343,15 @@ public class ParallelRadixSort {
                                            final int from,
                                            final int to) {
         final int RANGE_SIZE = to - from + 1;
-        final int BLOCKS = (int) Math.ceil(RANGE_SIZE / 
-                                           INSERTIONSORT_THRESHOLD);
-        final int PASS_AMOUNT = (int)(Math.ceil(Math.log(BLOCKS) / 
-                                                Math.log(2)));
         
         // Sort to blocks.
-        for (int blockId = 0; blockId < BLOCKS; ++blockId) {
-            final int i = from + blockId * INSERTIONSORT_THRESHOLD;
+        for (int i = from; i <= to; i += INSERTIONSORT_THRESHOLD) {
             final int iBound = Math.min(to + 1, i + INSERTIONSORT_THRESHOLD);
             
             // Do the insertion sort.
             for (int j = i + 1; j < iBound; ++j) {
                 for (int k = j - 1; 
-                         k >= i && source[k].key > source[k + 1].key; 
+                         k >= i && less(source[k + 1].key, source[k].key); 
                          k--) {
                     Entry tmp = source[k];
                     source[k] = source[k + 1];
@@ -140,56 +360,227 @@ public class ParallelRadixSort {
             }
         }
         
+        boolean evenPasses = true;
+        
         // Every iteration of the following loop performs a "merge pass" over
         // the arrays. "width <<= 1" essentially means "width *= 2".
         for (int width = INSERTIONSORT_THRESHOLD; 
                  width < RANGE_SIZE; 
                  width <<= 1) {
-            int blockIndex = 0;
-            
-            for (; blockIndex < RANGE_SIZE / width; blockIndex += 2) {
-                if ((blockIndex + 1) * width > RANGE_SIZE) {
-                    // blockIndex + 1 is the index of the rightmost 
-                    // "orphan block" 
-                    break;
-                }
-                
-                int l = width * blockIndex + from;
-                int r = l + width;
-                int i = l; 
+            for (int i = from; i <= to; i += width << 1) {
+                int l = i;
+                int r = Math.min(l + width, to + 1);
+                int k = l;
                 
                 final int leftUpperBound = r;
                 final int rightUpperBound = Math.min(r + width, to + 1);
                 
                 while (l < leftUpperBound && r < rightUpperBound) {
-                    target[i++] = 
-                            source[r].key < source[l].key ?
+                    target[k++] = 
+                            less(source[r].key, source[l].key) ?
                             source[r++] :
                             source[l++];
                 }
                 
                 while (l < leftUpperBound) {
-                    target[i++] = source[l++];
+                    target[k++] = source[l++];
                 }
                 
-                while (r < leftUpperBound) {
-                    target[i++] = source[r++];
+                while (r < rightUpperBound) {
+                    target[k++] = source[r++];
                 }
             }
             
-            int i = blockIndex * width;
-            
-            // Handle the orphan block.
-            while (i <= to) {
-                target[i++] = source[i++];
-            }
-            
             Entry[] tmp = source;
             source = target;
             target = tmp;
+            evenPasses = !evenPasses;
         }
         
-        return (PASS_AMOUNT & 1) == 0;
+        return evenPasses;
+    }
+    
+    /**
+     * Sorts a bucket and forks the tasks for its large sub-buckets.
+     */
+    private static final class SortTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Entry[] source;
+        private final Entry[] target;
+        private final int byteIndex;
+        private final int from;
+        private final int to;
+        
+        SortTask(final Entry[] source,
+                 final Entry[] target,
+                 final int byteIndex,
+                 final int from,
+                 final int to) {
+            this.source = source;
+            this.target = target;
+            this.byteIndex = byteIndex;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            sortImpl(source, target, byteIndex, from, to, tasks);
+            joinAll(tasks);
+        }
+    }
+    
+    /**
+     * Distributes a bucket of at least <code>PARALLEL_THRESHOLD</code> 
+     * entries with one chunk per thread of the pool and then sorts the 
+     * sub-buckets.
+     */
+    private static final class ParallelPassTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Entry[] source;
+        private final Entry[] target;
+        private final int byteIndex;
+        private final int from;
+        private final int to;
+        
+        ParallelPassTask(final Entry[] source,
+                         final Entry[] target,
+                         final int byteIndex,
+                         final int from,
+                         final int to) {
+            this.source = source;
+            this.target = target;
+            this.byteIndex = byteIndex;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            final int chunks = getPool().getParallelism();
+            final long length = to - from + 1;
+            final List<ChunkTask> chunkTasks = new ArrayList<>(chunks);
+            
+            for (int i = 0; i != chunks; ++i) {
+                chunkTasks.add(
+                        new ChunkTask(source,
+                                      target,
+                                      byteIndex,
+                                      from + (int)(length * i / chunks),
+                                      from + (int)(length * (i + 1) 
+                                                          / chunks)));
+            }
+            
+            invokeAll(chunkTasks);
+            
+            final int[] startIndexMap = new int[BUCKETS];
+            final int[] bucketSizeMap = new int[BUCKETS];
+            int offset = from;
+            
+            // Bucket by bucket, chunk by chunk, so that the sort is stable.
+            for (int i = 0; i != BUCKETS; ++i) {
+                startIndexMap[i] = offset;
+                
+                for (final ChunkTask task : chunkTasks) {
+                    final int count = task.histogram[i];
+                    task.histogram[i] = offset;
+                    offset += count;
+                }
+                
+                bucketSizeMap[i] = offset - startIndexMap[i];
+            }
+            
+            for (final ChunkTask task : chunkTasks) {
+                task.scatter = true;
+                task.reinitialize();
+            }
+            
+            invokeAll(chunkTasks);
+            
+            if (byteIndex != 0) {
+                final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                recurse(target, 
+                        source, 
+                        byteIndex - 1, 
+                        startIndexMap, 
+                        bucketSizeMap, 
+                        tasks);
+                joinAll(tasks);
+            }
+        }
+    }
+    
+    /**
+     * Counts or scatters a chunk of a bucket by the byte 
+     * <code>byteIndex</code>.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Entry[] source;
+        private final Entry[] target;
+        private final int byteIndex;
+        private final int from;
+        private final int to;
+        
+        /**
+         * The byte histogram of the chunk, turned into the write offsets of
+         * the chunk by the prefix sum.
+         */
+        private final int[] histogram = new int[BUCKETS];
+        
+        /**
+         * Whether the next {@link #compute()} scatters instead of counting.
+         */
+        private boolean scatter;
+        
+        ChunkTask(final Entry[] source,
+                  final Entry[] target,
+                  final int byteIndex,
+                  final int from,
+                  final int to) {
+            this.source = source;
+            this.target = target;
+            this.byteIndex = byteIndex;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (scatter) {
+                for (int i = from; i < to; ++i) {
+                    final Entry current = source[i];
+                    final int index = bucketOf(current.key, byteIndex);
+                    target[histogram[index]++] = current;
+                }
+            } else {
+                for (int i = from; i < to; ++i) {
+                    histogram[bucketOf(source[i].key, byteIndex)]++;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns <code>true</code> if <code>a</code> is less than 
+     * <code>b</code> as an unsigned integer, which is the order of the radix
+     * passes.
+     */
+    private static boolean less(final long a, final long b) {
+        return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE);
+    }
+    
+    private static final void joinAll(final List<ForkJoinTask<?>> tasks) {
+        for (final ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
     }
     
     public static final void main(final String... args) {
@@ -237,14 +628,14 @@ public class ParallelRadixSort {
 
         @Override
         public int compare(Entry o1, Entry o2) {
-            final long l = o1.key - o2.key;
-            return (l < 0 ? -1 : (l > 0 ? 1 : 0));
+            return less(o1.key, o2.key) ? -1 : 
+                   (less(o2.key, o1.key) ? 1 : 0);
         }
     }
     
     private static final boolean isSorted(final Entry[] array) {
         for (int i = 0; i < array.length - 1; ++i) {
-            if (array[i].key > array[i + 1].key) {
+            if (less(array[i + 1].key, array[i].key)) {
                 return false;
             }
         }
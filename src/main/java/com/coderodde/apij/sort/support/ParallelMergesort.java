@@ -0,0 +1,391 @@
+package com.coderodde.apij.sort.support;
+
+import com.coderodde.apij.sort.Sort;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements a parallel stable bottom-up merge sort. The range to
+ * sort is divided into one chunk per thread and the chunks are sorted in
+ * parallel, each by a sequential bottom-up merge sort over insertion sorted
+ * blocks. Then the sorted runs are merged pairwise in rounds until one run
+ * remains. Every pair is merged in parallel as well: a long merge is split in
+ * two by taking the middle element of the longer run and binary searching its
+ * position in the other run, which yields two independent merges of about
+ * half the size.
+ * <p>
+ * The merge passes alternate between the input array and a buffer as long as
+ * the range being sorted, not the whole array.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ParallelMergesort implements Sort {
+
+    /**
+     * The length of the blocks sorted by insertion sort.
+     */
+    private static final int INSERTIONSORT_THRESHOLD = 16;
+
+    /**
+     * The least range length sorted with more than one thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * The merges whose output is shorter than this are not split further.
+     */
+    private static final int MERGE_GRAIN = 1 << 13;
+
+    /**
+     * The amount of threads to sort with.
+     */
+    private final int parallelism;
+
+    /**
+     * Constructs a sort using as many threads as there are processors.
+     */
+    public ParallelMergesort() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a sort using <code>parallelism</code> threads.
+     *
+     * @param parallelism the amount of threads.
+     */
+    public ParallelMergesort(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Parallelism (" + parallelism + ") is below 1.");
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void sort(final Object[] array, final Comparator cmp) {
+        sort(array, cmp, 0, array.length - 1);
+    }
+
+    /**
+     * Sorts the range <tt>[from, to]</tt> of <code>array</code>.
+     *
+     * @param array the array holding the range.
+     * @param cmp the comparator.
+     * @param from the least index of the range to be sorted.
+     * @param to the greatest index of the range to be sorted.
+     */
+    @Override
+    public void sort(final Object[] array,
+                     final Comparator cmp,
+                     final int from,
+                     final int to) {
+        final int N = to - from + 1;
+
+        if (N < 2) {
+            return;
+        }
+
+        final Run run = new Run(array, new Object[N], cmp, from);
+
+        if (N < PARALLEL_THRESHOLD || parallelism == 1) {
+            run.sortChunk(0, N);
+            return;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            pool.invoke(new SortTask(run, N, parallelism));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Holds the arrays of a sort. The positions are given relative to the
+     * range: the position <code>i</code> is <code>array[from + i]</code> in
+     * the input array and <code>buffer[i]</code> in the buffer.
+     */
+    private static final class Run {
+
+        private final Object[] array;
+        private final Object[] buffer;
+        private final Comparator cmp;
+        private final int from;
+
+        Run(final Object[] array,
+            final Object[] buffer,
+            final Comparator cmp,
+            final int from) {
+            this.array = array;
+            this.buffer = buffer;
+            this.cmp = cmp;
+            this.from = from;
+        }
+
+        /**
+         * Sorts the positions <tt>[lo, hi)</tt> sequentially, leaving the
+         * result in the input array.
+         */
+        void sortChunk(final int lo, final int hi) {
+            for (int i = lo; i < hi; i += INSERTIONSORT_THRESHOLD) {
+                insertionSort(from + i,
+                              from + Math.min(hi, i + INSERTIONSORT_THRESHOLD));
+            }
+
+            boolean inBuffer = false;
+
+            for (int width = INSERTIONSORT_THRESHOLD;
+                     width < hi - lo;
+                     width <<= 1) {
+                for (int i = lo; i < hi; i += width << 1) {
+                    final int middle = Math.min(hi, i + width);
+                    final int end = Math.min(hi, i + (width << 1));
+                    merge(inBuffer, i, middle, middle, end, i);
+                }
+
+                inBuffer = !inBuffer;
+            }
+
+            if (inBuffer) {
+                System.arraycopy(buffer, lo, array, from + lo, hi - lo);
+            }
+        }
+
+        /**
+         * Merges the runs <tt>[aLo, aHi)</tt> and <tt>[bLo, bHi)</tt> to the
+         * other side starting from the position <code>k</code>. On equal
+         * elements the one of the first run goes first.
+         *
+         * @param inBuffer whether the runs are in the buffer.
+         */
+        void merge(final boolean inBuffer,
+                   int aLo,
+                   final int aHi,
+                   int bLo,
+                   final int bHi,
+                   int k) {
+            final Object[] source = inBuffer ? buffer : array;
+            final Object[] target = inBuffer ? array : buffer;
+            final int sourceBase = inBuffer ? 0 : from;
+            final int targetBase = inBuffer ? from : 0;
+
+            while (aLo < aHi && bLo < bHi) {
+                final Object a = source[sourceBase + aLo];
+                final Object b = source[sourceBase + bLo];
+
+                if (cmp.compare(b, a) < 0) {
+                    target[targetBase + k++] = b;
+                    ++bLo;
+                } else {
+                    target[targetBase + k++] = a;
+                    ++aLo;
+                }
+            }
+
+            System.arraycopy(source,
+                             sourceBase + aLo,
+                             target,
+                             targetBase + k,
+                             aHi - aLo);
+            System.arraycopy(source,
+                             sourceBase + bLo,
+                             target,
+                             targetBase + k + aHi - aLo,
+                             bHi - bLo);
+        }
+
+        /**
+         * Returns the least position in <tt>[lo, hi)</tt> whose element is
+         * not less than <code>key</code> (or is greater than
+         * <code>key</code>, if <code>strict</code> is set), or
+         * <code>hi</code>.
+         */
+        int search(final boolean inBuffer,
+                   final Object key,
+                   int lo,
+                   int hi,
+                   final boolean strict) {
+            final Object[] source = inBuffer ? buffer : array;
+            final int sourceBase = inBuffer ? 0 : from;
+
+            while (lo < hi) {
+                final int middle = (lo + hi) >>> 1;
+                final int c = cmp.compare(source[sourceBase + middle], key);
+
+                if (c < 0 || (strict && c == 0)) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+
+            return lo;
+        }
+
+        Object get(final boolean inBuffer, final int position) {
+            return inBuffer ? buffer[position] : array[from + position];
+        }
+
+        private void insertionSort(final int lo, final int hi) {
+            for (int i = lo + 1; i < hi; ++i) {
+                final Object element = array[i];
+                int j = i - 1;
+
+                while (j >= lo && cmp.compare(array[j], element) > 0) {
+                    array[j + 1] = array[j];
+                    --j;
+                }
+
+                array[j + 1] = element;
+            }
+        }
+    }
+
+    /**
+     * Sorts the chunks in parallel and then merges the runs in rounds.
+     */
+    private static final class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int length;
+        private final int chunks;
+
+        SortTask(final Run run, final int length, final int chunks) {
+            this.run = run;
+            this.length = length;
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected void compute() {
+            int[] bounds = new int[chunks + 1];
+            final List<RecursiveAction> tasks = new ArrayList<>(chunks);
+
+            for (int i = 0; i <= chunks; ++i) {
+                bounds[i] = (int)((long) length * i / chunks);
+            }
+
+            for (int i = 0; i != chunks; ++i) {
+                final int lo = bounds[i];
+                final int hi = bounds[i + 1];
+
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        run.sortChunk(lo, hi);
+                    }
+                });
+            }
+
+            invokeAll(tasks);
+
+            boolean inBuffer = false;
+
+            while (bounds.length > 2) {
+                final int runs = bounds.length - 1;
+                final int[] nextBounds = new int[(runs + 1) / 2 + 1];
+                tasks.clear();
+
+                for (int i = 0; i < runs; i += 2) {
+                    final int aLo = bounds[i];
+                    final int aHi = bounds[i + 1];
+                    final int bHi = i + 2 <= runs ? bounds[i + 2] : aHi;
+
+                    tasks.add(new MergeTask(run, inBuffer, aLo, aHi, aHi, bHi,
+                                            aLo));
+                    nextBounds[i / 2] = aLo;
+                }
+
+                nextBounds[nextBounds.length - 1] = length;
+                invokeAll(tasks);
+                bounds = nextBounds;
+                inBuffer = !inBuffer;
+            }
+
+            if (inBuffer) {
+                System.arraycopy(run.buffer, 0, run.array, run.from, length);
+            }
+        }
+    }
+
+    /**
+     * Merges two runs, splitting the merge in two while it is long.
+     */
+    private static final class MergeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final boolean inBuffer;
+        private final int aLo;
+        private final int aHi;
+        private final int bLo;
+        private final int bHi;
+        private final int k;
+
+        MergeTask(final Run run,
+                  final boolean inBuffer,
+                  final int aLo,
+                  final int aHi,
+                  final int bLo,
+                  final int bHi,
+                  final int k) {
+            this.run = run;
+            this.inBuffer = inBuffer;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.bLo = bLo;
+            this.bHi = bHi;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            final int aLength = aHi - aLo;
+            final int bLength = bHi - bLo;
+
+            if (aLength + bLength < MERGE_GRAIN
+                    || aLength == 0
+                    || bLength == 0) {
+                run.merge(inBuffer, aLo, aHi, bLo, bHi, k);
+                return;
+            }
+
+            final int aSplit;
+            final int bSplit;
+
+            // The elements of the first run precede the equal elements of the
+            // second run in both halves, so the merge stays stable.
+            if (aLength >= bLength) {
+                aSplit = (aLo + aHi) >>> 1;
+                bSplit = run.search(inBuffer,
+                                    run.get(inBuffer, aSplit),
+                                    bLo,
+                                    bHi,
+                                    false);
+            } else {
+                bSplit = (bLo + bHi) >>> 1;
+                aSplit = run.search(inBuffer,
+                                    run.get(inBuffer, bSplit),
+                                    aLo,
+                                    aHi,
+                                    true);
+            }
+
+            final int kSplit = k + (aSplit - aLo) + (bSplit - bLo);
+
+            invokeAll(new MergeTask(run, inBuffer, aLo, aSplit, bLo, bSplit,
+                                    k),
+                      new MergeTask(run, inBuffer, aSplit, aHi, bSplit, bHi,
+                                    kSplit));
+        }
+    }
+}
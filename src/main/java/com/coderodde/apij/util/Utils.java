@@ -212,6 +212,15 @@ public class Utils {
         }
     }
     
+    public static final <T extends Node<T>> void checkHasId
+        (final Node<T> node) {
+        if (node.getId() < 0) {
+            throw new IllegalStateException(
+                    "The node " + node.getName() + " has no id as it was " +
+                    "not added to any graph.");
+        }
+    }
+    
     public static final <T extends Node<T>> void checkBelongsToGraph
             (final T node, final Graph<T> graph) {
         if (graph.containsNode(node) == false) {
@@ -287,7 +296,7 @@ public class Utils {
             g.add(u);
             final double x = r.nextDouble() * regionWidth;
             final double y = r.nextDouble() * regionHeight;
-            layout.put(u, new Point2D.Double(x, y));
+            layout.put(u, x, y);
         }
         
         int edges = (int)(size * size * edgeLoadFactor / 2);
@@ -323,19 +332,33 @@ public class Utils {
         return new Triple<>(g, wf, layout);
     }
     
+    /**
+     * Returns the node of <code>graph</code> closest to <code>p</code> by
+     * scanning all the nodes. For repeated queries, build a 
+     * {@link com.coderodde.apij.graph.path.SpatialIndex} once instead.
+     * 
+     * @param <T>    the actual node type.
+     * @param p      the query point.
+     * @param graph  the graph.
+     * @param layout the layout of the graph.
+     * 
+     * @return the closest node, or <code>null</code> if the graph is empty.
+     */
     public static final <T extends Node<T>> T 
         getClosestNodeTo(final Point2D.Double p, 
                          final Graph<T> graph,
                          final Layout<T> layout) {
         T closest = null;
-        HeuristicFunction<T> h = new EuclidianHeuristicFunction<>(layout);
+        double closestDistance = Double.POSITIVE_INFINITY;
         
         for (final T node : graph) {
-            if (closest == null) {
-                closest = node;
-            } else if (h.estimate(p, layout.get(closest))
-                     > h.estimate(p, layout.get(node))) {
+            final double dx = p.x - layout.getX(node);
+            final double dy = p.y - layout.getY(node);
+            final double distance = dx * dx + dy * dy;
+            
+            if (closest == null || distance < closestDistance) {
                 closest = node;
+                closestDistance = distance;
             }
         }
         
@@ -362,7 +385,7 @@ public class Utils {
             g.add(u);
             final double x = r.nextDouble() * regionWidth;
             final double y = r.nextDouble() * regionHeight;
-            layout.put(u, new Point2D.Double(x, y));
+            layout.put(u, x, y);
         }
         
         int edges = (int)(size * size * edgeLoadFactor);
@@ -0,0 +1,95 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the primitive indexed d-ary heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntDaryHeapTest {
+    
+    private IntPriorityQueue heap = new IntDaryHeap(3, 16);
+
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests the <code>add</code> method.
+     */
+    @Test
+    public void testAdd() {
+        for (int i = 100; i != 0; --i) {
+            heap.add(i, i);
+        }
+        
+        assertEquals(100, heap.size());
+        assertEquals(1, heap.min());
+        
+        for (int i = 1; i != 101; ++i) {
+            assertEquals(i, heap.extractMinimum());
+        }
+        
+        assertTrue(heap.isEmpty());
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 50; ++i) {
+            heap.add(i, 100.0 + i);
+        }
+        
+        heap.decreasePriority(40, 1.0);
+        heap.decreasePriority(10, 200.0);
+        
+        assertEquals(40, heap.min());
+        assertEquals(1.0, heap.getPriorityOf(40), 0.0);
+        assertEquals(110.0, heap.getPriorityOf(10), 0.0);
+        
+        assertEquals(40, heap.extractMinimum());
+        assertFalse(heap.contains(40));
+        assertTrue(heap.contains(10));
+    }
+    
+    /**
+     * This method compares the heap against sorting.
+     */
+    @Test
+    public void testAgainstSort() {
+        final Random r = new Random(1L);
+        final int N = 1000;
+        final double[] keys = new double[N];
+        
+        for (int i = 0; i != N; ++i) {
+            keys[i] = r.nextDouble();
+            heap.add(i, keys[i] + 1.0);
+        }
+        
+        for (int i = 0; i != N; ++i) {
+            heap.decreasePriority(i, keys[i]);
+        }
+        
+        Arrays.sort(keys);
+        
+        for (int i = 0; i != N; ++i) {
+            final int e = heap.min();
+            assertEquals(keys[i], heap.getPriorityOf(e), 0.0);
+            assertEquals(e, heap.extractMinimum());
+        }
+        
+        assertTrue(heap.isEmpty());
+    }
+}
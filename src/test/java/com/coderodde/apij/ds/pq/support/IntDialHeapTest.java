@@ -0,0 +1,130 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DefaultWeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.Path;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests Dial's bucket queue.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntDialHeapTest {
+    
+    private IntPriorityQueue heap = new IntDialHeap(100, 16);
+
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 50; ++i) {
+            heap.add(i, 50.0 + i);
+        }
+        
+        heap.decreasePriority(40, 1.0);
+        heap.decreasePriority(10, 70.0);
+        
+        assertEquals(40, heap.min());
+        assertEquals(1.0, heap.getPriorityOf(40), 0.0);
+        assertEquals(60.0, heap.getPriorityOf(10), 0.0);
+        
+        assertEquals(40, heap.extractMinimum());
+        assertFalse(heap.contains(40));
+        assertTrue(heap.contains(10));
+        
+        for (int i = 0; i != 49; ++i) {
+            final int e = heap.min();
+            assertEquals(i + 50.0 + (i >= 40 ? 1 : 0), 
+                         heap.getPriorityOf(e), 0.0);
+            assertEquals(e, heap.extractMinimum());
+        }
+        
+        assertTrue(heap.isEmpty());
+    }
+    
+    /**
+     * This method tests that the priorities out of range are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsFarPriority() {
+        heap.add(0, 5.0);
+        heap.extractMinimum();
+        heap.add(1, 106.0);
+    }
+    
+    /**
+     * This method tests that the fractional priorities are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsFractionalPriority() {
+        heap.add(0, 0.5);
+    }
+    
+    /**
+     * This method compares Dijkstra's algorithm on this queue against the 
+     * default one with integral weights.
+     */
+    @Test
+    public void testDijkstra() {
+        checkDijkstra(new IntDialHeap(20), new Random(41L));
+    }
+    
+    static void checkDijkstra(final IntPriorityQueue queue, final Random r) {
+        final Graph<DirectedGraphNode> graph =
+                getRandomDirectedGraph("G", 1000, 0.004f, 
+                                       100.0, 100.0, 20.0, r).first;
+        final WeightFunction<DirectedGraphNode> wf = 
+                new DefaultWeightFunction<>();
+        
+        for (final DirectedGraphNode u : graph) {
+            for (final DirectedGraphNode v : u) {
+                wf.put(u, v, r.nextInt(21));
+            }
+        }
+        
+        final DijkstraFinder<DirectedGraphNode> finder = 
+                new DijkstraFinder<>(
+                        new IntPriorityQueueBridge<DirectedGraphNode>(queue));
+        final List<DirectedGraphNode> nodes = new ArrayList<>(graph.view());
+        
+        for (int i = 0; i < 100; ++i) {
+            final DirectedGraphNode s = nodes.get(r.nextInt(nodes.size()));
+            final DirectedGraphNode t = nodes.get(r.nextInt(nodes.size()));
+            
+            final Path<DirectedGraphNode> expected = 
+                    new DijkstraFinder<DirectedGraphNode>()
+                    .search(from(s), to(t), withWeightFunction(wf));
+            final Path<DirectedGraphNode> path = 
+                    finder.search(from(s), to(t), withWeightFunction(wf));
+            
+            assertEquals(expected.exists(), path.exists());
+            
+            if (expected.exists()) {
+                assertEquals(expected.getLength(wf), path.getLength(wf), 0.0);
+            }
+        }
+    }
+}
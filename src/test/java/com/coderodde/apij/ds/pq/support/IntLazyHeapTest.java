@@ -0,0 +1,174 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.HeuristicFunction;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder
+              .withBackwardHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withCompactGraph;
+import static com.coderodde.apij.graph.path.PathFinder.withHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.AStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalAStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalDijkstraFinder;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.graph.path.support.EuclidianHeuristicFunction;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the lazy-deletion heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntLazyHeapTest {
+    
+    private IntLazyHeap heap = new IntLazyHeap(16);
+
+    @Before
+    public void init() {
+        heap.clear();
+        heap.resetStalePopCount();
+    }
+    
+    /**
+     * This method tests the <code>decreasePriority</code> method and the 
+     * stale pop counter.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 50; ++i) {
+            heap.add(i, 100.0 + i);
+        }
+        
+        heap.decreasePriority(40, 1.0);
+        heap.decreasePriority(41, 2.0);
+        heap.decreasePriority(41, 0.5);
+        heap.decreasePriority(10, 200.0);
+        
+        assertEquals(50, heap.size());
+        assertEquals(41, heap.min());
+        assertEquals(0.5, heap.getPriorityOf(41), 0.0);
+        assertEquals(110.0, heap.getPriorityOf(10), 0.0);
+        
+        assertEquals(41, heap.extractMinimum());
+        assertEquals(0L, heap.getStalePopCount());
+        
+        assertEquals(40, heap.extractMinimum());
+        assertFalse(heap.contains(40));
+        
+        // The entry of 41 with priority 2.0 is stale.
+        assertEquals(0, heap.extractMinimum());
+        assertEquals(1L, heap.getStalePopCount());
+        
+        for (int i = 0; i != 47; ++i) {
+            heap.extractMinimum();
+        }
+        
+        assertTrue(heap.isEmpty());
+        
+        // So are the entries of 40 and 41 with priorities 140.0 and 141.0.
+        assertEquals(3L, heap.getStalePopCount());
+    }
+    
+    /**
+     * This method tests that the spawned heaps share the stale pop counter.
+     */
+    @Test
+    public void testSpawnSharesCounter() {
+        final IntLazyHeap spawn = heap.spawn();
+        
+        spawn.add(0, 2.0);
+        spawn.decreasePriority(0, 1.0);
+        spawn.add(1, 3.0);
+        spawn.extractMinimum();
+        spawn.extractMinimum();
+        
+        assertEquals(1L, heap.getStalePopCount());
+    }
+    
+    /**
+     * This method compares the finders on this heap against the finders on 
+     * the default heap.
+     */
+    @Test
+    public void testFinders() {
+        final Random r = new Random(61L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 1000, 0.004f, 
+                                       100.0, 100.0, 20.0, r);
+        final WeightFunction<DirectedGraphNode> wf = data.second;
+        final CompactGraph<DirectedGraphNode> cg = 
+                new CompactGraph<>(data.first, wf);
+        final HeuristicFunction<DirectedGraphNode> hf =
+                new EuclidianHeuristicFunction<>(data.third);
+        final HeuristicFunction<DirectedGraphNode> hb =
+                new EuclidianHeuristicFunction<>(data.third);
+        final List<PathFinder<DirectedGraphNode>> finders = new ArrayList<>();
+        
+        finders.add(new DijkstraFinder<>(bridge(heap)));
+        finders.add(new AStarFinder<>(bridge(heap)));
+        finders.add(new BidirectionalDijkstraFinder<>(bridge(heap)));
+        finders.add(new BidirectionalAStarFinder<>(bridge(heap)));
+        
+        final List<DirectedGraphNode> nodes = 
+                new ArrayList<>(data.first.view());
+        
+        for (int i = 0; i < 50; ++i) {
+            final DirectedGraphNode s = nodes.get(r.nextInt(nodes.size()));
+            final DirectedGraphNode t = nodes.get(r.nextInt(nodes.size()));
+            final Path<DirectedGraphNode> expected = 
+                    new DijkstraFinder<DirectedGraphNode>()
+                    .search(from(s), to(t), withWeightFunction(wf));
+            
+            for (final PathFinder<DirectedGraphNode> finder : finders) {
+                for (final boolean compact : new boolean[]{ false, true }) {
+                    final Path<DirectedGraphNode> path = compact ?
+                            finder.search(from(s),
+                                          to(t),
+                                          withHeuristicFunction(hf),
+                                          withBackwardHeuristicFunction(hb),
+                                          withCompactGraph(cg)) :
+                            finder.search(from(s),
+                                          to(t),
+                                          withWeightFunction(wf),
+                                          withHeuristicFunction(hf),
+                                          withBackwardHeuristicFunction(hb));
+                    
+                    assertEquals(expected.exists(), path.exists());
+                    
+                    if (expected.exists()) {
+                        assertEquals(expected.getLength(wf), 
+                                     path.getLength(wf), 
+                                     1e-9);
+                    }
+                }
+            }
+        }
+        
+        assertTrue(heap.getStalePopCount() > 0L);
+    }
+    
+    private static IntPriorityQueueBridge<DirectedGraphNode> 
+        bridge(final IntLazyHeap heap) {
+        return new IntPriorityQueueBridge<>(heap.spawn());
+    }
+}
@@ -0,0 +1,87 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.IntPriorityQueue;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the radix heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class IntRadixHeapTest {
+    
+    private IntPriorityQueue heap = new IntRadixHeap(16);
+
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method compares the heap against sorting, interleaving the 
+     * extractions with monotone insertions.
+     */
+    @Test
+    public void testMonotoneAgainstSort() {
+        final Random r = new Random(42L);
+        final int N = 2000;
+        final long[] keys = new long[N];
+        int added = 0;
+        int extracted = 0;
+        long last = 0L;
+        
+        while (extracted < N) {
+            if (added < N && (heap.isEmpty() || r.nextBoolean())) {
+                keys[added] = last + r.nextInt(1 << r.nextInt(30));
+                heap.add(added, keys[added] + 1.0);
+                heap.decreasePriority(added, keys[added]);
+                ++added;
+                continue;
+            }
+            
+            final int e = heap.extractMinimum();
+            
+            assertTrue(keys[e] >= last);
+            last = keys[e];
+            ++extracted;
+            
+            for (int i = 0; i < added; ++i) {
+                if (heap.contains(i)) {
+                    assertTrue(keys[i] >= last);
+                }
+            }
+        }
+        
+        assertTrue(heap.isEmpty());
+        
+        final long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted[N - 1], last);
+    }
+    
+    /**
+     * This method tests that the priorities below the last extracted one are
+     * rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonMonotonePriority() {
+        heap.add(0, 5.0);
+        heap.extractMinimum();
+        heap.add(1, 4.0);
+    }
+    
+    /**
+     * This method compares Dijkstra's algorithm on this queue against the 
+     * default one with integral weights.
+     */
+    @Test
+    public void testDijkstra() {
+        IntDialHeapTest.checkDijkstra(new IntRadixHeap(), new Random(43L));
+    }
+}
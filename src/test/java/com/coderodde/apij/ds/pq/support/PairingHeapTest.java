@@ -0,0 +1,120 @@
+package com.coderodde.apij.ds.pq.support;
+
+import com.coderodde.apij.ds.pq.PriorityQueue;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the pairing heap.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class PairingHeapTest {
+    
+    private PriorityQueue<Integer, Integer> heap = new PairingHeap<>();
+
+    @Before
+    public void init() {
+        heap.clear();
+    }
+    
+    /**
+     * This method tests the <code>add</code> method.
+     */
+    @Test
+    public void testAdd() {
+        for (int i = 100; i != 0; --i) {
+            heap.add(i, i);
+        }
+        
+        assertEquals(100, heap.size());
+        assertEquals((Integer) 1, heap.min());
+        
+        for (int i = 1; i != 101; ++i) {
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertTrue(heap.isEmpty());
+    }
+    
+    /**
+     * This method test the <code>decreasePriority</code>.
+     */
+    @Test
+    public void testDecreasePriority() {
+        for (int i = 0; i != 1000; ++i) {
+            heap.add(i, i);
+        }
+        
+        // Build some trees before decreasing.
+        assertEquals((Integer) 0, heap.extractMinimum());
+        
+        for (int i = 1; i != 1000; ++i) {
+            heap.decreasePriority(i, -i);
+        }
+        
+        assertEquals((Integer) (-500), heap.getPriorityOf(500));
+        
+        for (int i = 999; i > 0; --i) {
+            assertEquals((Integer) i, heap.extractMinimum());
+        }
+        
+        assertEquals(0, heap.size());
+    }
+    
+    /**
+     * This method compares random operations against a map of the current
+     * priorities.
+     */
+    @Test
+    public void testAgainstMap() {
+        final Random r = new Random(51L);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final int N = 500;
+        
+        for (int i = 0; i != 50 * N; ++i) {
+            final int element = r.nextInt(N);
+            
+            switch (r.nextInt(3)) {
+                case 0:
+                    if (expected.containsKey(element) == false) {
+                        final int priority = r.nextInt(100000);
+                        heap.add(element, priority);
+                        expected.put(element, priority);
+                    }
+                    
+                    break;
+                    
+                case 1:
+                    if (expected.containsKey(element)) {
+                        final int priority = 
+                                expected.get(element) - r.nextInt(1000);
+                        heap.decreasePriority(element, priority);
+                        expected.put(element, priority);
+                    }
+                    
+                    break;
+                    
+                case 2:
+                    if (expected.isEmpty() == false) {
+                        final int min = Collections.min(expected.values());
+                        final Integer e = heap.min();
+                        assertEquals((Integer) min, heap.getPriorityOf(e));
+                        assertEquals(e, heap.extractMinimum());
+                        assertEquals((Integer) min, expected.remove(e));
+                    }
+                    
+                    break;
+            }
+            
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.coderodde.apij.graph.model;
+
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder
+              .withBackwardHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withCompactGraph;
+import static com.coderodde.apij.graph.path.PathFinder.withHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.AStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalAStarFinder;
+import com.coderodde.apij.graph.path.support.BidirectionalDijkstraFinder;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.graph.path.support.EuclidianHeuristicFunction;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>CompactGraph</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class CompactGraphTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testStructure() {
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 200, 0.02f, 10.0, 10.0, 5.0,
+                                       new Random(1L));
+
+        final CompactGraph<DirectedGraphNode> cg =
+                new CompactGraph<>(data.first, data.second);
+
+        assertEquals(data.first.size(), cg.size());
+        assertEquals(data.first.edges(), cg.arcs());
+
+        for (int u = 0; u < cg.size(); ++u) {
+            final DirectedGraphNode tail = cg.getNode(u);
+            assertEquals(u, cg.getId(tail));
+
+            for (int arc = cg.getOutArcBegin(u);
+                     arc < cg.getOutArcEnd(u);
+                     ++arc) {
+                final DirectedGraphNode head = cg.getNode(cg.getArcHead(arc));
+                assertTrue(tail.isConnectedTo(head));
+                assertEquals(data.second.get(tail, head),
+                             cg.getArcWeight(arc),
+                             0.0);
+                assertEquals(arc, cg.getArcId(u, cg.getArcHead(arc)));
+            }
+
+            for (int i = cg.getInArcBegin(u); i < cg.getInArcEnd(u); ++i) {
+                final int arc = cg.getInArcId(i);
+                assertEquals(u, cg.getArcHead(arc));
+                assertEquals(cg.getInArcWeight(i), cg.getArcWeight(arc), 0.0);
+                assertTrue(cg.getNode(cg.getInArcTail(i)).isConnectedTo(tail));
+            }
+        }
+    }
+
+    @Test
+    public void testFindersAgree() {
+        final Random r = new Random(2L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 500, 0.01f, 100.0, 100.0, 30.0, r);
+
+        final CompactGraph<DirectedGraphNode> cg =
+                new CompactGraph<>(data.first, data.second);
+
+        final List<DirectedGraphNode> nodes = 
+                new ArrayList<>(data.first.view());
+        final List<PathFinder<DirectedGraphNode>> finders = new ArrayList<>();
+
+        finders.add(new DijkstraFinder<DirectedGraphNode>());
+        finders.add(new AStarFinder<DirectedGraphNode>());
+        finders.add(new BidirectionalDijkstraFinder<DirectedGraphNode>());
+        finders.add(new BidirectionalAStarFinder<DirectedGraphNode>());
+
+        for (int i = 0; i < 20; ++i) {
+            final DirectedGraphNode s = nodes.get(r.nextInt(nodes.size()));
+            final DirectedGraphNode t = nodes.get(r.nextInt(nodes.size()));
+
+            final Path<DirectedGraphNode> expected =
+                    new DijkstraFinder<DirectedGraphNode>()
+                    .search(from(s), to(t), withWeightFunction(data.second));
+
+            for (final PathFinder<DirectedGraphNode> finder : finders) {
+                final Path<DirectedGraphNode> path =
+                        finder.search(from(s),
+                                      to(t),
+                                      withCompactGraph(cg),
+                                      withHeuristicFunction(
+                                        new EuclidianHeuristicFunction<>(
+                                                data.third)),
+                                      withBackwardHeuristicFunction(
+                                        new EuclidianHeuristicFunction<>(
+                                                data.third)));
+
+                assertEquals(expected.exists(), path.exists());
+
+                if (expected.exists()) {
+                    assertEquals(s, path.get(0));
+                    assertEquals(t, path.get(path.size() - 1));
+                    assertEquals(expected.getLength(data.second),
+                                 path.getLength(data.second),
+                                 EPSILON);
+                }
+            }
+        }
+    }
+}
@@ -220,6 +220,38 @@ public class GraphTest {
         assertTrue(g.isConnected());
     }
     
+    @Test
+    public void testIds() {
+        assertEquals(-1, a.getId());
+        
+        g.add(a);
+        g.add(b);
+        g.add(c);
+        
+        assertEquals(0, a.getId());
+        assertEquals(1, b.getId());
+        assertEquals(2, c.getId());
+        assertEquals(3, g.getIdBound());
+        assertEquals(b, g.getNode(1));
+        
+        g.removeNode(b);
+        
+        assertEquals(-1, b.getId());
+        assertNull(g.getNode(1));
+        
+        final UndirectedGraphNode d = new UndirectedGraphNode("4");
+        g.add(d);
+        
+        assertEquals(1, d.getId());
+        assertEquals(d, g.getNode(1));
+        assertEquals(3, g.getIdBound());
+        
+        g.clear();
+        
+        assertEquals(-1, a.getId());
+        assertEquals(0, g.getIdBound());
+    }
+    
     @Test(expected = NullPointerException.class)
     public void testAddEdgeFirstArgNotNull() {
         g.addEdge(null, a);
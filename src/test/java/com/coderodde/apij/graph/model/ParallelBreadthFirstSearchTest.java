@@ -0,0 +1,129 @@
+package com.coderodde.apij.graph.model;
+
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>ParallelBreadthFirstSearch</code> against a
+ * sequential breadth-first search.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ParallelBreadthFirstSearchTest {
+
+    @Test
+    public void testReachableFrom() {
+        final Random r = new Random(21L);
+        final List<DirectedGraphNode> nodes = new ArrayList<>();
+        final Graph<DirectedGraphNode> graph = getRandomGraph(50000, r, nodes);
+
+        for (int i = 0; i < 5; ++i) {
+            final List<DirectedGraphNode> sources = new ArrayList<>();
+
+            for (int j = 0; j <= i; ++j) {
+                sources.add(nodes.get(r.nextInt(nodes.size())));
+            }
+
+            final Set<DirectedGraphNode> expected = bfs(sources);
+            final List<DirectedGraphNode> reached =
+                    graph.reachableFrom(sources);
+
+            assertEquals(expected.size(), reached.size());
+            assertEquals(expected, new HashSet<>(reached));
+        }
+    }
+
+    @Test
+    public void testIsReached() {
+        final Random r = new Random(22L);
+        final List<DirectedGraphNode> nodes = new ArrayList<>();
+        final Graph<DirectedGraphNode> graph = getRandomGraph(10000, r, nodes);
+        final ParallelBreadthFirstSearch<DirectedGraphNode> search =
+                new ParallelBreadthFirstSearch<>(graph);
+        final DirectedGraphNode source = nodes.get(0);
+
+        final Set<DirectedGraphNode> expected = bfs(Arrays.asList(source));
+
+        assertEquals(expected.size(), search.search(Arrays.asList(source)));
+
+        for (final DirectedGraphNode node : nodes) {
+            assertEquals(expected.contains(node),
+                         search.isReached(node.getId()));
+        }
+    }
+
+    @Test
+    public void testIsConnected() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final List<DirectedGraphNode> nodes = new ArrayList<>();
+
+        for (int i = 0; i < 5000; ++i) {
+            final DirectedGraphNode node = new DirectedGraphNode("" + i);
+            graph.add(node);
+            nodes.add(node);
+        }
+
+        for (int i = 0; i < nodes.size() - 1; ++i) {
+            graph.addEdge(nodes.get(i), nodes.get(i + 1));
+        }
+
+        // A path reaches everything from its first node only.
+        assertEquals(nodes.size(),
+                     graph.reachableFrom(nodes.subList(0, 1)).size());
+        assertEquals(1, graph.reachableFrom(
+                     nodes.subList(nodes.size() - 1, nodes.size())).size());
+
+        // A cycle is connected from every node.
+        graph.addEdge(nodes.get(nodes.size() - 1), nodes.get(0));
+        assertTrue(graph.isConnected());
+
+        graph.removeEdge(nodes.get(10), nodes.get(11));
+        assertFalse(graph.isConnected());
+    }
+
+    private static Graph<DirectedGraphNode>
+        getRandomGraph(final int size,
+                       final Random r,
+                       final List<DirectedGraphNode> nodes) {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+
+        for (int i = 0; i < size; ++i) {
+            final DirectedGraphNode node = new DirectedGraphNode("" + i);
+            graph.add(node);
+            nodes.add(node);
+        }
+
+        for (int i = 0; i < 2 * size; ++i) {
+            graph.addEdge(nodes.get(r.nextInt(size)),
+                          nodes.get(r.nextInt(size)));
+        }
+
+        return graph;
+    }
+
+    private static Set<DirectedGraphNode>
+        bfs(final List<DirectedGraphNode> sources) {
+        final Set<DirectedGraphNode> visited = new HashSet<>(sources);
+        final Deque<DirectedGraphNode> queue = new ArrayDeque<>(visited);
+
+        while (queue.isEmpty() == false) {
+            for (final DirectedGraphNode child : queue.removeFirst()) {
+                if (visited.add(child)) {
+                    queue.addLast(child);
+                }
+            }
+        }
+
+        return visited;
+    }
+}
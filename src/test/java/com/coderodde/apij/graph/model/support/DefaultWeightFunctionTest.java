@@ -0,0 +1,187 @@
+package com.coderodde.apij.graph.model.support;
+
+import com.coderodde.apij.graph.model.Graph;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>DefaultWeightFunction</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DefaultWeightFunctionTest {
+
+    @Test
+    public void testPutAndGet() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>();
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+        final DirectedGraphNode v = new DirectedGraphNode("v");
+        graph.add(u);
+        graph.add(v);
+
+        wf.put(u, v, 1.0);
+        wf.put(v, u, 2.0);
+        wf.put(u, v, 3.0);
+
+        assertSame(graph, wf.getOwnerGraph());
+        assertEquals(3.0, wf.get(u, v), 0.0);
+        assertEquals(2.0, wf.get(v, u), 0.0);
+    }
+
+    @Test
+    public void testUndirectedReverseLookup() {
+        final Graph<UndirectedGraphNode> graph = new Graph<>("G");
+        final DefaultWeightFunction<UndirectedGraphNode> wf =
+                new DefaultWeightFunction<>(graph);
+        final UndirectedGraphNode u = new UndirectedGraphNode("u");
+        final UndirectedGraphNode v = new UndirectedGraphNode("v");
+        graph.add(u);
+        graph.add(v);
+
+        wf.put(u, v, 4.0);
+
+        assertEquals(4.0, wf.get(v, u), 0.0);
+    }
+
+    @Test
+    public void testRecycledIdDoesNotInheritWeights() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>(graph);
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+        final DirectedGraphNode v = new DirectedGraphNode("v");
+        final DirectedGraphNode w = new DirectedGraphNode("w");
+        graph.add(u);
+        graph.add(v);
+        graph.add(w);
+
+        wf.put(u, v, 1.0);
+        wf.put(v, w, 2.0);
+        wf.put(v, v, 3.0);
+        wf.put(w, u, 4.0);
+
+        final int id = v.getId();
+        graph.removeNode(v);
+
+        final DirectedGraphNode x = new DirectedGraphNode("x");
+        graph.add(x);
+        assertEquals(id, x.getId());
+
+        assertNoWeight(wf, u, x);
+        assertNoWeight(wf, x, w);
+        assertNoWeight(wf, x, x);
+        assertEquals(4.0, wf.get(w, u), 0.0);
+
+        wf.put(x, w, 5.0);
+        assertEquals(5.0, wf.get(x, w), 0.0);
+    }
+
+    @Test
+    public void testWideRowSurvivesRemovals() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>(graph);
+        final DirectedGraphNode hub = new DirectedGraphNode("hub");
+        final DirectedGraphNode[] heads = new DirectedGraphNode[200];
+        graph.add(hub);
+
+        for (int i = 0; i < heads.length; ++i) {
+            heads[i] = new DirectedGraphNode("" + i);
+            graph.add(heads[i]);
+            wf.put(hub, heads[i], i);
+        }
+
+        for (int i = 0; i < heads.length; i += 3) {
+            graph.removeNode(heads[i]);
+        }
+
+        for (int i = 0; i < heads.length; ++i) {
+            if (i % 3 != 0) {
+                assertEquals(i, wf.get(hub, heads[i]), 0.0);
+            }
+        }
+
+        final DirectedGraphNode x = new DirectedGraphNode("x");
+        graph.add(x);
+        assertNoWeight(wf, hub, x);
+    }
+
+    @Test
+    public void testClearDropsAllWeights() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>(graph);
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+        final DirectedGraphNode v = new DirectedGraphNode("v");
+        graph.add(u);
+        graph.add(v);
+        wf.put(u, v, 1.0);
+
+        graph.clear();
+
+        final DirectedGraphNode a = new DirectedGraphNode("a");
+        final DirectedGraphNode b = new DirectedGraphNode("b");
+        graph.add(a);
+        graph.add(b);
+
+        assertNoWeight(wf, a, b);
+        assertNoWeight(wf, b, a);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsNodeOfAnotherGraphOnPut() {
+        final Graph<DirectedGraphNode> g1 = new Graph<>("G1");
+        final Graph<DirectedGraphNode> g2 = new Graph<>("G2");
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>(g1);
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+        final DirectedGraphNode v = new DirectedGraphNode("v");
+        g2.add(u);
+        g2.add(v);
+
+        wf.put(u, v, 1.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsNodeOfAnotherGraphOnGet() {
+        final Graph<DirectedGraphNode> g1 = new Graph<>("G1");
+        final Graph<DirectedGraphNode> g2 = new Graph<>("G2");
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>();
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+        final DirectedGraphNode v = new DirectedGraphNode("v");
+        final DirectedGraphNode x = new DirectedGraphNode("x");
+        final DirectedGraphNode y = new DirectedGraphNode("y");
+        g1.add(u);
+        g1.add(v);
+        g2.add(x);
+        g2.add(y);
+        wf.put(u, v, 1.0);
+
+        // x and y have the ids of u and v.
+        wf.get(x, y);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsNodeWithoutGraph() {
+        final DefaultWeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>();
+
+        wf.put(new DirectedGraphNode("u"), new DirectedGraphNode("v"), 1.0);
+    }
+
+    private static void assertNoWeight(
+            final DefaultWeightFunction<DirectedGraphNode> wf,
+            final DirectedGraphNode from,
+            final DirectedGraphNode to) {
+        try {
+            wf.get(from, to);
+            fail("Weight of a removed arc (" + from.getName() + ", " +
+                 to.getName() + ") found.");
+        } catch (final IllegalStateException ex) {
+        }
+    }
+}
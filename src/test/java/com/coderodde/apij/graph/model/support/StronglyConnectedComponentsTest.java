@@ -0,0 +1,159 @@
+package com.coderodde.apij.graph.model.support;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>StronglyConnectedComponents</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class StronglyConnectedComponentsTest {
+
+    @Test
+    public void testAgainstReachability() {
+        final Random r = new Random(31L);
+        final List<DirectedGraphNode> nodes = new ArrayList<>();
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+
+        for (int i = 0; i < 300; ++i) {
+            nodes.add(new DirectedGraphNode("" + i));
+            graph.add(nodes.get(i));
+        }
+
+        for (int i = 0; i < 400; ++i) {
+            graph.addEdge(nodes.get(r.nextInt(nodes.size())),
+                          nodes.get(r.nextInt(nodes.size())));
+        }
+
+        final StronglyConnectedComponents scc =
+                new StronglyConnectedComponents(graph);
+        final List<Set<DirectedGraphNode>> reachable = new ArrayList<>();
+
+        for (final DirectedGraphNode node : nodes) {
+            reachable.add(new HashSet<>(
+                    graph.reachableFrom(Arrays.asList(node))));
+        }
+
+        for (int i = 0; i < nodes.size(); ++i) {
+            for (int j = 0; j < nodes.size(); ++j) {
+                final DirectedGraphNode u = nodes.get(i);
+                final DirectedGraphNode v = nodes.get(j);
+                final boolean strong = reachable.get(i).contains(v)
+                                    && reachable.get(j).contains(u);
+
+                assertEquals(strong,
+                             scc.getComponent(u) == scc.getComponent(v));
+
+                if (u.isConnectedTo(v)) {
+                    // Reverse topological numbering.
+                    assertTrue(scc.getComponent(u) >= scc.getComponent(v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeepCycle() {
+        final int N = 200000;
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final DirectedGraphNode[] nodes = new DirectedGraphNode[N];
+
+        for (int i = 0; i < N; ++i) {
+            nodes[i] = new DirectedGraphNode("" + i);
+            graph.add(nodes[i]);
+        }
+
+        for (int i = 0; i < N; ++i) {
+            graph.addEdge(nodes[i], nodes[(i + 1) % N]);
+        }
+
+        final StronglyConnectedComponents scc =
+                new StronglyConnectedComponents(graph);
+
+        assertEquals(1, scc.getComponentCount());
+        assertEquals(N, scc.getComponentSize(scc.getLargestComponent()));
+    }
+
+    @Test
+    public void testExtractLargestComponent() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final WeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>();
+        final DirectedGraphNode[] nodes = new DirectedGraphNode[6];
+
+        for (int i = 0; i < nodes.length; ++i) {
+            nodes[i] = new DirectedGraphNode("" + i);
+            graph.add(nodes[i]);
+        }
+
+        // The cycle 0 -> 1 -> 2 -> 0, the pair 3 <-> 4, the sink 5.
+        connect(graph, wf, nodes[0], nodes[1], 1.0);
+        connect(graph, wf, nodes[1], nodes[2], 2.0);
+        connect(graph, wf, nodes[2], nodes[0], 3.0);
+        connect(graph, wf, nodes[2], nodes[3], 4.0);
+        connect(graph, wf, nodes[3], nodes[4], 5.0);
+        connect(graph, wf, nodes[4], nodes[3], 6.0);
+        connect(graph, wf, nodes[4], nodes[5], 7.0);
+
+        final StronglyConnectedComponents scc =
+                new StronglyConnectedComponents(graph);
+
+        assertEquals(3, scc.getComponentCount());
+
+        final WeightFunction<DirectedGraphNode> newWf =
+                new DefaultWeightFunction<>();
+        final Graph<DirectedGraphNode> g =
+                scc.extractLargestComponent("H", wf, newWf);
+
+        assertEquals(3, g.size());
+        assertEquals(3, g.edges());
+
+        final DirectedGraphNode a = g.getNode("0");
+        final DirectedGraphNode b = g.getNode("1");
+        final DirectedGraphNode c = g.getNode("2");
+
+        assertNotSame(nodes[0], a);
+        assertTrue(a.isConnectedTo(b));
+        assertTrue(b.isConnectedTo(c));
+        assertTrue(c.isConnectedTo(a));
+        assertEquals(1.0, newWf.get(a, b), 0.0);
+        assertEquals(2.0, newWf.get(b, c), 0.0);
+        assertEquals(3.0, newWf.get(c, a), 0.0);
+        assertNull(g.getNode("3"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtractIntoSameWeightFunction() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final WeightFunction<DirectedGraphNode> wf =
+                new DefaultWeightFunction<>();
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+        final DirectedGraphNode v = new DirectedGraphNode("v");
+        graph.add(u);
+        graph.add(v);
+        connect(graph, wf, u, v, 1.0);
+        connect(graph, wf, v, u, 2.0);
+
+        new StronglyConnectedComponents(graph)
+                .extractLargestComponent("H", wf, wf);
+    }
+
+    private static void connect(final Graph<DirectedGraphNode> graph,
+                                final WeightFunction<DirectedGraphNode> wf,
+                                final DirectedGraphNode u,
+                                final DirectedGraphNode v,
+                                final double weight) {
+        graph.addEdge(u, v);
+        wf.put(u, v, weight);
+    }
+}
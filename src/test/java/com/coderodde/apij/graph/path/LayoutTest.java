@@ -0,0 +1,107 @@
+package com.coderodde.apij.graph.path;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import java.awt.geom.Point2D;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>Layout</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class LayoutTest {
+
+    @Test
+    public void testPutAndGet() {
+        final Graph<DirectedGraphNode> g = new Graph<>("G");
+        final Layout<DirectedGraphNode> layout = new Layout<>();
+        final DirectedGraphNode a = new DirectedGraphNode("A");
+        final DirectedGraphNode b = new DirectedGraphNode("B");
+        g.add(a);
+        g.add(b);
+
+        assertFalse(layout.contains(a));
+        assertNull(layout.get(a));
+
+        final Point2D.Double p = new Point2D.Double(1.0, 2.0);
+        layout.put(a, p);
+        p.x = 5.0;
+
+        assertTrue(layout.contains(a));
+        assertFalse(layout.contains(b));
+        assertEquals(new Point2D.Double(1.0, 2.0), layout.get(a));
+        assertEquals(1.0, layout.getX(a), 0.0);
+        assertEquals(2.0, layout.getY(a), 0.0);
+
+        layout.put(a, -3.0, 4.0);
+
+        assertEquals(-3.0, layout.getX(a), 0.0);
+        assertEquals(4.0, layout.getY(a), 0.0);
+    }
+
+    @Test
+    public void testGrow() {
+        final Graph<DirectedGraphNode> g = new Graph<>("G");
+        final Layout<DirectedGraphNode> layout = new Layout<>();
+
+        for (int i = 0; i < 100; ++i) {
+            final DirectedGraphNode node = new DirectedGraphNode("" + i);
+            g.add(node);
+            layout.put(node, i, -i);
+        }
+
+        for (final DirectedGraphNode node : g) {
+            final int i = Integer.parseInt(node.getName());
+            assertEquals(i, layout.getX(node), 0.0);
+            assertEquals(-i, layout.getY(node), 0.0);
+        }
+    }
+
+    @Test
+    public void testRecycledIdDoesNotInheritPoint() {
+        final Graph<DirectedGraphNode> g = new Graph<>("G");
+        final Layout<DirectedGraphNode> layout = new Layout<>(g);
+        final DirectedGraphNode a = new DirectedGraphNode("A");
+        g.add(a);
+        layout.put(a, 1.0, 2.0);
+
+        final int id = a.getId();
+        g.removeNode(a);
+
+        final DirectedGraphNode b = new DirectedGraphNode("B");
+        g.add(b);
+        assertEquals(id, b.getId());
+
+        assertSame(g, layout.getOwnerGraph());
+        assertFalse(layout.contains(b));
+        assertNull(layout.get(b));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetXRejectsNodeWithoutPoint() {
+        final Graph<DirectedGraphNode> g = new Graph<>("G");
+        final Layout<DirectedGraphNode> layout = new Layout<>(g);
+        final DirectedGraphNode a = new DirectedGraphNode("A");
+        g.add(a);
+
+        layout.getX(a);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsNodeOfAnotherGraph() {
+        final Graph<DirectedGraphNode> g1 = new Graph<>("G1");
+        final Graph<DirectedGraphNode> g2 = new Graph<>("G2");
+        final Layout<DirectedGraphNode> layout = new Layout<>();
+        final DirectedGraphNode a = new DirectedGraphNode("A");
+        final DirectedGraphNode b = new DirectedGraphNode("B");
+        g1.add(a);
+        g2.add(b);
+        layout.put(a, 1.0, 2.0);
+
+        // b has the id of a.
+        layout.getY(b);
+    }
+}
@@ -0,0 +1,53 @@
+package com.coderodde.apij.graph.path;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>SearchState</code>.
+ * 
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class SearchStateTest {
+    
+    @Test
+    public void testReset() {
+        final SearchState state = new SearchState(4);
+        state.reset(4);
+        
+        assertFalse(state.isDiscovered(2));
+        assertEquals(Double.POSITIVE_INFINITY, state.getDistance(2), 0.0);
+        assertEquals(SearchState.NO_PARENT, state.getParent(2));
+        
+        state.update(2, 3.0, 1);
+        state.close(2);
+        
+        assertTrue(state.isDiscovered(2));
+        assertTrue(state.isClosed(2));
+        assertEquals(3.0, state.getDistance(2), 0.0);
+        assertEquals(1, state.getParent(2));
+        
+        state.reset(4);
+        
+        assertFalse(state.isDiscovered(2));
+        assertFalse(state.isClosed(2));
+        assertEquals(Double.POSITIVE_INFINITY, state.getDistance(2), 0.0);
+    }
+    
+    @Test
+    public void testGrow() {
+        final SearchState state = new SearchState(2);
+        state.reset(2);
+        state.update(1, 1.0, 0);
+        state.reset(100);
+        
+        assertTrue(state.capacity() >= 100);
+        assertFalse(state.isDiscovered(1));
+        assertFalse(state.isDiscovered(99));
+        
+        state.update(99, 5.0, 1);
+        
+        assertEquals(5.0, state.getDistance(99), 0.0);
+    }
+}
@@ -0,0 +1,182 @@
+package com.coderodde.apij.graph.path;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>SpatialIndex</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class SpatialIndexTest {
+
+    private Graph<DirectedGraphNode> graph;
+    private Layout<DirectedGraphNode> layout;
+
+    /**
+     * Creates <code>n</code> nodes with random points. If
+     * <code>grid</code> is set, the coordinates are small integers so that
+     * many points coincide.
+     */
+    private void populate(final int n, final boolean grid, final Random r) {
+        graph = new Graph<>("G");
+        layout = new Layout<>();
+
+        for (int i = 0; i < n; ++i) {
+            final DirectedGraphNode node = new DirectedGraphNode("" + i);
+            graph.add(node);
+
+            if (grid) {
+                layout.put(node, new Point2D.Double(r.nextInt(5),
+                                                    r.nextInt(5)));
+            } else {
+                layout.put(node, new Point2D.Double(1000 * r.nextDouble(),
+                                                    1000 * r.nextDouble()));
+            }
+        }
+    }
+
+    private double distance(final DirectedGraphNode node,
+                            final double x,
+                            final double y) {
+        final Point2D.Double p = layout.get(node);
+        return Math.hypot(p.x - x, p.y - y);
+    }
+
+    @Test
+    public void testEmpty() {
+        populate(0, false, new Random(1L));
+        final SpatialIndex<DirectedGraphNode> index =
+                new SpatialIndex<>(graph, layout);
+
+        assertEquals(0, index.size());
+        assertNull(index.nearest(1.0, 2.0));
+        assertTrue(index.nearest(1.0, 2.0, 3).isEmpty());
+        assertTrue(index.withinRadius(1.0, 2.0, 3.0).isEmpty());
+    }
+
+    @Test
+    public void testSkipsNodesWithoutPoint() {
+        populate(3, false, new Random(2L));
+        final DirectedGraphNode extra = new DirectedGraphNode("extra");
+        graph.add(extra);
+
+        final SpatialIndex<DirectedGraphNode> index =
+                new SpatialIndex<>(graph, layout);
+
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testNearest() {
+        final Random r = new Random(3L);
+
+        for (final boolean grid : new boolean[]{ false, true }) {
+            populate(500, grid, r);
+            final SpatialIndex<DirectedGraphNode> index =
+                    new SpatialIndex<>(graph, layout);
+
+            for (int q = 0; q < 200; ++q) {
+                final double x = grid ? 5 * r.nextDouble()
+                                      : 1000 * r.nextDouble();
+                final double y = grid ? 5 * r.nextDouble()
+                                      : 1000 * r.nextDouble();
+                double best = Double.POSITIVE_INFINITY;
+
+                for (final DirectedGraphNode node : graph) {
+                    best = Math.min(best, distance(node, x, y));
+                }
+
+                assertEquals(best, distance(index.nearest(x, y), x, y), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testKNearest() {
+        final Random r = new Random(4L);
+
+        for (final boolean grid : new boolean[]{ false, true }) {
+            populate(300, grid, r);
+            final SpatialIndex<DirectedGraphNode> index =
+                    new SpatialIndex<>(graph, layout);
+
+            for (final int k : new int[]{ 0, 1, 7, 50, 300, 400 }) {
+                final double x = 5 * r.nextDouble();
+                final double y = 5 * r.nextDouble();
+                final List<Double> expected = new ArrayList<>();
+
+                for (final DirectedGraphNode node : graph) {
+                    expected.add(distance(node, x, y));
+                }
+
+                Collections.sort(expected);
+
+                final List<DirectedGraphNode> result = index.nearest(x, y, k);
+                assertEquals(Math.min(k, 300), result.size());
+                assertEquals(result.size(), new HashSet<>(result).size());
+
+                for (int i = 0; i < result.size(); ++i) {
+                    assertEquals(expected.get(i),
+                                 distance(result.get(i), x, y),
+                                 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithinRadius() {
+        final Random r = new Random(5L);
+
+        for (final boolean grid : new boolean[]{ false, true }) {
+            populate(400, grid, r);
+            final SpatialIndex<DirectedGraphNode> index =
+                    new SpatialIndex<>(graph, layout);
+
+            for (int q = 0; q < 50; ++q) {
+                final double x = grid ? 5 * r.nextDouble()
+                                      : 1000 * r.nextDouble();
+                final double y = grid ? 5 * r.nextDouble()
+                                      : 1000 * r.nextDouble();
+                final double radius = grid ? 2 * r.nextDouble()
+                                           : 200 * r.nextDouble();
+                final Set<DirectedGraphNode> expected = new HashSet<>();
+
+                for (final DirectedGraphNode node : graph) {
+                    if (distance(node, x, y) <= radius) {
+                        expected.add(node);
+                    }
+                }
+
+                final List<DirectedGraphNode> result =
+                        index.withinRadius(x, y, radius);
+
+                assertEquals(expected.size(), result.size());
+                assertEquals(expected, new HashSet<>(result));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeK() {
+        populate(3, false, new Random(6L));
+        new SpatialIndex<>(graph, layout).nearest(0.0, 0.0, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRadius() {
+        populate(3, false, new Random(7L));
+        new SpatialIndex<>(graph, layout).withinRadius(0.0, 0.0, -1.0);
+    }
+}
@@ -0,0 +1,137 @@
+package com.coderodde.apij.graph.path;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.model.support.UndirectedGraphNode;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withCompactGraph;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import static com.coderodde.apij.util.Utils.getRandomUndirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests the breadth-first searches against Dijkstra's algorithm
+ * with unit weights.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class WeightlessPathFinderTest {
+
+    @Test
+    public void testSparseDirected() {
+        final Random r = new Random(10L);
+        final Graph<DirectedGraphNode> graph =
+                getRandomDirectedGraph("G", 500, 0.004f, 100.0, 100.0, 20.0, r)
+                .first;
+
+        check(graph, r);
+    }
+
+    @Test
+    public void testDenseDirected() {
+        final Random r = new Random(11L);
+        final Graph<DirectedGraphNode> graph =
+                getRandomDirectedGraph("G", 400, 0.05f, 100.0, 100.0, 20.0, r)
+                .first;
+
+        check(graph, r);
+    }
+
+    @Test
+    public void testUndirected() {
+        final Random r = new Random(12L);
+        final Graph<UndirectedGraphNode> graph =
+                getRandomUndirectedGraph("G", 400, 0.02f, 1.2f,
+                                         100.0, 100.0, 20.0, r).first;
+
+        check(graph, r);
+    }
+
+    @Test
+    public void testSourceIsTarget() {
+        final Graph<DirectedGraphNode> graph = new Graph<>("G");
+        final DirectedGraphNode u = new DirectedGraphNode("u");
+
+        graph.add(u);
+
+        for (final boolean bidirectional : new boolean[]{ false, true }) {
+            final Path<DirectedGraphNode> path =
+                    new WeightlessPathFinder<DirectedGraphNode>(bidirectional)
+                    .search(from(u), to(u));
+
+            assertEquals(1, path.size());
+            assertEquals(u, path.get(0));
+        }
+    }
+
+    private static <T extends Node<T>> void check(final Graph<T> graph,
+                                                  final Random r) {
+        final WeightFunction<T> unit = new WeightFunction<T>() {
+            @Override
+            public void put(final T from, final T to, final double weight) {}
+
+            @Override
+            public double get(final T from, final T to) {
+                return 1.0;
+            }
+        };
+
+        final CompactGraph<T> compactGraph = new CompactGraph<>(graph, unit);
+        final List<WeightlessPathFinder<T>> finders = new ArrayList<>();
+
+        finders.add(new WeightlessPathFinder<T>());
+        finders.add(new WeightlessPathFinder<T>(true));
+        // Switch to bottom-up steps as early as possible and stay there.
+        finders.add(new WeightlessPathFinder<T>(false, 1000000, 1000000));
+
+        final List<T> nodes = new ArrayList<>(graph.view());
+
+        for (int i = 0; i < 100; ++i) {
+            final T s = nodes.get(r.nextInt(nodes.size()));
+            final T t = nodes.get(r.nextInt(nodes.size()));
+
+            final Path<T> expected = new DijkstraFinder<T>()
+                    .search(from(s), to(t), withWeightFunction(unit));
+
+            for (final WeightlessPathFinder<T> finder : finders) {
+                checkPath(expected, finder.search(from(s), to(t)), s, t);
+                checkPath(expected,
+                          finder.search(from(s),
+                                        to(t),
+                                        withCompactGraph(compactGraph)),
+                          s,
+                          t);
+            }
+        }
+    }
+
+    private static <T extends Node<T>> void checkPath(final Path<T> expected,
+                                                      final Path<T> path,
+                                                      final T s,
+                                                      final T t) {
+        assertEquals(expected.exists(), path.exists());
+
+        if (expected.exists() == false) {
+            return;
+        }
+
+        assertEquals(expected.size(), path.size());
+        assertEquals(s, path.get(0));
+        assertEquals(t, path.get(path.size() - 1));
+
+        for (int j = 0; j < path.size() - 1; ++j) {
+            assertTrue(path.get(j).isConnectedTo(path.get(j + 1)));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.coderodde.apij.graph.path.afs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This class tests <code>ArcFlagFile</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ArcFlagFileTest {
+
+    private static final long FINGERPRINT = 0x0123456789ABCDEFL;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBothByteOrders() throws IOException {
+        final ByteOrder[] orders = { ByteOrder.BIG_ENDIAN,
+                                     ByteOrder.LITTLE_ENDIAN };
+
+        for (final ByteOrder order : orders) {
+            for (final boolean deduplicate : new boolean[]{ false, true }) {
+                final File file = folder.newFile();
+                final ArcFlags arcFlags = flags();
+
+                if (deduplicate) {
+                    arcFlags.deduplicate();
+                }
+
+                ArcFlagFile.write(file,
+                                  FINGERPRINT,
+                                  IntBuffer.wrap(new int[]{ 2, -1, 0, 69 }),
+                                  arcFlags,
+                                  order);
+
+                final ArcFlagFile contents =
+                        ArcFlagFile.read(file, FINGERPRINT, 4, 3);
+
+                assertEquals(2, contents.getRegions().get(0));
+                assertEquals(-1, contents.getRegions().get(1));
+                assertEquals(69, contents.getRegions().get(3));
+                check(flags(), contents.getArcFlags());
+            }
+        }
+    }
+
+    @Test
+    public void testWritesNativeOrder() throws IOException {
+        final File file = folder.newFile();
+
+        ArcFlagFile.write(file,
+                          FINGERPRINT,
+                          IntBuffer.wrap(new int[]{ 0, 0, 0, 0 }),
+                          flags());
+
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(36L);
+            final int byteOrder = raf.readInt();
+
+            if (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN) {
+                assertEquals(0, byteOrder);
+            } else {
+                assertEquals(1, Integer.reverseBytes(byteOrder));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherGraph() throws IOException {
+        final File file = folder.newFile();
+
+        ArcFlagFile.write(file,
+                          FINGERPRINT,
+                          IntBuffer.wrap(new int[]{ 0, 0, 0, 0 }),
+                          flags());
+        ArcFlagFile.read(file, FINGERPRINT + 1, 4, 3);
+    }
+
+    /**
+     * Returns the flags of 3 arcs over 70 regions, two of the rows equal.
+     */
+    private static ArcFlags flags() {
+        final long[] rows = {
+            0x5L, 1L << 5,
+            -1L, 0x3FL,
+            0x5L, 1L << 5
+        };
+
+        return new ArcFlags(3, 70, LongBuffer.wrap(rows), null);
+    }
+
+    private static void check(final ArcFlags expected,
+                              final ArcFlags arcFlags) {
+        for (int arc = 0; arc < 3; ++arc) {
+            for (int region = 0; region < 70; ++region) {
+                assertEquals(expected.get(arc, region),
+                             arcFlags.get(arc, region));
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.coderodde.apij.graph.path.afs;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.afs.support.kdTreePartitioner;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This class tests that the arc-flag systems find shortest paths.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ArcFlagSystemTest {
+
+    private static final double EPSILON = 1e-9;
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSearch() {
+        final Random r = new Random(7L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 500, 0.01f, 100.0, 100.0, 20.0, r);
+
+        final ArcFlagSystem afs = 
+                new ArcFlagSystem(new kdTreePartitioner(50, data.third));
+
+        afs.preprocess(data.first, data.second);
+        
+        final ArcFlagSystem afsDedup = 
+                new ArcFlagSystem(new kdTreePartitioner(50, data.third));
+        
+        afsDedup.setDeduplicate(true);
+        afsDedup.preprocess(data.first, data.second);
+        
+        final ArcFlagSystem2 afs2 = 
+                new ArcFlagSystem2(new kdTreePartitioner(100, data.third), 
+                                   100,
+                                   20);
+        
+        afs2.setDeduplicate(true);
+        afs2.preprocess(data.first, data.second);
+
+        final List<DirectedGraphNode> nodes = 
+                new ArrayList<>(data.first.view());
+
+        for (int i = 0; i < 100; ++i) {
+            final DirectedGraphNode s = nodes.get(r.nextInt(nodes.size()));
+            final DirectedGraphNode t = nodes.get(r.nextInt(nodes.size()));
+
+            final Path<DirectedGraphNode> expected =
+                    new DijkstraFinder<DirectedGraphNode>()
+                    .search(from(s), to(t), withWeightFunction(data.second));
+            
+            check(expected, afs.search(s, t), data.second);
+            check(expected, afsDedup.search(s, t), data.second);
+            check(expected, afs2.search(s, t), data.second);
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearchRejectsOtherWeightFunction() {
+        final Random r = new Random(8L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 100, 0.02f, 100.0, 100.0, 30.0, r);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> other =
+                getRandomDirectedGraph("H", 100, 0.02f, 100.0, 100.0, 30.0, r);
+        final ArcFlagSystem afs = 
+                new ArcFlagSystem(new kdTreePartitioner(20, data.third));
+        
+        afs.preprocess(data.first, data.second);
+        
+        final DirectedGraphNode s = data.first.view().iterator().next();
+        
+        afs.search(s, s, other.second);
+    }
+    
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        final Random r = new Random(9L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 300, 0.01f, 100.0, 100.0, 20.0, r);
+        
+        for (final boolean deduplicate : new boolean[]{ false, true }) {
+            final File file = folder.newFile();
+            final ArcFlagSystem afs = 
+                    new ArcFlagSystem(new kdTreePartitioner(40, data.third));
+
+            afs.setDeduplicate(deduplicate);
+            afs.preprocess(data.first, data.second);
+            afs.save(file);
+
+            final ArcFlagSystem loaded = 
+                    new ArcFlagSystem(new kdTreePartitioner(40, data.third));
+
+            loaded.load(file, data.first, data.second);
+
+            final List<DirectedGraphNode> nodes = 
+                    new ArrayList<>(data.first.view());
+
+            for (int i = 0; i < 50; ++i) {
+                final DirectedGraphNode s = 
+                        nodes.get(r.nextInt(nodes.size()));
+                final DirectedGraphNode t = 
+                        nodes.get(r.nextInt(nodes.size()));
+
+                check(afs.search(s, t), loaded.search(s, t), data.second);
+            }
+        }
+    }
+    
+    @Test(expected = IOException.class)
+    public void testLoadRejectsOtherGraph() throws IOException {
+        final Random r = new Random(10L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 100, 0.02f, 100.0, 100.0, 30.0, r);
+        final File file = folder.newFile();
+        final ArcFlagSystem afs = 
+                new ArcFlagSystem(new kdTreePartitioner(20, data.third));
+        
+        afs.preprocess(data.first, data.second);
+        afs.save(file);
+        
+        final DirectedGraphNode u = data.first.view().iterator().next();
+        final DirectedGraphNode v = u.iterator().next();
+        
+        data.second.put(u, v, data.second.get(u, v) + 1.0);
+        afs.load(file, data.first, data.second);
+    }
+    
+    private static void check(final Path<DirectedGraphNode> expected,
+                              final Path<DirectedGraphNode> path,
+                              final WeightFunction<DirectedGraphNode> w) {
+        assertEquals(expected.exists(), path.exists());
+
+        if (expected.exists()) {
+            assertEquals(expected.getLength(w), path.getLength(w), EPSILON);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.coderodde.apij.graph.path.afs;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class ArcFlagsTest {
+
+    private static final int REGIONS = 70;
+    
+    @Test
+    public void testDeduplicate() {
+        final Random r = new Random(8L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 300, 0.01f, 100.0, 100.0, 20.0, r);
+        final CompactGraph<DirectedGraphNode> cg = 
+                new CompactGraph<>(data.first, data.second);
+        final int[] regions = new int[cg.size()];
+        
+        for (int i = 0; i < regions.length; ++i) {
+            regions[i] = r.nextInt(REGIONS);
+        }
+        
+        final ArcFlagPreprocessor preprocessor = 
+                new ArcFlagPreprocessor(cg, regions, REGIONS);
+        
+        assertEquals(2, preprocessor.words());
+        
+        preprocessor.setInnerFlags();
+        preprocessor.setBoundaryFlags(preprocessor.findBoundaryNodes());
+        
+        final ArcFlags flags = new ArcFlags(preprocessor, cg.arcs(), REGIONS);
+        final ArcFlags deduplicated = 
+                new ArcFlags(preprocessor, cg.arcs(), REGIONS);
+        
+        deduplicated.deduplicate();
+        
+        assertEquals(cg.arcs(), flags.rowCount());
+        assertTrue(deduplicated.rowCount() <= flags.rowCount());
+        
+        for (int arc = 0; arc < cg.arcs(); ++arc) {
+            for (int region = 0; region < REGIONS; ++region) {
+                final boolean expected = 
+                        (preprocessor.getWord(arc, region >>> 6) 
+                         & (1L << region)) != 0L;
+                
+                assertEquals(expected, flags.get(arc, region));
+                assertEquals(expected, deduplicated.get(arc, region));
+            }
+        }
+    }
+}
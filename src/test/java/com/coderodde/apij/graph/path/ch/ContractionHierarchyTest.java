@@ -0,0 +1,89 @@
+package com.coderodde.apij.graph.path.ch;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.model.support.UndirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import static com.coderodde.apij.util.Utils.getRandomUndirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests the contraction hierarchies against Dijkstra's algorithm.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class ContractionHierarchyTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testDirected() {
+        final Random r = new Random(3L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 600, 0.005f, 100.0, 100.0, 20.0, r);
+
+        check(data.first, data.second, r);
+    }
+
+    @Test
+    public void testUndirected() {
+        final Random r = new Random(4L);
+        final Triple<Graph<UndirectedGraphNode>,
+                     WeightFunction<UndirectedGraphNode>,
+                     Layout<UndirectedGraphNode>> data =
+                getRandomUndirectedGraph("G", 500, 0.008f, 1.2f, 
+                                         100.0, 100.0, 20.0, r);
+
+        check(data.first, data.second, r);
+    }
+
+    private static <T extends Node<T>> void check(final Graph<T> graph,
+                                                  final WeightFunction<T> wf,
+                                                  final Random r) {
+        final ContractionHierarchy<T> ch = 
+                new ContractionHierarchy<>(graph, wf);
+        final ContractionHierarchyFinder<T> finder =
+                new ContractionHierarchyFinder<>(ch);
+        final List<T> nodes = new ArrayList<>(graph.view());
+
+        for (int i = 0; i < 100; ++i) {
+            final T s = nodes.get(r.nextInt(nodes.size()));
+            final T t = nodes.get(r.nextInt(nodes.size()));
+
+            final Path<T> expected = new DijkstraFinder<T>()
+                    .search(from(s), to(t), withWeightFunction(wf));
+            final Path<T> path = finder.search(from(s), to(t));
+
+            assertEquals(expected.exists(), path.exists());
+
+            if (expected.exists()) {
+                assertEquals(s, path.get(0));
+                assertEquals(t, path.get(path.size() - 1));
+
+                for (int j = 0; j < path.size() - 1; ++j) {
+                    assertTrue(path.get(j).isConnectedTo(path.get(j + 1)));
+                }
+
+                assertEquals(expected.getLength(wf), 
+                             path.getLength(wf), 
+                             EPSILON);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.coderodde.apij.graph.path.ch;
+
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.model.support.UndirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.support.DijkstraFinder;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import static com.coderodde.apij.util.Utils.getRandomUndirectedGraph;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>DistanceTable</code> against Dijkstra's algorithm.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DistanceTableTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testDirected() {
+        final Random r = new Random(5L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 500, 0.005f, 100.0, 100.0, 20.0, r);
+
+        check(data.first, data.second, 1, r);
+        check(data.first, data.second, 3, r);
+    }
+
+    @Test
+    public void testUndirected() {
+        final Random r = new Random(6L);
+        final Triple<Graph<UndirectedGraphNode>,
+                     WeightFunction<UndirectedGraphNode>,
+                     Layout<UndirectedGraphNode>> data =
+                getRandomUndirectedGraph("G", 400, 0.008f, 1.2f,
+                                         100.0, 100.0, 20.0, r);
+
+        check(data.first, data.second, 4, r);
+    }
+
+    @Test
+    public void testEmpty() {
+        final Random r = new Random(7L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 50, 0.05f, 100.0, 100.0, 20.0, r);
+        final DistanceTable<DirectedGraphNode> table =
+                new DistanceTable<>(new ContractionHierarchy<>(data.first,
+                                                               data.second));
+        final List<DirectedGraphNode> nodes =
+                new ArrayList<>(data.first.view());
+
+        assertEquals(0, table.compute(nodes, Collections.
+                                      <DirectedGraphNode>emptyList()).length);
+        assertEquals(0, table.compute(Collections.
+                                      <DirectedGraphNode>emptyList(),
+                                      nodes).length);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testForeignNode() {
+        final Random r = new Random(8L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 50, 0.05f, 100.0, 100.0, 20.0, r);
+        final DistanceTable<DirectedGraphNode> table =
+                new DistanceTable<>(new ContractionHierarchy<>(data.first,
+                                                               data.second));
+        final List<DirectedGraphNode> nodes =
+                new ArrayList<>(data.first.view());
+
+        table.compute(nodes,
+                      Collections.singletonList(new DirectedGraphNode("X")));
+    }
+
+    private static <T extends Node<T>> void check(final Graph<T> graph,
+                                                  final WeightFunction<T> wf,
+                                                  final int parallelism,
+                                                  final Random r) {
+        final DistanceTable<T> table =
+                new DistanceTable<>(new ContractionHierarchy<>(graph, wf),
+                                    parallelism);
+        final List<T> nodes = new ArrayList<>(graph.view());
+        final List<T> sources = new ArrayList<>();
+        final List<T> targets = new ArrayList<>();
+
+        for (int i = 0; i < 30; ++i) {
+            sources.add(nodes.get(r.nextInt(nodes.size())));
+        }
+
+        for (int i = 0; i < 25; ++i) {
+            targets.add(nodes.get(r.nextInt(nodes.size())));
+        }
+
+        // A duplicate row and column.
+        sources.add(sources.get(0));
+        targets.add(targets.get(0));
+
+        final double[] distances = table.compute(sources, targets);
+        final int M = targets.size();
+
+        assertEquals(sources.size() * M, distances.length);
+
+        for (int i = 0; i < sources.size(); ++i) {
+            for (int j = 0; j < M; ++j) {
+                final Path<T> path = new DijkstraFinder<T>()
+                        .search(from(sources.get(i)),
+                                to(targets.get(j)),
+                                withWeightFunction(wf));
+
+                if (path.exists()) {
+                    assertEquals(path.getLength(wf),
+                                 distances[i * M + j],
+                                 EPSILON);
+                } else {
+                    assertEquals(Double.POSITIVE_INFINITY,
+                                 distances[i * M + j],
+                                 0.0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.coderodde.apij.graph.path.support;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.Node;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.model.support.UndirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withCompactGraph;
+import static com.coderodde.apij.graph.path.PathFinder.withDistanceBound;
+import static com.coderodde.apij.graph.path.PathFinder.withNodeBound;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.ShortestPathTree;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import static com.coderodde.apij.util.Utils.getRandomUndirectedGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>DeltaSteppingFinder</code> against Dijkstra's
+ * algorithm.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DeltaSteppingFinderTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testDirected() {
+        final Random r = new Random(12L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 500, 0.01f, 100.0, 100.0, 20.0, r);
+
+        check(data.first, data.second, r);
+    }
+
+    @Test
+    public void testUndirected() {
+        final Random r = new Random(13L);
+        final Triple<Graph<UndirectedGraphNode>,
+                     WeightFunction<UndirectedGraphNode>,
+                     Layout<UndirectedGraphNode>> data =
+                getRandomUndirectedGraph("G", 400, 0.008f, 1.2f,
+                                         100.0, 100.0, 20.0, r);
+
+        check(data.first, data.second, r);
+    }
+
+    @Test
+    public void testBounds() {
+        final Random r = new Random(14L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 300, 0.02f, 100.0, 100.0, 20.0, r);
+        final CompactGraph<DirectedGraphNode> compact =
+                new CompactGraph<>(data.first, data.second);
+        final DeltaSteppingFinder<DirectedGraphNode> finder =
+                new DeltaSteppingFinder<>(compact, 5.0, 2, 1);
+        final DijkstraFinder<DirectedGraphNode> dijkstra =
+                new DijkstraFinder<>();
+        final DirectedGraphNode source = data.first.getNode(0);
+        final ShortestPathTree full =
+                dijkstra.searchTree(from(source),
+                                    withWeightFunction(data.second));
+        final double bound = full.getDistance(full.size() / 3);
+
+        final ShortestPathTree expected =
+                dijkstra.searchTree(from(source),
+                                    withWeightFunction(data.second),
+                                    withDistanceBound(bound));
+        final ShortestPathTree tree =
+                finder.searchTree(from(source), withDistanceBound(bound));
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected.isComplete(), tree.isComplete());
+
+        for (int i = 0; i < tree.size(); ++i) {
+            assertEquals(expected.getDistance(i), tree.getDistance(i), 0.0);
+        }
+
+        final ShortestPathTree first =
+                finder.searchTree(from(source), withNodeBound(20));
+
+        assertEquals(Math.min(20, full.size()), first.size());
+        assertEquals(full.size() <= 20, first.isComplete());
+
+        for (int i = 0; i < first.size(); ++i) {
+            assertEquals(full.getDistance(i), first.getDistance(i), 0.0);
+        }
+
+        // The bounded searches left entries in the buckets; the finder
+        // must forget them.
+        final ShortestPathTree again =
+                finder.searchTree(from(data.first.getNode(1)));
+        final ShortestPathTree expectedAgain =
+                dijkstra.searchTree(from(data.first.getNode(1)),
+                                    withWeightFunction(data.second));
+
+        assertTrue(again.isComplete());
+        assertEquals(expectedAgain.size(), again.size());
+
+        for (int i = 0; i < again.size(); ++i) {
+            assertEquals(expectedAgain.getDistance(i),
+                         again.getDistance(i),
+                         0.0);
+        }
+    }
+
+    @Test
+    public void testSearchData() {
+        final Random r = new Random(16L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 50, 0.1f, 100.0, 100.0, 20.0, r);
+        final CompactGraph<DirectedGraphNode> compact =
+                new CompactGraph<>(data.first, data.second);
+        final DeltaSteppingFinder<DirectedGraphNode> finder =
+                new DeltaSteppingFinder<>(compact);
+        final DirectedGraphNode source = data.first.getNode(0);
+
+        assertEquals(new DijkstraFinder<DirectedGraphNode>()
+                     .searchTree(from(source),
+                                 withWeightFunction(data.second)).size(),
+                     finder.searchTree(from(source),
+                                       withCompactGraph(compact)).size());
+
+        try {
+            finder.searchTree(from(source), withWeightFunction(data.second));
+            fail("A weight function was accepted.");
+        } catch (final IllegalArgumentException ex) {
+        }
+
+        try {
+            finder.search(from(source),
+                          to(source),
+                          withCompactGraph(
+                                  new CompactGraph<>(data.first,
+                                                     data.second)));
+            fail("Another compact graph was accepted.");
+        } catch (final IllegalArgumentException ex) {
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveDelta() {
+        final Random r = new Random(15L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 10, 0.2f, 100.0, 100.0, 20.0, r);
+
+        new DeltaSteppingFinder<>(new CompactGraph<>(data.first, data.second),
+                                  0.0);
+    }
+
+    private static <T extends Node<T>> void check(final Graph<T> graph,
+                                                  final WeightFunction<T> wf,
+                                                  final Random r) {
+        final CompactGraph<T> compact = new CompactGraph<>(graph, wf);
+        final double defaultDelta =
+                DeltaSteppingFinder.getDefaultDelta(compact);
+        final List<DeltaSteppingFinder<T>> finders = new ArrayList<>();
+
+        finders.add(new DeltaSteppingFinder<>(compact));
+        finders.add(new DeltaSteppingFinder<>(compact, defaultDelta, 1));
+        finders.add(new DeltaSteppingFinder<>(compact, 0.5, 3, 1));
+        finders.add(new DeltaSteppingFinder<>(compact, defaultDelta, 3, 1));
+        finders.add(new DeltaSteppingFinder<>(compact, 1000.0, 4, 1));
+
+        final DijkstraFinder<T> dijkstra = new DijkstraFinder<>();
+        final List<T> nodes = new ArrayList<>(graph.view());
+
+        for (int i = 0; i < 4; ++i) {
+            final T source = nodes.get(r.nextInt(nodes.size()));
+            final double[] expected =
+                    distances(dijkstra.searchTree(from(source),
+                                                  withWeightFunction(wf)),
+                              compact.size());
+
+            for (final DeltaSteppingFinder<T> finder : finders) {
+                final ShortestPathTree tree =
+                        finder.searchTree(from(source));
+
+                assertTrue(tree.isComplete());
+                assertArrayEquals(expected,
+                                  distances(tree, compact.size()),
+                                  0.0);
+
+                for (int j = 1; j < tree.size(); ++j) {
+                    assertTrue(tree.getDistance(j - 1)
+                               <= tree.getDistance(j));
+
+                    final T parent = compact.getNode(tree.getParent(j));
+                    final T node = compact.getNode(tree.getNode(j));
+
+                    assertEquals(expected[tree.getParent(j)]
+                                 + wf.get(parent, node),
+                                 tree.getDistance(j),
+                                 0.0);
+                }
+
+                final T target = nodes.get(r.nextInt(nodes.size()));
+                final Path<T> path = finder.search(from(source), to(target));
+
+                assertEquals(expected[compact.getId(target)]
+                             < Double.POSITIVE_INFINITY,
+                             path.exists());
+
+                if (path.exists()) {
+                    assertEquals(source, path.get(0));
+                    assertEquals(target, path.get(path.size() - 1));
+                    assertEquals(expected[compact.getId(target)],
+                                 path.getLength(wf),
+                                 EPSILON);
+                }
+            }
+        }
+    }
+
+    private static double[] distances(final ShortestPathTree tree,
+                                      final int N) {
+        final double[] distances = new double[N];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+        for (int i = 0; i < tree.size(); ++i) {
+            distances[tree.getNode(i)] = tree.getDistance(i);
+        }
+
+        return distances;
+    }
+}
@@ -0,0 +1,202 @@
+package com.coderodde.apij.graph.path.support;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder.withCompactGraph;
+import static com.coderodde.apij.graph.path.PathFinder.withDistanceBound;
+import static com.coderodde.apij.graph.path.PathFinder.withNodeBound;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.graph.path.SearchState;
+import com.coderodde.apij.graph.path.ShortestPathTree;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class tests the one-to-all search of <code>DijkstraFinder</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class DijkstraFinderTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private Graph<DirectedGraphNode> graph;
+    private WeightFunction<DirectedGraphNode> wf;
+    private List<DirectedGraphNode> nodes;
+    private Random r;
+
+    @Before
+    public void before() {
+        r = new Random(11L);
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 400, 0.01f, 100.0, 100.0, 20.0, r);
+
+        graph = data.first;
+        wf = data.second;
+        nodes = new ArrayList<>(graph.view());
+    }
+
+    @Test
+    public void testTreeMatchesPointToPoint() {
+        final DijkstraFinder<DirectedGraphNode> finder =
+                new DijkstraFinder<>();
+
+        for (int i = 0; i < 5; ++i) {
+            final DirectedGraphNode source = nodes.get(r.nextInt(nodes.size()));
+            final ShortestPathTree tree =
+                    finder.searchTree(from(source), withWeightFunction(wf));
+
+            assertTrue(tree.isComplete());
+            assertEquals(source.getId(), tree.getNode(0));
+            assertEquals(0.0, tree.getDistance(0), 0.0);
+            assertEquals(SearchState.NO_PARENT, tree.getParent(0));
+
+            final double[] distances = new double[graph.getIdBound()];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+            for (int j = 0; j < tree.size(); ++j) {
+                distances[tree.getNode(j)] = tree.getDistance(j);
+
+                if (j > 0) {
+                    assertTrue(tree.getDistance(j - 1)
+                               <= tree.getDistance(j));
+
+                    final DirectedGraphNode parent =
+                            graph.getNode(tree.getParent(j));
+                    final DirectedGraphNode node =
+                            graph.getNode(tree.getNode(j));
+
+                    assertEquals(distances[parent.getId()]
+                                 + wf.get(parent, node),
+                                 tree.getDistance(j),
+                                 EPSILON);
+                }
+            }
+
+            for (final DirectedGraphNode target : nodes) {
+                final Path<DirectedGraphNode> path =
+                        new DijkstraFinder<DirectedGraphNode>()
+                        .search(from(source), to(target),
+                                withWeightFunction(wf));
+
+                if (path.exists()) {
+                    assertEquals(path.getLength(wf),
+                                 distances[target.getId()],
+                                 EPSILON);
+                } else {
+                    assertEquals(Double.POSITIVE_INFINITY,
+                                 distances[target.getId()],
+                                 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCompactTree() {
+        final CompactGraph<DirectedGraphNode> compact =
+                new CompactGraph<>(graph, wf);
+        final DijkstraFinder<DirectedGraphNode> finder =
+                new DijkstraFinder<>();
+        final DirectedGraphNode source = nodes.get(r.nextInt(nodes.size()));
+        final ShortestPathTree expected =
+                finder.searchTree(from(source), withWeightFunction(wf));
+        final ShortestPathTree tree =
+                finder.searchTree(from(source), withCompactGraph(compact));
+
+        assertEquals(expected.size(), tree.size());
+
+        for (int i = 0; i < tree.size(); ++i) {
+            assertEquals(expected.getDistance(i), tree.getDistance(i), 0.0);
+        }
+    }
+
+    @Test
+    public void testDistanceBound() {
+        final DijkstraFinder<DirectedGraphNode> finder =
+                new DijkstraFinder<>();
+        final DirectedGraphNode source = nodes.get(0);
+        final ShortestPathTree full =
+                finder.searchTree(from(source), withWeightFunction(wf));
+        final double bound = full.getDistance(full.size() / 2);
+        final ShortestPathTree tree =
+                finder.searchTree(from(source),
+                                  withWeightFunction(wf),
+                                  withDistanceBound(bound));
+
+        int expectedSize = 0;
+
+        for (int i = 0; i < full.size(); ++i) {
+            if (full.getDistance(i) <= bound) {
+                ++expectedSize;
+            }
+        }
+
+        assertEquals(expectedSize, tree.size());
+        assertEquals(expectedSize == full.size(), tree.isComplete());
+
+        for (int i = 0; i < tree.size(); ++i) {
+            assertTrue(tree.getDistance(i) <= bound);
+        }
+    }
+
+    @Test
+    public void testNodeBound() {
+        final DijkstraFinder<DirectedGraphNode> finder =
+                new DijkstraFinder<>();
+        final DirectedGraphNode source = nodes.get(1);
+        final ShortestPathTree full =
+                finder.searchTree(from(source), withWeightFunction(wf));
+        final ShortestPathTree tree =
+                finder.searchTree(from(source),
+                                  withWeightFunction(wf),
+                                  withNodeBound(10));
+
+        assertEquals(Math.min(10, full.size()), tree.size());
+        assertEquals(full.size() <= 10, tree.isComplete());
+
+        for (int i = 0; i < tree.size(); ++i) {
+            assertEquals(full.getDistance(i), tree.getDistance(i), 0.0);
+        }
+
+        final ShortestPathTree all =
+                finder.searchTree(from(source),
+                                  withWeightFunction(wf),
+                                  withNodeBound(full.size()));
+
+        assertEquals(full.size(), all.size());
+        assertTrue(all.isComplete());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDistanceBound() {
+        new DijkstraFinder<DirectedGraphNode>()
+                .searchTree(from(nodes.get(0)),
+                            withWeightFunction(wf),
+                            withDistanceBound(-1.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroNodeBound() {
+        new DijkstraFinder<DirectedGraphNode>()
+                .searchTree(from(nodes.get(0)),
+                            withWeightFunction(wf),
+                            withNodeBound(0));
+    }
+}
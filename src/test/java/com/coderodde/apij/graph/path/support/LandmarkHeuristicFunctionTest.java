@@ -0,0 +1,100 @@
+package com.coderodde.apij.graph.path.support;
+
+import com.coderodde.apij.graph.model.CompactGraph;
+import com.coderodde.apij.graph.model.Graph;
+import com.coderodde.apij.graph.model.WeightFunction;
+import com.coderodde.apij.graph.model.support.DirectedGraphNode;
+import com.coderodde.apij.graph.path.Layout;
+import com.coderodde.apij.graph.path.Path;
+import com.coderodde.apij.graph.path.PathFinder;
+import static com.coderodde.apij.graph.path.PathFinder.from;
+import static com.coderodde.apij.graph.path.PathFinder.to;
+import static com.coderodde.apij.graph.path.PathFinder
+              .withBackwardHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withHeuristicFunction;
+import static com.coderodde.apij.graph.path.PathFinder.withWeightFunction;
+import com.coderodde.apij.util.Utils.Triple;
+import static com.coderodde.apij.util.Utils.getRandomDirectedGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests <code>LandmarkHeuristicFunction</code>.
+ *
+ * @author Rodion Efremov
+ * @version 1.6
+ */
+public class LandmarkHeuristicFunctionTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    public void testFarthest() {
+        check(LandmarkSelection.FARTHEST, new Random(5L));
+    }
+
+    @Test
+    public void testAvoid() {
+        check(LandmarkSelection.AVOID, new Random(6L));
+    }
+
+    private static void check(final LandmarkSelection selection,
+                              final Random r) {
+        final Triple<Graph<DirectedGraphNode>,
+                     WeightFunction<DirectedGraphNode>,
+                     Layout<DirectedGraphNode>> data =
+                getRandomDirectedGraph("G", 400, 0.01f, 100.0, 100.0, 20.0, r);
+
+        final LandmarkHeuristicFunction<DirectedGraphNode> hf =
+                new LandmarkHeuristicFunction<>(
+                        new CompactGraph<>(data.first, data.second),
+                        8,
+                        selection,
+                        3,
+                        r);
+
+        assertEquals(8, hf.getLandmarkCount());
+
+        final List<DirectedGraphNode> nodes = 
+                new ArrayList<>(data.first.view());
+        final List<PathFinder<DirectedGraphNode>> finders = new ArrayList<>();
+
+        finders.add(new AStarFinder<DirectedGraphNode>());
+        finders.add(new BidirectionalAStarFinder<DirectedGraphNode>());
+
+        for (int i = 0; i < 50; ++i) {
+            final DirectedGraphNode s = nodes.get(r.nextInt(nodes.size()));
+            final DirectedGraphNode t = nodes.get(r.nextInt(nodes.size()));
+
+            final Path<DirectedGraphNode> expected =
+                    new DijkstraFinder<DirectedGraphNode>()
+                    .search(from(s), to(t), withWeightFunction(data.second));
+
+            if (expected.exists()) {
+                assertTrue(hf.estimate(s, t) 
+                           <= expected.getLength(data.second));
+            }
+
+            for (final PathFinder<DirectedGraphNode> finder : finders) {
+                final Path<DirectedGraphNode> path =
+                        finder.search(from(s),
+                                      to(t),
+                                      withWeightFunction(data.second),
+                                      withHeuristicFunction(hf),
+                                      withBackwardHeuristicFunction(
+                                              hf.reverse()));
+
+                assertEquals(expected.exists(), path.exists());
+
+                if (expected.exists()) {
+                    assertEquals(expected.getLength(data.second),
+                                 path.getLength(data.second),
+                                 EPSILON);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.coderodde.apij.sort;
+
+import com.coderodde.apij.sort.ExternalSort.KeyFunction;
+import com.coderodde.apij.sort.ExternalSort.RecordCodec;
+import com.coderodde.apij.sort.ExternalSort.SortedIterator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * This class tests ExternalSort.
+ */
+public class ExternalSortTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private final Random r = new Random(23L);
+    
+    private static final class Record {
+        final long key;
+        final int id;
+        
+        Record(final long key, final int id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+    
+    private static final RecordCodec<Record> CODEC = 
+            new RecordCodec<Record>() {
+        @Override
+        public int getRecordSize() {
+            return 12;
+        }
+
+        @Override
+        public void write(final Record record, final ByteBuffer buffer) {
+            buffer.putLong(record.key);
+            buffer.putInt(record.id);
+        }
+
+        @Override
+        public Record read(final ByteBuffer buffer) {
+            final long key = buffer.getLong();
+            return new Record(key, buffer.getInt());
+        }
+    };
+    
+    private static final KeyFunction<Record> KEY = new KeyFunction<Record>() {
+        @Override
+        public long getKey(final Record record) {
+            return record.key;
+        }
+    };
+    
+    private static final Comparator<Record> CMP = new Comparator<Record>() {
+        @Override
+        public int compare(final Record r1, final Record r2) {
+            return Long.compare(r1.key, r2.key);
+        }
+    };
+    
+    @Test
+    public void testKeyedMultiPassMerge() throws IOException {
+        final ExternalSort<Record> sort = new ExternalSort<>(CODEC, KEY);
+        final List<Record> input = getRecords(10000, 1000L);
+        configure(sort, 100, 4, 100);
+        
+        check(input, sort.sort(input.iterator()));
+        assertEquals(100, sort.getRunCount());
+        // 100 runs -> 25 -> 7 -> 2, which the iterator merges.
+        assertEquals(3, sort.getMergePassCount());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+    
+    @Test
+    public void testComparatorMultiPassMerge() throws IOException {
+        final ExternalSort<Record> sort = new ExternalSort<>(CODEC, CMP);
+        final List<Record> input = getRecords(5003, 300L);
+        configure(sort, 50, 3, 1);
+        
+        check(input, sort.sort(input.iterator()));
+        assertEquals(101, sort.getRunCount());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+    
+    @Test
+    public void testSingleMergePass() throws IOException {
+        final ExternalSort<Record> sort = new ExternalSort<>(CODEC, KEY);
+        final List<Record> input = getRecords(3000, Long.MAX_VALUE);
+        configure(sort, 1000, 8, 1 << 12);
+        
+        check(input, sort.sort(input.iterator()));
+        assertEquals(3, sort.getRunCount());
+        assertEquals(0, sort.getMergePassCount());
+    }
+    
+    @Test
+    public void testFitsInMemory() throws IOException {
+        final ExternalSort<Record> sort = new ExternalSort<>(CODEC, KEY);
+        final List<Record> input = getRecords(500, 10L);
+        configure(sort, 500, 2, 64);
+        
+        final SortedIterator<Record> iterator = sort.sort(input.iterator());
+        assertEquals(0, folder.getRoot().list().length);
+        check(input, iterator);
+        assertEquals(1, sort.getRunCount());
+    }
+    
+    @Test
+    public void testEmptyInput() throws IOException {
+        final ExternalSort<Record> sort = new ExternalSort<>(CODEC, CMP);
+        final List<Record> input = Collections.emptyList();
+        assertFalse(sort.sort(input.iterator()).hasNext());
+        assertEquals(0, sort.getRunCount());
+    }
+    
+    @Test
+    public void testCloseDeletesRuns() throws IOException {
+        final ExternalSort<Record> sort = new ExternalSort<>(CODEC, KEY);
+        final List<Record> input = getRecords(1000, 100L);
+        configure(sort, 100, 16, 256);
+        
+        final SortedIterator<Record> iterator = sort.sort(input.iterator());
+        assertEquals(10, folder.getRoot().list().length);
+        iterator.next();
+        iterator.close();
+        assertEquals(0, folder.getRoot().list().length);
+    }
+    
+    @Test
+    public void testFailedMergePassDeletesRuns() throws IOException {
+        final FailingCodec codec = new FailingCodec();
+        final ExternalSort<Record> sort = new ExternalSort<>(codec, KEY);
+        final List<Record> input = getRecords(1000, 100L);
+        configure(sort, 100, 2, 256);
+        
+        // Fails in the third merge of the first pass, after two merged runs
+        // are written.
+        codec.writesLeft = 1000 + 2 * 200 + 50;
+        
+        try {
+            sort.sort(input.iterator());
+            fail("The sort did not fail.");
+        } catch (final IllegalStateException ex) {
+        }
+        
+        assertEquals(0, folder.getRoot().list().length);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnBadFanIn() {
+        new ExternalSort<>(CODEC, KEY).setFanIn(1);
+    }
+    
+    /**
+     * A codec failing after a given amount of writes.
+     */
+    private static final class FailingCodec implements RecordCodec<Record> {
+        
+        int writesLeft;
+        
+        @Override
+        public int getRecordSize() {
+            return CODEC.getRecordSize();
+        }
+
+        @Override
+        public void write(final Record record, final ByteBuffer buffer) {
+            if (writesLeft-- == 0) {
+                throw new IllegalStateException("Write failed.");
+            }
+            
+            CODEC.write(record, buffer);
+        }
+
+        @Override
+        public Record read(final ByteBuffer buffer) {
+            return CODEC.read(buffer);
+        }
+    }
+    
+    private void configure(final ExternalSort<Record> sort,
+                           final int runSize,
+                           final int fanIn,
+                           final int bufferSize) {
+        sort.setRunSize(runSize);
+        sort.setFanIn(fanIn);
+        sort.setBufferSize(bufferSize);
+        sort.setDirectory(folder.getRoot());
+    }
+    
+    private void check(final List<Record> input, 
+                       final SortedIterator<Record> iterator) {
+        final Record[] expected = input.toArray(new Record[input.size()]);
+        
+        // Arrays.sort is stable, so the ids of equal keys must match too.
+        Arrays.sort(expected, CMP);
+        
+        for (final Record record : expected) {
+            assertTrue(iterator.hasNext());
+            final Record actual = iterator.next();
+            assertEquals(record.key, actual.key);
+            assertEquals(record.id, actual.id);
+        }
+        
+        assertFalse(iterator.hasNext());
+    }
+    
+    private List<Record> getRecords(final int size, final long bound) {
+        final List<Record> list = new ArrayList<>(size);
+        
+        for (int i = 0; i < size; ++i) {
+            list.add(new Record(r.nextLong() % bound, i));
+        }
+        
+        return list;
+    }
+}
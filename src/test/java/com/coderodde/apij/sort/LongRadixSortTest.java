@@ -0,0 +1,141 @@
+package com.coderodde.apij.sort;
+
+import com.coderodde.apij.sort.ParallelRadixSort.Strategy;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests the primitive overloads of ParallelRadixSort.
+ */
+public class LongRadixSortTest {
+    
+    private final Random r = new Random(17L);
+    
+    @Test
+    public void testSignedKeys() {
+        for (final Strategy strategy : Strategy.values()) {
+            for (final int size : new int[]{ 0, 1, 2, 63, 64, 1000, 300000 }) {
+                final long[] array = getArray(size, Long.MAX_VALUE);
+                final long[] expected = array.clone();
+                Arrays.sort(expected);
+                ParallelRadixSort.sort(array, strategy, true);
+                assertArrayEquals(expected, array);
+            }
+        }
+    }
+    
+    @Test
+    public void testUnsignedKeys() {
+        for (final Strategy strategy : Strategy.values()) {
+            for (final int size : new int[]{ 100, 5000, 300000 }) {
+                final long[] array = getArray(size, Long.MAX_VALUE);
+                final long[] expected = array.clone();
+                
+                // Sorting the keys with flipped sign bits by signed order 
+                // gives the unsigned order.
+                flipSignBits(expected);
+                Arrays.sort(expected);
+                flipSignBits(expected);
+                
+                ParallelRadixSort.sort(array, strategy, false);
+                assertArrayEquals(expected, array);
+            }
+        }
+    }
+    
+    @Test
+    public void testNarrowKeys() {
+        for (final Strategy strategy : Strategy.values()) {
+            for (final long bound : new long[]{ 1L, 3L, 1000L, 1L << 20 }) {
+                final long[] array = getArray(200000, bound);
+                final long[] expected = array.clone();
+                Arrays.sort(expected);
+                ParallelRadixSort.sort(array, strategy, true);
+                assertArrayEquals(expected, array);
+            }
+        }
+    }
+    
+    @Test
+    public void testDefaultIsSigned() {
+        final long[] array = { 3L, -1L, Long.MIN_VALUE, 0L, Long.MAX_VALUE };
+        ParallelRadixSort.sort(array);
+        assertArrayEquals(
+                new long[]{ Long.MIN_VALUE, -1L, 0L, 3L, Long.MAX_VALUE },
+                array);
+    }
+    
+    @Test
+    public void testPayloadIndexIsStable() {
+        for (final Strategy strategy : Strategy.values()) {
+            for (final int size : new int[]{ 50, 3000, 300000 }) {
+                for (final boolean signed : new boolean[]{ true, false }) {
+                    checkPayload(getArray(size, 5000L), strategy, signed);
+                    checkPayload(getArray(size, Long.MAX_VALUE),
+                                 strategy,
+                                 signed);
+                }
+            }
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnLengthMismatch() {
+        ParallelRadixSort.sort(new long[3], new int[2]);
+    }
+    
+    @Test(expected = NullPointerException.class)
+    public void testThrowsOnNullStrategy() {
+        ParallelRadixSort.sort(new long[3], null, true);
+    }
+    
+    private void checkPayload(final long[] keys, 
+                              final Strategy strategy, 
+                              final boolean signed) {
+        final long[] original = keys.clone();
+        final int[] payloadIndex = new int[keys.length];
+        
+        for (int i = 0; i < payloadIndex.length; ++i) {
+            payloadIndex[i] = i;
+        }
+        
+        ParallelRadixSort.sort(keys, payloadIndex, strategy, signed);
+        
+        final boolean[] seen = new boolean[keys.length];
+        
+        for (int i = 0; i < keys.length; ++i) {
+            assertEquals(original[payloadIndex[i]], keys[i]);
+            assertFalse(seen[payloadIndex[i]]);
+            seen[payloadIndex[i]] = true;
+            
+            if (i > 0) {
+                final long flip = signed ? 0L : Long.MIN_VALUE;
+                final long previous = keys[i - 1] ^ flip;
+                final long current = keys[i] ^ flip;
+                assertTrue(previous <= current);
+                
+                if (previous == current) {
+                    assertTrue(payloadIndex[i - 1] < payloadIndex[i]);
+                }
+            }
+        }
+    }
+    
+    private long[] getArray(final int size, final long bound) {
+        final long[] array = new long[size];
+        
+        for (int i = 0; i < size; ++i) {
+            array[i] = r.nextLong() % bound;
+        }
+        
+        return array;
+    }
+    
+    private static void flipSignBits(final long[] array) {
+        for (int i = 0; i < array.length; ++i) {
+            array[i] ^= Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.coderodde.apij.sort;
+
+import com.coderodde.apij.sort.ParallelRadixSort.Entry;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests ParallelRadixSort.
+ */
+public class ParallelRadixSortTest {
+    
+    private final Random r = new Random(13L);
+    
+    /**
+     * Compares the keys as unsigned integers. Since 
+     * <code>Arrays.sort</code> is stable, sorting by this comparator gives
+     * the only correct output of a stable radix sort.
+     */
+    private final Comparator<Entry> cmp = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry e1, final Entry e2) {
+            final long k1 = e1.key ^ Long.MIN_VALUE;
+            final long k2 = e2.key ^ Long.MIN_VALUE;
+            return k1 < k2 ? -1 : (k1 > k2 ? 1 : 0);
+        }
+    };
+    
+    @Test
+    public void testEmptyAndSingleton() {
+        ParallelRadixSort.sort(new Entry[0]);
+        
+        final Entry[] array = { new Entry(3L, null) };
+        ParallelRadixSort.sort(array);
+        assertEquals(3L, array[0].key);
+    }
+    
+    @Test
+    public void testSmallArrays() {
+        for (int size = 2; size < 2000; size += 37) {
+            check(getArray(size, Long.MAX_VALUE));
+            check(getArray(size, 10L));
+        }
+    }
+    
+    @Test
+    public void testLargeArrayWithFullKeys() {
+        check(getArray(300000, Long.MAX_VALUE));
+    }
+    
+    @Test
+    public void testLargeArrayWithSharedHighBytes() {
+        // All the keys share seven bytes, so every byte but the last one 
+        // makes a single bucket of the whole array.
+        check(getArray(300000, 100L));
+    }
+    
+    @Test
+    public void testLargeArrayWithSkewedKeys() {
+        final Entry[] array = getArray(300000, 1L << 40);
+        
+        for (int i = 0; i < array.length; i += 3) {
+            array[i] = new Entry(i % 1000, new Object());
+        }
+        
+        check(array);
+    }
+    
+    @Test
+    public void testNegativeKeysSortAfterNonNegative() {
+        final Entry[] array = new Entry[200000];
+        
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = new Entry(r.nextLong(), new Object());
+        }
+        
+        check(array);
+        
+        int firstNegative = 0;
+        
+        while (array[firstNegative].key >= 0L) {
+            ++firstNegative;
+        }
+        
+        for (int i = firstNegative; i < array.length; ++i) {
+            assertTrue(array[i].key < 0L);
+        }
+    }
+    
+    @Test
+    public void testSmallArraysWithNegativeKeys() {
+        // Both below and above the merge sort threshold of the leaves.
+        for (final int size : new int[]{ 2, 7, 100, 256, 257, 300, 5000 }) {
+            final Entry[] array = new Entry[size];
+            
+            for (int i = 0; i < size; ++i) {
+                array[i] = new Entry(r.nextLong() % 1000L, new Object());
+            }
+            
+            check(array);
+        }
+        
+        final Entry[] array = { new Entry(-1L, null), new Entry(5L, null) };
+        ParallelRadixSort.sort(array);
+        assertEquals(5L, array[0].key);
+        assertEquals(-1L, array[1].key);
+    }
+    
+    private void check(final Entry[] array) {
+        final Entry[] expected = array.clone();
+        Arrays.sort(expected, cmp);
+        ParallelRadixSort.sort(array);
+        
+        for (int i = 0; i < array.length; ++i) {
+            assertSame(expected[i], array[i]);
+        }
+    }
+    
+    private Entry[] getArray(final int size, final long bound) {
+        final Entry[] array = new Entry[size];
+        
+        for (int i = 0; i < size; ++i) {
+            array[i] = new Entry((r.nextLong() >>> 1) % bound, new Object());
+        }
+        
+        return array;
+    }
+}
@@ -0,0 +1,101 @@
+package com.coderodde.apij.sort.support;
+
+import static com.coderodde.apij.util.Utils.arraysSameByRef;
+import static com.coderodde.apij.util.Utils.getRandomIntegerArray;
+import static com.coderodde.apij.util.Utils.isSorted;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * This class tests ParallelMergesort.
+ */
+public class ParallelMergesortTest {
+    
+    private final Random r = new Random(19L);
+    private final Comparator<Integer> cmp = new Comparator<Integer>() {
+        @Override
+        public int compare(final Integer i1, final Integer i2) {
+            return Integer.compare(i1, i2);
+        }
+    };
+    
+    /**
+     * Compares by the tens only, so that the elements equal by this 
+     * comparator are distinguishable.
+     */
+    private final Comparator<Integer> coarseCmp = new Comparator<Integer>() {
+        @Override
+        public int compare(final Integer i1, final Integer i2) {
+            return Integer.compare(i1 / 10, i2 / 10);
+        }
+    };
+    
+    @Test
+    public void testSmallArrays() {
+        final ParallelMergesort sort = new ParallelMergesort(4);
+        
+        for (int size = 0; size < 300; ++size) {
+            final Integer[] array = getRandomIntegerArray(size, -50, 50, r);
+            final Integer[] array2 = array.clone();
+            sort.sort(array, cmp);
+            Arrays.sort(array2, cmp);
+            assertTrue(arraysSameByRef(array, array2));
+        }
+    }
+    
+    @Test
+    public void testLargeArrays() {
+        for (final int parallelism : new int[]{ 1, 2, 3, 4, 7 }) {
+            final ParallelMergesort sort = new ParallelMergesort(parallelism);
+            final Integer[] array = 
+                    getRandomIntegerArray(100000 + parallelism, 
+                                          -1000000, 
+                                          1000000, 
+                                          r);
+            final Integer[] array2 = array.clone();
+            sort.sort(array, cmp);
+            Arrays.sort(array2, cmp);
+            assertTrue(isSorted(array));
+            assertTrue(arraysSameByRef(array, array2));
+        }
+    }
+    
+    @Test
+    public void testStable() {
+        for (final int parallelism : new int[]{ 1, 4, 5 }) {
+            final ParallelMergesort sort = new ParallelMergesort(parallelism);
+            final Integer[] array = 
+                    getRandomIntegerArray(60000, 0, 2000, r);
+            final Integer[] array2 = array.clone();
+            sort.sort(array, coarseCmp);
+            Arrays.sort(array2, coarseCmp);
+            assertTrue(arraysSameByRef(array, array2));
+        }
+    }
+    
+    @Test
+    public void testSortsOnlyRange() {
+        final ParallelMergesort sort = new ParallelMergesort(4);
+        
+        for (final int size : new int[]{ 40, 50000 }) {
+            final Integer[] array = 
+                    getRandomIntegerArray(size, -100000, 100000, r);
+            final Integer[] array2 = array.clone();
+            final int from = size / 10;
+            final int to = size - size / 7;
+            
+            sort.sort(array, cmp, from, to);
+            Arrays.sort(array2, from, to + 1, cmp);
+            assertTrue(isSorted(array, from, to));
+            assertTrue(arraysSameByRef(array, array2));
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrowsOnBadParallelism() {
+        new ParallelMergesort(0);
+    }
+}